@@ -104,6 +104,8 @@ public interface OBinaryRequestExecutor {
 
   OBinaryResponse executeServerQuery(OServerQueryRequest request);
 
+  OBinaryResponse executePrepareQuery(OPrepareQueryRequest request);
+
   OBinaryResponse closeQuery(OCloseQueryRequest request);
 
   OBinaryResponse executeQueryNextPage(OQueryNextPageRequest request);
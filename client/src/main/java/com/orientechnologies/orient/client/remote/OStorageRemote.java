@@ -55,8 +55,10 @@ import com.orientechnologies.orient.core.db.record.OIdentifiable;
 import com.orientechnologies.orient.core.db.record.ORecordOperation;
 import com.orientechnologies.orient.core.exception.OConfigurationException;
 import com.orientechnologies.orient.core.exception.ODatabaseException;
+import com.orientechnologies.orient.core.exception.OPreparedStatementNotFoundException;
 import com.orientechnologies.orient.core.exception.ORecordNotFoundException;
 import com.orientechnologies.orient.core.exception.OSecurityException;
+import com.orientechnologies.orient.core.exception.OStaleReadException;
 import com.orientechnologies.orient.core.exception.OStorageException;
 import com.orientechnologies.orient.core.id.ORID;
 import com.orientechnologies.orient.core.id.ORecordId;
@@ -156,6 +158,7 @@ public class OStorageRemote extends OStorageAbstract implements OStorageProxy, O
   private volatile OStorageRemotePushThread pushThread;
   private final OrientDBRemote context;
   private int nextServerToConnect = 0;
+  private final Map<String, Map<String, Long>> preparedQueries = new ConcurrentHashMap<>();
 
   public OStorageRemote(
       final String iURL,
@@ -280,30 +283,7 @@ public class OStorageRemote extends OStorageAbstract implements OStorageProxy, O
       final OBinaryRequest<T> request, final String errorMessage, int retry, int timeout) {
     return baseNetworkOperation(
         (network, session) -> {
-          try {
-            try {
-              network.beginRequest(request.getCommand(), session);
-              request.write(network, session);
-            } finally {
-              network.endRequest();
-            }
-          } catch (IOException e) {
-            if (network.isConnected()) {
-              OLogManager.instance().warn(this, "Error Writing request on the network", e);
-            }
-            throw new ONotSendRequestException("Cannot send request on this channel");
-          }
-
-          int prev = network.getSocketTimeout();
-          T response = request.createResponse();
-          try {
-            if (timeout > 0) network.setSocketTimeout(timeout);
-            beginResponse(network, session);
-            response.read(network, session);
-          } finally {
-            endResponse(network);
-            if (timeout > 0) network.setSocketTimeout(prev);
-          }
+          T response = sendRequest(network, session, request, timeout);
           connectionManager.release(network);
           return response;
         },
@@ -311,6 +291,39 @@ public class OStorageRemote extends OStorageAbstract implements OStorageProxy, O
         retry);
   }
 
+  private <T extends OBinaryResponse> T sendRequest(
+      final OChannelBinaryAsynchClient network,
+      final OStorageRemoteSession session,
+      final OBinaryRequest<T> request,
+      int timeout)
+      throws IOException {
+    try {
+      try {
+        network.beginRequest(request.getCommand(), session);
+        request.write(network, session);
+      } finally {
+        network.endRequest();
+      }
+    } catch (IOException e) {
+      if (network.isConnected()) {
+        OLogManager.instance().warn(this, "Error Writing request on the network", e);
+      }
+      throw new ONotSendRequestException("Cannot send request on this channel");
+    }
+
+    int prev = network.getSocketTimeout();
+    T response = request.createResponse();
+    try {
+      if (timeout > 0) network.setSocketTimeout(timeout);
+      beginResponse(network, session);
+      response.read(network, session);
+    } finally {
+      endResponse(network);
+      if (timeout > 0) network.setSocketTimeout(prev);
+    }
+    return response;
+  }
+
   public <T extends OBinaryResponse> T networkOperationNoRetry(
       final OBinaryRequest<T> request, final String errorMessage) {
     return networkOperationRetryTimeout(request, errorMessage, 0, 0);
@@ -329,6 +342,7 @@ public class OStorageRemote extends OStorageAbstract implements OStorageProxy, O
           "Cannot execute the request because an asynchronous operation is in progress. Please use a different connection");
 
     String serverUrl = null;
+    int staleServers = 0;
     do {
       OChannelBinaryAsynchClient network = null;
 
@@ -389,6 +403,15 @@ public class OStorageRemote extends OStorageAbstract implements OStorageProxy, O
           session.removeServerSession(network.getServerURL());
         }
         serverUrl = null;
+      } catch (OStaleReadException e) {
+        connectionManager.release(network);
+        // THE SERVER IS TOO FAR BEHIND FOR THE SESSION, TRY THE NEXT ONE
+        if (session.isStickToSession() || ++staleServers >= serverURLs.size()) {
+          throw e;
+        }
+        OLogManager.instance()
+            .debug(this, "Server '%s' is stale, trying the next one: %s", serverUrl, e.getMessage());
+        serverUrl = getServerURFromList(true, session);
       } catch (OOfflineNodeException e) {
         connectionManager.release(network);
         // Remove the current url because the node is offline
@@ -1022,6 +1045,59 @@ public class OStorageRemote extends OStorageAbstract implements OStorageProxy, O
     session.unStickToSession();
   }
 
+  /**
+   * Sends a query, preparing it on the server first when it has parameters so that the following
+   * executions of the same statement only send its handle and the parameters.
+   */
+  private OQueryResponse queryOperation(final OQueryRequest request, boolean prepare) {
+    final String query = request.getStatement();
+    final String errorMessage = "Error on executing command: " + query;
+    final int maxPrepared =
+        clientConfiguration.getValueAsInteger(
+            OGlobalConfiguration.QUERY_REMOTE_PREPARED_STATEMENTS);
+    if (!prepare || maxPrepared <= 0) {
+      return networkOperation(request, errorMessage);
+    }
+    return baseNetworkOperation(
+        (network, session) -> {
+          request.setPreparedHandle(0);
+          if (network.getSrvProtocolVersion() < OChannelBinaryProtocol.PROTOCOL_VERSION_40) {
+            OQueryResponse response = sendRequest(network, session, request, 0);
+            connectionManager.release(network);
+            return response;
+          }
+
+          Map<String, Long> handles =
+              preparedQueries.computeIfAbsent(
+                  network.getServerURL(), (k) -> new ConcurrentHashMap<>());
+          Long handle = handles.get(query);
+          if (handle == null && handles.size() < maxPrepared) {
+            handle =
+                sendRequest(network, session, new OPrepareQueryRequest("sql", query), 0)
+                    .getHandle();
+            handles.put(query, handle);
+          }
+          OQueryResponse response;
+          if (handle == null) {
+            response = sendRequest(network, session, request, 0);
+          } else {
+            request.setPreparedHandle(handle);
+            try {
+              response = sendRequest(network, session, request, 0);
+            } catch (OPreparedStatementNotFoundException e) {
+              // EVICTED OR SERVER RESTARTED: SEND THE FULL STATEMENT, PREPARE IT AGAIN NEXT TIME
+              handles.remove(query, handle);
+              request.setPreparedHandle(0);
+              response = sendRequest(network, session, request, 0);
+            }
+          }
+          connectionManager.release(network);
+          return response;
+        },
+        errorMessage,
+        connectionRetry);
+  }
+
   public ORemoteQueryResult query(ODatabaseDocumentRemote db, String query, Object[] args) {
     int recordsPerPage = OGlobalConfiguration.QUERY_REMOTE_RESULTSET_PAGE_SIZE.getValueAsInteger();
     if (recordsPerPage <= 0) {
@@ -1030,7 +1106,8 @@ public class OStorageRemote extends OStorageAbstract implements OStorageProxy, O
     OQueryRequest request =
         new OQueryRequest(
             "sql", query, args, OQueryRequest.QUERY, db.getSerializer(), recordsPerPage);
-    OQueryResponse response = networkOperation(request, "Error on executing command: " + query);
+    request.setStalenessBound(db.getReadStalenessBound());
+    OQueryResponse response = queryOperation(request, args != null && args.length > 0);
     ORemoteResultSet rs =
         new ORemoteResultSet(
             db,
@@ -1055,7 +1132,8 @@ public class OStorageRemote extends OStorageAbstract implements OStorageProxy, O
     OQueryRequest request =
         new OQueryRequest(
             "sql", query, args, OQueryRequest.QUERY, db.getSerializer(), recordsPerPage);
-    OQueryResponse response = networkOperation(request, "Error on executing command: " + query);
+    request.setStalenessBound(db.getReadStalenessBound());
+    OQueryResponse response = queryOperation(request, args != null && !args.isEmpty());
 
     ORemoteResultSet rs =
         new ORemoteResultSet(
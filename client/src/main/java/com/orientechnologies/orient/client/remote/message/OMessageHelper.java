@@ -391,19 +391,29 @@ public class OMessageHelper {
 
   public static OIdentifiable readIdentifiable(
       final OChannelDataInput network, ORecordSerializer serializer) throws IOException {
+    return readIdentifiable(network, serializer, false);
+  }
+
+  /**
+   * @param lazy If <code>true</code> fields of the received document are not decoded, document
+   *     keeps the received content and decodes only the fields which are accessed.
+   */
+  private static OIdentifiable readIdentifiable(
+      final OChannelDataInput network, ORecordSerializer serializer, boolean lazy)
+      throws IOException {
     final int classId = network.readShort();
     if (classId == OChannelBinaryProtocol.RECORD_NULL) return null;
 
     if (classId == OChannelBinaryProtocol.RECORD_RID) {
       return network.readRID();
     } else {
-      final ORecord record = readRecordFromBytes(network, serializer);
+      final ORecord record = readRecordFromBytes(network, serializer, lazy);
       return record;
     }
   }
 
   private static ORecord readRecordFromBytes(
-      OChannelDataInput network, ORecordSerializer serializer) throws IOException {
+      OChannelDataInput network, ORecordSerializer serializer, boolean lazy) throws IOException {
     byte rec = network.readByte();
     final ORecordId rid = network.readRID();
     final int version = network.readVersion();
@@ -414,9 +424,14 @@ public class OMessageHelper {
             .getRecordFactoryManager()
             .newInstance(
                 rec, rid.getClusterId(), ODatabaseRecordThreadLocal.instance().getIfDefined());
-    ORecordInternal.setIdentity(record, rid);
-    ORecordInternal.setVersion(record, version);
-    serializer.fromStream(content, record, null);
+    if (lazy && record instanceof ODocument) {
+      ORecordInternal.fill(record, rid, version, content, false);
+      ORecordInternal.setRecordSerializer(record, serializer);
+    } else {
+      ORecordInternal.setIdentity(record, rid);
+      ORecordInternal.setVersion(record, version);
+      serializer.fromStream(content, record, null);
+    }
     ORecordInternal.unsetDirty(record);
 
     return record;
@@ -521,7 +536,8 @@ public class OMessageHelper {
 
   private static ORecord readDocument(OChannelDataInput channel) throws IOException {
     ORecordSerializer serializer = ORecordSerializerNetworkV37Client.INSTANCE;
-    final ORecord record = (ORecord) readIdentifiable(channel, serializer);
+    // ROWS OF LARGE SCANS ARE OFTEN READ ONLY PARTIALLY, FIELDS ARE DECODED ON ACCESS
+    final ORecord record = (ORecord) readIdentifiable(channel, serializer, true);
     return record;
   }
 
@@ -20,16 +20,21 @@
 package com.orientechnologies.orient.client.remote.message;
 
 import com.orientechnologies.orient.client.binary.OBinaryRequestExecutor;
+import com.orientechnologies.orient.client.binary.OChannelBinaryAsynchClient;
 import com.orientechnologies.orient.client.remote.OBinaryRequest;
 import com.orientechnologies.orient.client.remote.OBinaryResponse;
 import com.orientechnologies.orient.client.remote.OStorageRemote;
 import com.orientechnologies.orient.client.remote.OStorageRemoteSession;
+import com.orientechnologies.orient.core.db.OStalenessBound;
 import com.orientechnologies.orient.core.record.impl.ODocument;
 import com.orientechnologies.orient.core.serialization.serializer.record.ORecordSerializer;
+import com.orientechnologies.orient.core.serialization.serializer.result.binary.OResultSerializerNetwork;
+import com.orientechnologies.orient.core.sql.executor.OResultInternal;
 import com.orientechnologies.orient.enterprise.channel.binary.OChannelBinaryProtocol;
 import com.orientechnologies.orient.enterprise.channel.binary.OChannelDataInput;
 import com.orientechnologies.orient.enterprise.channel.binary.OChannelDataOutput;
 import java.io.IOException;
+import java.util.HashMap;
 import java.util.Map;
 
 public final class OQueryRequest implements OBinaryRequest<OQueryResponse> {
@@ -46,6 +51,8 @@ public final class OQueryRequest implements OBinaryRequest<OQueryResponse> {
   private Map<String, Object> params;
   private byte[] paramsBytes;
   private boolean namedParams;
+  private OStalenessBound stalenessBound;
+  private long preparedHandle;
 
   public OQueryRequest(
       String language,
@@ -64,10 +71,6 @@ public final class OQueryRequest implements OBinaryRequest<OQueryResponse> {
       this.recordsPerPage = 100;
     }
     this.operationType = operationType;
-    ODocument parms = new ODocument();
-    parms.field("params", this.params);
-
-    paramsBytes = OMessageHelper.getRecordBytes(parms, serializer);
   }
 
   public OQueryRequest(
@@ -80,10 +83,6 @@ public final class OQueryRequest implements OBinaryRequest<OQueryResponse> {
     this.language = language;
     this.statement = iCommand;
     this.params = (Map) namedParams;
-    ODocument parms = new ODocument();
-    parms.field("params", this.params);
-
-    paramsBytes = OMessageHelper.getRecordBytes(parms, serializer);
     this.namedParams = true;
     this.serializer = serializer;
     this.recordsPerPage = recordsPerPage;
@@ -97,16 +96,56 @@ public final class OQueryRequest implements OBinaryRequest<OQueryResponse> {
 
   @Override
   public void write(OChannelDataOutput network, OStorageRemoteSession session) throws IOException {
+    int srvProtocolVersion = -1;
+    if (network instanceof OChannelBinaryAsynchClient) {
+      srvProtocolVersion = ((OChannelBinaryAsynchClient) network).getSrvProtocolVersion();
+    }
+    // A PREPARED STATEMENT ONLY SENDS ITS HANDLE AND THE PARAMETERS, SERVERS OLDER THAN PROTOCOL 40
+    // CANNOT RESOLVE THE HANDLE SO THEY ALWAYS GET THE FULL STATEMENT
+    boolean prepared =
+        preparedHandle != 0 && srvProtocolVersion >= OChannelBinaryProtocol.PROTOCOL_VERSION_40;
+
     network.writeString(language);
-    network.writeString(statement);
+    network.writeString(prepared ? null : statement);
     network.writeByte(operationType);
     network.writeInt(recordsPerPage);
     // THIS IS FOR POSSIBLE FUTURE FETCH PLAN
     network.writeString(null);
 
     // params
-    network.writeBytes(paramsBytes);
+    network.writeBytes(prepared ? null : getParamsBytes());
     network.writeBoolean(namedParams);
+
+    // SERVERS OLDER THAN PROTOCOL 39 DO NOT READ THE STALENESS BOUND
+    if (srvProtocolVersion >= OChannelBinaryProtocol.PROTOCOL_VERSION_39) {
+      network.writeBoolean(stalenessBound != null);
+      if (stalenessBound != null) {
+        network.writeLong(stalenessBound.getMaxLagMillis());
+        network.writeLong(stalenessBound.getMaxLagTransactions());
+      }
+    }
+    if (srvProtocolVersion >= OChannelBinaryProtocol.PROTOCOL_VERSION_40) {
+      network.writeLong(prepared ? preparedHandle : 0);
+      if (prepared) {
+        OResultInternal compactParams = new OResultInternal();
+        if (params != null) {
+          for (Map.Entry<String, Object> param : params.entrySet()) {
+            compactParams.setProperty(param.getKey(), param.getValue());
+          }
+        }
+        new OResultSerializerNetwork().toStream(compactParams, network);
+      }
+    }
+  }
+
+  private byte[] getParamsBytes() {
+    if (paramsBytes == null) {
+      ODocument parms = new ODocument();
+      parms.field("params", this.params);
+
+      paramsBytes = OMessageHelper.getRecordBytes(parms, serializer);
+    }
+    return paramsBytes;
   }
 
   public void read(OChannelDataInput channel, int protocolVersion, ORecordSerializer serializer)
@@ -121,6 +160,20 @@ public final class OQueryRequest implements OBinaryRequest<OQueryResponse> {
     this.paramsBytes = channel.readBytes();
     this.namedParams = channel.readBoolean();
     this.serializer = serializer;
+
+    if (protocolVersion >= OChannelBinaryProtocol.PROTOCOL_VERSION_39 && channel.readBoolean()) {
+      this.stalenessBound = OStalenessBound.of(channel.readLong(), channel.readLong());
+    }
+    if (protocolVersion >= OChannelBinaryProtocol.PROTOCOL_VERSION_40) {
+      this.preparedHandle = channel.readLong();
+      if (preparedHandle != 0) {
+        OResultInternal compactParams = new OResultSerializerNetwork().fromStream(channel);
+        this.params = new HashMap<>();
+        for (String name : compactParams.getPropertyNames()) {
+          this.params.put(name, compactParams.getProperty(name));
+        }
+      }
+    }
   }
 
   @Override
@@ -195,6 +248,23 @@ public final class OQueryRequest implements OBinaryRequest<OQueryResponse> {
     return language;
   }
 
+  public OStalenessBound getStalenessBound() {
+    return stalenessBound;
+  }
+
+  public void setStalenessBound(OStalenessBound stalenessBound) {
+    this.stalenessBound = stalenessBound;
+  }
+
+  /** @return the handle of the prepared statement to execute, 0 if the statement is not prepared */
+  public long getPreparedHandle() {
+    return preparedHandle;
+  }
+
+  public void setPreparedHandle(long preparedHandle) {
+    this.preparedHandle = preparedHandle;
+  }
+
   public void setLanguage(String language) {
     this.language = language;
   }
@@ -1,15 +1,37 @@
 package com.orientechnologies.orient.client.remote.message;
 
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.db.ODatabaseType;
+import com.orientechnologies.orient.core.db.OrientDB;
+import com.orientechnologies.orient.core.db.OrientDBConfig;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocument;
+import com.orientechnologies.orient.core.db.record.OIdentifiable;
+import com.orientechnologies.orient.core.db.record.ORecordLazyMultiValue;
+import com.orientechnologies.orient.core.db.record.ridbag.ORidBag;
+import com.orientechnologies.orient.core.id.ORecordId;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.record.ORecordInternal;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.record.impl.ODocumentInternal;
 import com.orientechnologies.orient.core.serialization.serializer.record.binary.ORecordSerializerNetworkFactory;
 import com.orientechnologies.orient.core.sql.executor.OResult;
 import com.orientechnologies.orient.core.sql.executor.OResultInternal;
+import com.orientechnologies.orient.core.util.ODateHelper;
 import com.orientechnologies.orient.enterprise.channel.binary.OChannelBinaryProtocol;
 import java.io.IOException;
+import java.io.Serializable;
+import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -52,4 +74,161 @@ public class OQueryResponseTest {
     Assert.assertTrue(newResponse.isReloadMetadata());
     Assert.assertTrue(newResponse.isTxChanges());
   }
+
+  @Test
+  public void testDocumentFieldsDecodedOnAccess() throws IOException {
+    OrientDB orientDB = new OrientDB("embedded", OrientDBConfig.defaultConfig());
+    orientDB.create("testDocumentFieldsDecodedOnAccess", ODatabaseType.MEMORY);
+    ODatabaseDocument db = orientDB.open("testDocumentFieldsDecodedOnAccess", "admin", "admin");
+    try {
+      ODocument doc = new ODocument();
+      ORecordInternal.setIdentity(doc, new ORecordId(10, 20));
+      doc.field("name", "foo");
+      doc.field("embedded", new ODocument().field("inner", "bar"));
+      doc.field("list", Arrays.asList(1, 2, 3));
+      doc.field("link", new ORecordId(11, 1));
+
+      ORidBag embeddedBag = new ORidBag();
+      embeddedBag.add(new ORecordId(11, 2));
+      embeddedBag.add(new ORecordId(11, 3));
+      doc.field("embeddedBag", embeddedBag);
+
+      Object bagThreshold =
+          OGlobalConfiguration.RID_BAG_EMBEDDED_TO_SBTREEBONSAI_THRESHOLD.getValue();
+      OGlobalConfiguration.RID_BAG_EMBEDDED_TO_SBTREEBONSAI_THRESHOLD.setValue(-1);
+      try {
+        ORidBag treeBag = new ORidBag();
+        treeBag.add(new ORecordId(11, 4));
+        treeBag.add(new ORecordId(11, 5));
+        Assert.assertFalse(treeBag.isEmbedded());
+        doc.field("treeBag", treeBag);
+      } finally {
+        OGlobalConfiguration.RID_BAG_EMBEDDED_TO_SBTREEBONSAI_THRESHOLD.setValue(bagThreshold);
+      }
+
+      Map<String, OIdentifiable> linkMap = new HashMap<>();
+      linkMap.put("first", new ORecordId(11, 6));
+      linkMap.put("second", new ORecordId(11, 7));
+      doc.field("linkMap", linkMap, OType.LINKMAP);
+
+      Map<String, Object> embeddedMap = new HashMap<>();
+      embeddedMap.put("number", 1);
+      embeddedMap.put("text", "baz");
+      doc.field("embeddedMap", embeddedMap, OType.EMBEDDEDMAP);
+
+      Set<OIdentifiable> linkSet = new HashSet<>();
+      linkSet.add(new ORecordId(11, 8));
+      linkSet.add(new ORecordId(11, 9));
+      doc.field("linkSet", linkSet, OType.LINKSET);
+
+      doc.field("decimal", new BigDecimal("1234.5678"), OType.DECIMAL);
+      doc.field("binary", new byte[] {1, 2, 3}, OType.BINARY);
+
+      Calendar calendar = ODateHelper.getDatabaseCalendar();
+      calendar.clear();
+      calendar.set(2020, Calendar.MARCH, 15);
+      Date date = calendar.getTime();
+      doc.field("date", date, OType.DATE);
+
+      doc.field("custom", new CustomValue("qux"), OType.CUSTOM);
+      doc.field("counter", 5);
+
+      OResultInternal item = new OResultInternal();
+      item.setElement(doc);
+      List<OResultInternal> results = new ArrayList<>();
+      results.add(item);
+      OQueryResponse response =
+          new OQueryResponse(
+              "query", false, results, Optional.empty(), false, new HashMap<>(), false);
+
+      MockChannel channel = new MockChannel();
+      response.write(
+          channel,
+          OChannelBinaryProtocol.CURRENT_PROTOCOL_VERSION,
+          ORecordSerializerNetworkFactory.INSTANCE.current());
+      channel.close();
+
+      OQueryResponse newResponse = new OQueryResponse();
+      newResponse.read(channel, null);
+
+      ODocument read = (ODocument) newResponse.getResult().get(0).getElement().get().getRecord();
+      Assert.assertEquals(new ORecordId(10, 20), read.getIdentity());
+      Assert.assertFalse(ODocumentInternal.rawContainsField(read, "name"));
+
+      Assert.assertEquals((Integer) 5, read.field("counter"));
+      // FIELDS WRITTEN BEFORE THE ACCESSED ONE ARE SKIPPED, NOT DECODED
+      for (String name :
+          new String[] {
+            "name",
+            "embedded",
+            "list",
+            "link",
+            "embeddedBag",
+            "treeBag",
+            "linkMap",
+            "embeddedMap",
+            "linkSet",
+            "decimal",
+            "binary",
+            "date",
+            "custom"
+          }) {
+        Assert.assertFalse(name, ODocumentInternal.rawContainsField(read, name));
+      }
+
+      Assert.assertEquals("foo", read.field("name"));
+      Assert.assertEquals("bar", ((ODocument) read.field("embedded")).field("inner"));
+      Assert.assertEquals(Arrays.asList(1, 2, 3), read.field("list"));
+      Assert.assertEquals(new ORecordId(11, 1), read.field("link"));
+
+      ORidBag readEmbeddedBag = read.field("embeddedBag");
+      Assert.assertTrue(readEmbeddedBag.isEmbedded());
+      Assert.assertEquals(2, readEmbeddedBag.size());
+      Assert.assertTrue(readEmbeddedBag.contains(new ORecordId(11, 3)));
+
+      ORidBag readTreeBag = read.field("treeBag");
+      Assert.assertFalse(readTreeBag.isEmbedded());
+      Assert.assertEquals(2, readTreeBag.size());
+
+      Map<String, OIdentifiable> readLinkMap = read.field("linkMap");
+      ((ORecordLazyMultiValue) readLinkMap).setAutoConvertToRecord(false);
+      Assert.assertEquals(linkMap, new HashMap<>(readLinkMap));
+
+      Map<String, Object> readEmbeddedMap = read.field("embeddedMap");
+      Assert.assertEquals(embeddedMap, new HashMap<>(readEmbeddedMap));
+
+      Set<OIdentifiable> readLinkSet = read.field("linkSet");
+      Assert.assertEquals(2, readLinkSet.size());
+      Assert.assertTrue(readLinkSet.contains(new ORecordId(11, 9)));
+
+      Assert.assertEquals(new BigDecimal("1234.5678"), read.field("decimal"));
+      byte[] readBinary = read.field("binary");
+      Assert.assertArrayEquals(new byte[] {1, 2, 3}, readBinary);
+      Assert.assertEquals(date, read.field("date"));
+      Assert.assertEquals(new CustomValue("qux"), read.field("custom"));
+      Assert.assertEquals(14, read.fieldNames().length);
+      Assert.assertFalse(read.isDirty());
+    } finally {
+      db.close();
+      orientDB.close();
+    }
+  }
+
+  private static class CustomValue implements Serializable {
+    private final String value;
+
+    private CustomValue(String value) {
+      this.value = value;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof CustomValue && value.equals(((CustomValue) o).value);
+    }
+
+    @Override
+    public int hashCode() {
+      return value.hashCode();
+    }
+  }
 }
@@ -10,12 +10,39 @@ public final class OPointer {
   private final long pointer;
   private final int size;
 
+  /**
+   * Buffer which owns memory of the pointer if pointer is not allocated by {@link
+   * ODirectMemoryAllocator}, kept to prevent release of the memory while pointer is in use.
+   */
+  private final ByteBuffer owner;
+
   private WeakReference<ByteBuffer> byteBuffer;
   private int hash = 0;
 
   OPointer(long pointer, int size) {
+    this(pointer, size, null);
+  }
+
+  private OPointer(long pointer, int size, ByteBuffer owner) {
     this.pointer = pointer;
     this.size = size;
+    this.owner = owner;
+  }
+
+  /**
+   * Creates pointer to the memory of direct buffer, for example to the memory of file mapped by
+   * {@link java.nio.channels.FileChannel#map}. Such pointer can not be released into {@link
+   * OByteBufferPool}, memory is freed once both pointer and buffer are not reachable.
+   *
+   * @param buffer Direct buffer, pointer covers memory between position and limit of the buffer.
+   */
+  public static OPointer wrap(final ByteBuffer buffer) {
+    if (!buffer.isDirect()) {
+      throw new IllegalArgumentException("Only direct buffers can be wrapped");
+    }
+
+    final long address = MemoryIO.getInstance().getDirectBufferAddress(buffer);
+    return new OPointer(address + buffer.position(), buffer.remaining(), buffer);
   }
 
   public void clear() {
@@ -22,4 +22,21 @@ public interface OCLibrary {
   int getpagesize() throws LastErrorException;
 
   int pathconf(String path, int name) throws LastErrorException;
+
+  /** Number of io_uring_setup system call, it is the same for all architectures. */
+  long SYS_IO_URING_SETUP = 425;
+
+  /** Number of io_uring_enter system call, it is the same for all architectures. */
+  long SYS_IO_URING_ENTER = 426;
+
+  long syscall(long number, int entries, long params) throws LastErrorException;
+
+  long syscall(
+      long number, int fd, int toSubmit, int minComplete, int flags, long sig, long sigSize)
+      throws LastErrorException;
+
+  long mmap(long address, long length, int prot, int flags, int fd, long offset)
+      throws LastErrorException;
+
+  int munmap(long address, long length) throws LastErrorException;
 }
@@ -86,6 +86,15 @@ public class ONative {
   public static final int MCL_CURRENT = 1;
   public static final int MCL_FUTURE = 2;
 
+  public static final int PROT_READ = 0x1;
+  public static final int PROT_WRITE = 0x2;
+
+  public static final int MAP_SHARED = 0x01;
+  public static final int MAP_POPULATE = 0x8000;
+
+  public static final int EINTR = 4;
+  public static final int EAGAIN = 11;
+
   private static volatile POSIX posix;
 
   public static ONative instance() {
@@ -345,6 +354,65 @@ public class ONative {
     return limit;
   }
 
+  /**
+   * Creates io_uring instance.
+   *
+   * @param entries Requested amount of entries in submission queue.
+   * @param params Address of <code>io_uring_params</code> structure which is filled by kernel.
+   * @return File descriptor of created io_uring instance.
+   */
+  public int ioUringSetup(int entries, long params) throws LastErrorException {
+    final long res = C_LIBRARY.syscall(OCLibrary.SYS_IO_URING_SETUP, entries, params);
+    if (res == -1) {
+      checkLastError();
+    }
+
+    return (int) res;
+  }
+
+  /**
+   * Submits requests placed into submission queue of io_uring instance and waits till passed in
+   * amount of requests is completed.
+   *
+   * @return Amount of consumed submission queue entries.
+   */
+  public int ioUringEnter(int ringFd, int toSubmit, int minComplete, int flags)
+      throws LastErrorException {
+    final long res =
+        C_LIBRARY.syscall(
+            OCLibrary.SYS_IO_URING_ENTER, ringFd, toSubmit, minComplete, flags, 0, 0);
+    if (res == -1) {
+      checkLastError();
+    }
+
+    return (int) res;
+  }
+
+  /** Maps region of file into memory which is shared with kernel for read and write access. */
+  public long mmap(long length, int fd, long offset) throws LastErrorException {
+    final long address =
+        C_LIBRARY.mmap(0, length, PROT_READ | PROT_WRITE, MAP_SHARED | MAP_POPULATE, fd, offset);
+    if (address == -1) {
+      checkLastError();
+    }
+
+    return address;
+  }
+
+  public void munmap(long address, long length) throws LastErrorException {
+    final int res = C_LIBRARY.munmap(address, length);
+    if (res == -1) {
+      checkLastError();
+    }
+  }
+
+  public void ftruncate(int fd, long length) throws LastErrorException {
+    final int res = posix.ftruncate(fd, length);
+    if (res == -1) {
+      checkLastError();
+    }
+  }
+
   public void fsync(int fd) throws IOException {
     try {
       final int res = posix.fsync(fd);
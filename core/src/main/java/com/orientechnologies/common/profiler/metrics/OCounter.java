@@ -0,0 +1,30 @@
+package com.orientechnologies.common.profiler.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/** Monotonically increasing counter. Updates are striped, so the counter scales with threads. */
+public final class OCounter extends OMetric {
+  private final LongAdder value = new LongAdder();
+
+  OCounter(
+      final String name, final String description, final String[] labels, final boolean enabled) {
+    super(name, description, labels, enabled);
+  }
+
+  @Override
+  public Type getType() {
+    return Type.COUNTER;
+  }
+
+  public void increment() {
+    if (enabled) value.increment();
+  }
+
+  public void add(final long delta) {
+    if (enabled) value.add(delta);
+  }
+
+  public long get() {
+    return value.sum();
+  }
+}
@@ -0,0 +1,165 @@
+package com.orientechnologies.common.profiler.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram of durations in nanoseconds with bounded relative error, similar to HDR histogram.
+ *
+ * <p>Values are distributed between buckets of exponentially growing width: values below {@value
+ * #SUB_BUCKETS} have a bucket each, each next power of two range is split into {@value
+ * #SUB_BUCKETS} buckets of equal width, so the relative error of percentiles does not exceed
+ * 1/{@value #SUB_BUCKETS}. Values above 2<sup>{@value #MAX_EXPONENT}</sup> nanoseconds (about 18
+ * minutes) are counted in the last bucket.
+ *
+ * <p>Recording of value does not allocate memory. Counts of buckets are striped between several
+ * arrays chosen by id of the thread, so threads which record the same latency do not contend on
+ * the same counter.
+ */
+public final class OHistogram extends OMetric {
+  private static final int SUB_BUCKET_BITS = 4;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int MAX_EXPONENT = 40;
+
+  static final int BUCKETS = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+
+  private static final int STRIPES =
+      Math.min(8, Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1));
+
+  private final AtomicLongArray[] stripes = new AtomicLongArray[STRIPES];
+  private final LongAdder sum = new LongAdder();
+  private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+  OHistogram(
+      final String name, final String description, final String[] labels, final boolean enabled) {
+    super(name, description, labels, enabled);
+
+    for (int i = 0; i < STRIPES; i++) {
+      stripes[i] = new AtomicLongArray(enabled ? BUCKETS : 0);
+    }
+  }
+
+  @Override
+  public Type getType() {
+    return Type.HISTOGRAM;
+  }
+
+  /** @param nanos Recorded duration in nanoseconds, negative values are recorded as 0. */
+  public void record(long nanos) {
+    if (!enabled) return;
+
+    if (nanos < 0) nanos = 0;
+
+    stripes[(int) Thread.currentThread().getId() & (STRIPES - 1)].incrementAndGet(index(nanos));
+    sum.add(nanos);
+    max.accumulate(nanos);
+  }
+
+  /** Records time passed since the passed in value of {@link System#nanoTime()}. */
+  public void recordSince(final long startNanos) {
+    if (enabled) record(System.nanoTime() - startNanos);
+  }
+
+  /** @return Consistent enough copy of the histogram state which may be used for calculations. */
+  public Snapshot snapshot() {
+    final long[] counts = new long[BUCKETS];
+    if (enabled) {
+      for (AtomicLongArray stripe : stripes) {
+        for (int i = 0; i < BUCKETS; i++) {
+          counts[i] += stripe.get(i);
+        }
+      }
+    }
+
+    return new Snapshot(counts, sum.sum(), max.get());
+  }
+
+  static int index(final long value) {
+    if (value < SUB_BUCKETS) return (int) value;
+
+    final int exponent = 63 - Long.numberOfLeadingZeros(value);
+    if (exponent > MAX_EXPONENT) return BUCKETS - 1;
+
+    final int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+    return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+  }
+
+  /** @return Maximum value which is counted in the bucket. */
+  static long upperBound(final int index) {
+    if (index < SUB_BUCKETS) return index;
+    if (index == BUCKETS - 1) return Long.MAX_VALUE;
+
+    final int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+    final int subBucket = index % SUB_BUCKETS;
+    return ((long) (SUB_BUCKETS + subBucket + 1) << (exponent - SUB_BUCKET_BITS)) - 1;
+  }
+
+  public static final class Snapshot {
+    private final long[] counts;
+    private final long count;
+    private final long sum;
+    private final long max;
+
+    private Snapshot(final long[] counts, final long sum, final long max) {
+      this.counts = counts;
+      this.sum = sum;
+      this.max = max;
+
+      long count = 0;
+      for (long bucket : counts) {
+        count += bucket;
+      }
+      this.count = count;
+    }
+
+    /** @return Amount of recorded values. */
+    public long getCount() {
+      return count;
+    }
+
+    /** @return Sum of recorded values in nanoseconds. */
+    public long getSum() {
+      return sum;
+    }
+
+    /** @return Maximum recorded value in nanoseconds. */
+    public long getMax() {
+      return max;
+    }
+
+    public double getMean() {
+      if (count == 0) return 0;
+
+      return (double) sum / count;
+    }
+
+    /**
+     * @param percentile Percentile between 0 and 100.
+     * @return Value in nanoseconds which is not exceeded by the passed in percent of recorded
+     *     values.
+     */
+    public long getValueAtPercentile(final double percentile) {
+      if (count == 0) return 0;
+
+      final long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+      long seen = 0;
+      for (int i = 0; i < counts.length; i++) {
+        seen += counts[i];
+        if (seen >= rank) return Math.min(upperBound(i), max);
+      }
+
+      return max;
+    }
+
+    /** @return Amount of values which are less than or equal to the passed in value. */
+    public long getCountAtOrBelow(final long value) {
+      long result = 0;
+      for (int i = 0; i < counts.length && upperBound(i) <= value; i++) {
+        result += counts[i];
+      }
+
+      return result;
+    }
+  }
+}
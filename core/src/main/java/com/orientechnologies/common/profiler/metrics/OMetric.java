@@ -0,0 +1,124 @@
+package com.orientechnologies.common.profiler.metrics;
+
+/**
+ * Base class of metrics kept by {@link OMetricsRegistry}. Metric is identified by its name and
+ * labels, for example name of the database or type of the operation the metric is collected for.
+ * Instances are expected to be created once and kept by the measured component, so updates of
+ * the metric do not require any lookup or allocation.
+ */
+public abstract class OMetric {
+  public enum Type {
+    COUNTER,
+    HISTOGRAM
+  }
+
+  private final String name;
+  private final String description;
+  private final String[] labels;
+  private final String series;
+
+  protected final boolean enabled;
+
+  /**
+   * @param labels Names and values of labels, each name is followed by its value.
+   * @param enabled If <code>false</code> updates of the metric are ignored.
+   */
+  protected OMetric(
+      final String name, final String description, final String[] labels, final boolean enabled) {
+    if (labels.length % 2 != 0)
+      throw new IllegalArgumentException("Each label should be passed as name and value pair");
+
+    this.name = name;
+    this.description = description;
+    this.labels = labels.clone();
+    this.series = series(name, labels);
+    this.enabled = enabled;
+  }
+
+  public abstract Type getType();
+
+  public String getName() {
+    return name;
+  }
+
+  public String getDescription() {
+    return description;
+  }
+
+  /** @return Amount of labels of the metric. */
+  public int getLabelsCount() {
+    return labels.length / 2;
+  }
+
+  public String getLabelName(final int index) {
+    return labels[index * 2];
+  }
+
+  public String getLabelValue(final int index) {
+    return labels[index * 2 + 1];
+  }
+
+  /** @return Value of the label with passed in name or <code>null</code> if there is no label. */
+  public String getLabelValue(final String labelName) {
+    for (int i = 0; i < labels.length; i += 2) {
+      if (labels[i].equals(labelName)) return labels[i + 1];
+    }
+
+    return null;
+  }
+
+  /** @return Name of the metric together with its labels in Prometheus notation. */
+  public String getSeries() {
+    return series;
+  }
+
+  @Override
+  public String toString() {
+    return series;
+  }
+
+  static String series(final String name, final String[] labels) {
+    if (labels.length == 0) return name;
+
+    final StringBuilder builder = new StringBuilder(name);
+    appendLabels(builder, labels, null, null);
+    return builder.toString();
+  }
+
+  /** Appends labels in Prometheus notation, additional label is appended if its name is set. */
+  static void appendLabels(
+      final StringBuilder builder,
+      final String[] labels,
+      final String extraName,
+      final String extraValue) {
+    if (labels.length == 0 && extraName == null) return;
+
+    builder.append('{');
+    for (int i = 0; i < labels.length; i += 2) {
+      if (i > 0) builder.append(',');
+      appendLabel(builder, labels[i], labels[i + 1]);
+    }
+
+    if (extraName != null) {
+      if (labels.length > 0) builder.append(',');
+      appendLabel(builder, extraName, extraValue);
+    }
+    builder.append('}');
+  }
+
+  void appendLabels(final StringBuilder builder, final String extraName, final String extraValue) {
+    appendLabels(builder, labels, extraName, extraValue);
+  }
+
+  private static void appendLabel(
+      final StringBuilder builder, final String name, final String value) {
+    builder.append(name).append("=\"");
+    for (int i = 0; i < value.length(); i++) {
+      final char c = value.charAt(i);
+      if (c == '\\' || c == '"') builder.append('\\').append(c);
+      else if (c == '\n') builder.append("\\n");
+      else builder.append(c);
+    }
+    builder.append('"');
+  }
+}
@@ -0,0 +1,196 @@
+package com.orientechnologies.common.profiler.metrics;
+
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of typed metrics: counters and latency histograms. Metrics are created once by the
+ * measured components and updated without lookups or allocations, registry is used only to list
+ * metrics, for example by JMX or by the Prometheus endpoint of the server.
+ *
+ * <p>If {@link OGlobalConfiguration#PROFILER_METRICS_ENABLED} is switched off, registry returns
+ * metrics which ignore updates and are not listed.
+ */
+public class OMetricsRegistry implements OMetricsRegistryMXBean {
+  /** Upper bounds of buckets of histograms exported in Prometheus format, in nanoseconds. */
+  private static final long[] PROMETHEUS_BUCKETS = {
+    10_000L,
+    25_000L,
+    50_000L,
+    100_000L,
+    250_000L,
+    500_000L,
+    1_000_000L,
+    2_500_000L,
+    5_000_000L,
+    10_000_000L,
+    25_000_000L,
+    50_000_000L,
+    100_000_000L,
+    250_000_000L,
+    500_000_000L,
+    1_000_000_000L,
+    2_500_000_000L,
+    5_000_000_000L,
+    10_000_000_000L
+  };
+
+  private static final double NANOS_IN_SECOND = 1_000_000_000.0;
+  private static final double NANOS_IN_MILLISECOND = 1_000_000.0;
+
+  private final ConcurrentHashMap<String, OMetric> metrics = new ConcurrentHashMap<>();
+
+  /**
+   * Returns counter registered under passed in name and labels, counter is created if it does not
+   * exist.
+   *
+   * @param labels Names and values of labels, each name is followed by its value.
+   */
+  public OCounter counter(final String name, final String description, final String... labels) {
+    if (!isEnabled()) return new OCounter(name, description, labels, false);
+
+    return register(new OCounter(name, description, labels, true), OCounter.class);
+  }
+
+  /**
+   * Returns histogram registered under passed in name and labels, histogram is created if it does
+   * not exist.
+   *
+   * @param labels Names and values of labels, each name is followed by its value.
+   */
+  public OHistogram histogram(
+      final String name, final String description, final String... labels) {
+    if (!isEnabled()) return new OHistogram(name, description, labels, false);
+
+    final String series = OMetric.series(name, labels);
+    final OMetric metric =
+        metrics.computeIfAbsent(series, k -> new OHistogram(name, description, labels, true));
+    return cast(metric, OHistogram.class);
+  }
+
+  public void unregister(final OMetric metric) {
+    metrics.remove(metric.getSeries(), metric);
+  }
+
+  /** Removes all metrics which have label with passed in name and value, for example database. */
+  public void unregisterAll(final String labelName, final String labelValue) {
+    metrics.values().removeIf(metric -> labelValue.equals(metric.getLabelValue(labelName)));
+  }
+
+  public OMetric getMetric(final String series) {
+    return metrics.get(series);
+  }
+
+  /** @return Registered metrics ordered by series. */
+  public List<OMetric> getMetrics() {
+    final List<OMetric> result = new ArrayList<>(metrics.values());
+    result.sort(Comparator.comparing(OMetric::getSeries));
+    return result;
+  }
+
+  @Override
+  public String[] getSeries() {
+    return getMetrics().stream().map(OMetric::getSeries).toArray(String[]::new);
+  }
+
+  @Override
+  public long getCount(final String series) {
+    final OMetric metric = metrics.get(series);
+    if (metric instanceof OCounter) return ((OCounter) metric).get();
+    if (metric instanceof OHistogram) return ((OHistogram) metric).snapshot().getCount();
+
+    return 0;
+  }
+
+  @Override
+  public double getPercentileMillis(final String series, final double percentile) {
+    final OMetric metric = metrics.get(series);
+    if (!(metric instanceof OHistogram)) return 0;
+
+    return ((OHistogram) metric).snapshot().getValueAtPercentile(percentile)
+        / NANOS_IN_MILLISECOND;
+  }
+
+  @Override
+  public double getMeanMillis(final String series) {
+    final OMetric metric = metrics.get(series);
+    if (!(metric instanceof OHistogram)) return 0;
+
+    return ((OHistogram) metric).snapshot().getMean() / NANOS_IN_MILLISECOND;
+  }
+
+  @Override
+  public String toPrometheus() {
+    final StringBuilder builder = new StringBuilder();
+    writePrometheus(builder);
+    return builder.toString();
+  }
+
+  /**
+   * Writes all metrics in Prometheus text exposition format. Histograms are written as Prometheus
+   * histograms in seconds, so percentiles may be calculated for any time window by Prometheus
+   * itself.
+   */
+  public void writePrometheus(final StringBuilder builder) {
+    String lastName = null;
+    for (OMetric metric : getMetrics()) {
+      if (!metric.getName().equals(lastName)) {
+        lastName = metric.getName();
+        builder.append("# HELP ").append(lastName).append(' ');
+        builder.append(metric.getDescription().replace("\\", "\\\\").replace("\n", "\\n"));
+        builder.append('\n');
+        builder.append("# TYPE ").append(lastName).append(' ');
+        builder.append(metric.getType().name().toLowerCase(Locale.ENGLISH)).append('\n');
+      }
+
+      if (metric instanceof OCounter) {
+        builder.append(metric.getSeries()).append(' ').append(((OCounter) metric).get());
+        builder.append('\n');
+      } else if (metric instanceof OHistogram) {
+        writeHistogram(builder, (OHistogram) metric);
+      }
+    }
+  }
+
+  private static void writeHistogram(final StringBuilder builder, final OHistogram histogram) {
+    final OHistogram.Snapshot snapshot = histogram.snapshot();
+
+    for (long bound : PROMETHEUS_BUCKETS) {
+      builder.append(histogram.getName()).append("_bucket");
+      histogram.appendLabels(builder, "le", Double.toString(bound / NANOS_IN_SECOND));
+      builder.append(' ').append(snapshot.getCountAtOrBelow(bound)).append('\n');
+    }
+
+    builder.append(histogram.getName()).append("_bucket");
+    histogram.appendLabels(builder, "le", "+Inf");
+    builder.append(' ').append(snapshot.getCount()).append('\n');
+
+    builder.append(histogram.getName()).append("_sum");
+    histogram.appendLabels(builder, null, null);
+    builder.append(' ').append(snapshot.getSum() / NANOS_IN_SECOND).append('\n');
+
+    builder.append(histogram.getName()).append("_count");
+    histogram.appendLabels(builder, null, null);
+    builder.append(' ').append(snapshot.getCount()).append('\n');
+  }
+
+  private static boolean isEnabled() {
+    return OGlobalConfiguration.PROFILER_METRICS_ENABLED.getValueAsBoolean();
+  }
+
+  private <T extends OMetric> T register(final T metric, final Class<T> type) {
+    return cast(metrics.computeIfAbsent(metric.getSeries(), k -> metric), type);
+  }
+
+  private static <T extends OMetric> T cast(final OMetric metric, final Class<T> type) {
+    if (!type.isInstance(metric))
+      throw new IllegalArgumentException(
+          "Metric " + metric.getSeries() + " is already registered as " + metric.getType());
+
+    return type.cast(metric);
+  }
+}
@@ -0,0 +1,22 @@
+package com.orientechnologies.common.profiler.metrics;
+
+/**
+ * JMX view of {@link OMetricsRegistry}. Metrics are addressed by series, that is name of the
+ * metric together with its labels, for example <code>
+ * orientdb_transaction_commit_duration_seconds{database="demo"}</code>.
+ */
+public interface OMetricsRegistryMXBean {
+  String[] getSeries();
+
+  /** @return Value of the counter or amount of values recorded by the histogram. */
+  long getCount(String series);
+
+  /** @return Value of the histogram in milliseconds at passed in percentile. */
+  double getPercentileMillis(String series, double percentile);
+
+  /** @return Mean of the values recorded by the histogram in milliseconds. */
+  double getMeanMillis(String series);
+
+  /** @return All metrics in Prometheus text format. */
+  String toPrometheus();
+}
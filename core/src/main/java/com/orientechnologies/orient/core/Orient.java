@@ -28,6 +28,7 @@ import com.orientechnologies.common.parser.OSystemVariableResolver;
 import com.orientechnologies.common.profiler.OAbstractProfiler;
 import com.orientechnologies.common.profiler.OProfiler;
 import com.orientechnologies.common.profiler.OProfilerStub;
+import com.orientechnologies.common.profiler.metrics.OMetricsRegistry;
 import com.orientechnologies.common.thread.OThreadPoolExecutorWithLogging;
 import com.orientechnologies.common.util.OClassLoaderHelper;
 import com.orientechnologies.orient.core.cache.OLocalRecordCacheFactory;
@@ -131,6 +132,7 @@ public class Orient extends OListenerManger<OOrientListener> {
   private volatile ORecordFactoryManager recordFactoryManager = new ORecordFactoryManager();
   private OrientShutdownHook shutdownHook;
   private volatile OAbstractProfiler profiler;
+  private final OMetricsRegistry metrics = new OMetricsRegistry();
   private ODatabaseThreadLocalFactory databaseThreadFactory;
   private volatile boolean active = false;
   private ThreadPoolExecutor workers;
@@ -703,6 +705,11 @@ public class Orient extends OListenerManger<OOrientListener> {
     profiler = iProfiler;
   }
 
+  /** @return Registry of counters and latency histograms collected by this instance. */
+  public OMetricsRegistry getMetrics() {
+    return metrics;
+  }
+
   public OSecuritySystem getSecurity() {
     return this.security;
   }
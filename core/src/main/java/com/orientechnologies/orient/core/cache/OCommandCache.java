@@ -62,6 +62,31 @@ public interface OCommandCache {
       Set<String> iInvolvedClusters,
       long iExecutionTime);
 
+  /**
+   * Pushes result to cache, unless cached results were invalidated after the passed in version was
+   * returned by {@link #getVersion()}. So result computed while a transaction which changed its
+   * data was committed is never cached.
+   *
+   * @param iInvolvedClasses Names of the classes the result was read from, result is invalidated
+   *     when records of these classes or of their subclasses are changed.
+   */
+  void put(
+      OSecurityUser iUser,
+      String queryText,
+      Object iResult,
+      int iLimit,
+      Set<String> iInvolvedClusters,
+      Set<String> iInvolvedClasses,
+      long iExecutionTime,
+      long iVersion);
+
+  /**
+   * Returns version of the cached results, which is changed by each invalidation. Version has to be
+   * read before execution of the command and passed to the {@link #put(OSecurityUser, String,
+   * Object, int, Set, Set, long, long)}.
+   */
+  long getVersion();
+
   /** Removes result of query. */
   void remove(OSecurityUser iUser, String queryText, int iLimit);
 
@@ -82,6 +107,12 @@ public interface OCommandCache {
    */
   void invalidateResultsOfCluster(final String iCluster);
 
+  /**
+   * Invalidates results read from any of passed in clusters or classes at once. Called when
+   * transaction is committed, with clusters and classes of the records it changed.
+   */
+  void invalidateResults(final Set<String> iClusters, final Set<String> iClasses);
+
   int getMaxResultsetSize();
 
   STRATEGY getEvictStrategy();
@@ -28,7 +28,12 @@ import com.orientechnologies.orient.core.record.ORecord;
  * Hook that takes care to invalidate query cache as soon any change happen on database.
  *
  * @author Luca Garulli (l.garulli--(at)--orientdb.com)
+ * @deprecated Hook invalidates results before the transaction is committed, so results read
+ *     concurrently with the commit could be cached stale. Cached results are invalidated by the
+ *     storage once transaction is committed, see {@link
+ *     OCommandCache#invalidateResults(java.util.Set, java.util.Set)}.
  */
+@Deprecated
 public class OCommandCacheHook extends ORecordHookAbstract {
 
   private final OCommandCache cmdCache;
@@ -0,0 +1,254 @@
+package com.orientechnologies.orient.core.cache;
+
+import com.orientechnologies.orient.core.cache.OCommandCacheSoftRefs.OCachedResult;
+import com.orientechnologies.orient.core.storage.cache.chm.FrequencySketch;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Results of commands bounded by their estimated size in bytes and evicted according to W-TinyLFU
+ * policy. New results are put into small LRU window, result evicted from the window replaces the
+ * least recently used results of the main space only if its query was requested more often than
+ * theirs, as estimated by {@link FrequencySketch}. So a burst of one-off queries does not push out
+ * results of queries which are repeated thousands of times.
+ *
+ * <p>Results are indexed by names of clusters and classes they were read from, so invalidation
+ * does not browse all the cached results. Results without clusters are removed by any
+ * invalidation.
+ *
+ * <p>Class is not thread safe, access to it is synchronized by {@link OCommandCacheSoftRefs}.
+ */
+final class OCommandCacheMap {
+  private static final int WINDOW_PERCENT = 1;
+
+  /** Expected average size of result, used only to size the frequency sketch. */
+  private static final int AVERAGE_RESULT_SIZE = 4 * 1024;
+
+  private static final int MIN_SKETCH_CAPACITY = 1 << 8;
+  private static final int MAX_SKETCH_CAPACITY = 1 << 20;
+
+  private final LinkedHashMap<String, OCachedResult> window = new LinkedHashMap<>(16, 0.75f, true);
+  private final LinkedHashMap<String, OCachedResult> main = new LinkedHashMap<>(16, 0.75f, true);
+
+  private final Map<String, Set<String>> keysByCluster = new HashMap<>();
+  private final Map<String, Set<String>> keysByClass = new HashMap<>();
+  private final Set<String> untaggedKeys = new HashSet<>();
+
+  private final FrequencySketch sketch = new FrequencySketch();
+
+  private long maxSize;
+  private long windowMaxSize;
+  private long windowSize;
+  private long mainSize;
+
+  private long evictions;
+
+  /** @param maxSize Maximum estimated size of cached results in bytes. */
+  OCommandCacheMap(final long maxSize) {
+    setMaxSize(maxSize);
+  }
+
+  void setMaxSize(final long maxSize) {
+    this.maxSize = maxSize;
+    this.windowMaxSize = Math.max(1, maxSize * WINDOW_PERCENT / 100);
+
+    sketch.ensureCapacity(
+        Math.max(
+            MIN_SKETCH_CAPACITY, Math.min(MAX_SKETCH_CAPACITY, maxSize / AVERAGE_RESULT_SIZE)));
+
+    evictMain(null);
+    evictWindow();
+  }
+
+  long getMaxSize() {
+    return maxSize;
+  }
+
+  /** @return Estimated size of cached results in bytes. */
+  long getSize() {
+    return windowSize + mainSize;
+  }
+
+  /** @return Amount of results evicted because cache was full. */
+  long getEvictions() {
+    return evictions;
+  }
+
+  int size() {
+    return window.size() + main.size();
+  }
+
+  /** Returns cached result and records access to the query, even if result is absent. */
+  OCachedResult get(final String key) {
+    sketch.increment(key.hashCode());
+
+    final OCachedResult result = window.get(key);
+    if (result != null) return result;
+
+    return main.get(key);
+  }
+
+  void put(final OCachedResult result) {
+    remove(result.key);
+
+    sketch.increment(result.key.hashCode());
+
+    if (result.size > maxSize - windowMaxSize) {
+      // BIGGER THAN THE WHOLE MAIN SPACE, IT WOULD BE EVICTED IMMEDIATELY
+      evictions++;
+      return;
+    }
+
+    window.put(result.key, result);
+    windowSize += result.size;
+    index(result);
+
+    evictWindow();
+  }
+
+  OCachedResult remove(final String key) {
+    OCachedResult result = window.remove(key);
+    if (result != null) windowSize -= result.size;
+    else {
+      result = main.remove(key);
+      if (result != null) mainSize -= result.size;
+    }
+
+    if (result != null) unindex(result);
+
+    return result;
+  }
+
+  /** Removes results read from passed in clusters or classes and results without clusters. */
+  int invalidate(final Set<String> clusters, final Set<String> classes) {
+    final Set<String> keys = new HashSet<>(untaggedKeys);
+    if (clusters != null)
+      for (String cluster : clusters) {
+        final Set<String> clusterKeys = keysByCluster.get(cluster);
+        if (clusterKeys != null) keys.addAll(clusterKeys);
+      }
+
+    if (classes != null)
+      for (String clazz : classes) {
+        final Set<String> classKeys = keysByClass.get(clazz);
+        if (classKeys != null) keys.addAll(classKeys);
+      }
+
+    for (String key : keys) {
+      final OCachedResult result = remove(key);
+      if (result != null) result.clear();
+    }
+
+    return keys.size();
+  }
+
+  void clear() {
+    window.clear();
+    main.clear();
+    keysByCluster.clear();
+    keysByClass.clear();
+    untaggedKeys.clear();
+    windowSize = 0;
+    mainSize = 0;
+  }
+
+  /** @return Copy of cached results, window results are listed first. */
+  Map<String, OCachedResult> toMap() {
+    final Map<String, OCachedResult> result = new LinkedHashMap<>(window);
+    result.putAll(main);
+    return result;
+  }
+
+  /** Moves results evicted from the window to the main space if they win against its victims. */
+  private void evictWindow() {
+    while (windowSize > windowMaxSize && !window.isEmpty()) {
+      final Iterator<OCachedResult> iterator = window.values().iterator();
+      final OCachedResult candidate = iterator.next();
+      iterator.remove();
+      windowSize -= candidate.size;
+
+      if (evictMain(candidate)) {
+        main.put(candidate.key, candidate);
+        mainSize += candidate.size;
+      } else {
+        unindex(candidate);
+        candidate.clear();
+        evictions++;
+      }
+    }
+  }
+
+  /**
+   * Evicts least recently used results of the main space till the candidate fits into it. If
+   * candidate is not more popular than any of the victims, victims are kept and candidate is
+   * rejected.
+   *
+   * @param candidate Result which is going to be added to the main space, or <code>null</code> if
+   *     space has to be only trimmed to its maximum size.
+   * @return <code>true</code> if candidate may be added to the main space.
+   */
+  private boolean evictMain(final OCachedResult candidate) {
+    final long mainMaxSize = maxSize - windowMaxSize;
+    final long candidateSize = candidate == null ? 0 : candidate.size;
+    if (mainSize + candidateSize <= mainMaxSize) return true;
+
+    final int candidateFrequency =
+        candidate == null ? 0 : sketch.frequency(candidate.key.hashCode());
+    final List<OCachedResult> victims = new ArrayList<>();
+    long freed = 0;
+    for (OCachedResult victim : main.values()) {
+      if (mainSize - freed + candidateSize <= mainMaxSize) break;
+      if (candidate != null && sketch.frequency(victim.key.hashCode()) >= candidateFrequency)
+        return false;
+
+      victims.add(victim);
+      freed += victim.size;
+    }
+
+    for (OCachedResult victim : victims) {
+      remove(victim.key);
+      victim.clear();
+      evictions++;
+    }
+
+    return mainSize + candidateSize <= mainMaxSize;
+  }
+
+  private void index(final OCachedResult result) {
+    if (result.involvedClusters == null || result.involvedClusters.isEmpty()) {
+      untaggedKeys.add(result.key);
+      return;
+    }
+
+    for (String cluster : result.involvedClusters) {
+      keysByCluster.computeIfAbsent(cluster, k -> new HashSet<>()).add(result.key);
+    }
+
+    if (result.involvedClasses != null)
+      for (String clazz : result.involvedClasses) {
+        keysByClass.computeIfAbsent(clazz, k -> new HashSet<>()).add(result.key);
+      }
+  }
+
+  private void unindex(final OCachedResult result) {
+    untaggedKeys.remove(result.key);
+    unindex(keysByCluster, result.involvedClusters, result.key);
+    unindex(keysByClass, result.involvedClasses, result.key);
+  }
+
+  private static void unindex(
+      final Map<String, Set<String>> keysByTag, final Set<String> tags, final String key) {
+    if (tags == null) return;
+
+    for (String tag : tags) {
+      final Set<String> keys = keysByTag.get(tag);
+      if (keys != null && keys.remove(key) && keys.isEmpty()) keysByTag.remove(tag);
+    }
+  }
+}
@@ -28,35 +28,63 @@ import com.orientechnologies.common.profiler.OProfiler;
 import com.orientechnologies.orient.core.Orient;
 import com.orientechnologies.orient.core.config.OContextConfiguration;
 import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.config.OStorageConfiguration;
+import com.orientechnologies.orient.core.db.OMetadataUpdateListener;
 import com.orientechnologies.orient.core.exception.OConfigurationException;
+import com.orientechnologies.orient.core.index.OIndexManagerAbstract;
+import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.metadata.schema.OSchema;
+import com.orientechnologies.orient.core.metadata.schema.OSchemaShared;
 import com.orientechnologies.orient.core.metadata.security.OSecurityUser;
 import com.orientechnologies.orient.core.record.ORecord;
 import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.sql.executor.OResult;
 import com.orientechnologies.orient.core.sql.query.OLegacyResultSet;
 import com.orientechnologies.orient.core.storage.OStorage;
 import com.orientechnologies.orient.core.storage.disk.OLocalPaginatedStorage;
 import com.orientechnologies.orient.core.storage.impl.local.OAbstractPaginatedStorage;
 import java.io.File;
 import java.io.IOException;
+import java.util.Collections;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
 
 /**
- * Command cache implementation that uses Soft references to avoid overloading Java Heap.
+ * Command cache implementation which keeps results till they are invalidated by changes of the
+ * data they were read from. Memory used by the cache is bounded by the estimated size of the
+ * results, see {@link OGlobalConfiguration#COMMAND_CACHE_MAX_SIZE}, results of rarely executed
+ * commands are evicted first following W-TinyLFU policy.
+ *
+ * <p>Results are tagged by clusters and classes they were read from and are invalidated once
+ * transaction which changed records of these clusters or classes is committed. Results computed
+ * concurrently with such commit are not cached, so stale results are never returned. Any change
+ * of schema or of functions invalidates all the results.
+ *
+ * <p>Name of the class is kept for compatibility, results are not held by soft references anymore.
  *
  * @author Luca Garulli (l.garulli--(at)--orientdb.com)
  */
-public class OCommandCacheSoftRefs implements OCommandCache {
+public class OCommandCacheSoftRefs implements OCommandCache, OMetadataUpdateListener {
 
   private static String CONFIG_FILE = "command-cache.json";
 
+  /** Estimated memory consumed by cached result besides the result itself, in bytes. */
+  private static final int ENTRY_OVERHEAD = 256;
+
+  /** Estimated memory consumed by record besides its serialized content, in bytes. */
+  private static final int RECORD_OVERHEAD = 128;
+
+  private static final int REFERENCE_SIZE = 16;
+
   private ODocument configuration;
 
   public static class OCachedResult {
     private Object result;
-    private Set<String> involvedClusters;
+    Set<String> involvedClusters;
+    Set<String> involvedClasses;
+    String key;
+    long size;
 
     public OCachedResult(final Object result, final Set<String> involvedClusters) {
       this.involvedClusters = involvedClusters;
@@ -66,6 +94,7 @@ public class OCommandCacheSoftRefs implements OCommandCache {
     protected void clear() {
       result = null;
       involvedClusters = null;
+      involvedClasses = null;
     }
 
     public Object getResult() {
@@ -73,15 +102,14 @@ public class OCommandCacheSoftRefs implements OCommandCache {
     }
   }
 
-  private static class OCommandCacheImplRefs extends OSoftRefsHashMap<String, OCachedResult> {}
-
   private final String databaseName;
   private final String fileConfigPath;
-  private Set<String> clusters = new HashSet<String>();
   private volatile boolean enable;
-  private OCommandCacheImplRefs cache = new OCommandCacheImplRefs();
+  private final OCommandCacheMap cache;
+  private volatile long version;
   private int minExecutionTime;
   private int maxResultsetSize;
+  private int maxSize;
 
   private STRATEGY evictStrategy =
       STRATEGY.valueOf(OGlobalConfiguration.COMMAND_CACHE_EVICT_STRATEGY.getValueAsString());
@@ -98,6 +126,8 @@ public class OCommandCacheSoftRefs implements OCommandCache {
         configuration.getValueAsInteger(OGlobalConfiguration.COMMAND_CACHE_MIN_EXECUTION_TIME);
     maxResultsetSize =
         configuration.getValueAsInteger(OGlobalConfiguration.COMMAND_CACHE_MAX_RESULSET_SIZE);
+    maxSize = configuration.getValueAsInteger(OGlobalConfiguration.COMMAND_CACHE_MAX_SIZE);
+    cache = new OCommandCacheMap(maxSize * 1024L * 1024);
     initCache();
   }
 
@@ -107,6 +137,7 @@ public class OCommandCacheSoftRefs implements OCommandCache {
     configuration.field("evictStrategy", evictStrategy.toString());
     configuration.field("minExecutionTime", minExecutionTime);
     configuration.field("maxResultsetSize", maxResultsetSize);
+    configuration.field("maxSize", maxSize);
     try {
       ODocument diskConfig = loadConfiguration();
       if (diskConfig != null) {
@@ -153,6 +184,13 @@ public class OCommandCacheSoftRefs implements OCommandCache {
     evictStrategy = STRATEGY.valueOf(evict);
     minExecutionTime = configuration.field("minExecutionTime");
     maxResultsetSize = configuration.field("maxResultsetSize");
+
+    // ABSENT IN CONFIGURATIONS SAVED BY PREVIOUS VERSIONS
+    final Integer maxSize = configuration.field("maxSize");
+    if (maxSize != null) this.maxSize = maxSize;
+    synchronized (this) {
+      cache.setMaxSize(this.maxSize * 1024L * 1024);
+    }
   }
 
   private boolean updateCfgOnDisk() throws IOException {
@@ -232,10 +270,7 @@ public class OCommandCacheSoftRefs implements OCommandCache {
   @Override
   public OCommandCacheSoftRefs disable() {
     enable = false;
-    synchronized (this) {
-      clusters.clear();
-      cache.clear();
-    }
+    clear();
     configuration.field("enabled", true);
 
     try {
@@ -280,10 +315,12 @@ public class OCommandCacheSoftRefs implements OCommandCache {
       }
     }
 
+    final Object cachedResult = result != null ? result.result : null;
+
     final OProfiler profiler = Orient.instance().getProfiler();
     if (profiler.isRecording()) {
       // UPDATE PROFILER
-      if (result != null) {
+      if (cachedResult != null) {
         profiler.updateCounter(
             profiler.getDatabaseMetric(databaseName, "queryCache.hit"),
             "Results returned by Query Cache",
@@ -297,7 +334,7 @@ public class OCommandCacheSoftRefs implements OCommandCache {
       }
     }
 
-    return result != null ? result.result : null;
+    return cachedResult;
   }
 
   @Override
@@ -306,8 +343,21 @@ public class OCommandCacheSoftRefs implements OCommandCache {
       final String queryText,
       final Object iResult,
       final int iLimit,
-      Set<String> iInvolvedClusters,
+      final Set<String> iInvolvedClusters,
       final long iExecutionTime) {
+    put(iUser, queryText, iResult, iLimit, iInvolvedClusters, null, iExecutionTime, version);
+  }
+
+  @Override
+  public void put(
+      final OSecurityUser iUser,
+      final String queryText,
+      final Object iResult,
+      final int iLimit,
+      Set<String> iInvolvedClusters,
+      Set<String> iInvolvedClasses,
+      final long iExecutionTime,
+      final long iVersion) {
     if (queryText == null || iResult == null)
       // SKIP IT
       return;
@@ -327,21 +377,41 @@ public class OCommandCacheSoftRefs implements OCommandCache {
         return;
     }
 
-    if (evictStrategy != STRATEGY.PER_CLUSTER) iInvolvedClusters = null;
+    if (evictStrategy != STRATEGY.PER_CLUSTER) {
+      iInvolvedClusters = null;
+      iInvolvedClasses = null;
+    }
+
+    final String key = getKey(iUser, queryText, iLimit);
+    final OCachedResult value =
+        new OCachedResult(
+            iResult, iInvolvedClusters != null ? new HashSet<>(iInvolvedClusters) : null);
+    value.involvedClasses = iInvolvedClasses != null ? new HashSet<>(iInvolvedClasses) : null;
+    value.key = key;
+    value.size = estimateSize(key, iResult);
 
     synchronized (this) {
-      final String key = getKey(iUser, queryText, iLimit);
-      final OCachedResult value = new OCachedResult(iResult, iInvolvedClusters);
+      if (iVersion != version)
+        // RESULTS WERE INVALIDATED DURING THE EXECUTION, THIS ONE MAY BE STALE
+        return;
 
       if (OLogManager.instance().isDebugEnabled())
-        OLogManager.instance().debug(this, "Storing resultset in cache size=%d", resultsetSize);
-
-      cache.put(key, value);
+        OLogManager.instance()
+            .debug(
+                this,
+                "Storing resultset in cache size=%d bytes=%d",
+                resultsetSize,
+                value.size);
 
-      if (iInvolvedClusters != null) clusters.addAll(iInvolvedClusters);
+      cache.put(value);
     }
   }
 
+  @Override
+  public long getVersion() {
+    return version;
+  }
+
   @Override
   public void remove(final OSecurityUser iUser, final String queryText, final int iLimit) {
     if (!enable) return;
@@ -355,8 +425,8 @@ public class OCommandCacheSoftRefs implements OCommandCache {
   @Override
   public OCommandCacheSoftRefs clear() {
     synchronized (this) {
-      cache = new OCommandCacheImplRefs();
-      clusters.clear();
+      version++;
+      cache.clear();
     }
     return this;
   }
@@ -370,50 +440,61 @@ public class OCommandCacheSoftRefs implements OCommandCache {
 
   @Override
   public void invalidateResultsOfCluster(final String iCluster) {
+    invalidateResults(
+        iCluster != null ? Collections.singleton(iCluster) : null, Collections.emptySet());
+  }
+
+  @Override
+  public void invalidateResults(final Set<String> iClusters, final Set<String> iClasses) {
     if (!enable) return;
 
     synchronized (this) {
-      if (cache.size() == 0) return;
-
-      if (evictStrategy == STRATEGY.INVALIDATE_ALL) {
+      if (evictStrategy == STRATEGY.INVALIDATE_ALL || iClusters == null) {
         if (OLogManager.instance().isDebugEnabled())
-          OLogManager.instance().debug(this, "Invalidate all cached results (%d)", size());
+          OLogManager.instance().debug(this, "Invalidate all cached results (%d)", cache.size());
 
         clear();
         return;
       }
 
-      if (!clusters.remove(iCluster)) {
-        // NOT CONTAINED, AVOID COSTLY BROWSING OF RESULTS
-        if (OLogManager.instance().isDebugEnabled())
-          OLogManager.instance().debug(this, "No results found for '%s'", iCluster);
-        return;
-      }
+      version++;
 
-      int evicted = 0;
-      for (Iterator<Map.Entry<String, OCachedResult>> it = cache.entrySet().iterator();
-          it.hasNext(); ) {
-        final OCachedResult cached = it.next().getValue();
-        if (cached != null) {
-          if (cached.involvedClusters == null
-              || cached.involvedClusters.isEmpty()
-              || cached.involvedClusters.contains(iCluster)) {
-            cached.clear();
-            it.remove();
-          }
-        }
-      }
+      if (cache.size() == 0) return;
+
+      final int evicted = cache.invalidate(iClusters, iClasses);
 
       if (evicted > 0 && OLogManager.instance().isDebugEnabled())
         OLogManager.instance()
             .debug(
                 this,
-                "Invalidate %d cached results associated to the cluster '%s'",
+                "Invalidate %d cached results associated to the clusters %s and classes %s",
                 evicted,
-                iCluster);
+                iClusters,
+                iClasses);
     }
   }
 
+  @Override
+  public void onSchemaUpdate(final String database, final OSchemaShared schema) {
+    invalidateResults(null, null);
+  }
+
+  @Override
+  public void onIndexManagerUpdate(
+      final String database, final OIndexManagerAbstract indexManager) {}
+
+  @Override
+  public void onFunctionLibraryUpdate(final String database) {
+    invalidateResults(null, null);
+  }
+
+  @Override
+  public void onSequenceLibraryUpdate(final String database) {}
+
+  @Override
+  public void onStorageConfigurationUpdate(
+      final String database, final OStorageConfiguration update) {}
+
   public int getMinExecutionTime() {
     return minExecutionTime;
   }
@@ -449,10 +530,104 @@ public class OCommandCacheSoftRefs implements OCommandCache {
     return iUser + "." + queryText + "." + iLimit;
   }
 
+  public int getMaxSize() {
+    return maxSize;
+  }
+
+  /** @param maxSize Maximum estimated size of cached results in megabytes. */
+  public OCommandCacheSoftRefs setMaxSize(final int maxSize) {
+    synchronized (this) {
+      this.maxSize = maxSize;
+      cache.setMaxSize(maxSize * 1024L * 1024);
+    }
+    return this;
+  }
+
+  /** @return Estimated size of cached results in bytes. */
+  public long getSize() {
+    synchronized (this) {
+      return cache.getSize();
+    }
+  }
+
+  /** @return Amount of results evicted to keep size of the cache in bounds. */
+  public long getEvictions() {
+    synchronized (this) {
+      return cache.getEvictions();
+    }
+  }
+
+  /** @return Copy of the cached results. */
   public Set<Map.Entry<String, OCachedResult>> entrySet() {
     synchronized (this) {
-      return cache.entrySet();
+      return cache.toMap().entrySet();
+    }
+  }
+
+  /**
+   * Adds name of the class which owns passed in cluster to the passed in set.
+   *
+   * @param superClasses If <code>true</code> names of all superclasses are added too, this is
+   *     needed to invalidate results of polymorphic queries on change of records of subclasses.
+   */
+  public static void addClassesOfCluster(
+      final OSchema schema,
+      final int clusterId,
+      final boolean superClasses,
+      final Set<String> classes) {
+    final OClass clazz = schema.getClassByClusterId(clusterId);
+    if (clazz == null) return;
+
+    classes.add(clazz.getName());
+    if (superClasses)
+      for (OClass superClass : clazz.getAllSuperClasses()) {
+        classes.add(superClass.getName());
+      }
+  }
+
+  private static long estimateSize(final String key, final Object result) {
+    long size = ENTRY_OVERHEAD + 2L * key.length();
+
+    if (OMultiValue.isMultiValue(result)) {
+      for (Object item : OMultiValue.getMultiValueIterable(result)) {
+        size += estimateItemSize(item);
+      }
+    } else size += estimateItemSize(result);
+
+    return size;
+  }
+
+  private static long estimateItemSize(final Object item) {
+    if (item instanceof ORecord) return estimateRecordSize((ORecord) item);
+
+    if (item instanceof OResult) {
+      final OResult result = (OResult) item;
+      if (result.isElement()) return estimateRecordSize(result.getElement().get());
+
+      long size = RECORD_OVERHEAD;
+      for (String name : result.getPropertyNames()) {
+        final Object value = result.getProperty(name);
+        size += REFERENCE_SIZE + 2L * name.length();
+        if (value instanceof String) size += 2L * ((String) value).length();
+      }
+      return size;
     }
+
+    if (item instanceof String) return REFERENCE_SIZE + 2L * ((String) item).length();
+
+    return REFERENCE_SIZE;
+  }
+
+  private static long estimateRecordSize(final ORecord record) {
+    // SIZE OF THE CONTENT THE RECORD WAS LOADED FROM, RECORD IS NOT SERIALIZED AGAIN. DESERIALIZED
+    // FIELDS ARE KEPT TOGETHER WITH THE SERIALIZED CONTENT
+    final int size = record.getSize();
+    if (size > 0) return RECORD_OVERHEAD + 2L * size;
+
+    if (record instanceof ODocument)
+      return RECORD_OVERHEAD + 2L * REFERENCE_SIZE * ((ODocument) record).fields();
+
+    return RECORD_OVERHEAD;
   }
 
   public static boolean clearFiles(OAbstractPaginatedStorage storage) {
@@ -32,6 +32,8 @@ import com.orientechnologies.orient.core.metadata.OMetadataDefault;
 import com.orientechnologies.orient.core.serialization.serializer.record.binary.ORecordSerializerBinary;
 import com.orientechnologies.orient.core.storage.OChecksumMode;
 import com.orientechnologies.orient.core.storage.cluster.OPaginatedCluster;
+import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.OWALCompressionMode;
+import com.orientechnologies.orient.core.tx.OTransaction;
 import java.io.PrintStream;
 import java.util.Locale;
 import java.util.Map;
@@ -210,6 +212,14 @@ public enum OGlobalConfiguration { // ENVIRONMENT
       Boolean.class,
       true),
 
+  /** @Since 3.2 */
+  DISK_USE_IO_URING(
+      "storage.disk.useIOUring",
+      "Perform IO operations on data files using io_uring interface on Linux, reads and writes of pages are "
+          + "submitted to the kernel in batches. Asynchronous file channel is used if io_uring is not supported",
+      Boolean.class,
+      false),
+
   DISK_WRITE_CACHE_SHUTDOWN_TIMEOUT(
       "storage.diskCache.writeCacheShutdownTimeout",
       "Timeout of shutdown of write cache for single task in min.",
@@ -264,11 +274,48 @@ public enum OGlobalConfiguration { // ENVIRONMENT
 
   /**
    * Keep disk cache state between moment when storage is closed and moment when it is opened again.
-   * <code>true</code> by default.
+   * <code>false</code> by default.
    */
   STORAGE_KEEP_DISK_CACHE_STATE(
       "storage.diskCache.keepState",
-      "Keep disk cache state between moment when storage is closed and moment when it is opened again. true by default",
+      "Keep disk cache state between moment when storage is closed and moment when it is opened again. "
+          + "Keys of the hottest pages are stored on close and periodically, see 'storage.diskCache.stateSaveInterval', "
+          + "and loaded in background once storage is opened. false by default",
+      Boolean.class,
+      false),
+
+  /** @Since 3.2 */
+  STORAGE_DISK_CACHE_STATE_SAVE_INTERVAL(
+      "storage.diskCache.stateSaveInterval",
+      "Minimum interval in seconds between two stores of the disk cache state kept by 'storage.diskCache.keepState' "
+          + "while storage is open. The state is stored after fuzzy checkpoint once the interval is passed and always "
+          + "on close. 0 means the state is stored only on close",
+      Integer.class,
+      600),
+
+  /** @Since 3.2 */
+  STORAGE_DISK_CACHE_READ_AHEAD_PAGES(
+      "storage.diskCache.readAheadPages",
+      "Maximum amount of pages which are read from the file by a single batch of reads once sequential access "
+          + "to the file, like cluster or index range scan, is detected. The amount of pages read ahead grows while "
+          + "they are consumed and shrinks otherwise. 0 or 1 disables read-ahead",
+      Integer.class,
+      32),
+
+  /** @Since 3.2 */
+  STORAGE_DISK_CACHE_WARM_UP_RATE(
+      "storage.diskCache.warmUpRate",
+      "Maximum amount of pages per second which are loaded into the disk cache during warm up of the cache "
+          + "state kept by 'storage.diskCache.keepState'. 0 means no limit",
+      Integer.class,
+      1024),
+
+  /** @Since 3.2 */
+  STORAGE_DISK_CACHE_MEMORY_MAPPED_READS(
+      "storage.diskCache.memoryMappedReads",
+      "Serve pages which are loaded into the disk cache directly from the data files mapped into memory, "
+          + "without copying of their content. Intended for read-mostly databases, changed pages are still written "
+          + "through the write cache. Not used for encrypted databases",
       Boolean.class,
       false),
 
@@ -400,6 +447,15 @@ public enum OGlobalConfiguration { // ENVIRONMENT
       Boolean.class,
       false),
 
+  /** @Since 3.2 */
+  STORAGE_MEMORY_APPLY_CHANGES_IN_PLACE(
+      "storage.memory.applyChangesInPlace",
+      "If this flag switched on, atomic operations of in-memory storages apply changes directly "
+          + "to the pages and keep only overwritten data to be able to roll them back, "
+          + "instead of tracking of binary changes. Ignored by persistent storages.",
+      Boolean.class,
+      false),
+
   STORAGE_PAGE_OPERATIONS_CACHE_SIZE(
       "storage.pageOperationsCacheSize",
       "Size of page operations cache in MB per transaction. "
@@ -561,6 +617,50 @@ public enum OGlobalConfiguration { // ENVIRONMENT
       Integer.class,
       1000),
 
+  /** @Since 3.2 */
+  WAL_COMPRESSION_MODE(
+      "storage.wal.compressionMode",
+      "Compression of the records written into WAL. Possible modes: 'Off' - records are not compressed;"
+          + " 'Fast' (default) - records are compressed by the fast LZ4 compressor; 'High' - records are compressed"
+          + " by LZ4 HC compressor which gives better compression ratio at the cost of higher CPU usage."
+          + " Records written in any mode are read by any storage",
+      OWALCompressionMode.class,
+      OWALCompressionMode.Fast),
+
+  /** @Since 3.2 */
+  WAL_COMPRESSION_MIN_RECORD_SIZE(
+      "storage.wal.compressionMinRecordSize",
+      "Minimum size of the WAL record (in bytes) which is compressed, smaller records are written as is",
+      Integer.class,
+      8 * 1024),
+
+  /** @Since 3.2 */
+  STORAGE_TX_DURABILITY(
+      "storage.txDurability",
+      "Default durability of the transactions which do not set it explicitly. Possible values: 'ASYNC' (default) -"
+          + " commit returns once changes are written into WAL, WAL is synced in background; 'GROUP' - commit waits"
+          + " till WAL is synced, sync is delayed on 'storage.wal.groupCommitMaxWait' ms so concurrent commits are"
+          + " synced together; 'SYNC' - commit starts the sync immediately and waits till it is completed."
+          + " 'GROUP' and 'SYNC' sync changes to the disk only if 'storage.callFsync' is enabled",
+      OTransaction.DURABILITY.class,
+      OTransaction.DURABILITY.ASYNC),
+
+  /** @Since 3.2 */
+  WAL_GROUP_COMMIT_MAX_WAIT(
+      "storage.wal.groupCommitMaxWait",
+      "Maximum time (in ms) during which commits with 'GROUP' durability wait to be synced by a single WAL sync",
+      Integer.class,
+      5),
+
+  /** @Since 3.2 */
+  WAL_RESTORE_THREADS(
+      "storage.wal.restore.threads",
+      "Amount of threads which apply the page changes read from WAL during a restore procedure."
+          + " Changes of the same page are always applied by the same thread in the order of"
+          + " their LSNs, atomic operations are applied one after another",
+      Integer.class,
+      Runtime.getRuntime().availableProcessors()),
+
   @Deprecated
   WAL_READ_CACHE_SIZE(
       "storage.wal.readCacheSize",
@@ -1179,6 +1279,14 @@ public enum OGlobalConfiguration { // ENVIRONMENT
       Long.class,
       120000),
 
+  /** @Since 3.2 */
+  PROFILER_METRICS_ENABLED(
+      "profiler.metrics.enabled",
+      "Collects counters and latency histograms of storage, cache, query and network operations,"
+          + " which are exposed through JMX and in Prometheus format by the server",
+      Boolean.class,
+      true),
+
   // SEQUENCES
 
   SEQUENCE_MAX_RETRY(
@@ -1273,6 +1381,14 @@ public enum OGlobalConfiguration { // ENVIRONMENT
       Integer.class,
       500),
 
+  /** @Since 3.2 */
+  COMMAND_CACHE_MAX_SIZE(
+      "command.cache.maxSize",
+      "Maximum estimated size of results kept by command cache in megabytes, results of rarely "
+          + "executed commands are evicted first",
+      Integer.class,
+      64),
+
   // QUERY
   QUERY_REMOTE_RESULTSET_PAGE_SIZE(
       "query.remoteResultSet.pageSize",
@@ -1281,6 +1397,16 @@ public enum OGlobalConfiguration { // ENVIRONMENT
       Integer.class,
       1000),
 
+  /** @Since 3.2 */
+  QUERY_REMOTE_PREPARED_STATEMENTS(
+      "query.remotePreparedStatements",
+      "Maximum number of parametrized queries that a client prepares on each server, so that "
+          + "following executions only send the statement handle and the parameters. "
+          + "0 disables prepared statements. This has to be set on the client.",
+      Integer.class,
+      1000,
+      true),
+
   QUERY_REMOTE_SEND_EXECUTION_PLAN(
       "query.remoteResultSet.sendExecutionPlan",
       "Send the execution plan details or not. False by default",
@@ -1338,6 +1464,39 @@ public enum OGlobalConfiguration { // ENVIRONMENT
       Long.class,
       500_000),
 
+  /** @Since 3.2 */
+  QUERY_SLOW_LOG_THRESHOLD(
+      "query.slowLog.threshold",
+      "Queries which run longer than this amount of milliseconds are kept in the slow query log"
+          + " together with their execution plan, which is available as metadata:slowQueries."
+          + " (Use 0 to disable)",
+      Long.class,
+      1000),
+
+  /** @Since 3.2 */
+  QUERY_SLOW_LOG_SIZE(
+      "query.slowLog.size",
+      "Maximum amount of queries kept in the slow query log of each database, the oldest"
+          + " queries are removed first",
+      Integer.class,
+      100),
+
+  /** @Since 3.2 */
+  QUERY_VECTORIZED_EXECUTION(
+      "query.vectorizedExecution",
+      "Calculate COUNT, SUM, MIN, MAX and AVG of properties of a class reading the records in"
+          + " batches of primitive columns, if the WHERE condition only compares properties with"
+          + " constants",
+      Boolean.class,
+      false),
+
+  /** @Since 3.2 */
+  QUERY_VECTORIZED_BATCH_SIZE(
+      "query.vectorizedBatchSize",
+      "Number of records read in a batch by vectorized execution",
+      Integer.class,
+      1024),
+
   QUERY_LIVE_SUPPORT(
       "query.live.support",
       "Enable/Disable the support of live query. (Use false to disable)",
@@ -1350,6 +1509,16 @@ public enum OGlobalConfiguration { // ENVIRONMENT
       Integer.class,
       100),
 
+  /** @Since 3.2 */
+  STATEMENT_CACHE_REPLAN_FACTOR(
+      "statement.cacheReplanFactor",
+      "A cached execution plan is discarded and planned again when the average number of entries "
+          + "fetched by one of its index lookups grows or shrinks by this factor compared to "
+          + "the statistics it was planned with. Zero disables re-planning",
+      Integer.class,
+      10,
+      true),
+
   // GRAPH
   SQL_GRAPH_CONSISTENCY_MODE(
       "sql.graphConsistencyMode",
@@ -1414,6 +1583,15 @@ public enum OGlobalConfiguration { // ENVIRONMENT
       Boolean.class,
       false),
 
+  /** @Since 3.2 */
+  SERVER_OPEN_DATABASES_PARALLELISM(
+      "server.openDatabasesParallelism",
+      "Maximum number of databases opened in parallel when all the available databases are opened"
+          + " at startup. Databases that need to be recovered from the write ahead log do not delay"
+          + " the opening of the others",
+      Integer.class,
+      Runtime.getRuntime().availableProcessors()),
+
   SERVER_DATABASE_PATH(
       "server.database.path",
       "The path where are located the databases of a server",
@@ -1515,6 +1693,30 @@ public enum OGlobalConfiguration { // ENVIRONMENT
       7,
       true),
 
+  /** @Since 3.2 */
+  DISTRIBUTED_DEPLOYDB_PARALLEL_CHUNKS(
+      "distributed.deployDbParallelChunks",
+      "Maximum number of database chunks requested in parallel by a node which installs a full database backup. Set to 1 to fetch chunks one after another",
+      Integer.class,
+      4,
+      true),
+
+  /** @Since 3.2 */
+  DISTRIBUTED_DEPLOYDB_CHUNK_COMPRESSION(
+      "distributed.deployDbChunkCompression",
+      "Compress database chunks with LZ4 before they are sent over the network during database deployment",
+      Boolean.class,
+      true,
+      true),
+
+  /** @Since 3.2 */
+  DISTRIBUTED_DEPLOYDB_CHUNK_RETRIES(
+      "distributed.deployDbChunkRetries",
+      "Maximum number of times a database chunk which failed to arrive or failed checksum verification is requested again, before database deployment is aborted",
+      Integer.class,
+      5,
+      true),
+
   DISTRIBUTED_ASYNCH_QUEUE_SIZE(
       "distributed.asynchQueueSize",
       "Queue size to handle distributed asynchronous operations. The bigger is the queue, the more operation are buffered, but also more memory it's consumed. 0 = dynamic allocation, which means up to 2^31-1 entries",
@@ -1579,6 +1781,20 @@ public enum OGlobalConfiguration { // ENVIRONMENT
       Integer.class,
       1),
 
+  /** @Since 3.2 */
+  DISTRIBUTED_REQUEST_BATCH_WINDOW(
+      "distributed.requestBatchWindow",
+      "Time (in microseconds) a request channel waits to collect concurrent requests, like the phases of concurrent transactions, before it writes them to the network with a single flush. With 0 only the requests already waiting are sent together",
+      Integer.class,
+      0),
+
+  /** @Since 3.2 */
+  DISTRIBUTED_REQUEST_BATCH_MAX_SIZE(
+      "distributed.requestBatchMaxSize",
+      "Maximum number of requests written to the network with a single flush by a request channel",
+      Integer.class,
+      64),
+
   /** @Since 2.2.5 */
   DISTRIBUTED_HEARTBEAT_TIMEOUT(
       "distributed.heartbeatTimeout",
@@ -37,6 +37,7 @@ import com.orientechnologies.orient.core.serialization.serializer.binary.OBinary
 import com.orientechnologies.orient.core.serialization.serializer.record.ORecordSerializer;
 import com.orientechnologies.orient.core.sql.executor.OExecutionPlan;
 import com.orientechnologies.orient.core.sql.executor.OResultSet;
+import com.orientechnologies.orient.core.sql.parser.OStatement;
 import com.orientechnologies.orient.core.storage.ORecordCallback;
 import com.orientechnologies.orient.core.storage.OStorage;
 import com.orientechnologies.orient.core.storage.ridbag.sbtree.OBonsaiCollectionPointer;
@@ -243,6 +244,30 @@ public interface ODatabaseDocumentInternal extends ODatabaseSession, ODatabaseIn
 
   String getClusterName(final ORecord record);
 
+  /**
+   * Executes an idempotent statement that was already parsed, e.g. one bound to a prepared
+   * statement handle, skipping the lookup of the statement text.
+   *
+   * @param statement the parsed statement
+   * @param args the positional parameters
+   * @return the result set of the query
+   */
+  default OResultSet queryPrepared(OStatement statement, Object[] args) {
+    return query(statement.getOriginalStatement(), args);
+  }
+
+  /**
+   * Executes an idempotent statement that was already parsed, e.g. one bound to a prepared
+   * statement handle, skipping the lookup of the statement text.
+   *
+   * @param statement the parsed statement
+   * @param args the named parameters
+   * @return the result set of the query
+   */
+  default OResultSet queryPrepared(OStatement statement, Map args) {
+    return query(statement.getOriginalStatement(), args);
+  }
+
   default OResultSet indexQuery(String indexName, String query, Object... args) {
     return command(query, args);
   }
@@ -20,6 +20,20 @@
 package com.orientechnologies.orient.core.db;
 
 import com.orientechnologies.orient.core.db.document.ODatabaseDocument;
+import com.orientechnologies.orient.core.exception.OTransactionException;
+import com.orientechnologies.orient.core.tx.OTransaction;
 
 /** Session for database operations with a specific user. */
-public interface ODatabaseSession extends ODatabaseDocument {}
+public interface ODatabaseSession extends ODatabaseDocument {
+  /**
+   * Commits the current transaction with the given durability. {@link
+   * OTransaction.DURABILITY#SYNC} and {@link OTransaction.DURABILITY#GROUP} return only after the
+   * changes are synced to the disk, if <code>storage.callFsync</code> is enabled, {@link
+   * OTransaction.DURABILITY#ASYNC} returns once changes are written into the WAL. Durability is
+   * ignored by the storages which do not support it.
+   *
+   * @param durability durability of the transaction changes
+   * @return this database instance
+   */
+  ODatabaseSession commit(OTransaction.DURABILITY durability) throws OTransactionException;
+}
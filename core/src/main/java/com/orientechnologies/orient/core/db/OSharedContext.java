@@ -2,6 +2,7 @@ package com.orientechnologies.orient.core.db;
 
 import com.orientechnologies.common.listener.OListenerManger;
 import com.orientechnologies.common.profiler.OProfiler;
+import com.orientechnologies.common.profiler.metrics.OHistogram;
 import com.orientechnologies.orient.core.Orient;
 import com.orientechnologies.orient.core.cache.OCommandCache;
 import com.orientechnologies.orient.core.db.viewmanager.ViewManager;
@@ -14,6 +15,7 @@ import com.orientechnologies.orient.core.query.live.OLiveQueryHook;
 import com.orientechnologies.orient.core.query.live.OLiveQueryHookV2;
 import com.orientechnologies.orient.core.schedule.OSchedulerImpl;
 import com.orientechnologies.orient.core.sql.executor.OQueryStats;
+import com.orientechnologies.orient.core.sql.executor.OSlowQueryLog;
 import com.orientechnologies.orient.core.sql.parser.OExecutionPlanCache;
 import com.orientechnologies.orient.core.sql.parser.OStatementCache;
 import com.orientechnologies.orient.core.storage.OStorage;
@@ -36,6 +38,10 @@ public abstract class OSharedContext extends OListenerManger<OMetadataUpdateList
   protected OStatementCache statementCache;
   protected OExecutionPlanCache executionPlanCache;
   protected OQueryStats queryStats;
+  protected OSlowQueryLog slowQueryLog;
+  protected OHistogram queryDuration;
+  protected OHistogram commandDuration;
+  protected OHistogram scriptDuration;
   protected volatile boolean loaded = false;
 
   public OSharedContext() {
@@ -90,6 +96,25 @@ public abstract class OSharedContext extends OListenerManger<OMetadataUpdateList
     return queryStats;
   }
 
+  public OSlowQueryLog getSlowQueryLog() {
+    return slowQueryLog;
+  }
+
+  /** @return Histogram of durations of idempotent queries, from execution till close. */
+  public OHistogram getQueryDuration() {
+    return queryDuration;
+  }
+
+  /** @return Histogram of durations of SQL commands, from execution till close. */
+  public OHistogram getCommandDuration() {
+    return commandDuration;
+  }
+
+  /** @return Histogram of durations of scripts, from execution till close. */
+  public OHistogram getScriptDuration() {
+    return scriptDuration;
+  }
+
   public abstract void load(ODatabaseDocumentInternal oDatabaseDocumentInternal);
 
   public abstract void reload(ODatabaseDocumentInternal database);
@@ -1,5 +1,7 @@
 package com.orientechnologies.orient.core.db;
 
+import com.orientechnologies.common.profiler.metrics.OHistogram;
+import com.orientechnologies.orient.core.Orient;
 import com.orientechnologies.orient.core.cache.OCommandCacheSoftRefs;
 import com.orientechnologies.orient.core.config.OGlobalConfiguration;
 import com.orientechnologies.orient.core.db.viewmanager.ViewManager;
@@ -16,6 +18,7 @@ import com.orientechnologies.orient.core.query.live.OLiveQueryHookV2;
 import com.orientechnologies.orient.core.schedule.OSchedulerImpl;
 import com.orientechnologies.orient.core.security.OSecurityManager;
 import com.orientechnologies.orient.core.sql.executor.OQueryStats;
+import com.orientechnologies.orient.core.sql.executor.OSlowQueryLog;
 import com.orientechnologies.orient.core.sql.parser.OExecutionPlanCache;
 import com.orientechnologies.orient.core.sql.parser.OStatementCache;
 import com.orientechnologies.orient.core.storage.OStorage;
@@ -55,8 +58,22 @@ public class OSharedContextEmbedded extends OSharedContext {
                 .getContextConfiguration()
                 .getValueAsInteger(OGlobalConfiguration.STATEMENT_CACHE_SIZE));
     this.registerListener(executionPlanCache);
+    this.registerListener((OCommandCacheSoftRefs) commandCache);
 
     queryStats = new OQueryStats();
+    slowQueryLog =
+        new OSlowQueryLog(
+            storage
+                .getConfiguration()
+                .getContextConfiguration()
+                .getValueAsInteger(OGlobalConfiguration.QUERY_SLOW_LOG_SIZE),
+            storage
+                .getConfiguration()
+                .getContextConfiguration()
+                .getValueAsLong(OGlobalConfiguration.QUERY_SLOW_LOG_THRESHOLD));
+    queryDuration = queryDurationHistogram(storage.getName(), "query");
+    commandDuration = queryDurationHistogram(storage.getName(), "command");
+    scriptDuration = queryDurationHistogram(storage.getName(), "script");
     activeDistributedQueries = new HashMap<>();
     ((OAbstractPaginatedStorage) storage)
         .setStorageConfigurationUpdateListener(
@@ -69,6 +86,19 @@ public class OSharedContextEmbedded extends OSharedContext {
     this.viewManager = new ViewManager(orientDB, storage.getName());
   }
 
+  private static OHistogram queryDurationHistogram(
+      final String database, final String operation) {
+    return Orient.instance()
+        .getMetrics()
+        .histogram(
+            "orientdb_query_duration_seconds",
+            "Duration of queries, commands and scripts from execution till close of the result set",
+            "database",
+            database,
+            "operation",
+            operation);
+  }
+
   public synchronized void load(ODatabaseDocumentInternal database) {
     final long timer = PROFILER.startChrono();
 
@@ -85,6 +115,7 @@ public class OSharedContextEmbedded extends OSharedContext {
         sequenceLibrary.load(database);
         schema.onPostIndexManagement();
         viewManager.load();
+        executionPlanCache.registerMetrics(storage.getName());
         loaded = true;
       }
     } finally {
@@ -108,6 +139,7 @@ public class OSharedContextEmbedded extends OSharedContext {
     commandCache.shutdown();
     statementCache.clear();
     executionPlanCache.invalidate();
+    executionPlanCache.unregisterMetrics();
     liveQueryOps.close();
     liveQueryOpsV2.close();
     activeDistributedQueries.values().forEach(x -> x.close());
@@ -0,0 +1,92 @@
+/*
+ *
+ *  *  Copyright 2010-2016 OrientDB LTD (http://orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://orientdb.com
+ *
+ */
+package com.orientechnologies.orient.core.db;
+
+import com.orientechnologies.orient.core.exception.OStaleReadException;
+
+/**
+ * Maximum staleness accepted by the queries of a session. In a distributed deployment a replica
+ * serves such queries from its local copy without any coordination with the other servers, as long
+ * as it is at most {@link #getMaxLagMillis()} milliseconds and at most {@link
+ * #getMaxLagTransactions()} transactions behind the transactions it knows about. Otherwise the query
+ * fails with {@link OStaleReadException} and the remote client retries it on another server.
+ *
+ * <p>A negative value means that the corresponding dimension is not bounded.
+ */
+public final class OStalenessBound {
+  public static final long UNBOUNDED = -1;
+
+  private final long maxLagMillis;
+  private final long maxLagTransactions;
+
+  private OStalenessBound(final long maxLagMillis, final long maxLagTransactions) {
+    this.maxLagMillis = maxLagMillis;
+    this.maxLagTransactions = maxLagTransactions;
+  }
+
+  public static OStalenessBound of(final long maxLagMillis, final long maxLagTransactions) {
+    return new OStalenessBound(maxLagMillis, maxLagTransactions);
+  }
+
+  public static OStalenessBound ofMillis(final long maxLagMillis) {
+    return new OStalenessBound(maxLagMillis, UNBOUNDED);
+  }
+
+  public static OStalenessBound ofTransactions(final long maxLagTransactions) {
+    return new OStalenessBound(UNBOUNDED, maxLagTransactions);
+  }
+
+  public long getMaxLagMillis() {
+    return maxLagMillis;
+  }
+
+  public long getMaxLagTransactions() {
+    return maxLagTransactions;
+  }
+
+  public boolean isSatisfiedBy(final long lagMillis, final long lagTransactions) {
+    if (maxLagMillis >= 0 && lagMillis > maxLagMillis) {
+      return false;
+    }
+    return maxLagTransactions < 0 || lagTransactions <= maxLagTransactions;
+  }
+
+  @Override
+  public boolean equals(final Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+    final OStalenessBound that = (OStalenessBound) o;
+    return maxLagMillis == that.maxLagMillis && maxLagTransactions == that.maxLagTransactions;
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * Long.hashCode(maxLagMillis) + Long.hashCode(maxLagTransactions);
+  }
+
+  @Override
+  public String toString() {
+    return "OStalenessBound{maxLagMillis="
+        + maxLagMillis
+        + ", maxLagTransactions="
+        + maxLagTransactions
+        + '}';
+  }
+}
@@ -70,9 +70,12 @@ import java.util.Timer;
 import java.util.TimerTask;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -836,18 +839,100 @@ public class OrientDBEmbedded implements OrientDBInternal {
     return databases;
   }
 
-  public synchronized void loadAllDatabases() {
-    if (basePath != null) {
+  public void loadAllDatabases() {
+    if (basePath == null) {
+      return;
+    }
+    final List<OAbstractPaginatedStorage> toOpen = new ArrayList<>();
+    synchronized (this) {
       scanDatabaseDirectory(
           new File(basePath),
           (name) -> {
             if (!storages.containsKey(name)) {
-              OAbstractPaginatedStorage storage = getOrInitStorage(name);
-              // THIS OPEN THE STORAGE ONLY THE FIRST TIME
-              storage.open(getConfigurations().getConfigurations());
+              toOpen.add(getOrInitStorage(name));
             }
           });
     }
+    if (toOpen.isEmpty()) {
+      return;
+    }
+
+    // THE STORAGES ARE OPENED IN PARALLEL, SO A STORAGE THAT NEEDS TO BE RECOVERED FROM THE WAL
+    // DOES NOT DELAY THE OTHERS
+    final int parallelism =
+        Math.max(
+            1,
+            Math.min(
+                toOpen.size(),
+                getConfigurations()
+                    .getConfigurations()
+                    .getValueAsInteger(OGlobalConfiguration.SERVER_OPEN_DATABASES_PARALLELISM)));
+    final ExecutorService openExecutor =
+        Executors.newFixedThreadPool(parallelism, new StorageOpenThreadFactory());
+    try {
+      final List<Future<?>> futures = new ArrayList<>();
+      for (OAbstractPaginatedStorage storage : toOpen) {
+        futures.add(openExecutor.submit(() -> openStorageAtStartup(storage)));
+      }
+
+      RuntimeException error = null;
+      for (int i = 0; i < futures.size(); i++) {
+        try {
+          futures.get(i).get();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw OException.wrapException(
+              new ODatabaseException("Interrupted while opening the databases"), e);
+        } catch (ExecutionException e) {
+          final OAbstractPaginatedStorage storage = toOpen.get(i);
+          OLogManager.instance()
+              .errorNoDb(this, "Cannot open database '" + storage.getName() + "'", e.getCause());
+          synchronized (this) {
+            storages.remove(storage.getName());
+          }
+          if (error == null) {
+            error =
+                e.getCause() instanceof RuntimeException
+                    ? (RuntimeException) e.getCause()
+                    : OException.wrapException(
+                        new ODatabaseException(
+                            "Cannot open database '" + storage.getName() + "'"),
+                        e.getCause());
+          }
+        }
+      }
+      if (error != null) {
+        throw error;
+      }
+    } finally {
+      openExecutor.shutdown();
+    }
+  }
+
+  private void openStorageAtStartup(OAbstractPaginatedStorage storage) {
+    final long start = System.nanoTime();
+    // THIS OPEN THE STORAGE ONLY THE FIRST TIME
+    storage.open(getConfigurations().getConfigurations());
+    final long openTime = (System.nanoTime() - start) / 1_000_000;
+    OLogManager.instance()
+        .infoNoDb(
+            this,
+            "Database '%s' opened in %,d ms%s",
+            storage.getName(),
+            openTime,
+            storage.wereDataRestoredAfterOpen() ? " (recovered from write ahead log)" : "");
+  }
+
+  private static final class StorageOpenThreadFactory implements ThreadFactory {
+    private final AtomicInteger counter = new AtomicInteger();
+
+    @Override
+    public Thread newThread(final Runnable r) {
+      final Thread thread = new Thread(r);
+      thread.setDaemon(true);
+      thread.setName("OrientDB Storage Open " + counter.incrementAndGet());
+      return thread;
+    }
   }
 
   public ODatabasePoolInternal openPool(String name, String user, String password) {
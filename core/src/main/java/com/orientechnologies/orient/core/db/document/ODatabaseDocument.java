@@ -21,6 +21,7 @@
 package com.orientechnologies.orient.core.db.document;
 
 import com.orientechnologies.orient.core.db.ODatabase;
+import com.orientechnologies.orient.core.db.OStalenessBound;
 import com.orientechnologies.orient.core.db.record.OIdentifiable;
 import com.orientechnologies.orient.core.exception.OSchemaException;
 import com.orientechnologies.orient.core.iterator.ORecordIteratorClass;
@@ -448,4 +449,21 @@ public interface ODatabaseDocument extends ODatabase<ORecord> {
     }
     return result;
   }
+
+  /**
+   * Sets the maximum staleness accepted by the queries of this session. When it is set a replica
+   * of a distributed database serves the queries from its local copy only if it is not further
+   * behind than the bound, otherwise the queries fail and remote clients retry them on another
+   * server.
+   *
+   * @param bound the accepted staleness, or null to remove the bound
+   */
+  void setReadStalenessBound(OStalenessBound bound);
+
+  /**
+   * Returns the maximum staleness accepted by the queries of this session.
+   *
+   * @return the accepted staleness, or null if it is not bounded
+   */
+  OStalenessBound getReadStalenessBound();
 }
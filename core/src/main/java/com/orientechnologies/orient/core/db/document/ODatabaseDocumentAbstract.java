@@ -40,8 +40,10 @@ import com.orientechnologies.orient.core.db.ODatabaseInternal;
 import com.orientechnologies.orient.core.db.ODatabaseLifecycleListener;
 import com.orientechnologies.orient.core.db.ODatabaseListener;
 import com.orientechnologies.orient.core.db.ODatabaseRecordThreadLocal;
+import com.orientechnologies.orient.core.db.ODatabaseSession;
 import com.orientechnologies.orient.core.db.OScenarioThreadLocal;
 import com.orientechnologies.orient.core.db.OSharedContext;
+import com.orientechnologies.orient.core.db.OStalenessBound;
 import com.orientechnologies.orient.core.db.record.OCurrentStorageComponentsFactory;
 import com.orientechnologies.orient.core.db.record.OIdentifiable;
 import com.orientechnologies.orient.core.db.record.ORecordOperation;
@@ -159,6 +161,7 @@ public abstract class ODatabaseDocumentAbstract extends OListenerManger<ODatabas
   protected OSharedContext sharedContext;
 
   private boolean prefetchRecords;
+  private volatile OStalenessBound readStalenessBound;
 
   protected OMicroTransaction microTransaction = null;
 
@@ -1162,6 +1165,16 @@ public abstract class ODatabaseDocumentAbstract extends OListenerManger<ODatabas
     return prefetchRecords;
   }
 
+  @Override
+  public void setReadStalenessBound(final OStalenessBound bound) {
+    this.readStalenessBound = bound;
+  }
+
+  @Override
+  public OStalenessBound getReadStalenessBound() {
+    return readStalenessBound;
+  }
+
   /**
    * This method is internal, it can be subject to signature change or be removed, do not
    * use. @Internal
@@ -1951,6 +1964,20 @@ public abstract class ODatabaseDocumentAbstract extends OListenerManger<ODatabas
     return commit(false);
   }
 
+  @Override
+  public ODatabaseSession commit(final OTransaction.DURABILITY durability)
+      throws OTransactionException {
+    checkOpenness();
+    checkIfActive();
+
+    if (currentTx instanceof OTransactionOptimistic) {
+      ((OTransactionOptimistic) currentTx).setDurability(durability);
+    }
+
+    commit(false);
+    return this;
+  }
+
   @Override
   public ODatabaseDocument commit(boolean force) throws OTransactionException {
     checkOpenness();
@@ -25,7 +25,7 @@ import com.orientechnologies.common.exception.OException;
 import com.orientechnologies.common.io.OIOUtils;
 import com.orientechnologies.common.log.OLogManager;
 import com.orientechnologies.orient.core.Orient;
-import com.orientechnologies.orient.core.cache.OCommandCacheHook;
+import com.orientechnologies.orient.core.cache.OCommandCache;
 import com.orientechnologies.orient.core.cache.OLocalRecordCache;
 import com.orientechnologies.orient.core.command.OBasicCommandContext;
 import com.orientechnologies.orient.core.command.OScriptExecutor;
@@ -53,6 +53,7 @@ import com.orientechnologies.orient.core.exception.ORecordNotFoundException;
 import com.orientechnologies.orient.core.exception.OSchemaException;
 import com.orientechnologies.orient.core.exception.OSecurityAccessException;
 import com.orientechnologies.orient.core.exception.OSecurityException;
+import com.orientechnologies.orient.core.exception.OStaleReadException;
 import com.orientechnologies.orient.core.fetch.OFetchHelper;
 import com.orientechnologies.orient.core.hook.ORecordHook;
 import com.orientechnologies.orient.core.id.ORID;
@@ -94,12 +95,14 @@ import com.orientechnologies.orient.core.schedule.OScheduledEvent;
 import com.orientechnologies.orient.core.serialization.serializer.record.ORecordSerializerFactory;
 import com.orientechnologies.orient.core.sql.OSQLEngine;
 import com.orientechnologies.orient.core.sql.executor.LiveQueryListenerImpl;
+import com.orientechnologies.orient.core.sql.executor.OCommandCacheResultSet;
 import com.orientechnologies.orient.core.sql.executor.OExecutionPlan;
 import com.orientechnologies.orient.core.sql.executor.OInternalExecutionPlan;
 import com.orientechnologies.orient.core.sql.executor.OInternalResultSet;
 import com.orientechnologies.orient.core.sql.executor.OResultSet;
 import com.orientechnologies.orient.core.sql.parser.OLocalResultSet;
 import com.orientechnologies.orient.core.sql.parser.OLocalResultSetLifecycleDecorator;
+import com.orientechnologies.orient.core.sql.parser.OSelectStatement;
 import com.orientechnologies.orient.core.sql.parser.OStatement;
 import com.orientechnologies.orient.core.storage.OBasicTransaction;
 import com.orientechnologies.orient.core.storage.ORawBuffer;
@@ -125,6 +128,7 @@ import java.util.Set;
 import java.util.TimeZone;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 /** Created by tglman on 27/06/16. */
 public class ODatabaseDocumentEmbedded extends ODatabaseDocumentAbstract
@@ -192,8 +196,6 @@ public class ODatabaseDocumentEmbedded extends ODatabaseDocumentAbstract
       loadMetadata(this.sharedContext);
 
       installHooksEmbedded();
-      if (this.getMetadata().getCommandCache().isEnabled())
-        registerHook(new OCommandCacheHook(this), ORecordHook.HOOK_POSITION.REGULAR);
 
       user = null;
 
@@ -278,9 +280,6 @@ public class ODatabaseDocumentEmbedded extends ODatabaseDocumentAbstract
     metadata = new OMetadataDefault(this);
     installHooksEmbedded();
     createMetadata(ctx);
-
-    if (this.getMetadata().getCommandCache().isEnabled())
-      registerHook(new OCommandCacheHook(this), ORecordHook.HOOK_POSITION.REGULAR);
   }
 
   public void callOnCreateListeners() {
@@ -547,14 +546,26 @@ public class ODatabaseDocumentEmbedded extends ODatabaseDocumentAbstract
   public OResultSet query(String query, Object[] args) {
     checkOpenness();
     checkIfActive();
+    return queryPrepared(OSQLEngine.parse(query, this), args);
+  }
+
+  @Override
+  public OResultSet queryPrepared(OStatement statement, Object[] args) {
+    checkOpenness();
+    checkIfActive();
+    checkReadStaleness();
+    final long start = System.nanoTime();
 
-    OStatement statement = OSQLEngine.parse(query, this);
     if (!statement.isIdempotent()) {
       throw new OCommandExecutionException(
-          "Cannot execute query on non idempotent statement: " + query);
+          "Cannot execute query on non idempotent statement: "
+              + statement.getOriginalStatement());
     }
-    OResultSet original = statement.execute(this, args, true);
+    OResultSet original =
+        executeQuery(
+            statement, args != null && args.length > 0, () -> statement.execute(this, args, true));
     OLocalResultSetLifecycleDecorator result = new OLocalResultSetLifecycleDecorator(original);
+    result.recordDurationOnClose(sharedContext.getQueryDuration(), start);
     this.queryStarted(result.getQueryId(), result);
     result.addLifecycleListener(this);
     return result;
@@ -564,23 +575,75 @@ public class ODatabaseDocumentEmbedded extends ODatabaseDocumentAbstract
   public OResultSet query(String query, Map args) {
     checkOpenness();
     checkIfActive();
+    return queryPrepared(OSQLEngine.parse(query, this), args);
+  }
+
+  @Override
+  public OResultSet queryPrepared(OStatement statement, Map args) {
+    checkOpenness();
+    checkIfActive();
+    checkReadStaleness();
+    final long start = System.nanoTime();
 
-    OStatement statement = OSQLEngine.parse(query, this);
     if (!statement.isIdempotent()) {
       throw new OCommandExecutionException(
-          "Cannot execute query on non idempotent statement: " + query);
+          "Cannot execute query on non idempotent statement: "
+              + statement.getOriginalStatement());
     }
-    OResultSet original = statement.execute(this, args, true);
+    OResultSet original =
+        executeQuery(
+            statement, args != null && !args.isEmpty(), () -> statement.execute(this, args, true));
     OLocalResultSetLifecycleDecorator result = new OLocalResultSetLifecycleDecorator(original);
+    result.recordDurationOnClose(sharedContext.getQueryDuration(), start);
     this.queryStarted(result.getQueryId(), result);
     result.addLifecycleListener(this);
     return result;
   }
 
+  /**
+   * Executes the query. Results of SELECT statements without parameters, executed outside of a
+   * transaction, are looked up in the command cache and pushed to it once consumed, if the cache is
+   * enabled.
+   */
+  private OResultSet executeQuery(
+      OStatement statement, boolean parameters, Supplier<OResultSet> execution) {
+    final OCommandCache commandCache = getMetadata().getCommandCache();
+    final String text = statement.getOriginalStatement();
+    // RESULTS READ IN TRANSACTION MAY CONTAIN ITS NOT COMMITTED CHANGES
+    if (parameters
+        || text == null
+        || !(statement instanceof OSelectStatement)
+        || commandCache == null
+        || !commandCache.isEnabled()
+        || getTransaction().isActive()) {
+      return execution.get();
+    }
+
+    final OResultSet cached = OCommandCacheResultSet.lookup(commandCache, getUser(), text);
+    if (cached != null) {
+      return cached;
+    }
+
+    // READ BEFORE THE EXECUTION TO AVOID CACHING OF RESULTS INVALIDATED DURING THE EXECUTION
+    final long cacheVersion = commandCache.getVersion();
+    return new OCommandCacheResultSet(
+        execution.get(), commandCache, getUser(), text, cacheVersion);
+  }
+
+  /**
+   * Checks that the local copy of the database can serve the queries of this session according to
+   * the {@link #getReadStalenessBound()}. A single server is never stale, distributed databases
+   * override it.
+   *
+   * @throws OStaleReadException if the local copy is further behind than the accepted staleness
+   */
+  protected void checkReadStaleness() {}
+
   @Override
   public OResultSet command(String query, Object[] args) {
     checkOpenness();
     checkIfActive();
+    final long start = System.nanoTime();
 
     OStatement statement = OSQLEngine.parse(query, this);
     OResultSet original = statement.execute(this, args, true);
@@ -597,6 +660,7 @@ public class ODatabaseDocumentEmbedded extends ODatabaseDocumentAbstract
       this.queryStarted(result.getQueryId(), result);
       result.addLifecycleListener(this);
     }
+    result.recordDurationOnClose(sharedContext.getCommandDuration(), start);
     return result;
   }
 
@@ -604,6 +668,7 @@ public class ODatabaseDocumentEmbedded extends ODatabaseDocumentAbstract
   public OResultSet command(String query, Map args) {
     checkOpenness();
     checkIfActive();
+    final long start = System.nanoTime();
 
     OStatement statement = OSQLEngine.parse(query, this);
     OResultSet original = statement.execute(this, args, true);
@@ -620,6 +685,7 @@ public class ODatabaseDocumentEmbedded extends ODatabaseDocumentAbstract
       this.queryStarted(result.getQueryId(), result);
       result.addLifecycleListener(this);
     }
+    result.recordDurationOnClose(sharedContext.getCommandDuration(), start);
     return result;
   }
 
@@ -627,6 +693,7 @@ public class ODatabaseDocumentEmbedded extends ODatabaseDocumentAbstract
   public OResultSet execute(String language, String script, Object... args) {
     checkOpenness();
     checkIfActive();
+    final long start = System.nanoTime();
     if (!"sql".equalsIgnoreCase(language)) {
       checkSecurity(ORule.ResourceGeneric.COMMAND, ORole.PERMISSION_EXECUTE, language);
     }
@@ -648,6 +715,7 @@ public class ODatabaseDocumentEmbedded extends ODatabaseDocumentAbstract
           .fireConfigurationUpdateNotifications();
     }
     OLocalResultSetLifecycleDecorator result = new OLocalResultSetLifecycleDecorator(original);
+    result.recordDurationOnClose(sharedContext.getScriptDuration(), start);
     this.queryStarted(result.getQueryId(), result);
     result.addLifecycleListener(this);
     return result;
@@ -657,6 +725,7 @@ public class ODatabaseDocumentEmbedded extends ODatabaseDocumentAbstract
   public OResultSet execute(String language, String script, Map<String, ?> args) {
     checkOpenness();
     checkIfActive();
+    final long start = System.nanoTime();
     if (!"sql".equalsIgnoreCase(language)) {
       checkSecurity(ORule.ResourceGeneric.COMMAND, ORole.PERMISSION_EXECUTE, language);
     }
@@ -679,6 +748,7 @@ public class ODatabaseDocumentEmbedded extends ODatabaseDocumentAbstract
     }
 
     OLocalResultSetLifecycleDecorator result = new OLocalResultSetLifecycleDecorator(original);
+    result.recordDurationOnClose(sharedContext.getScriptDuration(), start);
     this.queryStarted(result.getQueryId(), result);
     result.addLifecycleListener(this);
     return result;
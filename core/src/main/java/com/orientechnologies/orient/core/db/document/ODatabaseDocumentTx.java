@@ -16,10 +16,12 @@ import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
 import com.orientechnologies.orient.core.db.ODatabaseInternal;
 import com.orientechnologies.orient.core.db.ODatabaseListener;
 import com.orientechnologies.orient.core.db.ODatabaseRecordThreadLocal;
+import com.orientechnologies.orient.core.db.ODatabaseSession;
 import com.orientechnologies.orient.core.db.ODatabaseType;
 import com.orientechnologies.orient.core.db.OLiveQueryMonitor;
 import com.orientechnologies.orient.core.db.OLiveQueryResultListener;
 import com.orientechnologies.orient.core.db.OSharedContext;
+import com.orientechnologies.orient.core.db.OStalenessBound;
 import com.orientechnologies.orient.core.db.OrientDB;
 import com.orientechnologies.orient.core.db.OrientDBConfig;
 import com.orientechnologies.orient.core.db.OrientDBConfigBuilder;
@@ -749,6 +751,14 @@ public class ODatabaseDocumentTx implements ODatabaseDocumentInternal {
     return this;
   }
 
+  @Override
+  public ODatabaseSession commit(final OTransaction.DURABILITY durability)
+      throws OTransactionException {
+    checkOpenness();
+    internal.commit(durability);
+    return this;
+  }
+
   @Override
   public ODatabase<ORecord> rollback() throws OTransactionException {
     checkOpenness();
@@ -1474,6 +1484,18 @@ public class ODatabaseDocumentTx implements ODatabaseDocumentInternal {
     internal.setPrefetchRecords(prefetchRecords);
   }
 
+  @Override
+  public void setReadStalenessBound(OStalenessBound bound) {
+    checkOpenness();
+    internal.setReadStalenessBound(bound);
+  }
+
+  @Override
+  public OStalenessBound getReadStalenessBound() {
+    checkOpenness();
+    return internal.getReadStalenessBound();
+  }
+
   public void checkForClusterPermissions(String name) {
     checkOpenness();
     internal.checkForClusterPermissions(name);
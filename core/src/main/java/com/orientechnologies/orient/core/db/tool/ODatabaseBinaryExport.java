@@ -0,0 +1,440 @@
+package com.orientechnologies.orient.core.db.tool;
+
+import com.orientechnologies.common.log.OLogManager;
+import com.orientechnologies.orient.core.command.OCommandOutputListener;
+import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
+import com.orientechnologies.orient.core.db.record.OIdentifiable;
+import com.orientechnologies.orient.core.db.record.ridbag.ORidBag;
+import com.orientechnologies.orient.core.iterator.ORecordIteratorCluster;
+import com.orientechnologies.orient.core.metadata.OMetadataDefault;
+import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.metadata.schema.OGlobalProperty;
+import com.orientechnologies.orient.core.metadata.schema.OSchema;
+import com.orientechnologies.orient.core.metadata.security.OIdentity;
+import com.orientechnologies.orient.core.metadata.security.OSecurityPolicy;
+import com.orientechnologies.orient.core.record.ORecord;
+import com.orientechnologies.orient.core.record.ORecordInternal;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Exports database into a directory using binary format which can be imported in parallel by
+ * {@link ODatabaseBinaryImport}.
+ *
+ * <p>Schema, cluster definitions and index definitions are exported in JSON format by {@link
+ * ODatabaseExport} into {@value #DATABASE_FILE} and {@value #INDEXES_FILE} files. Records of every
+ * cluster are written into a separate segment using native record serialization, so clusters are
+ * exported and imported concurrently and records are not converted to and from JSON. Alongside of
+ * each segment a small file which contains runs of exported cluster positions is written, it
+ * allows to compute the new RID of any exported record before the records are imported. Native
+ * serialization refers to properties by ids of global properties, so the table of global properties
+ * is written into {@value #PROPERTIES_FILE} and checked against the imported database.
+ *
+ * <p>Records of security classes are not exported, as well as manual indexes.
+ */
+public class ODatabaseBinaryExport extends ODatabaseImpExpAbstract {
+  static final int MAGIC = 0x4F444258; // ODBX
+  static final int VERSION = 1;
+
+  static final String DATABASE_FILE = "database.json.gz";
+  static final String INDEXES_FILE = "indexes.json.gz";
+  static final String PROPERTIES_FILE = "properties.bin";
+  static final String SEGMENT_PREFIX = "cluster-";
+  static final String SEGMENT_EXT = ".bin.gz";
+  static final String POSITIONS_EXT = ".rids";
+
+  static final int IO_BUFFER_SIZE = 64 * 1024;
+
+  private final File directory;
+  private int parallel = Runtime.getRuntime().availableProcessors();
+  private int compressionLevel = Deflater.BEST_SPEED;
+
+  public ODatabaseBinaryExport(
+      final ODatabaseDocumentInternal iDatabase,
+      final String iDirectory,
+      final OCommandOutputListener iListener) {
+    super(iDatabase, iDirectory, iListener);
+
+    if (fileName == null) throw new IllegalArgumentException("directory name missing");
+
+    // target is a directory, so extension appended by default is removed
+    if (fileName.endsWith(DEFAULT_EXT) && !iDirectory.endsWith(DEFAULT_EXT))
+      fileName = fileName.substring(0, fileName.length() - DEFAULT_EXT.length());
+
+    directory = new File(fileName);
+    if (directory.exists() && !directory.isDirectory())
+      throw new IllegalArgumentException("'" + fileName + "' is not a directory");
+  }
+
+  @Override
+  public void run() {
+    exportDatabase();
+  }
+
+  @Override
+  public ODatabaseBinaryExport setOptions(final String s) {
+    super.setOptions(s);
+    return this;
+  }
+
+  public int getParallel() {
+    return parallel;
+  }
+
+  public void setParallel(final int parallel) {
+    this.parallel = Math.max(parallel, 1);
+  }
+
+  public ODatabaseBinaryExport exportDatabase() {
+    try {
+      listener.onMessage(
+          "\nStarted binary export of database '"
+              + database.getName()
+              + "' to "
+              + directory
+              + "...");
+
+      final long time = System.currentTimeMillis();
+
+      prepareDirectory();
+
+      final ODatabaseExport metadataExport =
+          new ODatabaseExport(
+              database, new File(directory, DATABASE_FILE).getPath(), listener);
+      copySettings(metadataExport);
+      metadataExport.setIncludeRecords(false);
+      metadataExport.setIncludeIndexDefinitions(false);
+      metadataExport.setIncludeManualIndexes(false);
+      metadataExport.exportDatabase();
+
+      if (includeRecords) exportRecords();
+
+      if (includeIndexDefinitions) {
+        final ODatabaseExport indexExport =
+            new ODatabaseExport(
+                database, new File(directory, INDEXES_FILE).getPath(), listener);
+        copySettings(indexExport);
+        indexExport.setIncludeInfo(false);
+        indexExport.setIncludeClusterDefinitions(false);
+        indexExport.setIncludeSchema(false);
+        indexExport.setIncludeRecords(false);
+        indexExport.setIncludeManualIndexes(false);
+        indexExport.exportDatabase();
+      }
+
+      listener.onMessage(
+          "\n\nDatabase binary export completed in "
+              + (System.currentTimeMillis() - time)
+              + "ms");
+    } catch (Exception e) {
+      OLogManager.instance()
+          .error(this, "Error on exporting database '%s' to: %s", e, database.getName(), fileName);
+      throw new ODatabaseExportException(
+          "Error on exporting database '" + database.getName() + "' to: " + fileName, e);
+    } finally {
+      database.activateOnCurrentThread();
+    }
+
+    return this;
+  }
+
+  /** @return Total amount of exported records. */
+  public long exportRecords() throws IOException, InterruptedException {
+    listener.onMessage("\nExporting records...");
+
+    exportGlobalProperties();
+
+    final Queue<String> clusters = new ConcurrentLinkedQueue<>(selectClusters());
+    final AtomicLong exportedRecords = new AtomicLong();
+
+    final int threads = Math.min(parallel, Math.max(clusters.size(), 1));
+    final ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      final List<Future<Void>> workers = new ArrayList<>(threads);
+      for (int i = 0; i < threads; i++) {
+        final ODatabaseDocumentInternal workerDb = database.copy();
+        workers.add(
+            executor.submit(
+                () -> {
+                  workerDb.activateOnCurrentThread();
+                  try {
+                    String clusterName;
+                    while ((clusterName = clusters.poll()) != null) {
+                      final long records = exportCluster(workerDb, clusterName);
+                      exportedRecords.addAndGet(records);
+
+                      listener.onMessage(
+                          "\n- Cluster '" + clusterName + "'...OK (records=" + records + ")");
+                    }
+                  } finally {
+                    workerDb.close();
+                  }
+                  return null;
+                }));
+      }
+
+      for (Future<Void> worker : workers) {
+        try {
+          worker.get();
+        } catch (ExecutionException e) {
+          clusters.clear();
+          if (e.getCause() instanceof IOException) throw (IOException) e.getCause();
+          if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+          throw new ODatabaseExportException("Error on exporting of records", e.getCause());
+        }
+      }
+    } finally {
+      executor.shutdownNow();
+      database.activateOnCurrentThread();
+    }
+
+    listener.onMessage("\n\nDone. Exported " + exportedRecords.get() + " records\n");
+    return exportedRecords.get();
+  }
+
+  @Override
+  protected void parseSetting(final String option, final List<String> items) {
+    if (option.equalsIgnoreCase("-parallel")) setParallel(Integer.parseInt(items.get(0)));
+    else if (option.equalsIgnoreCase("-compressionLevel"))
+      compressionLevel = Integer.parseInt(items.get(0));
+    else super.parseSetting(option, items);
+  }
+
+  private void copySettings(final ODatabaseExport export) {
+    export.setIncludeInfo(includeInfo);
+    export.setIncludeClusterDefinitions(includeClusterDefinitions);
+    export.setIncludeSchema(includeSchema);
+    export.setIncludeIndexDefinitions(includeIndexDefinitions);
+    export.setIncludeClusters(includeClusters);
+    export.setExcludeClusters(excludeClusters);
+    export.setIncludeClasses(includeClasses);
+    export.setExcludeClasses(excludeClasses);
+  }
+
+  /** Removes segments left by previous exports, so they are not picked up during import. */
+  private void prepareDirectory() throws IOException {
+    if (!directory.exists() && !directory.mkdirs())
+      throw new IOException("Can not create directory '" + directory + "'");
+
+    final File[] files = directory.listFiles();
+    if (files == null) return;
+
+    for (File file : files) {
+      final String name = file.getName();
+      if (name.startsWith(SEGMENT_PREFIX)
+          && (name.endsWith(SEGMENT_EXT) || name.endsWith(POSITIONS_EXT))) {
+        if (!file.delete()) throw new IOException("Can not delete file '" + file + "'");
+
+        OLogManager.instance().warn(this, "'%s' deleted while exporting", file);
+      }
+    }
+  }
+
+  private List<String> selectClusters() {
+    final Set<Integer> skippedClusters = new HashSet<>();
+    skippedClusters.add(database.getClusterIdByName(OMetadataDefault.CLUSTER_INTERNAL_NAME));
+    skippedClusters.add(database.getClusterIdByName(OMetadataDefault.CLUSTER_INDEX_NAME));
+    skippedClusters.add(database.getClusterIdByName(OMetadataDefault.CLUSTER_MANUAL_INDEX_NAME));
+
+    final OSchema schema = database.getMetadata().getImmutableSchemaSnapshot();
+    final OClass identity = schema.getClass(OIdentity.CLASS_NAME);
+    final OClass policy = schema.getClass(OSecurityPolicy.class.getSimpleName());
+    for (OClass cls : schema.getClasses()) {
+      final boolean security =
+          (identity != null && cls.isSubClassOf(identity))
+              || (policy != null && cls.isSubClassOf(policy));
+      final boolean excluded =
+          excludeClasses != null
+              && excludeClasses.contains(cls.getName().toUpperCase(Locale.ENGLISH));
+
+      if (security || excluded) {
+        for (int clusterId : cls.getClusterIds()) skippedClusters.add(clusterId);
+      }
+    }
+
+    final List<String> clusters = new ArrayList<>();
+    for (String clusterName : database.getClusterNames()) {
+      final String name = clusterName.toUpperCase(Locale.ENGLISH);
+      if (includeClusters != null) {
+        if (!includeClusters.contains(name)) continue;
+      } else if (excludeClusters != null) {
+        if (excludeClusters.contains(name)) continue;
+      }
+
+      if (skippedClusters.contains(database.getClusterIdByName(clusterName))) continue;
+
+      clusters.add(clusterName);
+    }
+
+    return clusters;
+  }
+
+  private void exportGlobalProperties() throws IOException {
+    final List<OGlobalProperty> properties = new ArrayList<>();
+    for (OGlobalProperty property :
+        database.getMetadata().getImmutableSchemaSnapshot().getGlobalProperties()) {
+      if (property != null) properties.add(property);
+    }
+
+    final File file = new File(directory, PROPERTIES_FILE);
+    try (DataOutputStream output =
+        new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+      output.writeInt(MAGIC);
+      output.writeInt(VERSION);
+      output.writeInt(properties.size());
+      for (OGlobalProperty property : properties) {
+        output.writeInt(property.getId());
+        output.writeUTF(property.getName());
+        output.writeByte(property.getType().getId());
+      }
+    }
+  }
+
+  private long exportCluster(final ODatabaseDocumentInternal db, final String clusterName)
+      throws IOException {
+    final int clusterId = db.getClusterIdByName(clusterName);
+
+    long[] runs = new long[16];
+    int runsCount = 0;
+    long lastPosition = -2;
+    long records = 0;
+
+    final File segment = new File(directory, SEGMENT_PREFIX + clusterId + SEGMENT_EXT);
+    try (DataOutputStream output =
+        new DataOutputStream(
+            new BufferedOutputStream(
+                new GZIPOutputStream(new FileOutputStream(segment), IO_BUFFER_SIZE) {
+                  {
+                    def.setLevel(compressionLevel);
+                  }
+                },
+                IO_BUFFER_SIZE))) {
+      writeHeader(output, clusterId, clusterName);
+      output.writeUTF(db.getSerializer().toString());
+
+      final ORecordIteratorCluster<ORecord> iterator = db.browseCluster(clusterName);
+      while (iterator.hasNext()) {
+        final ORecord record = iterator.next();
+        if (!isIncluded(record)) continue;
+
+        final long position = record.getIdentity().getClusterPosition();
+        final byte[] content = toStream(record);
+
+        output.writeLong(position);
+        output.writeByte(ORecordInternal.getRecordType(record));
+        output.writeInt(content.length);
+        output.write(content);
+
+        // positions are stored as runs of consecutive positions, which are mapped to consecutive
+        // positions of the new cluster during import
+        if (position != lastPosition + 1) {
+          if (runsCount * 2 == runs.length) runs = Arrays.copyOf(runs, runs.length << 1);
+
+          runs[runsCount * 2] = position;
+          runsCount++;
+        }
+        runs[runsCount * 2 - 1]++;
+
+        lastPosition = position;
+        records++;
+      }
+
+      output.writeLong(-1);
+
+      if (!iterator.getBrokenRIDs().isEmpty())
+        listener.onMessage(
+            "\nWARN: "
+                + iterator.getBrokenRIDs().size()
+                + " broken records in cluster '"
+                + clusterName
+                + "' were skipped");
+    }
+
+    final File positions = new File(directory, SEGMENT_PREFIX + clusterId + POSITIONS_EXT);
+    try (DataOutputStream output =
+        new DataOutputStream(new BufferedOutputStream(new FileOutputStream(positions)))) {
+      writeHeader(output, clusterId, clusterName);
+      output.writeLong(records);
+      output.writeInt(runsCount);
+      for (int i = 0; i < runsCount * 2; i++) output.writeLong(runs[i]);
+    }
+
+    return records;
+  }
+
+  private boolean isIncluded(final ORecord record) {
+    if (record instanceof ODocument) {
+      final String className = ((ODocument) record).getClassName();
+      final String name = className != null ? className.toUpperCase(Locale.ENGLISH) : null;
+
+      if (includeClasses != null) return includeClasses.contains(name);
+      if (excludeClasses != null) return !excludeClasses.contains(name);
+
+      return true;
+    }
+
+    return includeClasses == null || includeClasses.isEmpty();
+  }
+
+  /**
+   * Serializes the record. Tree based ridbags are stored in separate data structures of the
+   * database, so they are converted into embedded ridbags which are serialized with the document.
+   */
+  private static byte[] toStream(final ORecord record) {
+    final byte[] content = record.toStream();
+    if (!(record instanceof ODocument)) return content;
+
+    final ODocument document = (ODocument) record;
+    ODocument copy = null;
+    for (Map.Entry<String, Object> field : document) {
+      final Object value = field.getValue();
+      if (!(value instanceof ORidBag) || ((ORidBag) value).isEmbedded()) continue;
+
+      if (copy == null) {
+        copy = new ODocument();
+        copy.fromStream(content);
+      }
+
+      // thresholds prevent conversion of the copy back into tree based ridbag
+      final ORidBag embedded = new ORidBag(Integer.MAX_VALUE, -1);
+      for (Iterator<OIdentifiable> it = ((ORidBag) value).rawIterator(); it.hasNext(); )
+        embedded.add(it.next().getIdentity());
+
+      copy.field(field.getKey(), embedded);
+    }
+
+    if (copy == null) return content;
+
+    return copy.toStream();
+  }
+
+  private static void writeHeader(
+      final DataOutputStream output, final int clusterId, final String clusterName)
+      throws IOException {
+    output.writeInt(MAGIC);
+    output.writeInt(VERSION);
+    output.writeInt(clusterId);
+    output.writeUTF(clusterName);
+  }
+}
@@ -0,0 +1,521 @@
+package com.orientechnologies.orient.core.db.tool;
+
+import com.orientechnologies.common.exception.OException;
+import com.orientechnologies.common.log.OLogManager;
+import com.orientechnologies.orient.core.Orient;
+import com.orientechnologies.orient.core.command.OCommandOutputListener;
+import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
+import com.orientechnologies.orient.core.db.ODatabaseSession;
+import com.orientechnologies.orient.core.db.document.ODocumentFieldWalker;
+import com.orientechnologies.orient.core.db.tool.importer.OConverterData;
+import com.orientechnologies.orient.core.db.tool.importer.OImportConvertersFactory;
+import com.orientechnologies.orient.core.db.tool.importer.OLinksRewriter;
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.id.ORecordId;
+import com.orientechnologies.orient.core.intent.OIntentMassiveInsert;
+import com.orientechnologies.orient.core.metadata.schema.OGlobalProperty;
+import com.orientechnologies.orient.core.metadata.schema.OGlobalPropertyImpl;
+import com.orientechnologies.orient.core.metadata.schema.OSchema;
+import com.orientechnologies.orient.core.metadata.schema.OSchemaShared;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.record.ORecord;
+import com.orientechnologies.orient.core.record.ORecordInternal;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Imports database exported by {@link ODatabaseBinaryExport}.
+ *
+ * <p>Schema and clusters are imported first. Then files with runs of exported cluster positions
+ * are read and the new RID of every exported record is computed, so links are rewritten while
+ * records are read and the additional pass over imported records is not needed. Segments of
+ * clusters are imported concurrently, indexes are created once all records are imported, which
+ * builds them in bulk.
+ *
+ * <p>Clusters of imported records should not be modified by other sessions during import, otherwise
+ * import fails because records get positions which differ from computed ones. Records are imported
+ * without conversion, so global properties of the exported database are created with the same ids
+ * before the schema is imported and import fails if these ids are already used by other properties.
+ * Links to records of clusters which were not exported, such as records of security classes, fail
+ * the import too.
+ */
+public class ODatabaseBinaryImport extends ODatabaseImpExpAbstract {
+  private final File directory;
+  private int parallel = Runtime.getRuntime().availableProcessors();
+  private boolean merge = false;
+
+  public ODatabaseBinaryImport(
+      final ODatabaseDocumentInternal database,
+      final String iDirectory,
+      final OCommandOutputListener iListener) {
+    super(database, iDirectory, iListener);
+
+    if (iListener == null)
+      listener =
+          new OCommandOutputListener() {
+            @Override
+            public void onMessage(String iText) {}
+          };
+
+    if (fileName.endsWith(DEFAULT_EXT) && !iDirectory.endsWith(DEFAULT_EXT))
+      fileName = fileName.substring(0, fileName.length() - DEFAULT_EXT.length());
+
+    directory = new File(fileName);
+    if (!directory.isDirectory())
+      throw new IllegalArgumentException("'" + fileName + "' is not a directory");
+  }
+
+  @Override
+  public void run() {
+    importDatabase();
+  }
+
+  @Override
+  public ODatabaseBinaryImport setOptions(final String iOptions) {
+    super.setOptions(iOptions);
+    return this;
+  }
+
+  public int getParallel() {
+    return parallel;
+  }
+
+  public void setParallel(final int parallel) {
+    this.parallel = Math.max(parallel, 1);
+  }
+
+  public boolean isMerge() {
+    return merge;
+  }
+
+  public void setMerge(final boolean merge) {
+    this.merge = merge;
+  }
+
+  public ODatabaseBinaryImport importDatabase() {
+    try {
+      listener.onMessage(
+          "\nStarted binary import of database '"
+              + database.getURL()
+              + "' from "
+              + directory
+              + "...");
+
+      final long time = System.currentTimeMillis();
+
+      createGlobalProperties();
+      importMetadata(ODatabaseBinaryExport.DATABASE_FILE, merge);
+      importRecords();
+
+      if (new File(directory, ODatabaseBinaryExport.INDEXES_FILE).exists())
+        importMetadata(ODatabaseBinaryExport.INDEXES_FILE, true);
+
+      database.getMetadata().reload();
+
+      listener.onMessage(
+          "\n\nDatabase binary import completed in "
+              + (System.currentTimeMillis() - time)
+              + " ms");
+    } catch (Exception e) {
+      OLogManager.instance()
+          .error(
+              this, "Error on importing database '%s' from: %s", e, database.getName(), fileName);
+      throw new ODatabaseExportException(
+          "Error on importing database '" + database.getName() + "' from: " + fileName, e);
+    } finally {
+      database.activateOnCurrentThread();
+    }
+
+    return this;
+  }
+
+  /** @return Total amount of imported records. */
+  public long importRecords() throws IOException, InterruptedException {
+    listener.onMessage("\n\nImporting records...");
+
+    final Map<Integer, ClusterMapping> mappings = readMappings();
+    if (!mappings.isEmpty()) checkGlobalProperties();
+
+    final Queue<ClusterMapping> segments = new ConcurrentLinkedQueue<>(mappings.values());
+    final AtomicLong importedRecords = new AtomicLong();
+    final long begin = System.currentTimeMillis();
+
+    final int threads = Math.min(parallel, Math.max(segments.size(), 1));
+    final ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      final List<Future<Void>> workers = new ArrayList<>(threads);
+      for (int i = 0; i < threads; i++) {
+        final ODatabaseDocumentInternal workerDb = database.copy();
+        workers.add(
+            executor.submit(
+                () -> {
+                  workerDb.activateOnCurrentThread();
+                  workerDb.declareIntent(new OIntentMassiveInsert());
+                  workerDb.setValidationEnabled(false);
+                  try {
+                    final RidMapping ridMapping = new RidMapping(workerDb, mappings);
+
+                    ClusterMapping segment;
+                    while ((segment = segments.poll()) != null) {
+                      final long records = importSegment(workerDb, segment, ridMapping);
+                      importedRecords.addAndGet(records);
+
+                      listener.onMessage(
+                          "\n- Cluster '"
+                              + segment.clusterName
+                              + "'...OK (records="
+                              + records
+                              + ")");
+                    }
+                  } finally {
+                    workerDb.declareIntent(null);
+                    workerDb.close();
+                  }
+                  return null;
+                }));
+      }
+
+      for (Future<Void> worker : workers) {
+        try {
+          worker.get();
+        } catch (ExecutionException e) {
+          segments.clear();
+          if (e.getCause() instanceof IOException) throw (IOException) e.getCause();
+          if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+          throw OException.wrapException(
+              new ODatabaseImportException("Error on importing of records"), e.getCause());
+        }
+      }
+    } finally {
+      executor.shutdownNow();
+      database.activateOnCurrentThread();
+    }
+
+    listener.onMessage(
+        String.format(
+            "\n\nDone. Imported %,d records in %,.2f secs\n",
+            importedRecords.get(), ((float) (System.currentTimeMillis() - begin)) / 1000));
+
+    return importedRecords.get();
+  }
+
+  @Override
+  protected void parseSetting(final String option, final List<String> items) {
+    if (option.equalsIgnoreCase("-parallel")) setParallel(Integer.parseInt(items.get(0)));
+    else if (option.equalsIgnoreCase("-merge")) merge = Boolean.parseBoolean(items.get(0));
+    else super.parseSetting(option, items);
+  }
+
+  private void importMetadata(final String file, final boolean merge) throws IOException {
+    final ODatabaseImport metadataImport =
+        new ODatabaseImport(database, new File(directory, file).getPath(), listener);
+    metadataImport.setMerge(merge);
+    metadataImport.setMigrateLinks(false);
+    // records of security classes are not imported, so there are no stale indexes
+    metadataImport.setRebuildIndexes(false);
+    metadataImport.importDatabase();
+  }
+
+  /**
+   * Reads runs of exported positions of all clusters and computes the first position of every run
+   * in the imported database.
+   */
+  private Map<Integer, ClusterMapping> readMappings() throws IOException {
+    final Map<Integer, ClusterMapping> mappings = new HashMap<>();
+
+    final File[] files = directory.listFiles();
+    if (files == null) return mappings;
+
+    for (File file : files) {
+      final String name = file.getName();
+      if (!name.startsWith(ODatabaseBinaryExport.SEGMENT_PREFIX)
+          || !name.endsWith(ODatabaseBinaryExport.POSITIONS_EXT)) continue;
+
+      try (DataInputStream input =
+          new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+        final int sourceClusterId = readHeader(input, file);
+        final String clusterName = input.readUTF();
+
+        final int targetClusterId = database.getClusterIdByName(clusterName);
+        if (targetClusterId < 0)
+          throw new ODatabaseImportException(
+              "Cluster '" + clusterName + "' is absent in imported database");
+
+        input.readLong(); // amount of records
+        final int runs = input.readInt();
+
+        final long[] starts = new long[runs];
+        final long[] lengths = new long[runs];
+        final long[] firstIndexes = new long[runs];
+        long index = 0;
+        for (int i = 0; i < runs; i++) {
+          starts[i] = input.readLong();
+          lengths[i] = input.readLong();
+          firstIndexes[i] = index;
+          index += lengths[i];
+        }
+
+        final long base = database.getStorage().getClusterNextPosition(targetClusterId);
+        mappings.put(
+            sourceClusterId,
+            new ClusterMapping(
+                sourceClusterId,
+                clusterName,
+                targetClusterId,
+                base,
+                starts,
+                lengths,
+                firstIndexes));
+      }
+    }
+
+    return mappings;
+  }
+
+  /**
+   * Creates global properties of the exported database with the same ids before the schema is
+   * imported, so properties of imported classes get ids which are used by the exported records.
+   */
+  private void createGlobalProperties() throws IOException {
+    final File file = new File(directory, ODatabaseBinaryExport.PROPERTIES_FILE);
+    if (!file.exists()) return;
+
+    final OSchemaShared schema = database.getSharedContext().getSchema();
+    schema.acquireSchemaWriteLock(database);
+    try {
+      for (OGlobalProperty exported : readGlobalProperties(file)) {
+        final OGlobalProperty property = schema.getGlobalPropertyById(exported.getId());
+        if (property == null)
+          schema.createGlobalProperty(exported.getName(), exported.getType(), exported.getId());
+        else checkGlobalProperty(exported, property);
+      }
+    } finally {
+      schema.releaseSchemaWriteLock(database);
+    }
+  }
+
+  /**
+   * Checks that every global property of the exported database has the same id in the imported
+   * database, otherwise fields of the imported records would be read with wrong names and types.
+   */
+  private void checkGlobalProperties() throws IOException {
+    final File file = new File(directory, ODatabaseBinaryExport.PROPERTIES_FILE);
+    if (!file.exists())
+      throw new ODatabaseImportException("Global properties file '" + file + "' is absent");
+
+    final OSchema schema = database.getMetadata().getSchema();
+    for (OGlobalProperty exported : readGlobalProperties(file))
+      checkGlobalProperty(exported, schema.getGlobalPropertyById(exported.getId()));
+  }
+
+  private static void checkGlobalProperty(
+      final OGlobalProperty exported, final OGlobalProperty property) {
+    if (property != null
+        && property.getName().equals(exported.getName())
+        && property.getType() == exported.getType()) return;
+
+    throw new ODatabaseImportException(
+        "Global property '"
+            + exported.getName()
+            + "' of type "
+            + exported.getType()
+            + " has id "
+            + exported.getId()
+            + " in exported database, but "
+            + (property == null
+                ? "this id is not used"
+                : "property '" + property.getName() + "' of type " + property.getType())
+            + " in imported database, records can not be imported in binary form."
+            + " Use JSON export and import instead");
+  }
+
+  private static List<OGlobalProperty> readGlobalProperties(final File file) throws IOException {
+    try (DataInputStream input =
+        new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+      checkVersion(input, file);
+
+      final int count = input.readInt();
+      final List<OGlobalProperty> properties = new ArrayList<>(count);
+      for (int i = 0; i < count; i++) {
+        final int id = input.readInt();
+        final String name = input.readUTF();
+        final OType type = OType.getById(input.readByte());
+        properties.add(new OGlobalPropertyImpl(name, type, id));
+      }
+
+      return properties;
+    }
+  }
+
+  private long importSegment(
+      final ODatabaseDocumentInternal db, final ClusterMapping mapping, final RidMapping ridMapping)
+      throws IOException {
+    final File file =
+        new File(
+            directory,
+            ODatabaseBinaryExport.SEGMENT_PREFIX
+                + mapping.sourceClusterId
+                + ODatabaseBinaryExport.SEGMENT_EXT);
+
+    final ODocumentFieldWalker walker = new ODocumentFieldWalker();
+    final OLinksRewriter rewriter = new OLinksRewriter(ridMapping);
+
+    long records = 0;
+    try (DataInputStream input =
+        new DataInputStream(
+            new BufferedInputStream(
+                new GZIPInputStream(
+                    new FileInputStream(file), ODatabaseBinaryExport.IO_BUFFER_SIZE),
+                ODatabaseBinaryExport.IO_BUFFER_SIZE))) {
+      if (readHeader(input, file) != mapping.sourceClusterId)
+        throw new ODatabaseImportException("Invalid cluster id in segment '" + file + "'");
+      input.readUTF(); // cluster name
+
+      final String serializer = input.readUTF();
+      if (!serializer.equals(db.getSerializer().toString()))
+        throw new ODatabaseImportException(
+            "Records in segment '"
+                + file
+                + "' are serialized by "
+                + serializer
+                + " but database uses "
+                + db.getSerializer());
+
+      long position;
+      while ((position = input.readLong()) >= 0) {
+        final byte type = input.readByte();
+        final byte[] content = new byte[input.readInt()];
+        input.readFully(content);
+
+        final ORecord record =
+            Orient.instance()
+                .getRecordFactoryManager()
+                .newInstance(type, mapping.targetClusterId, db);
+        ORecordInternal.fill(record, new ORecordId(), 0, content, true);
+
+        if (record instanceof ODocument) walker.walkDocument((ODocument) record, rewriter);
+
+        db.save(record, mapping.clusterName);
+
+        final long expected = mapping.newPosition(position);
+        if (record.getIdentity().getClusterPosition() != expected)
+          throw new ODatabaseImportException(
+              "Record #"
+                  + mapping.sourceClusterId
+                  + ":"
+                  + position
+                  + " was imported as "
+                  + record.getIdentity()
+                  + " but #"
+                  + mapping.targetClusterId
+                  + ":"
+                  + expected
+                  + " was expected, cluster '"
+                  + mapping.clusterName
+                  + "' was modified during import");
+
+        records++;
+      }
+    }
+
+    return records;
+  }
+
+  private static int readHeader(final DataInputStream input, final File file) throws IOException {
+    checkVersion(input, file);
+    return input.readInt();
+  }
+
+  private static void checkVersion(final DataInputStream input, final File file)
+      throws IOException {
+    if (input.readInt() != ODatabaseBinaryExport.MAGIC)
+      throw new ODatabaseImportException("File '" + file + "' is not a binary export file");
+
+    final int version = input.readInt();
+    if (version != ODatabaseBinaryExport.VERSION)
+      throw new ODatabaseImportException(
+          "Unsupported version " + version + " of binary export file '" + file + "'");
+  }
+
+  /** Maps positions of exported records of the cluster to positions in imported database. */
+  private static final class ClusterMapping {
+    private final int sourceClusterId;
+    private final String clusterName;
+    private final int targetClusterId;
+    private final long base;
+
+    private final long[] starts;
+    private final long[] lengths;
+    private final long[] firstIndexes;
+
+    private ClusterMapping(
+        final int sourceClusterId,
+        final String clusterName,
+        final int targetClusterId,
+        final long base,
+        final long[] starts,
+        final long[] lengths,
+        final long[] firstIndexes) {
+      this.sourceClusterId = sourceClusterId;
+      this.clusterName = clusterName;
+      this.targetClusterId = targetClusterId;
+      this.base = base;
+      this.starts = starts;
+      this.lengths = lengths;
+      this.firstIndexes = firstIndexes;
+    }
+
+    /** @return New position of the record or -1 if record was not exported. */
+    private long newPosition(final long position) {
+      int run = Arrays.binarySearch(starts, position);
+      if (run < 0) run = -run - 2;
+
+      if (run < 0 || position - starts[run] >= lengths[run]) return -1;
+
+      return base + firstIndexes[run] + position - starts[run];
+    }
+  }
+
+  /** Converts links using computed positions instead of the RID mapping class. */
+  private static final class RidMapping extends OConverterData {
+    private final Map<Integer, ClusterMapping> mappings;
+
+    private RidMapping(
+        final ODatabaseSession session, final Map<Integer, ClusterMapping> mappings) {
+      super(session, Collections.emptySet());
+      this.mappings = mappings;
+    }
+
+    @Override
+    public ORID getNewRid(final ORID rid) {
+      final ClusterMapping mapping = mappings.get(rid.getClusterId());
+      // records of clusters which were not exported, security records for example, are absent
+      if (mapping == null)
+        throw new ODatabaseImportException(
+            "Link to record " + rid + " can not be imported, its cluster was not exported");
+
+      final long position = mapping.newPosition(rid.getClusterPosition());
+      if (position < 0) return OImportConvertersFactory.BROKEN_LINK;
+
+      return new ORecordId(mapping.targetClusterId, position);
+    }
+  }
+}
@@ -1,7 +1,10 @@
 package com.orientechnologies.orient.core.db.tool.importer;
 
 import com.orientechnologies.orient.core.db.ODatabaseSession;
+import com.orientechnologies.orient.core.db.tool.ODatabaseImport;
 import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.id.ORecordId;
+import com.orientechnologies.orient.core.sql.executor.OResultSet;
 import java.util.Set;
 
 /** Created by tglman on 28/07/17. */
@@ -13,4 +16,20 @@ public class OConverterData {
     this.session = session;
     this.brokenRids = brokenRids;
   }
+
+  /**
+   * @param rid RID of the record in exported database
+   * @return RID of the same record in imported database or <code>null</code> if it is unknown
+   */
+  public ORID getNewRid(ORID rid) {
+    try (final OResultSet resultSet =
+        session.query(
+            "select value from " + ODatabaseImport.EXPORT_IMPORT_CLASS_NAME + " where key = ?",
+            rid.toString())) {
+      if (resultSet.hasNext()) {
+        return new ORecordId(resultSet.next().<String>getProperty("value"));
+      }
+      return null;
+    }
+  }
 }
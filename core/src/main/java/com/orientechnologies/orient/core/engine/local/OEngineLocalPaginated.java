@@ -112,7 +112,13 @@ public class OEngineLocalPaginated extends OEngineAbstract {
       pages.clear();
     }
 
-    readCache = new AsyncReadCache(OByteBufferPool.instance(null), diskCacheSize, pageSize, false);
+    readCache =
+        new AsyncReadCache(
+            OByteBufferPool.instance(null),
+            diskCacheSize,
+            pageSize,
+            false,
+            OGlobalConfiguration.STORAGE_DISK_CACHE_READ_AHEAD_PAGES.getValueAsInteger());
   }
 
   private static long calculateReadCacheMaxMemory(final long cacheSize) {
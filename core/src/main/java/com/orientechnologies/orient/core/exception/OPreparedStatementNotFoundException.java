@@ -0,0 +1,19 @@
+package com.orientechnologies.orient.core.exception;
+
+/**
+ * Thrown when a query references a prepared statement handle that the server does not know
+ * (anymore), e.g. because it was evicted or the server restarted. The client is expected to prepare
+ * the statement again.
+ */
+public class OPreparedStatementNotFoundException extends OCoreException {
+
+  private static final long serialVersionUID = 1L;
+
+  public OPreparedStatementNotFoundException(OPreparedStatementNotFoundException exception) {
+    super(exception);
+  }
+
+  public OPreparedStatementNotFoundException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,18 @@
+package com.orientechnologies.orient.core.exception;
+
+/**
+ * Thrown when a replica cannot serve a query because it is further behind than the {@link
+ * com.orientechnologies.orient.core.db.OStalenessBound} accepted by the session.
+ */
+public class OStaleReadException extends OCoreException {
+
+  private static final long serialVersionUID = 1L;
+
+  public OStaleReadException(OStaleReadException exception) {
+    super(exception);
+  }
+
+  public OStaleReadException(String message) {
+    super(message);
+  }
+}
@@ -47,6 +47,7 @@ public abstract class OSequence {
   public static final int DEFAULT_CACHE = 20;
   public static final Long DEFAULT_LIMIT_VALUE = null;
   public static final boolean DEFAULT_RECYCLABLE_VALUE = false;
+  public static final boolean DEFAULT_RELAXED_ORDERING = false;
 
   protected static final int DEF_MAX_RETRY =
       OGlobalConfiguration.SEQUENCE_MAX_RETRY.getValueAsInteger();
@@ -84,6 +85,8 @@ public abstract class OSequence {
     protected Boolean recyclable = DEFAULT_RECYCLABLE_VALUE;
     protected Boolean turnLimitOff = false;
     protected Long currentValue = null;
+    // significant only for cached sequences
+    protected Boolean relaxedOrdering = DEFAULT_RELAXED_ORDERING;
 
     public CreateParams setStart(Long start) {
       this.start = start;
@@ -125,6 +128,12 @@ public abstract class OSequence {
       return this;
     }
 
+    /** @see OSequenceCached#isRelaxedOrdering() */
+    public CreateParams setRelaxedOrdering(Boolean relaxedOrdering) {
+      this.relaxedOrdering = relaxedOrdering;
+      return this;
+    }
+
     public CreateParams() {}
 
     public CreateParams resetNull() {
@@ -136,6 +145,7 @@ public abstract class OSequence {
       recyclable = null;
       turnLimitOff = false;
       currentValue = null;
+      relaxedOrdering = null;
       return this;
     }
 
@@ -148,6 +158,7 @@ public abstract class OSequence {
       recyclable = recyclable == null ? DEFAULT_RECYCLABLE_VALUE : recyclable;
       turnLimitOff = turnLimitOff == null ? false : turnLimitOff;
       currentValue = currentValue == null ? null : currentValue;
+      relaxedOrdering = relaxedOrdering == null ? DEFAULT_RELAXED_ORDERING : relaxedOrdering;
       return this;
     }
 
@@ -182,6 +193,10 @@ public abstract class OSequence {
     public Long getCurrentValue() {
       return currentValue;
     }
+
+    public Boolean getRelaxedOrdering() {
+      return relaxedOrdering;
+    }
   }
 
   public enum SEQUENCE_TYPE {
@@ -26,6 +26,9 @@ import com.orientechnologies.orient.core.metadata.schema.OType;
 import com.orientechnologies.orient.core.record.impl.ODocument;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * @author Matan Shukry (matanshukry@gmail.com)
@@ -33,6 +36,7 @@ import java.util.concurrent.ExecutionException;
  */
 public class OSequenceCached extends OSequence {
   private static final String FIELD_CACHE = "cache";
+  private static final String FIELD_RELAXED_ORDERING = "relaxedOrdering";
   private long cacheStart;
   private long cacheEnd;
   private boolean firstCache;
@@ -43,6 +47,14 @@ public class OSequenceCached extends OSequence {
   private boolean recyclable;
   private String name = null;
 
+  private volatile boolean relaxedOrdering;
+  /** Range of values which is consumed by threads if the ordering is relaxed. */
+  private final AtomicReference<Range> range = new AtomicReference<>();
+  /** Range reserved in advance, before the current range is exhausted. */
+  private volatile Range nextRange;
+
+  private final ReentrantLock rangeLock = new ReentrantLock();
+
   public OSequenceCached() {
     this(null, null);
   }
@@ -59,12 +71,19 @@ public class OSequenceCached extends OSequence {
         params = new CreateParams().setDefaults();
       }
       setCacheSize(params.cacheSize);
+      setRelaxedOrdering(Boolean.TRUE.equals(params.relaxedOrdering));
       cacheStart = cacheEnd = 0L;
-      allocateCache(getCacheSize(), getDatabase());
+      if (relaxedOrdering) {
+        // ranges are reserved on first call of next()
+        cacheStart = cacheEnd = getValue();
+      } else {
+        allocateCache(getCacheSize(), getDatabase());
+      }
     }
     if (iDocument != null) {
       firstCache = true;
       cacheStart = cacheEnd = getValue(iDocument);
+      relaxedOrdering = Boolean.TRUE.equals(iDocument.field(FIELD_RELAXED_ORDERING));
     }
   }
 
@@ -78,8 +97,14 @@ public class OSequenceCached extends OSequence {
         any = true;
       }
 
+      if (params.relaxedOrdering != null && relaxedOrdering != params.relaxedOrdering) {
+        setRelaxedOrdering(params.relaxedOrdering);
+        any = true;
+      }
+
       firstCache = true;
       save();
+      discardRanges();
     }
     return any;
   }
@@ -156,6 +181,9 @@ public class OSequenceCached extends OSequence {
 
   @Override
   public long next() throws OSequenceLimitReachedException, ODatabaseException {
+    if (relaxedOrdering && !isOnDistributted()) {
+      return nextRelaxed();
+    }
     boolean shouldGoOverDistributted = shouldGoOverDistrtibute();
     if (shouldGoOverDistributted) {
       return nextWithNewCurrentValue(cacheStart, true);
@@ -262,6 +290,10 @@ public class OSequenceCached extends OSequence {
 
   @Override
   protected synchronized long currentWork() {
+    final Range current = relaxedOrdering ? range.get() : null;
+    if (current != null) {
+      return current.value(Math.min(current.taken.get(), current.size) - 1);
+    }
     return this.cacheStart;
   }
 
@@ -287,7 +319,12 @@ public class OSequenceCached extends OSequence {
                   setValue(newValue);
                   save(finalDb);
                   firstCache = true;
-                  allocateCache(getCacheSize(), finalDb);
+                  discardRanges();
+                  if (relaxedOrdering) {
+                    cacheStart = cacheEnd = newValue;
+                  } else {
+                    allocateCache(getCacheSize(), finalDb);
+                  }
                   return newValue;
                 }
               }
@@ -318,6 +355,172 @@ public class OSequenceCached extends OSequence {
     getDocument().field(FIELD_CACHE, cacheSize);
   }
 
+  /**
+   * If ordering is relaxed, values are reserved in ranges of the cache size and each range is
+   * consumed by all threads without locks. Values are still unique, but:
+   *
+   * <ul>
+   *   <li>values returned to concurrent threads are not ordered, value returned later may be less
+   *       than the value returned before to another thread, once ranges are switched;
+   *   <li>values of the reserved ranges which were not returned are skipped when the sequence is
+   *       reset, altered or the database is closed;
+   *   <li>{@link #current()} returns the last value taken from the current range, which may be
+   *       returned to another thread.
+   * </ul>
+   *
+   * <p>The next range is reserved by the thread which takes the value from the middle of the
+   * current range, while other threads continue to take values from the current range. Sequences
+   * of distributed databases ignore this setting.
+   */
+  public boolean isRelaxedOrdering() {
+    return relaxedOrdering;
+  }
+
+  private void setRelaxedOrdering(boolean relaxedOrdering) {
+    getDocument().field(FIELD_RELAXED_ORDERING, relaxedOrdering);
+    this.relaxedOrdering = relaxedOrdering;
+  }
+
+  private long nextRelaxed() throws OSequenceLimitReachedException {
+    while (true) {
+      final Range current = range.get();
+      if (current != null) {
+        final long index = current.taken.getAndIncrement();
+        if (index < current.size) {
+          if (index == current.size / 2) {
+            reserveNextRange(current);
+          }
+          return current.value(index);
+        }
+      }
+
+      switchRange(current);
+    }
+  }
+
+  private void reserveNextRange(final Range current) {
+    if (!rangeLock.tryLock()) {
+      return;
+    }
+    try {
+      if (nextRange == null && range.get() == current) {
+        nextRange = reserveRange();
+      }
+    } catch (OSequenceLimitReachedException ignore) {
+      // will be thrown once the current range is exhausted
+    } finally {
+      rangeLock.unlock();
+    }
+  }
+
+  private void switchRange(final Range exhausted) throws OSequenceLimitReachedException {
+    rangeLock.lock();
+    try {
+      if (range.get() != exhausted) {
+        return;
+      }
+
+      Range next = nextRange;
+      nextRange = null;
+      if (next == null) {
+        next = reserveRange();
+      }
+      range.set(next);
+    } finally {
+      rangeLock.unlock();
+    }
+  }
+
+  /** Values of the discarded ranges are not reused, so they are skipped. */
+  private void discardRanges() {
+    range.set(null);
+    nextRange = null;
+  }
+
+  private Range reserveRange() throws OSequenceLimitReachedException {
+    ODatabaseDocumentInternal mainDb = getDatabase();
+    boolean tx = mainDb.getTransaction().isActive();
+    try {
+      ODatabaseDocumentInternal db = mainDb;
+      if (tx) {
+        db = mainDb.copy();
+        db.activateOnCurrentThread();
+      }
+      try {
+        ODatabaseDocumentInternal finalDb = db;
+        return callRetry(
+            true,
+            () -> {
+              synchronized (OSequenceCached.this) {
+                return doReserveRange(finalDb);
+              }
+            },
+            "next");
+      } finally {
+        if (tx) {
+          db.close();
+        }
+      }
+    } finally {
+      if (tx) {
+        mainDb.activateOnCurrentThread();
+      }
+    }
+  }
+
+  private Range doReserveRange(ODatabaseDocumentInternal db) {
+    reloadCrucialValues();
+    setCrucialValueChanged(false);
+
+    final long step = orderType == SequenceOrderType.ORDER_POSITIVE ? increment : -increment;
+    long first = getValue() + step;
+    if (limitValue != null && countTillLimit(first, step) <= 0) {
+      if (!recyclable) {
+        throw new OSequenceLimitReachedException("Limit reached");
+      }
+      first = startValue;
+    }
+
+    long size = Math.max(getCacheSize(), 1);
+    if (limitValue != null) {
+      size = Math.min(size, countTillLimit(first, step));
+    }
+
+    final long last = first + (size - 1) * step;
+    setValue(last);
+    save(db);
+
+    // if ordering is switched off, cache is allocated after the last reserved value
+    cacheStart = cacheEnd = last;
+    firstCache = true;
+
+    return new Range(first, step, size);
+  }
+
+  private long countTillLimit(long first, long step) {
+    if (step > 0 ? first > limitValue : first < limitValue) {
+      return 0;
+    }
+    return (limitValue - first) / step + 1;
+  }
+
+  private static final class Range {
+    private final long first;
+    private final long step;
+    private final long size;
+    private final AtomicLong taken = new AtomicLong();
+
+    private Range(long first, long step, long size) {
+      this.first = first;
+      this.step = step;
+      this.size = size;
+    }
+
+    private long value(long index) {
+      return first + index * step;
+    }
+  }
+
   private final void allocateCache(int cacheSize, ODatabaseDocumentInternal db) {
     if (getCrucialValueChanged()) {
       reloadCrucialValues();
@@ -3018,6 +3018,18 @@ public class ODocument extends ORecordAbstract
     entry.replaceListener(this, oldValue);
   }
 
+  /**
+   * @return serialized content of the document if it was not changed and is not fully deserialized
+   *     yet, otherwise {@code null}.
+   */
+  byte[] getSerializedSource() {
+    if (dirty) {
+      return null;
+    }
+
+    return source;
+  }
+
   protected byte[] toStream(final boolean iOnlyDelta) {
     STATUS prev = status;
     status = STATUS.MARSHALLING;
@@ -72,11 +72,13 @@ import java.util.Calendar;
 import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.NavigableMap;
+import java.util.Set;
 import java.util.TimeZone;
 import java.util.UUID;
 
@@ -90,38 +92,53 @@ public class ORecordSerializerNetworkV37 implements ORecordSerializer {
 
   public ORecordSerializerNetworkV37() {}
 
+  /**
+   * Deserializes only the requested fields, values of other fields are skipped without decoding,
+   * so documents received with query results decode only the fields which are accessed.
+   */
   public void deserializePartial(
       final ODocument document, final BytesContainer bytes, final String[] iFields) {
     final String className = readString(bytes);
     if (className.length() != 0) ODocumentInternal.fillClassNameIfNeeded(document, className);
 
+    final Set<String> requested = new HashSet<>();
+    for (String field : iFields) {
+      // ATTRIBUTES ARE NOT SERIALIZED AS FIELDS
+      if (field != null && !field.startsWith("@")) {
+        requested.add(field);
+      }
+    }
+
     String fieldName;
     OType type;
     int size = OVarIntSerializer.readAsInteger(bytes);
 
     int matched = 0;
-    while ((size--) > 0) {
+    while (matched < requested.size() && (size--) > 0) {
       fieldName = readString(bytes);
       type = readOType(bytes);
+      if (!requested.contains(fieldName)) {
+        if (type != null) {
+          skipValue(bytes, type);
+        }
+        continue;
+      }
+
+      matched++;
+      if (ODocumentInternal.rawContainsField(document, fieldName)) {
+        if (type != null) {
+          skipValue(bytes, type);
+        }
+        continue;
+      }
+
       Object value;
       if (type == null) {
         value = null;
       } else {
         value = deserializeValue(bytes, type, document);
       }
-      if (ODocumentInternal.rawContainsField(document, fieldName)) {
-        continue;
-      }
       ODocumentInternal.rawField(document, fieldName, value, type);
-
-      for (String field : iFields) {
-        if (field.equals(fieldName)) {
-          matched++;
-        }
-      }
-      if (matched == iFields.length) {
-        break;
-      }
     }
   }
 
@@ -342,6 +359,134 @@ public class ORecordSerializerNetworkV37 implements ORecordSerializer {
     return value;
   }
 
+  /** Moves position of the container after the value without decoding it. */
+  protected void skipValue(final BytesContainer bytes, final OType type) {
+    switch (type) {
+      case INTEGER:
+      case LONG:
+      case SHORT:
+      case DATETIME:
+      case DATE:
+        OVarIntSerializer.readAsLong(bytes);
+        break;
+      case STRING:
+      case BINARY:
+        bytes.skip(OVarIntSerializer.readAsInteger(bytes));
+        break;
+      case DOUBLE:
+        bytes.skip(OLongSerializer.LONG_SIZE);
+        break;
+      case FLOAT:
+        bytes.skip(OIntegerSerializer.INT_SIZE);
+        break;
+      case BYTE:
+      case BOOLEAN:
+        bytes.skip(1);
+        break;
+      case EMBEDDED:
+        {
+          // CLASS NAME
+          bytes.skip(OVarIntSerializer.readAsInteger(bytes));
+          int size = OVarIntSerializer.readAsInteger(bytes);
+          while ((size--) > 0) {
+            bytes.skip(OVarIntSerializer.readAsInteger(bytes));
+            skipNullableValue(bytes);
+          }
+          break;
+        }
+      case EMBEDDEDSET:
+      case EMBEDDEDLIST:
+        {
+          int items = OVarIntSerializer.readAsInteger(bytes);
+          while ((items--) > 0) {
+            skipNullableValue(bytes);
+          }
+          break;
+        }
+      case LINKSET:
+      case LINKLIST:
+        {
+          int items = OVarIntSerializer.readAsInteger(bytes);
+          while ((items--) > 0) {
+            skipLink(bytes);
+          }
+          break;
+        }
+      case LINK:
+        skipLink(bytes);
+        break;
+      case LINKMAP:
+        {
+          int size = OVarIntSerializer.readAsInteger(bytes);
+          while ((size--) > 0) {
+            skipNullableValue(bytes);
+            skipLink(bytes);
+          }
+          break;
+        }
+      case EMBEDDEDMAP:
+        {
+          int size = OVarIntSerializer.readAsInteger(bytes);
+          while ((size--) > 0) {
+            bytes.skip(OVarIntSerializer.readAsInteger(bytes));
+            skipNullableValue(bytes);
+          }
+          break;
+        }
+      case DECIMAL:
+        bytes.skip(ODecimalSerializer.INSTANCE.getObjectSize(bytes.bytes, bytes.offset));
+        break;
+      case LINKBAG:
+        skipRidBag(bytes);
+        break;
+      case CUSTOM:
+        // CLASS NAME AND CONTENT
+        bytes.skip(OVarIntSerializer.readAsInteger(bytes));
+        bytes.skip(OVarIntSerializer.readAsInteger(bytes));
+        break;
+      case TRANSIENT:
+      case ANY:
+        break;
+    }
+  }
+
+  private void skipNullableValue(final BytesContainer bytes) {
+    final OType type = readOType(bytes);
+    if (type != null) {
+      skipValue(bytes, type);
+    }
+  }
+
+  private static void skipLink(final BytesContainer bytes) {
+    OVarIntSerializer.readAsLong(bytes);
+    OVarIntSerializer.readAsLong(bytes);
+  }
+
+  private static void skipRidBag(final BytesContainer bytes) {
+    bytes.skip(OUUIDSerializer.UUID_SIZE);
+    final byte embedded = bytes.bytes[bytes.offset];
+    bytes.skip(1);
+    if (embedded == 1) {
+      int size = OVarIntSerializer.readAsInteger(bytes);
+      while ((size--) > 0) {
+        skipLink(bytes);
+      }
+    } else {
+      // FILE ID, PAGE INDEX, PAGE OFFSET AND SIZE OF THE TREE
+      for (int i = 0; i < 4; i++) {
+        OVarIntSerializer.readAsLong(bytes);
+      }
+
+      int changes = OVarIntSerializer.readAsInteger(bytes);
+      while ((changes--) > 0) {
+        skipLink(bytes);
+        // TYPE AND VALUE OF THE CHANGE
+        bytes.skip(1);
+        OVarIntSerializer.readAsLong(bytes);
+      }
+    }
+  }
+
   private void writeRidBag(BytesContainer bytes, ORidBag bag) {
     final OSBTreeCollectionManager sbTreeCollectionManager =
         ODatabaseRecordThreadLocal.instance().get().getSbTreeCollectionManager();
@@ -250,29 +250,49 @@ public class FetchFromIndexStep extends AbstractExecutionStep {
     if (index == null) {
       return; // this could happen, if not inited yet
     }
-    String indexName = index.getName();
-    boolean range = false;
-    int size = 0;
+    stats.pushIndexStats(
+        index.getName(),
+        getIndexStatsSize(),
+        isIndexStatsRange(),
+        additionalRangeCondition != null,
+        count);
+  }
 
-    if (condition != null) {
-      if (condition instanceof OBinaryCondition) {
-        size = 1;
-      } else if (condition instanceof OBetweenCondition) {
-        size = 1;
-        range = true;
-      } else if (condition instanceof OAndBlock) {
-        OAndBlock andBlock = ((OAndBlock) condition);
-        size = andBlock.getSubBlocks().size();
-        OBooleanExpression lastOp = andBlock.getSubBlocks().get(andBlock.getSubBlocks().size() - 1);
-        if (lastOp instanceof OBinaryCondition) {
-          OBinaryCompareOperator op = ((OBinaryCondition) lastOp).getOperator();
-          range = op.isRangeOperator();
-        }
-      } else if (condition instanceof OInCondition) {
-        size = 1;
+  /**
+   * @param stats the statistics of the database
+   * @return the average number of entries fetched by this index lookup on past executions, -1 if
+   *     not known yet
+   */
+  public long getIndexStats(OQueryStats stats) {
+    return stats.getIndexStats(
+        indexName, getIndexStatsSize(), isIndexStatsRange(), additionalRangeCondition != null);
+  }
+
+  private int getIndexStatsSize() {
+    if (condition instanceof OAndBlock) {
+      return ((OAndBlock) condition).getSubBlocks().size();
+    }
+    if (condition instanceof OBinaryCondition
+        || condition instanceof OBetweenCondition
+        || condition instanceof OInCondition) {
+      return 1;
+    }
+    return 0;
+  }
+
+  private boolean isIndexStatsRange() {
+    if (condition instanceof OBetweenCondition) {
+      return true;
+    }
+    if (condition instanceof OAndBlock) {
+      OAndBlock andBlock = ((OAndBlock) condition);
+      OBooleanExpression lastOp = andBlock.getSubBlocks().get(andBlock.getSubBlocks().size() - 1);
+      if (lastOp instanceof OBinaryCondition) {
+        OBinaryCompareOperator op = ((OBinaryCondition) lastOp).getOperator();
+        return op.isRangeOperator();
       }
     }
-    stats.pushIndexStats(indexName, size, range, additionalRangeCondition != null, count);
+    return false;
   }
 
   private synchronized void init(ODatabase db) {
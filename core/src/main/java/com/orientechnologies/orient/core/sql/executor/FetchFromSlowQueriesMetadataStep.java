@@ -0,0 +1,102 @@
+package com.orientechnologies.orient.core.sql.executor;
+
+import com.orientechnologies.common.concur.OTimeoutException;
+import com.orientechnologies.orient.core.command.OCommandContext;
+import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
+import com.orientechnologies.orient.core.metadata.security.ORole;
+import com.orientechnologies.orient.core.metadata.security.ORule;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+
+/** Returns the queries kept in the slow query log of the database, the most recent first. */
+public class FetchFromSlowQueriesMetadataStep extends AbstractExecutionStep {
+
+  private Iterator<OSlowQuery> queries;
+  private long cost = 0;
+
+  public FetchFromSlowQueriesMetadataStep(OCommandContext ctx, boolean profilingEnabled) {
+    super(ctx, profilingEnabled);
+  }
+
+  @Override
+  public OResultSet syncPull(OCommandContext ctx, int nRecords) throws OTimeoutException {
+    getPrev().ifPresent(x -> x.syncPull(ctx, nRecords));
+    init();
+
+    return new OResultSet() {
+      private int currentElement = 0;
+
+      @Override
+      public boolean hasNext() {
+        return currentElement < nRecords && queries.hasNext();
+      }
+
+      @Override
+      public OResult next() {
+        long begin = profilingEnabled ? System.nanoTime() : 0;
+        try {
+          if (!hasNext()) {
+            throw new IllegalStateException();
+          }
+          currentElement++;
+          return queries.next().toResult();
+        } finally {
+          if (profilingEnabled) {
+            cost += (System.nanoTime() - begin);
+          }
+        }
+      }
+
+      @Override
+      public void close() {}
+
+      @Override
+      public Optional<OExecutionPlan> getExecutionPlan() {
+        return Optional.empty();
+      }
+
+      @Override
+      public Map<String, Long> getQueryStats() {
+        return null;
+      }
+
+      @Override
+      public void reset() {
+        queries = null;
+      }
+    };
+  }
+
+  private void init() {
+    if (queries != null) {
+      return;
+    }
+
+    OSlowQueryLog log = null;
+    if (ctx.getDatabase() instanceof ODatabaseDocumentInternal) {
+      final ODatabaseDocumentInternal db = (ODatabaseDocumentInternal) ctx.getDatabase();
+      // logged queries contain statements of all the users
+      db.checkSecurity(ORule.ResourceGeneric.SERVER, "status", ORole.PERMISSION_READ);
+      log = OSlowQueryLog.get(db);
+    }
+    queries =
+        log == null ? Collections.<OSlowQuery>emptyIterator() : log.getQueries().iterator();
+  }
+
+  @Override
+  public String prettyPrint(int depth, int indent) {
+    String spaces = OExecutionStepInternal.getIndent(depth, indent);
+    String result = spaces + "+ FETCH SLOW QUERIES";
+    if (profilingEnabled) {
+      result += " (" + getCostFormatted() + ")";
+    }
+    return result;
+  }
+
+  @Override
+  public long getCost() {
+    return cost;
+  }
+}
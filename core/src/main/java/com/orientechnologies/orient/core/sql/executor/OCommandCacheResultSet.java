@@ -0,0 +1,127 @@
+package com.orientechnologies.orient.core.sql.executor;
+
+import com.orientechnologies.orient.core.cache.OCommandCache;
+import com.orientechnologies.orient.core.metadata.security.OSecurityUser;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Result set of a query which collects the returned results, so they are pushed to the {@link
+ * OCommandCache} once the query is consumed completely. Collection stops and nothing is cached if
+ * the query returns more results than the cache accepts.
+ *
+ * <p>Results are not tagged with the clusters they were read from, projections, links and
+ * subqueries may read records of any class, so they are invalidated by any committed change of the
+ * database.
+ */
+public class OCommandCacheResultSet implements OResultSet {
+  private final OResultSet delegate;
+  private final OCommandCache cache;
+  private final OSecurityUser user;
+  private final String statement;
+  private final long version;
+  private final long beginTime = System.currentTimeMillis();
+
+  private CachedResults results = new CachedResults();
+
+  /**
+   * @param version Version of the cache read before execution of the query, see {@link
+   *     OCommandCache#getVersion()}.
+   */
+  public OCommandCacheResultSet(
+      OResultSet delegate,
+      OCommandCache cache,
+      OSecurityUser user,
+      String statement,
+      long version) {
+    this.delegate = delegate;
+    this.cache = cache;
+    this.user = user;
+    this.statement = statement;
+    this.version = version;
+  }
+
+  /**
+   * Returns copies of the cached results of the statement, so changes of the caller do not affect
+   * the cache.
+   *
+   * @return <code>null</code> if results of the statement are not cached.
+   */
+  public static OResultSet lookup(OCommandCache cache, OSecurityUser user, String statement) {
+    final Object cached = cache.get(user, statement, -1);
+    if (!(cached instanceof CachedResults)) {
+      return null;
+    }
+
+    final OInternalResultSet result = new OInternalResultSet();
+    for (OResult item : (CachedResults) cached) {
+      result.add(copy(item));
+    }
+    return result;
+  }
+
+  private static OResult copy(OResult item) {
+    if (item.isElement()) {
+      return new OResultInternal(item.getElement().get().getRecord().copy());
+    }
+
+    final OResultInternal copy = new OResultInternal();
+    for (String name : item.getPropertyNames()) {
+      copy.setProperty(name, item.getProperty(name));
+    }
+    return copy;
+  }
+
+  @Override
+  public boolean hasNext() {
+    final boolean hasNext = delegate.hasNext();
+    if (!hasNext && results != null) {
+      cache.put(
+          user,
+          statement,
+          results,
+          -1,
+          null,
+          null,
+          System.currentTimeMillis() - beginTime,
+          version);
+      results = null;
+    }
+    return hasNext;
+  }
+
+  @Override
+  public OResult next() {
+    final OResult result = delegate.next();
+    if (results != null) {
+      if (results.size() < cache.getMaxResultsetSize()) {
+        // CALLER MAY CHANGE THE RETURNED RECORDS WITHOUT SAVING THEM
+        results.add(copy(result));
+      } else {
+        // TOO BIG RESULTSET, SKIP IT
+        results = null;
+      }
+    }
+    return result;
+  }
+
+  @Override
+  public void close() {
+    results = null;
+    delegate.close();
+  }
+
+  @Override
+  public Optional<OExecutionPlan> getExecutionPlan() {
+    return delegate.getExecutionPlan();
+  }
+
+  @Override
+  public Map<String, Long> getQueryStats() {
+    return delegate.getQueryStats();
+  }
+
+  /** Distinguishes results of queries from results of legacy commands with the same text. */
+  private static final class CachedResults extends ArrayList<OResult> {}
+}
@@ -3,6 +3,7 @@ package com.orientechnologies.orient.core.sql.executor;
 import com.orientechnologies.common.util.OPair;
 import com.orientechnologies.orient.core.command.OBasicCommandContext;
 import com.orientechnologies.orient.core.command.OCommandContext;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
 import com.orientechnologies.orient.core.db.ODatabase;
 import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
 import com.orientechnologies.orient.core.db.ODatabaseInternal;
@@ -173,11 +174,38 @@ public class OSelectExecutionPlanner {
         && result.canBeCached()
         && OExecutionPlanCache.getLastInvalidation(db) < planningStart) {
       OExecutionPlanCache.put(
-          statement.getOriginalStatement(), result, (ODatabaseDocumentInternal) ctx.getDatabase());
+          statement.getOriginalStatement(),
+          result,
+          getPlanDependencies(db),
+          (ODatabaseDocumentInternal) ctx.getDatabase());
     }
     return result;
   }
 
+  /**
+   * @return the classes the cached plan depends on, null if it has to be evicted on any metadata
+   *     change
+   */
+  private Set<String> getPlanDependencies(ODatabaseDocumentInternal db) {
+    if (info.globalLetPresent || statement.getLetClause() != null) {
+      return null;
+    }
+    OFromClause target = statement.getTarget();
+    if (target == null || target.getItem() == null) {
+      return Collections.emptySet();
+    }
+    OFromItem item = target.getItem();
+    if (item.getIdentifier() == null || item.getModifier() != null) {
+      return null;
+    }
+    String className = item.getIdentifier().getStringValue();
+    if (className.startsWith("$")
+        || db.getMetadata().getImmutableSchemaSnapshot().getView(className) != null) {
+      return null;
+    }
+    return Collections.singleton(className);
+  }
+
   private void handleLockRecord(
       OSelectExecutionPlan result,
       QueryPlanningInfo info,
@@ -595,7 +623,189 @@ public class OSelectExecutionPlanner {
     if (handleHardwiredCountOnClass(result, info, ctx, profilingEnabled)) {
       return true;
     }
-    return handleHardwiredCountOnClassUsingIndex(result, info, ctx, profilingEnabled);
+    if (handleHardwiredCountOnClassUsingIndex(result, info, ctx, profilingEnabled)) {
+      return true;
+    }
+    if (handleParallelAggregation(result, info, ctx, profilingEnabled)) {
+      return true;
+    }
+    return handleVectorizedAggregation(result, info, ctx, profilingEnabled);
+  }
+
+  /**
+   * Calculates the aggregate projections of a query on a class scanning it with more threads, if
+   * {@link OGlobalConfiguration#QUERY_PARALLEL_AUTO} is enabled and the class is big enough
+   */
+  private boolean handleParallelAggregation(
+      OSelectExecutionPlan result,
+      QueryPlanningInfo info,
+      OCommandContext ctx,
+      boolean profilingEnabled) {
+    ODatabaseDocumentInternal db = (ODatabaseDocumentInternal) ctx.getDatabase();
+    if (!db.getConfiguration().getValueAsBoolean(OGlobalConfiguration.QUERY_PARALLEL_AUTO)) {
+      return false;
+    }
+    OIdentifier targetClass = info.target == null ? null : info.target.getItem().getIdentifier();
+    if (targetClass == null || info.target.getItem().getModifier() != null) {
+      return false;
+    }
+    if (info.distinct || info.expand) {
+      return false;
+    }
+    if (info.globalLetClause != null
+        || info.perRecordLetClause != null
+        || info.unwind != null
+        || info.lockRecord != null) {
+      return false;
+    }
+    if (!ParallelAggregateStep.canAggregate(info.aggregateProjection)) {
+      return false;
+    }
+    if (db.isRemote() || db.getTransaction().isActive()) {
+      // records created or changed in the transaction are not visible to the other threads
+      return false;
+    }
+    OClass clazz = db.getMetadata().getImmutableSchemaSnapshot().getClass(targetClass.getValue());
+    if (clazz == null) {
+      return false;
+    }
+    long minRecords =
+        db.getConfiguration().getValueAsLong(OGlobalConfiguration.QUERY_PARALLEL_MINIMUM_RECORDS);
+    long count = clazz.count();
+    if (count < minRecords) {
+      return false;
+    }
+    if (info.whereClause != null && info.whereClause.estimate(clazz, minRecords, ctx) < count / 2) {
+      // an index can be used, it's cheaper than a full scan
+      return false;
+    }
+    if (securityPoliciesExistForClass(targetClass, ctx)) {
+      return false;
+    }
+
+    chainAggregation(
+        result,
+        info,
+        new ParallelAggregateStep(
+            targetClass,
+            info.whereClause,
+            info.preAggregateProjection,
+            info.aggregateProjection,
+            info.groupBy,
+            ctx,
+            info.timeout != null ? info.timeout.getVal().longValue() : -1,
+            Runtime.getRuntime().availableProcessors(),
+            profilingEnabled),
+        ctx,
+        profilingEnabled);
+    return true;
+  }
+
+  /**
+   * Calculates the aggregate projections of a query on a class over batches of column vectors, if
+   * {@link OGlobalConfiguration#QUERY_VECTORIZED_EXECUTION} is enabled and the projections and the
+   * WHERE condition are simple enough, see {@link VectorizedAggregateStep#create}
+   */
+  private boolean handleVectorizedAggregation(
+      OSelectExecutionPlan result,
+      QueryPlanningInfo info,
+      OCommandContext ctx,
+      boolean profilingEnabled) {
+    ODatabaseDocumentInternal db = (ODatabaseDocumentInternal) ctx.getDatabase();
+    if (!db.getConfiguration().getValueAsBoolean(OGlobalConfiguration.QUERY_VECTORIZED_EXECUTION)) {
+      return false;
+    }
+    OIdentifier targetClass = info.target == null ? null : info.target.getItem().getIdentifier();
+    if (targetClass == null || info.target.getItem().getModifier() != null) {
+      return false;
+    }
+    if (info.aggregateProjection == null || info.distinct || info.expand || info.groupBy != null) {
+      return false;
+    }
+    if (info.globalLetClause != null
+        || info.perRecordLetClause != null
+        || info.unwind != null
+        || info.lockRecord != null) {
+      return false;
+    }
+    if (db.isRemote() || db.getTransaction().isActive()) {
+      // records created or changed in the transaction are not in the clusters yet
+      return false;
+    }
+    OClass clazz = db.getMetadata().getImmutableSchemaSnapshot().getClass(targetClass.getValue());
+    if (clazz == null) {
+      return false;
+    }
+    if (isIndexUsable(clazz, info, ctx)) {
+      // fetching from the index is cheaper than any full scan
+      return false;
+    }
+    if (securityPoliciesExistForClass(targetClass, ctx)) {
+      return false;
+    }
+
+    int batchSize =
+        db.getConfiguration().getValueAsInteger(OGlobalConfiguration.QUERY_VECTORIZED_BATCH_SIZE);
+    VectorizedAggregateStep step =
+        VectorizedAggregateStep.create(
+            clazz,
+            targetClass,
+            info.whereClause,
+            info.preAggregateProjection,
+            info.aggregateProjection,
+            batchSize,
+            ctx,
+            info.timeout != null ? info.timeout.getVal().longValue() : -1,
+            profilingEnabled);
+    if (step == null) {
+      return false;
+    }
+    chainAggregation(result, info, step, ctx, profilingEnabled);
+    return true;
+  }
+
+  /**
+   * Checks if every block of the WHERE condition can be calculated with an index of the class, the
+   * same way {@link #handleClassAsTargetWithIndex} and {@link
+   * #handleClassAsTargetWithIndexedFunction} look for them
+   */
+  private boolean isIndexUsable(OClass clazz, QueryPlanningInfo info, OCommandContext ctx) {
+    if (info.flattenedWhereClause == null || info.flattenedWhereClause.isEmpty()) {
+      return false;
+    }
+    ODatabaseDocumentInternal db = (ODatabaseDocumentInternal) ctx.getDatabase();
+    Set<OIndex> indexes = clazz.getIndexes();
+    for (OAndBlock block : info.flattenedWhereClause) {
+      if (block.getIndexedFunctionConditions(clazz, db) == null
+          && findBestIndexFor(ctx, indexes, block, clazz) == null) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Chains a step that scans the target class and calculates the aggregate projections, followed
+   * by the rest of the projections and by the modifiers of the query
+   */
+  private void chainAggregation(
+      OSelectExecutionPlan result,
+      QueryPlanningInfo info,
+      OExecutionStepInternal aggregation,
+      OCommandContext ctx,
+      boolean profilingEnabled) {
+    result.chain(aggregation);
+    if (isCountOnly(info) && info.groupBy == null) {
+      result.chain(
+          new GuaranteeEmptyCountStep(
+              info.aggregateProjection.getItems().get(0), ctx, profilingEnabled));
+    }
+    info.preAggregateProjection = null;
+    info.aggregateProjection = null;
+    handleProjectionsBlock(result, info, ctx, profilingEnabled);
+    if (info.timeout != null) {
+      result.chain(new AccumulatingTimeoutStep(info.timeout, ctx, profilingEnabled));
+    }
   }
 
   private boolean handleHardwiredCountOnClass(
@@ -1691,6 +1901,10 @@ public class OSelectExecutionPlanner {
       plan.chain(new FetchFromStorageMetadataStep(ctx, profilingEnabled));
     } else if (metadata.getName().equalsIgnoreCase(OCommandExecutorSQLAbstract.METADATA_DATABASE)) {
       plan.chain(new FetchFromDatabaseMetadataStep(ctx, profilingEnabled));
+    } else if (metadata
+        .getName()
+        .equalsIgnoreCase(OCommandExecutorSQLAbstract.METADATA_SLOW_QUERIES)) {
+      plan.chain(new FetchFromSlowQueriesMetadataStep(ctx, profilingEnabled));
     } else {
       throw new UnsupportedOperationException("Invalid metadata: " + metadata.getName());
     }
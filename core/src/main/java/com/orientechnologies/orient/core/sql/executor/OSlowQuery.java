@@ -0,0 +1,84 @@
+package com.orientechnologies.orient.core.sql.executor;
+
+/**
+ * Query kept by {@link OSlowQueryLog}. Contains the execution plan of the query, with time spent
+ * in each step if the query was executed with profiling enabled.
+ */
+public class OSlowQuery implements OQueryMetrics {
+  private final String statement;
+  private final String user;
+  private final long startTime;
+  private final long elapsedTimeMillis;
+  private final long rows;
+  private final boolean profiled;
+  private final OResult executionPlan;
+
+  public OSlowQuery(
+      String statement,
+      String user,
+      long startTime,
+      long elapsedTimeMillis,
+      long rows,
+      boolean profiled,
+      OResult executionPlan) {
+    this.statement = statement;
+    this.user = user;
+    this.startTime = startTime;
+    this.elapsedTimeMillis = elapsedTimeMillis;
+    this.rows = rows;
+    this.profiled = profiled;
+    this.executionPlan = executionPlan;
+  }
+
+  @Override
+  public String getStatement() {
+    return statement;
+  }
+
+  @Override
+  public long getStartTime() {
+    return startTime;
+  }
+
+  /** @return Time spent by the database to execute the query, without time spent by the client. */
+  @Override
+  public long getElapsedTimeMillis() {
+    return elapsedTimeMillis;
+  }
+
+  @Override
+  public String getLanguage() {
+    return "sql";
+  }
+
+  public String getUser() {
+    return user;
+  }
+
+  /** @return Amount of records returned by the query. */
+  public long getRows() {
+    return rows;
+  }
+
+  /** @return <code>true</code> if execution plan contains time spent in each step. */
+  public boolean isProfiled() {
+    return profiled;
+  }
+
+  public OResult getExecutionPlan() {
+    return executionPlan;
+  }
+
+  public OResult toResult() {
+    OResultInternal result = new OResultInternal();
+    result.setProperty("statement", statement);
+    result.setProperty("language", getLanguage());
+    result.setProperty("user", user);
+    result.setProperty("startTime", startTime);
+    result.setProperty("elapsedTimeMillis", elapsedTimeMillis);
+    result.setProperty("rows", rows);
+    result.setProperty("profiled", profiled);
+    result.setProperty("executionPlan", executionPlan);
+    return result;
+  }
+}
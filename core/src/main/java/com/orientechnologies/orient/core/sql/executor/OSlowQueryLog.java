@@ -0,0 +1,99 @@
+package com.orientechnologies.orient.core.sql.executor;
+
+import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bounded log of the queries of a database which took longer than the configured threshold, the
+ * oldest queries are overwritten first.
+ *
+ * <p>Profiling of the execution steps is too expensive to be enabled for every query, so the first
+ * slow execution of a statement is logged without time spent in each step. Statement is remembered
+ * and its next executions are profiled, until one of them is faster than the threshold.
+ */
+public class OSlowQueryLog {
+  private final long thresholdMillis;
+  private final OSlowQuery[] queries;
+  private long added;
+
+  private final Set<String> profiledStatements = ConcurrentHashMap.newKeySet();
+
+  public OSlowQueryLog(int size, long thresholdMillis) {
+    this.queries = new OSlowQuery[Math.max(size, 0)];
+    this.thresholdMillis = thresholdMillis;
+  }
+
+  public static OSlowQueryLog get(ODatabaseDocumentInternal db) {
+    return db.getSharedContext().getSlowQueryLog();
+  }
+
+  public boolean isEnabled() {
+    return thresholdMillis > 0 && queries.length > 0;
+  }
+
+  public long getThresholdMillis() {
+    return thresholdMillis;
+  }
+
+  /** @return <code>true</code> if steps of the statement should be profiled during execution. */
+  public boolean isProfiled(String statement) {
+    return statement != null
+        && !profiledStatements.isEmpty()
+        && profiledStatements.contains(statement);
+  }
+
+  /**
+   * Called once execution of the statement is completed.
+   *
+   * @return <code>true</code> if the query is slow and should be added to the log.
+   */
+  public boolean onExecuted(String statement, long elapsedTimeMillis, boolean profiled) {
+    if (!isEnabled()) {
+      return false;
+    }
+
+    final boolean slow = elapsedTimeMillis >= thresholdMillis;
+    if (statement != null) {
+      if (slow) {
+        if (!profiled && profiledStatements.size() < queries.length) {
+          profiledStatements.add(statement);
+        }
+      } else if (profiled) {
+        profiledStatements.remove(statement);
+      }
+    }
+
+    return slow;
+  }
+
+  public synchronized void add(OSlowQuery query) {
+    if (queries.length == 0) {
+      return;
+    }
+
+    queries[(int) (added % queries.length)] = query;
+    added++;
+  }
+
+  /** @return Logged queries, the most recent first. */
+  public synchronized List<OSlowQuery> getQueries() {
+    final int size = (int) Math.min(added, queries.length);
+    final List<OSlowQuery> result = new ArrayList<>(size);
+    for (long i = added - 1; i >= added - size; i--) {
+      result.add(queries[(int) (i % queries.length)]);
+    }
+
+    return result;
+  }
+
+  public synchronized void clear() {
+    for (int i = 0; i < queries.length; i++) {
+      queries[i] = null;
+    }
+    added = 0;
+    profiledStatements.clear();
+  }
+}
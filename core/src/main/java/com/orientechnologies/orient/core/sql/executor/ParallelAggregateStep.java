@@ -0,0 +1,528 @@
+package com.orientechnologies.orient.core.sql.executor;
+
+import com.orientechnologies.common.collection.OMultiValue;
+import com.orientechnologies.common.concur.OTimeoutException;
+import com.orientechnologies.common.exception.OException;
+import com.orientechnologies.orient.core.Orient;
+import com.orientechnologies.orient.core.command.OBasicCommandContext;
+import com.orientechnologies.orient.core.command.OCommandContext;
+import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
+import com.orientechnologies.orient.core.db.OExecutionThreadLocal;
+import com.orientechnologies.orient.core.exception.OCommandExecutionException;
+import com.orientechnologies.orient.core.exception.OCommandInterruptedException;
+import com.orientechnologies.orient.core.iterator.ORecordIteratorCluster;
+import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.record.ORecord;
+import com.orientechnologies.orient.core.sql.OSQLEngine;
+import com.orientechnologies.orient.core.sql.parser.OBaseExpression;
+import com.orientechnologies.orient.core.sql.parser.OExpression;
+import com.orientechnologies.orient.core.sql.parser.OFunctionCall;
+import com.orientechnologies.orient.core.sql.parser.OGroupBy;
+import com.orientechnologies.orient.core.sql.parser.OIdentifier;
+import com.orientechnologies.orient.core.sql.parser.OProjection;
+import com.orientechnologies.orient.core.sql.parser.OProjectionItem;
+import com.orientechnologies.orient.core.sql.parser.OWhereClause;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Scans a class, filters its records and calculates the aggregate projections using more threads.
+ * The clusters of the class are split in ranges of cluster positions that the threads pick from a
+ * shared queue, each thread aggregates the records it reads in its own partial results and the
+ * partial results are merged once the scan is finished. Only COUNT, SUM, MIN, MAX and AVG can be
+ * calculated this way, see {@link #canAggregate(OProjection)}.
+ */
+public class ParallelAggregateStep extends AbstractExecutionStep {
+  private static final Set<String> MERGEABLE_FUNCTIONS =
+      new HashSet<>(Arrays.asList("count", "sum", "min", "max", "avg"));
+
+  /** minimum number of cluster positions read by a thread in one go */
+  private static final long MIN_RANGE_SIZE = 1024;
+  /** number of ranges per thread, so that faster threads can steal work from slower ones */
+  private static final int RANGES_PER_THREAD = 4;
+
+  private final OIdentifier targetClass;
+  private final OWhereClause whereClause;
+  private final OProjection preAggregateProjection;
+  private final OProjection aggregateProjection;
+  private final OGroupBy groupBy;
+  private final long timeoutMillis;
+  private final int parallelism;
+
+  private List<OResultInternal> finalResults = null;
+  private int nextItem = 0;
+  private long cost = 0;
+
+  /**
+   * @param targetClass the class to scan (including subclasses)
+   * @param whereClause the filter to apply to the records, null to aggregate all the records
+   * @param preAggregateProjection the projection to calculate on every record before the
+   *     aggregation, null if not needed
+   * @param aggregateProjection the aggregate projection, it has to satisfy {@link
+   *     #canAggregate(OProjection)}
+   * @param groupBy the GROUP BY clause, null if not present
+   * @param ctx the query context
+   * @param timeoutMillis the query timeout, -1 for no timeout
+   * @param parallelism the maximum number of threads that scan the class
+   * @param profilingEnabled true to enable the profiling of the execution (for SQL PROFILE)
+   */
+  public ParallelAggregateStep(
+      OIdentifier targetClass,
+      OWhereClause whereClause,
+      OProjection preAggregateProjection,
+      OProjection aggregateProjection,
+      OGroupBy groupBy,
+      OCommandContext ctx,
+      long timeoutMillis,
+      int parallelism,
+      boolean profilingEnabled) {
+    super(ctx, profilingEnabled);
+    this.targetClass = targetClass;
+    this.whereClause = whereClause;
+    this.preAggregateProjection = preAggregateProjection;
+    this.aggregateProjection = aggregateProjection;
+    this.groupBy = groupBy;
+    this.timeoutMillis = timeoutMillis;
+    this.parallelism = Math.max(1, parallelism);
+  }
+
+  /**
+   * @param aggregateProjection an aggregate projection, as calculated by the query planner
+   * @return true if all the aggregate items of the projection are plain calls to aggregate
+   *     functions whose partial results can be merged
+   */
+  public static boolean canAggregate(OProjection aggregateProjection) {
+    if (aggregateProjection == null) {
+      return false;
+    }
+    for (OProjectionItem item : aggregateProjection.getItems()) {
+      if (item.isAggregate() && getMergeableFunction(item) == null) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static OFunctionCall getMergeableFunction(OProjectionItem item) {
+    OExpression exp = item.getExpression();
+    if (exp == null || !(exp.getMathExpression() instanceof OBaseExpression)) {
+      return null;
+    }
+    OBaseExpression base = (OBaseExpression) exp.getMathExpression();
+    if (base.getModifier() != null
+        || base.getIdentifier() == null
+        || base.getIdentifier().getLevelZero() == null) {
+      return null;
+    }
+    OFunctionCall function = base.getIdentifier().getLevelZero().getFunctionCall();
+    if (function == null
+        || function.getParams().size() != 1
+        || !MERGEABLE_FUNCTIONS.contains(function.getName().getStringValue().toLowerCase())) {
+      return null;
+    }
+    return function;
+  }
+
+  @Override
+  public OResultSet syncPull(OCommandContext ctx, int nRecords) throws OTimeoutException {
+    getPrev().ifPresent(x -> x.syncPull(ctx, nRecords));
+    if (finalResults == null) {
+      long begin = profilingEnabled ? System.nanoTime() : 0;
+      try {
+        executeAggregation(ctx);
+      } finally {
+        if (profilingEnabled) {
+          cost += (System.nanoTime() - begin);
+        }
+      }
+    }
+
+    return new OResultSet() {
+      private int localNext = 0;
+
+      @Override
+      public boolean hasNext() {
+        return localNext < nRecords && nextItem < finalResults.size();
+      }
+
+      @Override
+      public OResult next() {
+        if (!hasNext()) {
+          throw new IllegalStateException();
+        }
+        OResult result = finalResults.get(nextItem);
+        nextItem++;
+        localNext++;
+        return result;
+      }
+
+      @Override
+      public void close() {}
+
+      @Override
+      public Optional<OExecutionPlan> getExecutionPlan() {
+        return Optional.empty();
+      }
+
+      @Override
+      public Map<String, Long> getQueryStats() {
+        return null;
+      }
+    };
+  }
+
+  private void executeAggregation(OCommandContext ctx) {
+    ODatabaseDocumentInternal db = (ODatabaseDocumentInternal) ctx.getDatabase();
+    OClass clazz = db.getMetadata().getImmutableSchemaSnapshot().getClass(targetClass.getValue());
+    if (clazz == null) {
+      throw new OCommandExecutionException(
+          "Class " + targetClass.getStringValue() + " does not exist in the database schema");
+    }
+    Queue<long[]> ranges = splitInRanges(db, clazz.getPolymorphicClusterIds());
+
+    long deadline =
+        timeoutMillis > 0 ? System.currentTimeMillis() + timeoutMillis : Long.MAX_VALUE;
+    AtomicBoolean stop = new AtomicBoolean(false);
+    AtomicBoolean timeoutReached = new AtomicBoolean(false);
+
+    // the current thread scans too, so the query makes progress even if the pool is busy
+    List<Future<Map<List<Object>, OResultInternal>>> workers = new ArrayList<>();
+    int nWorkers = Math.min(parallelism, ranges.size()) - 1;
+    for (int i = 0; i < nWorkers; i++) {
+      ODatabaseDocumentInternal workerDb = db.copy();
+      Future<Map<List<Object>, OResultInternal>> worker;
+      try {
+        worker =
+            Orient.instance()
+                .submit(
+                    () -> {
+                      workerDb.activateOnCurrentThread();
+                      try {
+                        return scan(workerDb, ctx, ranges, deadline, stop, timeoutReached, false);
+                      } finally {
+                        workerDb.close();
+                      }
+                    });
+      } catch (RuntimeException e) {
+        // the copy is not handed over to a worker, so it is closed here
+        workerDb.activateOnCurrentThread();
+        workerDb.close();
+        db.activateOnCurrentThread();
+        if (e instanceof RejectedExecutionException) {
+          // the pool is saturated, the current thread scans the remaining ranges
+          break;
+        }
+        stop.set(true);
+        throw e;
+      }
+      workers.add(worker);
+    }
+
+    List<Map<List<Object>, OResultInternal>> partials = new ArrayList<>();
+    RuntimeException error = null;
+    try {
+      partials.add(scan(db, ctx, ranges, deadline, stop, timeoutReached, true));
+    } catch (RuntimeException e) {
+      stop.set(true);
+      error = e;
+    }
+
+    boolean interrupted = false;
+    for (Future<Map<List<Object>, OResultInternal>> worker : workers) {
+      try {
+        partials.add(worker.get());
+      } catch (InterruptedException e) {
+        stop.set(true);
+        interrupted = true;
+      } catch (ExecutionException e) {
+        stop.set(true);
+        if (error == null) {
+          error =
+              e.getCause() instanceof RuntimeException
+                  ? (RuntimeException) e.getCause()
+                  : OException.wrapException(
+                      new OCommandExecutionException("Error on parallel aggregation"),
+                      e.getCause());
+        }
+      }
+    }
+
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+      throw new OCommandInterruptedException("The command has been interrupted");
+    }
+    if (error != null) {
+      throw error;
+    }
+    if (timeoutReached.get()) {
+      sendTimeout();
+      throw new OTimeoutException("Command execution timeout");
+    }
+
+    finalResults = merge(partials);
+  }
+
+  private Queue<long[]> splitInRanges(ODatabaseDocumentInternal db, int[] clusterIds) {
+    List<long[]> clusterRanges = new ArrayList<>();
+    long totalPositions = 0;
+    for (int clusterId : clusterIds) {
+      if (clusterId < 0) {
+        continue;
+      }
+      long[] range = db.getStorage().getClusterDataRange(clusterId);
+      if (range.length < 2 || range[0] < 0 || range[1] < range[0]) {
+        continue;
+      }
+      clusterRanges.add(new long[] {clusterId, range[0], range[1]});
+      totalPositions += range[1] - range[0] + 1;
+    }
+
+    long rangeSize =
+        Math.max(MIN_RANGE_SIZE, totalPositions / ((long) parallelism * RANGES_PER_THREAD));
+    Queue<long[]> result = new ConcurrentLinkedQueue<>();
+    for (long[] clusterRange : clusterRanges) {
+      for (long from = clusterRange[1]; from <= clusterRange[2]; from += rangeSize) {
+        result.add(
+            new long[] {clusterRange[0], from, Math.min(clusterRange[2], from + rangeSize - 1)});
+      }
+    }
+    return result;
+  }
+
+  private Map<List<Object>, OResultInternal> scan(
+      ODatabaseDocumentInternal db,
+      OCommandContext parentCtx,
+      Queue<long[]> ranges,
+      long deadline,
+      AtomicBoolean stop,
+      AtomicBoolean timeoutReached,
+      boolean callerThread) {
+    OBasicCommandContext ctx = new OBasicCommandContext();
+    ctx.setDatabase(db);
+    ctx.setInputParameters(parentCtx.getInputParameters());
+    ctx.setParentWithoutOverridingChild(parentCtx);
+
+    Map<List<Object>, OResultInternal> partial = new LinkedHashMap<>();
+    long scanned = 0;
+    long[] range;
+    while (!stop.get() && (range = ranges.poll()) != null) {
+      ORecordIteratorCluster<ORecord> iterator =
+          new ORecordIteratorCluster<>(db, (int) range[0], range[1], range[2]);
+      while (iterator.hasNext()) {
+        if (++scanned % 100 == 0) {
+          if (stop.get()) {
+            return partial;
+          }
+          if (System.currentTimeMillis() > deadline) {
+            timeoutReached.set(true);
+            stop.set(true);
+            return partial;
+          }
+          if (callerThread && OExecutionThreadLocal.isInterruptCurrentOperation()) {
+            stop.set(true);
+            throw new OCommandInterruptedException("The command has been interrupted");
+          }
+        }
+        ORecord record = iterator.next();
+        if (record == null) {
+          break;
+        }
+        OResult next = new OResultInternal(record);
+        if (whereClause != null && !whereClause.matchesFilters(next, ctx)) {
+          continue;
+        }
+        if (preAggregateProjection != null) {
+          next = preAggregateProjection.calculateSingle(ctx, next);
+        }
+        aggregate(next, ctx, partial);
+      }
+    }
+    return partial;
+  }
+
+  private void aggregate(
+      OResult next, OCommandContext ctx, Map<List<Object>, OResultInternal> partial) {
+    List<Object> key = new ArrayList<>();
+    if (groupBy != null) {
+      for (OExpression item : groupBy.getItems()) {
+        key.add(item.execute(next, ctx));
+      }
+    }
+    OResultInternal preAggr = partial.get(key);
+    if (preAggr == null) {
+      preAggr = new OResultInternal();
+      partial.put(key, preAggr);
+    }
+
+    for (OProjectionItem proj : aggregateProjection.getItems()) {
+      String alias = proj.getProjectionAlias().getStringValue();
+      if (proj.isAggregate()) {
+        AggregationContext aggrCtx = (AggregationContext) preAggr.getTemporaryProperty(alias);
+        if (aggrCtx == null) {
+          OFunctionCall function = getMergeableFunction(proj);
+          if (function.getName().getStringValue().equalsIgnoreCase("avg")) {
+            aggrCtx = new PartialAverage(function.getParams().get(0));
+          } else {
+            aggrCtx = proj.getAggregationContext(ctx);
+          }
+          preAggr.setTemporaryProperty(alias, aggrCtx);
+        }
+        aggrCtx.apply(next, ctx);
+      } else {
+        preAggr.setProperty(alias, proj.execute(next, ctx));
+      }
+    }
+  }
+
+  private List<OResultInternal> merge(List<Map<List<Object>, OResultInternal>> partials) {
+    Map<List<Object>, List<OResultInternal>> groups = new LinkedHashMap<>();
+    for (Map<List<Object>, OResultInternal> partial : partials) {
+      for (Map.Entry<List<Object>, OResultInternal> entry : partial.entrySet()) {
+        groups.computeIfAbsent(entry.getKey(), k -> new ArrayList<>()).add(entry.getValue());
+      }
+    }
+
+    List<OResultInternal> result = new ArrayList<>();
+    for (List<OResultInternal> group : groups.values()) {
+      OResultInternal merged = new OResultInternal();
+      for (OProjectionItem proj : aggregateProjection.getItems()) {
+        String alias = proj.getProjectionAlias().getStringValue();
+        if (!proj.isAggregate()) {
+          merged.setProperty(alias, group.get(0).getProperty(alias));
+          continue;
+        }
+        String function = getMergeableFunction(proj).getName().getStringValue().toLowerCase();
+        if (function.equals("avg")) {
+          PartialAverage avg = new PartialAverage(null);
+          for (OResultInternal item : group) {
+            avg.merge((PartialAverage) item.getTemporaryProperty(alias));
+          }
+          merged.setTemporaryProperty(alias, avg.getFinalValue());
+        } else {
+          List<Object> values = new ArrayList<>();
+          for (OResultInternal item : group) {
+            Object value = ((AggregationContext) item.getTemporaryProperty(alias)).getFinalValue();
+            if (value != null || function.equals("count")) {
+              values.add(value);
+            }
+          }
+          merged.setTemporaryProperty(
+              alias,
+              values.isEmpty()
+                  ? null
+                  : OSQLEngine.getInstance().getFunction(function).mergeDistributedResult(values));
+        }
+      }
+      result.add(merged);
+    }
+    return result;
+  }
+
+  /**
+   * Keeps sum and number of the values separate, so that the partial averages of different threads
+   * can be merged.
+   */
+  private static class PartialAverage implements AggregationContext {
+    private final OExpression param;
+    private Number sum;
+    private int total = 0;
+
+    PartialAverage(OExpression param) {
+      this.param = param;
+    }
+
+    @Override
+    public void apply(OResult next, OCommandContext ctx) {
+      Object value = param.execute(next, ctx);
+      if (value instanceof Number) {
+        add((Number) value);
+      } else if (OMultiValue.isMultiValue(value)) {
+        for (Object item : OMultiValue.getMultiValueIterable(value)) {
+          add((Number) item);
+        }
+      }
+    }
+
+    private void add(Number value) {
+      if (value != null) {
+        total++;
+        sum = sum == null ? value : OType.increment(sum, value);
+      }
+    }
+
+    void merge(PartialAverage other) {
+      if (other.sum != null) {
+        sum = sum == null ? other.sum : OType.increment(sum, other.sum);
+      }
+      total += other.total;
+    }
+
+    @Override
+    public Object getFinalValue() {
+      if (sum instanceof Integer) {
+        return sum.intValue() / total;
+      } else if (sum instanceof Long) {
+        return sum.longValue() / total;
+      } else if (sum instanceof Float) {
+        return sum.floatValue() / total;
+      } else if (sum instanceof Double) {
+        return sum.doubleValue() / total;
+      } else if (sum instanceof BigDecimal) {
+        return ((BigDecimal) sum).divide(new BigDecimal(total), RoundingMode.HALF_UP);
+      }
+      return null;
+    }
+  }
+
+  @Override
+  public String prettyPrint(int depth, int indent) {
+    String spaces = OExecutionStepInternal.getIndent(depth, indent);
+    String result =
+        spaces + "+ PARALLEL AGGREGATE ON CLASS " + targetClass + " (" + parallelism + " threads)";
+    if (profilingEnabled) {
+      result += " (" + getCostFormatted() + ")";
+    }
+    if (whereClause != null) {
+      result += "\n" + spaces + "      WHERE " + whereClause;
+    }
+    result += "\n" + spaces + "      " + aggregateProjection;
+    if (groupBy != null) {
+      result += "\n" + spaces + "      " + groupBy;
+    }
+    return result;
+  }
+
+  @Override
+  public OExecutionStep copy(OCommandContext ctx) {
+    return new ParallelAggregateStep(
+        targetClass.copy(),
+        whereClause == null ? null : whereClause.copy(),
+        preAggregateProjection == null ? null : preAggregateProjection.copy(),
+        aggregateProjection.copy(),
+        groupBy == null ? null : groupBy.copy(),
+        ctx,
+        timeoutMillis,
+        parallelism,
+        profilingEnabled);
+  }
+
+  @Override
+  public long getCost() {
+    return cost;
+  }
+}
@@ -0,0 +1,891 @@
+package com.orientechnologies.orient.core.sql.executor;
+
+import com.orientechnologies.common.concur.OTimeoutException;
+import com.orientechnologies.orient.core.collate.ODefaultCollate;
+import com.orientechnologies.orient.core.command.OCommandContext;
+import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
+import com.orientechnologies.orient.core.db.OExecutionThreadLocal;
+import com.orientechnologies.orient.core.exception.OCommandExecutionException;
+import com.orientechnologies.orient.core.exception.OCommandInterruptedException;
+import com.orientechnologies.orient.core.iterator.ORecordIteratorClass;
+import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.metadata.schema.OProperty;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.record.ORecord;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.sql.parser.OAndBlock;
+import com.orientechnologies.orient.core.sql.parser.OBaseExpression;
+import com.orientechnologies.orient.core.sql.parser.OBinaryCompareOperator;
+import com.orientechnologies.orient.core.sql.parser.OBinaryCondition;
+import com.orientechnologies.orient.core.sql.parser.OBooleanExpression;
+import com.orientechnologies.orient.core.sql.parser.OEqualsCompareOperator;
+import com.orientechnologies.orient.core.sql.parser.OExpression;
+import com.orientechnologies.orient.core.sql.parser.OFunctionCall;
+import com.orientechnologies.orient.core.sql.parser.OGeOperator;
+import com.orientechnologies.orient.core.sql.parser.OGtOperator;
+import com.orientechnologies.orient.core.sql.parser.OIdentifier;
+import com.orientechnologies.orient.core.sql.parser.OLeOperator;
+import com.orientechnologies.orient.core.sql.parser.OLtOperator;
+import com.orientechnologies.orient.core.sql.parser.ONeOperator;
+import com.orientechnologies.orient.core.sql.parser.ONeqOperator;
+import com.orientechnologies.orient.core.sql.parser.OProjection;
+import com.orientechnologies.orient.core.sql.parser.OProjectionItem;
+import com.orientechnologies.orient.core.sql.parser.OWhereClause;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Calculates COUNT, SUM, MIN, MAX and AVG of the properties of a class reading its records in
+ * batches. The properties used by the query are copied from each batch of records into primitive
+ * column vectors, then the conditions of the WHERE clause are evaluated over whole vectors into a
+ * selection mask and the aggregates are calculated over the selected values, so expressions are
+ * not interpreted record by record. The values are still read from the records as objects, only
+ * the filtering and the aggregation work on primitives.
+ *
+ * <p>The step is used only if the query can be calculated this way, see {@link #create}. If a
+ * record holds a value which does not match the type of its property in the schema, the
+ * aggregation is calculated again with the interpreted expressions.
+ */
+public class VectorizedAggregateStep extends AbstractExecutionStep {
+  private static final Set<OType> COLUMN_TYPES =
+      EnumSet.of(
+          OType.SHORT,
+          OType.INTEGER,
+          OType.LONG,
+          OType.FLOAT,
+          OType.DOUBLE,
+          OType.DATE,
+          OType.DATETIME,
+          OType.STRING);
+
+  /** SUM and AVG of these types give the same results when calculated on longs and doubles */
+  private static final Set<OType> SUMMABLE_TYPES =
+      EnumSet.of(OType.INTEGER, OType.LONG, OType.DOUBLE);
+
+  private enum Operator {
+    EQ,
+    NE,
+    LT,
+    LE,
+    GT,
+    GE
+  }
+
+  private enum Function {
+    COUNT,
+    SUM,
+    MIN,
+    MAX,
+    AVG
+  }
+
+  private static final class Column {
+    private final String name;
+    private final OType type;
+
+    private Column(String name, OType type) {
+      this.name = name;
+      this.type = type;
+    }
+  }
+
+  private static final class Predicate {
+    private final int column;
+    private final Operator operator;
+    private final OExpression value;
+
+    private Predicate(int column, Operator operator, OExpression value) {
+      this.column = column;
+      this.operator = operator;
+      this.value = value;
+    }
+  }
+
+  private static final class Aggregate {
+    private final String alias;
+    private final Function function;
+    /** index of the aggregated column, -1 for COUNT(*) */
+    private final int column;
+
+    private Aggregate(String alias, Function function, int column) {
+      this.alias = alias;
+      this.function = function;
+      this.column = column;
+    }
+  }
+
+  private final OIdentifier targetClass;
+  private final OWhereClause whereClause;
+  private final OProjection preAggregateProjection;
+  private final OProjection aggregateProjection;
+  private final List<Column> columns;
+  private final List<Predicate> predicates;
+  private final List<Aggregate> aggregates;
+  private final int batchSize;
+  private final long timeoutMillis;
+
+  private OResultInternal finalResult = null;
+  private boolean executed = false;
+  private boolean fetched = false;
+  private boolean interpreted = false;
+  private long cost = 0;
+
+  private VectorizedAggregateStep(
+      OIdentifier targetClass,
+      OWhereClause whereClause,
+      OProjection preAggregateProjection,
+      OProjection aggregateProjection,
+      List<Column> columns,
+      List<Predicate> predicates,
+      List<Aggregate> aggregates,
+      int batchSize,
+      OCommandContext ctx,
+      long timeoutMillis,
+      boolean profilingEnabled) {
+    super(ctx, profilingEnabled);
+    this.targetClass = targetClass;
+    this.whereClause = whereClause;
+    this.preAggregateProjection = preAggregateProjection;
+    this.aggregateProjection = aggregateProjection;
+    this.columns = columns;
+    this.predicates = predicates;
+    this.aggregates = aggregates;
+    this.batchSize = Math.max(1, batchSize);
+    this.timeoutMillis = timeoutMillis;
+  }
+
+  /**
+   * Creates the step if the query can be calculated on column vectors: every aggregate projection
+   * is a COUNT, SUM, MIN, MAX or AVG of a property of the class (or COUNT(*)) and the WHERE
+   * clause is a conjunction of comparisons of properties with constants or input parameters. The
+   * properties have to be defined in the schema with a numeric, date or string type.
+   *
+   * @param clazz the class to scan (including subclasses)
+   * @param targetClass the target of the query
+   * @param whereClause the filter to apply to the records, null to aggregate all the records
+   * @param preAggregateProjection the projection calculated on every record before the
+   *     aggregation, as calculated by the query planner
+   * @param aggregateProjection the aggregate projection, as calculated by the query planner
+   * @param batchSize the number of records read in a batch
+   * @param ctx the query context
+   * @param timeoutMillis the query timeout, -1 for no timeout
+   * @param profilingEnabled true to enable the profiling of the execution (for SQL PROFILE)
+   * @return the step, null if the query can not be calculated on column vectors
+   */
+  public static VectorizedAggregateStep create(
+      OClass clazz,
+      OIdentifier targetClass,
+      OWhereClause whereClause,
+      OProjection preAggregateProjection,
+      OProjection aggregateProjection,
+      int batchSize,
+      OCommandContext ctx,
+      long timeoutMillis,
+      boolean profilingEnabled) {
+    if (aggregateProjection == null) {
+      return null;
+    }
+    List<Column> columns = new ArrayList<>();
+    List<Aggregate> aggregates = new ArrayList<>();
+    for (OProjectionItem item : aggregateProjection.getItems()) {
+      Aggregate aggregate = toAggregate(clazz, item, preAggregateProjection, columns);
+      if (aggregate == null) {
+        return null;
+      }
+      aggregates.add(aggregate);
+    }
+
+    List<Predicate> predicates = new ArrayList<>();
+    if (whereClause != null) {
+      List<OAndBlock> flattened = whereClause.flatten();
+      if (flattened.size() != 1) {
+        return null;
+      }
+      for (OBooleanExpression condition : flattened.get(0).getSubBlocks()) {
+        Predicate predicate = toPredicate(clazz, condition, columns, ctx);
+        if (predicate == null) {
+          return null;
+        }
+        predicates.add(predicate);
+      }
+    }
+
+    return new VectorizedAggregateStep(
+        targetClass,
+        whereClause,
+        preAggregateProjection,
+        aggregateProjection,
+        columns,
+        predicates,
+        aggregates,
+        batchSize,
+        ctx,
+        timeoutMillis,
+        profilingEnabled);
+  }
+
+  private static Aggregate toAggregate(
+      OClass clazz,
+      OProjectionItem item,
+      OProjection preAggregateProjection,
+      List<Column> columns) {
+    OExpression exp = item.getExpression();
+    if (!item.isAggregate()
+        || exp == null
+        || !(exp.getMathExpression() instanceof OBaseExpression)) {
+      return null;
+    }
+    OBaseExpression base = (OBaseExpression) exp.getMathExpression();
+    if (base.getModifier() != null
+        || base.getIdentifier() == null
+        || base.getIdentifier().getLevelZero() == null) {
+      return null;
+    }
+    OFunctionCall call = base.getIdentifier().getLevelZero().getFunctionCall();
+    if (call == null || call.getParams().size() != 1) {
+      return null;
+    }
+    Function function;
+    try {
+      function = Function.valueOf(call.getName().getStringValue().toUpperCase());
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+    String alias = item.getProjectionAlias().getStringValue();
+    if (call.isStar()) {
+      return function == Function.COUNT ? new Aggregate(alias, function, -1) : null;
+    }
+
+    // the planner moves the parameters of the aggregate functions to the pre-aggregate projection
+    OExpression param = call.getParams().get(0);
+    if (!param.isBaseIdentifier() || preAggregateProjection == null) {
+      return null;
+    }
+    String paramAlias = param.getDefaultAlias().getStringValue();
+    for (OProjectionItem preAggregate : preAggregateProjection.getItems()) {
+      if (paramAlias.equals(preAggregate.getProjectionAliasAsString())) {
+        int column = toColumn(clazz, preAggregate.getExpression(), columns, false);
+        if (column < 0
+            || (function == Function.SUM || function == Function.AVG)
+                && !SUMMABLE_TYPES.contains(columns.get(column).type)) {
+          return null;
+        }
+        return new Aggregate(alias, function, column);
+      }
+    }
+    return null;
+  }
+
+  private static Predicate toPredicate(
+      OClass clazz, OBooleanExpression condition, List<Column> columns, OCommandContext ctx) {
+    if (!(condition instanceof OBinaryCondition)) {
+      return null;
+    }
+    OBinaryCondition binary = (OBinaryCondition) condition;
+    Operator operator = toOperator(binary.getOperator());
+    if (operator == null || !binary.getRight().isEarlyCalculated(ctx)) {
+      return null;
+    }
+    int column = toColumn(clazz, binary.getLeft(), columns, true);
+    if (column < 0) {
+      return null;
+    }
+    return new Predicate(column, operator, binary.getRight());
+  }
+
+  private static Operator toOperator(OBinaryCompareOperator operator) {
+    if (operator instanceof OEqualsCompareOperator) {
+      return Operator.EQ;
+    } else if (operator instanceof ONeOperator || operator instanceof ONeqOperator) {
+      return Operator.NE;
+    } else if (operator instanceof OLtOperator) {
+      return Operator.LT;
+    } else if (operator instanceof OLeOperator) {
+      return Operator.LE;
+    } else if (operator instanceof OGtOperator) {
+      return Operator.GT;
+    } else if (operator instanceof OGeOperator) {
+      return Operator.GE;
+    }
+    return null;
+  }
+
+  /** @return the index of the column of the property, -1 if it can not be read in a vector */
+  private static int toColumn(
+      OClass clazz, OExpression exp, List<Column> columns, boolean compared) {
+    if (exp == null || !exp.isBaseIdentifier()) {
+      return -1;
+    }
+    String name = exp.getDefaultAlias().getStringValue();
+    if (name.startsWith("@")) {
+      return -1;
+    }
+    OProperty property = clazz.getProperty(name);
+    if (property == null || !COLUMN_TYPES.contains(property.getType())) {
+      return -1;
+    }
+    if (compared
+        && property.getCollate() != null
+        && !ODefaultCollate.NAME.equals(property.getCollate().getName())) {
+      return -1;
+    }
+    for (int i = 0; i < columns.size(); i++) {
+      if (columns.get(i).name.equals(name)) {
+        return i;
+      }
+    }
+    columns.add(new Column(name, property.getType()));
+    return columns.size() - 1;
+  }
+
+  @Override
+  public OResultSet syncPull(OCommandContext ctx, int nRecords) throws OTimeoutException {
+    getPrev().ifPresent(x -> x.syncPull(ctx, nRecords));
+    if (!executed) {
+      long begin = profilingEnabled ? System.nanoTime() : 0;
+      try {
+        executeAggregation(ctx);
+        executed = true;
+      } finally {
+        if (profilingEnabled) {
+          cost += (System.nanoTime() - begin);
+        }
+      }
+    }
+
+    OInternalResultSet result = new OInternalResultSet();
+    if (!fetched && finalResult != null && nRecords > 0) {
+      result.add(finalResult);
+      fetched = true;
+    }
+    return result;
+  }
+
+  private void executeAggregation(OCommandContext ctx) {
+    ODatabaseDocumentInternal db = (ODatabaseDocumentInternal) ctx.getDatabase();
+    OClass clazz = db.getMetadata().getImmutableSchemaSnapshot().getClass(targetClass.getValue());
+    if (clazz == null) {
+      throw new OCommandExecutionException(
+          "Class " + targetClass.getStringValue() + " does not exist in the database schema");
+    }
+    long deadline =
+        timeoutMillis > 0 ? System.currentTimeMillis() + timeoutMillis : Long.MAX_VALUE;
+
+    Vectors vectors = new Vectors(columns, aggregates.size(), batchSize);
+    if (aggregateVectorized(db, clazz, vectors, deadline, ctx)) {
+      finalResult = vectors.rows == 0 ? null : vectors.getResult(columns, aggregates);
+    } else {
+      interpreted = true;
+      finalResult = aggregateInterpreted(db, clazz, deadline, ctx);
+    }
+  }
+
+  /** @return false if a record holds a value that can not be stored in its column */
+  private boolean aggregateVectorized(
+      ODatabaseDocumentInternal db,
+      OClass clazz,
+      Vectors vectors,
+      long deadline,
+      OCommandContext ctx) {
+    Object[] constants = new Object[predicates.size()];
+    for (int i = 0; i < constants.length; i++) {
+      constants[i] = predicates.get(i).value.execute((OResult) null, ctx);
+    }
+
+    ORecordIteratorClass<ORecord> iterator =
+        new ORecordIteratorClass<>(db, clazz.getName(), true);
+    while (iterator.hasNext()) {
+      checkExecution(deadline);
+
+      int size = 0;
+      while (size < batchSize && iterator.hasNext()) {
+        ORecord record = iterator.next();
+        if (!(record instanceof ODocument)) {
+          return false;
+        }
+        ODocument doc = (ODocument) record;
+        for (int i = 0; i < columns.size(); i++) {
+          if (!vectors.columns[i].set(size, doc.getProperty(columns.get(i).name))) {
+            return false;
+          }
+        }
+        size++;
+      }
+
+      vectors.select(size);
+      for (int i = 0; i < predicates.size(); i++) {
+        Predicate predicate = predicates.get(i);
+        vectors.filter(predicate.column, predicate.operator, constants[i], size);
+      }
+      for (int i = 0; i < aggregates.size(); i++) {
+        Aggregate aggregate = aggregates.get(i);
+        vectors.aggregate(i, aggregate.function, aggregate.column, size);
+      }
+    }
+    return true;
+  }
+
+  private OResultInternal aggregateInterpreted(
+      ODatabaseDocumentInternal db, OClass clazz, long deadline, OCommandContext ctx) {
+    OResultInternal result = null;
+    long scanned = 0;
+    ORecordIteratorClass<ORecord> iterator =
+        new ORecordIteratorClass<>(db, clazz.getName(), true);
+    while (iterator.hasNext()) {
+      if (++scanned % batchSize == 0) {
+        checkExecution(deadline);
+      }
+      OResult next = new OResultInternal(iterator.next());
+      if (whereClause != null && !whereClause.matchesFilters(next, ctx)) {
+        continue;
+      }
+      if (preAggregateProjection != null) {
+        next = preAggregateProjection.calculateSingle(ctx, next);
+      }
+      if (result == null) {
+        result = new OResultInternal();
+      }
+      for (OProjectionItem proj : aggregateProjection.getItems()) {
+        String alias = proj.getProjectionAlias().getStringValue();
+        AggregationContext aggrCtx = (AggregationContext) result.getTemporaryProperty(alias);
+        if (aggrCtx == null) {
+          aggrCtx = proj.getAggregationContext(ctx);
+          result.setTemporaryProperty(alias, aggrCtx);
+        }
+        aggrCtx.apply(next, ctx);
+      }
+    }
+
+    if (result != null) {
+      for (OProjectionItem proj : aggregateProjection.getItems()) {
+        String alias = proj.getProjectionAlias().getStringValue();
+        AggregationContext aggrCtx = (AggregationContext) result.getTemporaryProperty(alias);
+        result.setTemporaryProperty(alias, aggrCtx.getFinalValue());
+      }
+    }
+    return result;
+  }
+
+  private void checkExecution(long deadline) {
+    if (System.currentTimeMillis() > deadline) {
+      sendTimeout();
+      throw new OTimeoutException("Command execution timeout");
+    }
+    if (OExecutionThreadLocal.isInterruptCurrentOperation()) {
+      throw new OCommandInterruptedException("The command has been interrupted");
+    }
+  }
+
+  /** The column vectors of a batch, its selection mask and the state of the aggregates. */
+  private static final class Vectors {
+    private final ColumnVector[] columns;
+    private final boolean[] selected;
+    private final int[] compared;
+
+    private long rows = 0;
+
+    private final long[] counts;
+    private final long[] longSums;
+    private final double[] doubleSums;
+    private final long[] longExtremes;
+    private final double[] doubleExtremes;
+    private final String[] stringExtremes;
+
+    private Vectors(List<Column> columns, int aggregates, int batchSize) {
+      this.columns = new ColumnVector[columns.size()];
+      for (int i = 0; i < this.columns.length; i++) {
+        this.columns[i] = new ColumnVector(columns.get(i).type, batchSize);
+      }
+      selected = new boolean[batchSize];
+      compared = new int[batchSize];
+
+      counts = new long[aggregates];
+      longSums = new long[aggregates];
+      doubleSums = new double[aggregates];
+      longExtremes = new long[aggregates];
+      doubleExtremes = new double[aggregates];
+      stringExtremes = new String[aggregates];
+    }
+
+    private void select(int size) {
+      for (int i = 0; i < size; i++) {
+        selected[i] = true;
+      }
+    }
+
+    /**
+     * Applies a comparison with a constant to the selection mask, with the semantic of the
+     * interpreted operators: null values are never equal to the constant, and a constant that can
+     * not be converted to the type of the column is never equal to the values.
+     */
+    private void filter(int column, Operator operator, Object constant, int size) {
+      ColumnVector vector = columns[column];
+      boolean[] nulls = vector.nulls;
+      if (!vector.compare(constant, compared, size)) {
+        if (operator != Operator.NE) {
+          for (int i = 0; i < size; i++) {
+            selected[i] = false;
+          }
+        }
+        return;
+      }
+
+      switch (operator) {
+        case EQ:
+          for (int i = 0; i < size; i++) {
+            selected[i] &= !nulls[i] && compared[i] == 0;
+          }
+          break;
+        case NE:
+          for (int i = 0; i < size; i++) {
+            selected[i] &= nulls[i] || compared[i] != 0;
+          }
+          break;
+        case LT:
+          for (int i = 0; i < size; i++) {
+            selected[i] &= !nulls[i] && compared[i] < 0;
+          }
+          break;
+        case LE:
+          for (int i = 0; i < size; i++) {
+            selected[i] &= !nulls[i] && compared[i] <= 0;
+          }
+          break;
+        case GT:
+          for (int i = 0; i < size; i++) {
+            selected[i] &= !nulls[i] && compared[i] > 0;
+          }
+          break;
+        case GE:
+          for (int i = 0; i < size; i++) {
+            selected[i] &= !nulls[i] && compared[i] >= 0;
+          }
+          break;
+      }
+    }
+
+    private void aggregate(int aggregate, Function function, int column, int size) {
+      if (aggregate == 0) {
+        for (int i = 0; i < size; i++) {
+          if (selected[i]) {
+            rows++;
+          }
+        }
+      }
+      if (column < 0) {
+        for (int i = 0; i < size; i++) {
+          if (selected[i]) {
+            counts[aggregate]++;
+          }
+        }
+        return;
+      }
+
+      ColumnVector vector = columns[column];
+      boolean[] nulls = vector.nulls;
+      long count = counts[aggregate];
+      switch (function) {
+        case COUNT:
+          for (int i = 0; i < size; i++) {
+            if (selected[i] && !nulls[i]) {
+              count++;
+            }
+          }
+          break;
+        case SUM:
+        case AVG:
+          if (vector.longs != null) {
+            long sum = longSums[aggregate];
+            long[] values = vector.longs;
+            for (int i = 0; i < size; i++) {
+              if (selected[i] && !nulls[i]) {
+                sum += values[i];
+                count++;
+              }
+            }
+            longSums[aggregate] = sum;
+          } else {
+            double sum = doubleSums[aggregate];
+            double[] values = vector.doubles;
+            for (int i = 0; i < size; i++) {
+              if (selected[i] && !nulls[i]) {
+                sum += values[i];
+                count++;
+              }
+            }
+            doubleSums[aggregate] = sum;
+          }
+          break;
+        case MIN:
+        case MAX:
+          int sign = function == Function.MIN ? -1 : 1;
+          if (vector.longs != null) {
+            long extreme = longExtremes[aggregate];
+            long[] values = vector.longs;
+            for (int i = 0; i < size; i++) {
+              if (selected[i]
+                  && !nulls[i]
+                  && (count++ == 0 || Long.compare(values[i], extreme) == sign)) {
+                extreme = values[i];
+              }
+            }
+            longExtremes[aggregate] = extreme;
+          } else if (vector.doubles != null) {
+            double extreme = doubleExtremes[aggregate];
+            double[] values = vector.doubles;
+            for (int i = 0; i < size; i++) {
+              if (selected[i]
+                  && !nulls[i]
+                  && (count++ == 0 || Double.compare(values[i], extreme) == sign)) {
+                extreme = values[i];
+              }
+            }
+            doubleExtremes[aggregate] = extreme;
+          } else {
+            String extreme = stringExtremes[aggregate];
+            String[] values = vector.strings;
+            for (int i = 0; i < size; i++) {
+              if (selected[i]
+                  && !nulls[i]
+                  && (count++ == 0 || Integer.signum(values[i].compareTo(extreme)) == sign)) {
+                extreme = values[i];
+              }
+            }
+            stringExtremes[aggregate] = extreme;
+          }
+          break;
+      }
+      counts[aggregate] = count;
+    }
+
+    /** @return the final values of the aggregates, of the same types of the aggregate functions */
+    private OResultInternal getResult(List<Column> columns, List<Aggregate> aggregates) {
+      OResultInternal result = new OResultInternal();
+      for (int i = 0; i < aggregates.size(); i++) {
+        Aggregate aggregate = aggregates.get(i);
+        OType type = aggregate.column < 0 ? null : columns.get(aggregate.column).type;
+        long count = counts[i];
+        Object value;
+        switch (aggregate.function) {
+          case COUNT:
+            value = count;
+            break;
+          case SUM:
+            if (count == 0) {
+              value = 0;
+            } else if (type == OType.DOUBLE) {
+              value = doubleSums[i];
+            } else if (type == OType.INTEGER && fitsInteger(longSums[i])) {
+              value = (int) longSums[i];
+            } else {
+              value = longSums[i];
+            }
+            break;
+          case AVG:
+            if (count == 0) {
+              value = null;
+            } else if (type == OType.DOUBLE) {
+              value = doubleSums[i] / count;
+            } else if (type == OType.INTEGER && fitsInteger(longSums[i])) {
+              value = (int) longSums[i] / (int) count;
+            } else {
+              value = longSums[i] / count;
+            }
+            break;
+          default:
+            value = count == 0 ? null : getExtreme(type, i);
+        }
+        result.setTemporaryProperty(aggregate.alias, value);
+      }
+      return result;
+    }
+
+    private Object getExtreme(OType type, int aggregate) {
+      switch (type) {
+        case SHORT:
+          return (short) longExtremes[aggregate];
+        case INTEGER:
+          return (int) longExtremes[aggregate];
+        case LONG:
+          return longExtremes[aggregate];
+        case FLOAT:
+          return (float) doubleExtremes[aggregate];
+        case DOUBLE:
+          return doubleExtremes[aggregate];
+        case DATE:
+        case DATETIME:
+          return new Date(longExtremes[aggregate]);
+        default:
+          return stringExtremes[aggregate];
+      }
+    }
+
+    private static boolean fitsInteger(long value) {
+      return value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE;
+    }
+  }
+
+  /**
+   * Values of a property in a batch of records. Integers and dates (as milliseconds) are stored as
+   * longs, floating point numbers as doubles.
+   */
+  private static final class ColumnVector {
+    private final OType type;
+    private final long[] longs;
+    private final double[] doubles;
+    private final String[] strings;
+    private final boolean[] nulls;
+
+    private ColumnVector(OType type, int batchSize) {
+      this.type = type;
+      boolean floating = type == OType.FLOAT || type == OType.DOUBLE;
+      longs = !floating && type != OType.STRING ? new long[batchSize] : null;
+      doubles = floating ? new double[batchSize] : null;
+      strings = type == OType.STRING ? new String[batchSize] : null;
+      nulls = new boolean[batchSize];
+    }
+
+    /** @return false if the value is not of the java type of the property */
+    private boolean set(int row, Object value) {
+      if (value == null) {
+        nulls[row] = true;
+        return true;
+      }
+      if (!type.getDefaultJavaType().isInstance(value)) {
+        return false;
+      }
+      nulls[row] = false;
+      if (longs != null) {
+        longs[row] =
+            value instanceof Date ? ((Date) value).getTime() : ((Number) value).longValue();
+      } else if (doubles != null) {
+        doubles[row] = ((Number) value).doubleValue();
+      } else {
+        strings[row] = (String) value;
+      }
+      return true;
+    }
+
+    /**
+     * Compares the values with a constant, converted as the interpreted operators do.
+     *
+     * @param result the signs of the comparisons, not significant for null values
+     * @return false if the constant can not be converted to the type of the column
+     */
+    private boolean compare(Object constant, int[] result, int size) {
+      if (constant == null) {
+        return false;
+      }
+      if (strings != null) {
+        String value =
+            constant instanceof String
+                ? (String) constant
+                : (String) OType.convert(constant, String.class);
+        if (value == null) {
+          return false;
+        }
+        for (int i = 0; i < size; i++) {
+          result[i] = nulls[i] ? 0 : strings[i].compareTo(value);
+        }
+        return true;
+      }
+
+      if (longs != null && (type == OType.DATE || type == OType.DATETIME)) {
+        Date value =
+            constant instanceof Date ? (Date) constant : (Date) OType.convert(constant, Date.class);
+        if (value == null) {
+          return false;
+        }
+        compareLongs(value.getTime(), result, size);
+        return true;
+      }
+
+      Object value =
+          constant instanceof Number
+              ? constant
+              : OType.convert(constant, type.getDefaultJavaType());
+      if (!(value instanceof Number)) {
+        return false;
+      }
+      if (doubles != null) {
+        double number = ((Number) value).doubleValue();
+        for (int i = 0; i < size; i++) {
+          result[i] = Double.compare(doubles[i], number);
+        }
+      } else if (value instanceof Float || value instanceof Double || !isIntegral(value)) {
+        double number = ((Number) value).doubleValue();
+        for (int i = 0; i < size; i++) {
+          result[i] = Double.compare((double) longs[i], number);
+        }
+      } else {
+        compareLongs(((Number) value).longValue(), result, size);
+      }
+      return true;
+    }
+
+    private void compareLongs(long value, int[] result, int size) {
+      for (int i = 0; i < size; i++) {
+        result[i] = Long.compare(longs[i], value);
+      }
+    }
+
+    private static boolean isIntegral(Object value) {
+      return value instanceof Long
+          || value instanceof Integer
+          || value instanceof Short
+          || value instanceof Byte;
+    }
+  }
+
+  @Override
+  public String prettyPrint(int depth, int indent) {
+    String spaces = OExecutionStepInternal.getIndent(depth, indent);
+    String result =
+        spaces
+            + "+ VECTORIZED AGGREGATE ON CLASS "
+            + targetClass
+            + " (batch size "
+            + batchSize
+            + ")";
+    if (profilingEnabled) {
+      result += " (" + getCostFormatted() + ")";
+    }
+    if (interpreted) {
+      result += "\n" + spaces + "      (interpreted, values do not match the schema)";
+    }
+    if (whereClause != null) {
+      result += "\n" + spaces + "      WHERE " + whereClause;
+    }
+    result += "\n" + spaces + "      " + aggregateProjection;
+    return result;
+  }
+
+  @Override
+  public OExecutionStep copy(OCommandContext ctx) {
+    List<Predicate> predicatesCopy = new ArrayList<>();
+    for (Predicate predicate : predicates) {
+      predicatesCopy.add(
+          new Predicate(predicate.column, predicate.operator, predicate.value.copy()));
+    }
+    return new VectorizedAggregateStep(
+        targetClass.copy(),
+        whereClause == null ? null : whereClause.copy(),
+        preAggregateProjection == null ? null : preAggregateProjection.copy(),
+        aggregateProjection.copy(),
+        columns,
+        predicatesCopy,
+        aggregates,
+        batchSize,
+        ctx,
+        timeoutMillis,
+        profilingEnabled);
+  }
+
+  @Override
+  public long getCost() {
+    return cost;
+  }
+}
@@ -1,5 +1,8 @@
 package com.orientechnologies.orient.core.sql.parser;
 
+import com.orientechnologies.orient.core.serialization.serializer.record.binary.OBinaryField;
+import com.orientechnologies.orient.core.serialization.serializer.record.binary.ODocumentSerializer;
+
 /** Created by luigidellaquila on 12/11/14. */
 public interface OBinaryCompareOperator {
   public boolean execute(Object left, Object right);
@@ -11,4 +14,17 @@ public interface OBinaryCompareOperator {
   default boolean isRangeOperator() {
     return false;
   }
+
+  /** @return true if operator can compare values serialized in binary form */
+  default boolean isSupportingBinaryEvaluate() {
+    return false;
+  }
+
+  /**
+   * Compares values serialized in binary form, called only if {@link
+   * #isSupportingBinaryEvaluate()} returns true.
+   */
+  default boolean evaluate(OBinaryField left, OBinaryField right, ODocumentSerializer serializer) {
+    throw new UnsupportedOperationException();
+  }
 }
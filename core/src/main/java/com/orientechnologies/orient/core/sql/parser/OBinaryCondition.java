@@ -9,6 +9,15 @@ import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
 import com.orientechnologies.orient.core.db.record.OIdentifiable;
 import com.orientechnologies.orient.core.exception.OCommandExecutionException;
 import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.record.OElement;
+import com.orientechnologies.orient.core.record.ORecord;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.record.impl.ODocumentInternal;
+import com.orientechnologies.orient.core.serialization.serializer.record.binary.BytesContainer;
+import com.orientechnologies.orient.core.serialization.serializer.record.binary.OBinaryField;
+import com.orientechnologies.orient.core.serialization.serializer.record.binary.ODocumentSerializer;
+import com.orientechnologies.orient.core.serialization.serializer.record.binary.ORecordSerializerBinary;
 import com.orientechnologies.orient.core.sql.executor.OResult;
 import com.orientechnologies.orient.core.sql.executor.OResultInternal;
 import java.util.ArrayList;
@@ -41,6 +50,10 @@ public class OBinaryCondition extends OBooleanExpression {
     if (left.isFunctionAny()) {
       return evaluateAny(currentRecord, ctx);
     }
+    final Boolean binaryResult = evaluateBinary(currentRecord, ctx);
+    if (binaryResult != null) {
+      return binaryResult;
+    }
     Object leftVal = left.execute(currentRecord, ctx);
     Object rightVal = right.execute(currentRecord, ctx);
     OCollate collate = left.getCollate(currentRecord, ctx);
@@ -54,6 +67,109 @@ public class OBinaryCondition extends OBooleanExpression {
     return operator.execute(leftVal, rightVal);
   }
 
+  /**
+   * Evaluates the condition directly on the serialized content of the record, only the field used
+   * in condition is read, so records which do not match are never deserialized.
+   *
+   * @return result of the evaluation or {@code null} if condition can not be evaluated in binary
+   *     form, in such case it has to be evaluated on the deserialized record.
+   */
+  private Boolean evaluateBinary(final OResult currentRecord, final OCommandContext ctx) {
+    if (!operator.isSupportingBinaryEvaluate()
+        || !left.isBaseIdentifier()
+        || !right.isEarlyCalculated(ctx)) {
+      return null;
+    }
+
+    final Optional<OElement> element = currentRecord.getElement();
+    if (!element.isPresent()) {
+      return null;
+    }
+
+    final ORecord record = element.get().getRecord();
+    if (!(record instanceof ODocument) || !record.getIdentity().isPersistent()) {
+      return null;
+    }
+
+    final ODocument document = (ODocument) record;
+    final byte[] source = ODocumentInternal.getSerializedSource(document);
+    if (source == null || source.length == 0) {
+      return null;
+    }
+
+    final ODatabaseDocumentInternal db = (ODatabaseDocumentInternal) ctx.getDatabase();
+    if (db == null || !db.getSerializer().getSupportBinaryEvaluate()) {
+      return null;
+    }
+
+    final OBinaryField rightField = toBinaryField(right.execute(currentRecord, ctx), db);
+    if (rightField == null) {
+      return null;
+    }
+
+    final BytesContainer bytes = new BytesContainer(source);
+    final ODocumentSerializer serializer =
+        ORecordSerializerBinary.INSTANCE.getSerializer(bytes.bytes[bytes.offset++]);
+    final OBinaryField leftField =
+        serializer.deserializeField(
+            bytes,
+            document.getSchemaClass(),
+            left.getDefaultAlias().getStringValue(),
+            false,
+            db.getMetadata().getImmutableSchemaSnapshot(),
+            ODocumentInternal.getPropertyEncryption(document));
+    if (leftField == null || !isBinaryComparable(leftField.type, rightField.type)) {
+      return null;
+    }
+
+    return operator.evaluate(leftField, rightField, serializer);
+  }
+
+  /**
+   * Binary comparator converts values of different types in its own way, which does not match
+   * conversions of the interpreted operators (strings are parsed as numbers, decimals are
+   * truncated, unsupported pairs are reported as greater). So only values of the same type or
+   * integral numbers, which are widened without loss, are compared in binary form.
+   */
+  private static boolean isBinaryComparable(final OType leftType, final OType rightType) {
+    if (leftType == rightType) {
+      return true;
+    }
+
+    return isIntegral(leftType) && isIntegral(rightType);
+  }
+
+  private static boolean isIntegral(final OType type) {
+    switch (type) {
+      case BYTE:
+      case SHORT:
+      case INTEGER:
+      case LONG:
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  private static OBinaryField toBinaryField(
+      final Object value, final ODatabaseDocumentInternal db) {
+    if (value == null) {
+      return null;
+    }
+
+    final OType type = OType.getTypeByValue(value);
+    final ODocumentSerializer serializer = ORecordSerializerBinary.INSTANCE.getCurrentSerializer();
+    if (type == null || !serializer.getComparator().isBinaryComparable(type)) {
+      return null;
+    }
+
+    final BytesContainer bytes = new BytesContainer();
+    serializer.serializeValue(
+        bytes, value, type, null, db.getMetadata().getImmutableSchemaSnapshot(), null);
+    bytes.offset = 0;
+    return new OBinaryField(null, type, bytes, null);
+  }
+
   private boolean evaluateAny(OResult currentRecord, OCommandContext ctx) {
     for (String s : currentRecord.getPropertyNames()) {
       Object leftVal = currentRecord.getProperty(s);
@@ -2,6 +2,8 @@
 /* JavaCCOptions:MULTI=true,NODE_USES_PARSER=false,VISITOR=true,TRACK_TOKENS=true,NODE_PREFIX=O,NODE_EXTENDS=,NODE_FACTORY=,SUPPORT_CLASS_VISIBILITY_PUBLIC=true */
 package com.orientechnologies.orient.core.sql.parser;
 
+import com.orientechnologies.orient.core.serialization.serializer.record.binary.OBinaryField;
+import com.orientechnologies.orient.core.serialization.serializer.record.binary.ODocumentSerializer;
 import com.orientechnologies.orient.core.sql.operator.OQueryOperatorEquals;
 
 public class OEqualsCompareOperator extends SimpleNode implements OBinaryCompareOperator {
@@ -25,6 +27,17 @@ public class OEqualsCompareOperator extends SimpleNode implements OBinaryCompare
     return true;
   }
 
+  @Override
+  public boolean isSupportingBinaryEvaluate() {
+    return true;
+  }
+
+  @Override
+  public boolean evaluate(
+      final OBinaryField left, final OBinaryField right, final ODocumentSerializer serializer) {
+    return serializer.getComparator().isEqual(left, right);
+  }
+
   @Override
   public String toString() {
     return doubleEquals ? "==" : "=";
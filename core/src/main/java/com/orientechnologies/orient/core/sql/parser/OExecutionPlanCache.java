@@ -1,33 +1,74 @@
 package com.orientechnologies.orient.core.sql.parser;
 
+import com.orientechnologies.common.profiler.OProfiler;
+import com.orientechnologies.orient.core.Orient;
 import com.orientechnologies.orient.core.command.OBasicCommandContext;
 import com.orientechnologies.orient.core.command.OCommandContext;
 import com.orientechnologies.orient.core.config.OGlobalConfiguration;
 import com.orientechnologies.orient.core.config.OStorageConfiguration;
 import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
 import com.orientechnologies.orient.core.db.OMetadataUpdateListener;
+import com.orientechnologies.orient.core.db.OSharedContext;
 import com.orientechnologies.orient.core.db.document.ODatabaseDocument;
 import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.index.OIndex;
 import com.orientechnologies.orient.core.index.OIndexManagerAbstract;
+import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.metadata.schema.OProperty;
 import com.orientechnologies.orient.core.metadata.schema.OSchemaShared;
+import com.orientechnologies.orient.core.sql.executor.FetchFromIndexStep;
 import com.orientechnologies.orient.core.sql.executor.OExecutionPlan;
+import com.orientechnologies.orient.core.sql.executor.OExecutionStep;
 import com.orientechnologies.orient.core.sql.executor.OInternalExecutionPlan;
+import com.orientechnologies.orient.core.sql.executor.OQueryStats;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * This class is an LRU cache for already prepared SQL execution plans. It stores itself in the
  * storage as a resource. It also acts an an entry point for the SQL executor.
  *
+ * <p>Plans can declare the classes they depend on: a schema or index change only evicts the plans
+ * that depend on a changed class (or on its super classes), plans without declared dependencies
+ * are evicted on every change. A cached plan is also discarded when the index statistics it was
+ * planned with drift by more than {@link OGlobalConfiguration#STATEMENT_CACHE_REPLAN_FACTOR}.
+ *
  * @author Luigi Dell'Aquila (l.dellaquila-(at)-orientdb.com)
  */
 public class OExecutionPlanCache implements OMetadataUpdateListener {
+  private static final OProfiler PROFILER = Orient.instance().getProfiler();
 
   Map<String, OInternalExecutionPlan> map;
   int mapSize;
 
   protected long lastInvalidation = -1;
 
+  // CLASSES EACH CACHED PLAN DEPENDS ON, NULL MEANS THAT THE PLAN DEPENDS ON THE WHOLE METADATA
+  private final Map<String, Set<String>> dependencies = new HashMap<>();
+  // INDEX STATISTICS OF EACH CACHED PLAN AT PLANNING TIME, IN THE ORDER OF ITS INDEX LOOKUPS
+  private final Map<String, long[]> plannedIndexStats = new HashMap<>();
+  // FINGERPRINT OF THE DEFINITION OF EACH CLASS SOME CACHED PLAN DEPENDS ON
+  private final Map<String, Integer> classFingerprints = new HashMap<>();
+  private OSharedContext sharedContext;
+
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private final AtomicLong evictions = new AtomicLong();
+  private final AtomicLong replans = new AtomicLong();
+  private String metricPrefix;
+
   /** @param size the size of the cache */
   public OExecutionPlanCache(int size) {
     this.mapSize = size;
@@ -35,11 +76,92 @@ public class OExecutionPlanCache implements OMetadataUpdateListener {
         new LinkedHashMap<String, OInternalExecutionPlan>(size) {
           protected boolean removeEldestEntry(
               final Map.Entry<String, OInternalExecutionPlan> eldest) {
-            return super.size() > mapSize;
+            if (super.size() > mapSize) {
+              dependencies.remove(eldest.getKey());
+              plannedIndexStats.remove(eldest.getKey());
+              return true;
+            }
+            return false;
           }
         };
   }
 
+  /**
+   * Publishes size, hits, misses, evictions and re-plans of the cache through the profiler (and
+   * then through JMX).
+   *
+   * @param databaseName the name of the database that owns the cache
+   */
+  public void registerMetrics(String databaseName) {
+    unregisterMetrics();
+    metricPrefix = PROFILER.getDatabaseMetric(databaseName, "executionPlanCache");
+    PROFILER.registerHookValue(
+        metricPrefix + ".size",
+        "Number of execution plans in cache",
+        OProfiler.METRIC_TYPE.SIZE,
+        () -> {
+          synchronized (map) {
+            return map.size();
+          }
+        });
+    PROFILER.registerHookValue(
+        metricPrefix + ".hits",
+        "Number of execution plans taken from the cache",
+        OProfiler.METRIC_TYPE.COUNTER,
+        hits::get);
+    PROFILER.registerHookValue(
+        metricPrefix + ".misses",
+        "Number of execution plans not found in the cache",
+        OProfiler.METRIC_TYPE.COUNTER,
+        misses::get);
+    PROFILER.registerHookValue(
+        metricPrefix + ".hitRate",
+        "Percentage of execution plans taken from the cache",
+        OProfiler.METRIC_TYPE.STAT,
+        () -> {
+          long total = hits.get() + misses.get();
+          return total == 0 ? 0 : hits.get() * 100 / total;
+        });
+    PROFILER.registerHookValue(
+        metricPrefix + ".evictions",
+        "Number of execution plans evicted because of metadata changes",
+        OProfiler.METRIC_TYPE.COUNTER,
+        evictions::get);
+    PROFILER.registerHookValue(
+        metricPrefix + ".replans",
+        "Number of execution plans discarded because of changed index statistics",
+        OProfiler.METRIC_TYPE.COUNTER,
+        replans::get);
+  }
+
+  public long getHits() {
+    return hits.get();
+  }
+
+  /** @return the number of classes whose definition is tracked to invalidate the cached plans */
+  int getTrackedClasses() {
+    synchronized (map) {
+      return classFingerprints.size();
+    }
+  }
+
+  public long getMisses() {
+    return misses.get();
+  }
+
+  public void unregisterMetrics() {
+    if (metricPrefix == null) {
+      return;
+    }
+    PROFILER.unregisterHookValue(metricPrefix + ".size");
+    PROFILER.unregisterHookValue(metricPrefix + ".hits");
+    PROFILER.unregisterHookValue(metricPrefix + ".misses");
+    PROFILER.unregisterHookValue(metricPrefix + ".hitRate");
+    PROFILER.unregisterHookValue(metricPrefix + ".evictions");
+    PROFILER.unregisterHookValue(metricPrefix + ".replans");
+    metricPrefix = null;
+  }
+
   public static long getLastInvalidation(ODatabaseDocumentInternal db) {
     if (db == null) {
       throw new IllegalArgumentException("DB cannot be null");
@@ -88,6 +210,18 @@ public class OExecutionPlanCache implements OMetadataUpdateListener {
   }
 
   public static void put(String statement, OExecutionPlan plan, ODatabaseDocumentInternal db) {
+    put(statement, plan, null, db);
+  }
+
+  /**
+   * @param statement the SQL statement
+   * @param plan the execution plan
+   * @param classes the names of the classes the plan depends on, null if the plan has to be
+   *     evicted on any metadata change
+   * @param db the current DB instance
+   */
+  public static void put(
+      String statement, OExecutionPlan plan, Set<String> classes, ODatabaseDocumentInternal db) {
     if (db == null) {
       throw new IllegalArgumentException("DB cannot be null");
     }
@@ -96,10 +230,15 @@ public class OExecutionPlanCache implements OMetadataUpdateListener {
     }
 
     OExecutionPlanCache resource = db.getSharedContext().getExecutionPlanCache();
-    resource.putInternal(statement, plan, db);
+    resource.putInternal(statement, plan, classes, db);
   }
 
   public void putInternal(String statement, OExecutionPlan plan, ODatabaseDocument db) {
+    putInternal(statement, plan, null, db);
+  }
+
+  public void putInternal(
+      String statement, OExecutionPlan plan, Set<String> classes, ODatabaseDocument db) {
     if (statement == null) {
       return;
     }
@@ -116,6 +255,32 @@ public class OExecutionPlanCache implements OMetadataUpdateListener {
       // this copy is never used, so it has to be closed to free resources
       internal.close();
       map.put(statement, internal);
+
+      Set<String> deps = null;
+      if (classes != null && db instanceof ODatabaseDocumentInternal) {
+        sharedContext = ((ODatabaseDocumentInternal) db).getSharedContext();
+        deps = new HashSet<>();
+        for (String className : classes) {
+          String key = className.toLowerCase(Locale.ENGLISH);
+          deps.add(key);
+          if (!classFingerprints.containsKey(key)) {
+            classFingerprints.put(
+                key,
+                fingerprint(key, sharedContext.getSchema(), sharedContext.getIndexManager()));
+          }
+        }
+      }
+      dependencies.put(statement, deps);
+
+      if (db instanceof ODatabaseDocumentInternal) {
+        OQueryStats stats = OQueryStats.get((ODatabaseDocumentInternal) db);
+        List<FetchFromIndexStep> lookups = indexLookups(internal);
+        long[] planned = new long[lookups.size()];
+        for (int i = 0; i < planned.length; i++) {
+          planned[i] = lookups.get(i).getIndexStats(stats);
+        }
+        plannedIndexStats.put(statement, planned);
+      }
     }
   }
 
@@ -137,14 +302,66 @@ public class OExecutionPlanCache implements OMetadataUpdateListener {
       // LRU
       result = map.remove(statement);
       if (result != null) {
+        if (db != null && statisticsChanged(statement, result, OQueryStats.get(db))) {
+          dependencies.remove(statement);
+          plannedIndexStats.remove(statement);
+          replans.incrementAndGet();
+          misses.incrementAndGet();
+          return null;
+        }
         map.put(statement, result);
         result = result.copy(ctx);
       }
     }
 
+    if (result == null) {
+      misses.incrementAndGet();
+    } else {
+      hits.incrementAndGet();
+    }
     return result;
   }
 
+  private boolean statisticsChanged(
+      String statement, OInternalExecutionPlan plan, OQueryStats stats) {
+    long[] planned = plannedIndexStats.get(statement);
+    int factor = OGlobalConfiguration.STATEMENT_CACHE_REPLAN_FACTOR.getValueAsInteger();
+    if (planned == null || planned.length == 0 || factor <= 0) {
+      return false;
+    }
+    List<FetchFromIndexStep> lookups = indexLookups(plan);
+    for (int i = 0; i < planned.length && i < lookups.size(); i++) {
+      long current = lookups.get(i).getIndexStats(stats);
+      if (planned[i] < 0) {
+        // NO STATISTICS AT PLANNING TIME: THE FIRST EXECUTIONS DEFINE THE BASELINE
+        planned[i] = current;
+      } else if (current >= 0
+          && Math.max(planned[i], current) >= factor * Math.max(1, Math.min(planned[i], current))) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static List<FetchFromIndexStep> indexLookups(OExecutionPlan plan) {
+    List<FetchFromIndexStep> result = new ArrayList<>();
+    collectIndexLookups(plan.getSteps(), result);
+    return result;
+  }
+
+  private static void collectIndexLookups(
+      List<OExecutionStep> steps, List<FetchFromIndexStep> result) {
+    if (steps == null) {
+      return;
+    }
+    for (OExecutionStep step : steps) {
+      if (step instanceof FetchFromIndexStep) {
+        result.add((FetchFromIndexStep) step);
+      }
+      collectIndexLookups(step.getSubSteps(), result);
+    }
+  }
+
   public void invalidate() {
     if (OGlobalConfiguration.STATEMENT_CACHE_SIZE.getValueAsInteger() == 0) {
       lastInvalidation = System.currentTimeMillis();
@@ -153,20 +370,115 @@ public class OExecutionPlanCache implements OMetadataUpdateListener {
 
     synchronized (this) {
       synchronized (map) {
+        evictions.addAndGet(map.size());
         map.clear();
+        dependencies.clear();
+        plannedIndexStats.clear();
+        classFingerprints.clear();
       }
       lastInvalidation = System.currentTimeMillis();
     }
   }
 
+  /**
+   * Evicts the plans that depend on a class whose definition (or the definition of its indexes)
+   * changed, and all the plans without declared dependencies.
+   */
+  private void invalidateChanged(OSchemaShared schema, OIndexManagerAbstract indexManager) {
+    if (OGlobalConfiguration.STATEMENT_CACHE_SIZE.getValueAsInteger() == 0) {
+      lastInvalidation = System.currentTimeMillis();
+      return;
+    }
+
+    synchronized (this) {
+      synchronized (map) {
+        Set<String> changed = new HashSet<>();
+        if (schema != null && indexManager != null) {
+          Iterator<Map.Entry<String, Integer>> fingerprints =
+              classFingerprints.entrySet().iterator();
+          while (fingerprints.hasNext()) {
+            Map.Entry<String, Integer> entry = fingerprints.next();
+            if (!schema.existsClass(entry.getKey())) {
+              // dropped class, the plans that depend on it are evicted below
+              changed.add(entry.getKey());
+              fingerprints.remove();
+              continue;
+            }
+            int current = fingerprint(entry.getKey(), schema, indexManager);
+            if (current != entry.getValue()) {
+              changed.add(entry.getKey());
+              entry.setValue(current);
+            }
+          }
+        }
+
+        Iterator<Map.Entry<String, OInternalExecutionPlan>> iterator = map.entrySet().iterator();
+        while (iterator.hasNext()) {
+          String statement = iterator.next().getKey();
+          Set<String> deps = dependencies.get(statement);
+          if (deps == null || !Collections.disjoint(deps, changed)) {
+            iterator.remove();
+            dependencies.remove(statement);
+            plannedIndexStats.remove(statement);
+            evictions.incrementAndGet();
+          }
+        }
+      }
+      lastInvalidation = System.currentTimeMillis();
+    }
+  }
+
+  /**
+   * Hashes the definition of the class, of its superclasses and of its subclasses, together with
+   * their indexes: the planner can use the indexes of the subclasses to fetch the records of a
+   * superclass.
+   */
+  private static int fingerprint(
+      String className, OSchemaShared schema, OIndexManagerAbstract indexManager) {
+    OClass clazz = schema.getClass(className);
+    if (clazz == null) {
+      return 0;
+    }
+    List<OClass> hierarchy = new ArrayList<>(clazz.getAllSuperClasses());
+    hierarchy.add(clazz);
+    hierarchy.addAll(clazz.getAllSubclasses());
+
+    int result = Arrays.hashCode(clazz.getPolymorphicClusterIds());
+    for (OClass current : hierarchy) {
+      result += Objects.hash(current.getName(), current.isAbstract(), current.isStrictMode());
+      for (OProperty property : current.declaredProperties()) {
+        result +=
+            Objects.hash(
+                current.getName(),
+                property.getName(),
+                property.getType(),
+                property.getLinkedType(),
+                property.getLinkedClass() == null ? null : property.getLinkedClass().getName(),
+                property.getCollate() == null ? null : property.getCollate().getName());
+      }
+      Collection<OIndex> indexes = new ArrayList<>();
+      indexManager.getClassRawIndexes(current.getName(), indexes);
+      for (OIndex index : indexes) {
+        result +=
+            Objects.hash(
+                index.getName(),
+                index.getType(),
+                index.getDefinition() == null ? null : index.getDefinition().getFields());
+      }
+    }
+    return result;
+  }
+
   @Override
   public void onSchemaUpdate(String database, OSchemaShared schema) {
-    invalidate();
+    OSharedContext context = sharedContext;
+    invalidateChanged(schema, context == null ? null : context.getIndexManager());
   }
 
   @Override
   public void onIndexManagerUpdate(String database, OIndexManagerAbstract indexManager) {
-    invalidate();
+    OSharedContext context = sharedContext;
+    invalidateChanged(context == null ? null : context.getSchema(), indexManager);
   }
 
   @Override
@@ -24,6 +24,8 @@
 package com.orientechnologies.orient.core.sql.parser;
 
 import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.serialization.serializer.record.binary.OBinaryField;
+import com.orientechnologies.orient.core.serialization.serializer.record.binary.ODocumentSerializer;
 
 public class OGeOperator extends SimpleNode implements OBinaryCompareOperator {
   public OGeOperator(int id) {
@@ -55,6 +57,17 @@ public class OGeOperator extends SimpleNode implements OBinaryCompareOperator {
     return ((Comparable<Object>) iLeft).compareTo(iRight) >= 0;
   }
 
+  @Override
+  public boolean isSupportingBinaryEvaluate() {
+    return true;
+  }
+
+  @Override
+  public boolean evaluate(
+      final OBinaryField left, final OBinaryField right, final ODocumentSerializer serializer) {
+    return serializer.getComparator().compare(left, right) >= 0;
+  }
+
   @Override
   public String toString() {
     return ">=";
@@ -4,6 +4,8 @@ package com.orientechnologies.orient.core.sql.parser;
 
 import com.orientechnologies.orient.core.db.record.OIdentifiable;
 import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.serialization.serializer.record.binary.OBinaryField;
+import com.orientechnologies.orient.core.serialization.serializer.record.binary.ODocumentSerializer;
 
 public class OGtOperator extends SimpleNode implements OBinaryCompareOperator {
   public OGtOperator(int id) {
@@ -38,6 +40,17 @@ public class OGtOperator extends SimpleNode implements OBinaryCompareOperator {
     return ((Comparable<Object>) iLeft).compareTo(iRight) > 0;
   }
 
+  @Override
+  public boolean isSupportingBinaryEvaluate() {
+    return true;
+  }
+
+  @Override
+  public boolean evaluate(
+      final OBinaryField left, final OBinaryField right, final ODocumentSerializer serializer) {
+    return serializer.getComparator().compare(left, right) > 0;
+  }
+
   @Override
   public String toString() {
     return ">";
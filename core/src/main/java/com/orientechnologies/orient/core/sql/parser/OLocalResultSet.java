@@ -4,11 +4,16 @@ import com.orientechnologies.orient.core.Orient;
 import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
 import com.orientechnologies.orient.core.db.ODatabaseRecordThreadLocal;
 import com.orientechnologies.orient.core.metadata.security.OSecurityUser;
+import com.orientechnologies.orient.core.sql.executor.AbstractExecutionStep;
 import com.orientechnologies.orient.core.sql.executor.OExecutionPlan;
+import com.orientechnologies.orient.core.sql.executor.OExecutionStep;
 import com.orientechnologies.orient.core.sql.executor.OInternalExecutionPlan;
 import com.orientechnologies.orient.core.sql.executor.OResult;
 import com.orientechnologies.orient.core.sql.executor.OResultSet;
+import com.orientechnologies.orient.core.sql.executor.OSlowQuery;
+import com.orientechnologies.orient.core.sql.executor.OSlowQueryLog;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
@@ -22,11 +27,45 @@ public class OLocalResultSet implements OResultSet {
   long totalExecutionTime = 0;
   long startTime = 0;
 
+  private OSlowQueryLog slowQueryLog;
+  private boolean profiled;
+  private long rows = 0;
+
   public OLocalResultSet(OInternalExecutionPlan executionPlan) {
     this.executionPlan = executionPlan;
+    initSlowQueryLog();
     fetchNext();
   }
 
+  private void initSlowQueryLog() {
+    final ODatabaseDocumentInternal db = ODatabaseRecordThreadLocal.instance().getIfDefined();
+    if (db == null || db.getSharedContext() == null) {
+      return;
+    }
+
+    final OSlowQueryLog log = OSlowQueryLog.get(db);
+    if (log != null && log.isEnabled()) {
+      slowQueryLog = log;
+      if (log.isProfiled(executionPlan.getStatement())) {
+        profiled = true;
+        enableProfiling(executionPlan.getSteps());
+      }
+    }
+  }
+
+  private static void enableProfiling(List<OExecutionStep> steps) {
+    if (steps == null) {
+      return;
+    }
+
+    for (OExecutionStep step : steps) {
+      if (step instanceof AbstractExecutionStep) {
+        ((AbstractExecutionStep) step).setProfilingEnabled(true);
+      }
+      enableProfiling(step.getSubSteps());
+    }
+  }
+
   private boolean fetchNext() {
     long begin = System.currentTimeMillis();
     try {
@@ -42,6 +81,9 @@ public class OLocalResultSet implements OResultSet {
       return true;
     } finally {
       totalExecutionTime += (System.currentTimeMillis() - begin);
+      if (finished) {
+        logSlowQuery();
+      }
     }
   }
 
@@ -67,9 +109,34 @@ public class OLocalResultSet implements OResultSet {
         throw new IllegalStateException();
       }
     }
+    rows++;
     return lastFetch.next();
   }
 
+  /** Adds the query to the slow query log if it took too long, it is done only once. */
+  private void logSlowQuery() {
+    final OSlowQueryLog log = slowQueryLog;
+    if (log == null) {
+      return;
+    }
+    slowQueryLog = null;
+
+    final String statement = executionPlan.getStatement();
+    if (log.onExecuted(statement, totalExecutionTime, profiled)) {
+      final ODatabaseDocumentInternal db = ODatabaseRecordThreadLocal.instance().getIfDefined();
+      final OSecurityUser user = db != null ? db.getUser() : null;
+      log.add(
+          new OSlowQuery(
+              statement,
+              user != null ? user.getName() : null,
+              startTime,
+              totalExecutionTime,
+              rows,
+              profiled,
+              executionPlan.toResult()));
+    }
+  }
+
   private void logProfiling() {
     if (executionPlan.getStatement() != null && Orient.instance().getProfiler().isRecording()) {
       final ODatabaseDocumentInternal db = ODatabaseRecordThreadLocal.instance().getIfDefined();
@@ -102,6 +169,7 @@ public class OLocalResultSet implements OResultSet {
 
   @Override
   public void close() {
+    logSlowQuery();
     executionPlan.close();
   }
 
@@ -1,5 +1,6 @@
 package com.orientechnologies.orient.core.sql.parser;
 
+import com.orientechnologies.common.profiler.metrics.OHistogram;
 import com.orientechnologies.orient.core.db.document.OQueryLifecycleListener;
 import com.orientechnologies.orient.core.sql.executor.OExecutionPlan;
 import com.orientechnologies.orient.core.sql.executor.OInternalResultSet;
@@ -22,6 +23,9 @@ public class OLocalResultSetLifecycleDecorator implements OResultSet {
 
   private boolean hasNextPage;
 
+  private OHistogram durationMetric;
+  private long startNanos;
+
   public OLocalResultSetLifecycleDecorator(OResultSet entity) {
     this.entity = entity;
     queryId = "" + System.currentTimeMillis() + "_" + counter.incrementAndGet();
@@ -36,6 +40,15 @@ public class OLocalResultSetLifecycleDecorator implements OResultSet {
     this.lifecycleListeners.add(db);
   }
 
+  /**
+   * Records time passed since the passed in value of {@link System#nanoTime()} into the histogram
+   * once the result set is closed.
+   */
+  public void recordDurationOnClose(OHistogram durationMetric, long startNanos) {
+    this.durationMetric = durationMetric;
+    this.startNanos = startNanos;
+  }
+
   @Override
   public boolean hasNext() {
     boolean hasNext = entity.hasNext();
@@ -59,6 +72,10 @@ public class OLocalResultSetLifecycleDecorator implements OResultSet {
     entity.close();
     this.lifecycleListeners.forEach(x -> x.queryClosed(this.getQueryId()));
     this.lifecycleListeners.clear();
+    if (durationMetric != null) {
+      durationMetric.recordSince(startNanos);
+      durationMetric = null;
+    }
   }
 
   @Override
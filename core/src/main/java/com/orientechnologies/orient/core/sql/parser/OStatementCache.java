@@ -9,8 +9,10 @@ import com.orientechnologies.orient.core.sql.OCommandSQLParsingException;
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Random;
 
 /**
  * This class is an LRU cache for already parsed SQL statement executors. It stores itself in the
@@ -23,6 +25,13 @@ public class OStatementCache {
   Map<String, OStatement> map;
   int mapSize;
 
+  // PREPARED STATEMENTS: HANDLES ARE NEVER REUSED, THE HIGH BITS CHANGE ON EVERY CACHE INSTANCE SO
+  // THAT HANDLES ISSUED BEFORE A RESTART ARE NOT RESOLVED TO A DIFFERENT STATEMENT
+  private final Map<Long, OStatement> prepared;
+  private final Map<String, Long> preparedHandles = new HashMap<>();
+  private final long handleEpoch = ((long) (new Random().nextInt() | 1)) << 32;
+  private int nextHandle;
+
   /** @param size the size of the cache */
   public OStatementCache(int size) {
     this.mapSize = size;
@@ -32,6 +41,16 @@ public class OStatementCache {
             return super.size() > mapSize;
           }
         };
+    prepared =
+        new LinkedHashMap<Long, OStatement>(16, 0.75f, true) {
+          protected boolean removeEldestEntry(final Map.Entry<Long, OStatement> eldest) {
+            if (super.size() > Math.max(mapSize, 1)) {
+              preparedHandles.remove(eldest.getValue().getOriginalStatement());
+              return true;
+            }
+            return false;
+          }
+        };
   }
 
   /**
@@ -105,6 +124,38 @@ public class OStatementCache {
     return result;
   }
 
+  /**
+   * Parses a statement (or takes it from the cache) and binds it to a handle, that can be used with
+   * {@link #getPrepared(long)} to skip parsing and hashing of the statement text on the following
+   * executions. Preparing the same statement twice returns the same handle while it is cached.
+   *
+   * @param statement the SQL statement
+   * @return the handle of the prepared statement, never 0
+   * @throws OCommandSQLParsingException if the input parameter is not a valid SQL statement
+   */
+  public long prepare(String statement) {
+    OStatement parsed = get(statement);
+    synchronized (prepared) {
+      Long handle = preparedHandles.get(statement);
+      if (handle == null) {
+        handle = handleEpoch | (++nextHandle & 0xFFFFFFFFL);
+        preparedHandles.put(statement, handle);
+      }
+      prepared.put(handle, parsed);
+      return handle;
+    }
+  }
+
+  /**
+   * @param handle a handle returned by {@link #prepare(String)}
+   * @return the prepared statement, or null if the handle is unknown or was evicted
+   */
+  public OStatement getPrepared(long handle) {
+    synchronized (prepared) {
+      return prepared.get(handle);
+    }
+  }
+
   /**
    * parses an SQL statement and returns the corresponding executor
    *
@@ -235,6 +286,10 @@ public class OStatementCache {
   }
 
   public void clear() {
+    synchronized (prepared) {
+      prepared.clear();
+      preparedHandles.clear();
+    }
     if (OGlobalConfiguration.STATEMENT_CACHE_SIZE.getValueAsInteger() == 0) {
       return;
     }
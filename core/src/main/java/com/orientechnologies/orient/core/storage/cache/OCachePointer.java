@@ -57,6 +57,9 @@ public final class OCachePointer {
   private final OPointer pointer;
   private final OByteBufferPool bufferPool;
 
+  /** Called once page is not referenced any more if its memory is not allocated from the pool. */
+  private final Runnable releaseAction;
+
   private long version;
 
   private final long fileId;
@@ -71,8 +74,18 @@ public final class OCachePointer {
       final OByteBufferPool bufferPool,
       final long fileId,
       final int pageIndex) {
+    this(pointer, bufferPool, null, fileId, pageIndex);
+  }
+
+  private OCachePointer(
+      final OPointer pointer,
+      final OByteBufferPool bufferPool,
+      final Runnable releaseAction,
+      final long fileId,
+      final int pageIndex) {
     this.pointer = pointer;
     this.bufferPool = bufferPool;
+    this.releaseAction = releaseAction;
 
     if (fileId < 0) {
       throw new IllegalStateException("File id has invalid value " + fileId);
@@ -86,6 +99,20 @@ public final class OCachePointer {
     this.pageIndex = pageIndex;
   }
 
+  /**
+   * Creates pointer to the page which memory is not allocated from the pool of buffers, like memory
+   * of the file mapped into memory.
+   *
+   * @param releaseAction Action which is called once page is not referenced any more.
+   */
+  public static OCachePointer unpooled(
+      final OPointer pointer,
+      final Runnable releaseAction,
+      final long fileId,
+      final int pageIndex) {
+    return new OCachePointer(pointer, null, releaseAction, fileId, pageIndex);
+  }
+
   public void setWritersListener(WritersListener writersListener) {
     this.writersListener = writersListener;
   }
@@ -211,7 +238,11 @@ public final class OCachePointer {
   public void decrementReferrer() {
     final int rf = REFERRERS_COUNT_UPDATER.decrementAndGet(this);
     if (rf == 0 && pointer != null) {
-      bufferPool.release(pointer);
+      if (bufferPool != null) {
+        bufferPool.release(pointer);
+      } else if (releaseAction != null) {
+        releaseAction.run();
+      }
     }
 
     if (rf < 0) {
@@ -232,6 +263,11 @@ public final class OCachePointer {
     return pointer;
   }
 
+  /** @return <code>true</code> if memory of the page is allocated from the pool of buffers. */
+  public boolean isPooled() {
+    return bufferPool != null;
+  }
+
   public ByteBuffer getBufferDuplicate() {
     if (pointer == null) {
       return null;
@@ -90,4 +90,23 @@ public interface OReadCache {
   void closeStorage(OWriteCache writeCache) throws IOException;
 
   void changeMaximumAmountOfMemory(long calculateReadCacheMaxMemory);
+
+  /**
+   * Stores keys and access frequencies of the hottest pages of the storage inside of storage
+   * directory, so they can be loaded back by {@link #loadCacheState(OWriteCache, int)} once the
+   * storage is opened again.
+   *
+   * @param writeCache Write cache of the storage which state is stored.
+   */
+  default void storeCacheState(OWriteCache writeCache) {}
+
+  /**
+   * Loads in background pages stored by {@link #storeCacheState(OWriteCache)}. Pages are read in
+   * file order and loading stops once cache is full or storage is closed.
+   *
+   * @param writeCache Write cache of the storage which state is loaded.
+   * @param pagesPerSecond Maximum amount of pages loaded per second, zero or negative value means
+   *     no limit.
+   */
+  default void loadCacheState(OWriteCache writeCache, int pagesPerSecond) {}
 }
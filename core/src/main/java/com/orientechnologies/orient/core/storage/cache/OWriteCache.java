@@ -99,6 +99,24 @@ public interface OWriteCache {
       long fileId, long startPageIndex, OModifiableBoolean cacheHit, boolean verifyChecksums)
       throws IOException;
 
+  /**
+   * Loads up to <code>pageCount</code> consecutive pages starting from <code>startPageIndex</code>
+   * using single batch of reads. Pages which are not stored in file yet are not loaded, so returned
+   * array may be shorter than requested or even empty. Reader referrer of every returned pointer is
+   * incremented.
+   */
+  default OCachePointer[] load(
+      long fileId, long startPageIndex, int pageCount, boolean verifyChecksums)
+      throws IOException {
+    final OCachePointer pointer =
+        load(fileId, startPageIndex, new OModifiableBoolean(), verifyChecksums);
+    if (pointer == null) {
+      return new OCachePointer[0];
+    }
+
+    return new OCachePointer[] {pointer};
+  }
+
   void flush(long fileId);
 
   void flush();
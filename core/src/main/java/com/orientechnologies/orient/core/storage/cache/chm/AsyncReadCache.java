@@ -4,9 +4,15 @@ import com.orientechnologies.common.concur.lock.OInterruptedException;
 import com.orientechnologies.common.directmemory.OByteBufferPool;
 import com.orientechnologies.common.directmemory.OPointer;
 import com.orientechnologies.common.exception.OException;
+import com.orientechnologies.common.log.OLogManager;
+import com.orientechnologies.common.profiler.metrics.OCounter;
+import com.orientechnologies.common.thread.OThreadPoolExecutorWithLogging;
 import com.orientechnologies.common.types.OModifiableBoolean;
 import com.orientechnologies.common.util.ORawPair;
+import com.orientechnologies.common.util.OUncaughtExceptionHandler;
+import com.orientechnologies.orient.core.Orient;
 import com.orientechnologies.orient.core.exception.OStorageException;
+import com.orientechnologies.orient.core.storage.OStorageAbstract;
 import com.orientechnologies.orient.core.storage.cache.OAbstractWriteCache;
 import com.orientechnologies.orient.core.storage.cache.OCacheEntry;
 import com.orientechnologies.orient.core.storage.cache.OCacheEntryImpl;
@@ -17,11 +23,27 @@ import com.orientechnologies.orient.core.storage.cache.chm.readbuffer.BoundedBuf
 import com.orientechnologies.orient.core.storage.cache.chm.readbuffer.Buffer;
 import com.orientechnologies.orient.core.storage.cache.chm.writequeue.MPSCLinkedQueue;
 import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.OLogSequenceNumber;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.atomic.LongAdder;
@@ -43,6 +65,31 @@ public final class AsyncReadCache implements OReadCache {
   private static final int NCPU = Runtime.getRuntime().availableProcessors();
   private static final int WRITE_BUFFER_MAX_BATCH = 128 * ceilingPowerOfTwo(NCPU);
 
+  /** Size of the read-ahead window once sequential access to the file is detected. */
+  private static final int MIN_READ_AHEAD_PAGES = 4;
+
+  /** Maximum amount of sequential streams of reads tracked for a single file. */
+  private static final int MAX_READ_AHEAD_STREAMS = 8;
+
+  /** Extension of the file which contains keys of the hottest pages of the storage. */
+  public static final String CACHE_STATE_EXTENSION = ".cst";
+
+  private static final String CACHE_STATE_FILE = "cache" + CACHE_STATE_EXTENSION;
+  private static final int CACHE_STATE_VERSION = 1;
+
+  /**
+   * Maximum amount of pages kept in the cache state, bounds the walk over the eviction policy which
+   * is performed under the eviction lock.
+   */
+  private static final int CACHE_STATE_MAX_PAGES = 1 << 16;
+
+  /** Maximum amount of consecutive pages loaded by a single batch of reads during warm up. */
+  private static final int WARM_UP_BATCH_PAGES = 64;
+
+  private static final OThreadPoolExecutorWithLogging warmUpExecutor =
+      new OThreadPoolExecutorWithLogging(
+          0, 1, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), new WarmUpThreadFactory());
+
   private final ConcurrentHashMap<PageKey, OCacheEntry> data;
   private final Lock evictionLock = new ReentrantLock();
 
@@ -58,6 +105,16 @@ public final class AsyncReadCache implements OReadCache {
   private final LongAdder requests = new LongAdder();
   private final LongAdder hits = new LongAdder();
 
+  private final OCounter hitsMetric =
+      Orient.instance()
+          .getMetrics()
+          .counter("orientdb_read_cache_hits_total", "Pages found in the read cache");
+  private final OCounter missesMetric =
+      Orient.instance()
+          .getMetrics()
+          .counter(
+              "orientdb_read_cache_misses_total", "Pages loaded into the read cache from disk");
+
   /** Status which indicates whether flush of buffers should be performed or may be delayed. */
   private final AtomicReference<DrainStatus> drainStatus = new AtomicReference<>(DrainStatus.IDLE);
 
@@ -65,14 +122,33 @@ public final class AsyncReadCache implements OReadCache {
 
   private final OByteBufferPool bufferPool;
 
+  /** Warm up tasks in progress, key is the id of the write cache of the storage. */
+  private final ConcurrentHashMap<Integer, WarmUpTask> warmUpTasks = new ConcurrentHashMap<>();
+
+  /** Maximum amount of pages loaded at once when sequential access to the file is detected. */
+  private final int maxReadAheadPages;
+
+  /** State of the read-ahead of each file, key is the id of the file. */
+  private final ConcurrentHashMap<Long, ReadAheadState> readAheadStates = new ConcurrentHashMap<>();
+
   public AsyncReadCache(
       final OByteBufferPool bufferPool,
       final long maxCacheSizeInBytes,
       final int pageSize,
       final boolean trackHitRate) {
+    this(bufferPool, maxCacheSizeInBytes, pageSize, trackHitRate, 0);
+  }
+
+  public AsyncReadCache(
+      final OByteBufferPool bufferPool,
+      final long maxCacheSizeInBytes,
+      final int pageSize,
+      final boolean trackHitRate,
+      final int maxReadAheadPages) {
     evictionLock.lock();
     try {
       this.pageSize = pageSize;
+      this.maxReadAheadPages = maxReadAheadPages;
       this.bufferPool = bufferPool;
 
       this.trackHitRate = trackHitRate;
@@ -106,7 +182,8 @@ public final class AsyncReadCache implements OReadCache {
       final OWriteCache writeCache,
       final boolean verifyChecksums,
       final OLogSequenceNumber startLSN) {
-    final OCacheEntry cacheEntry = doLoad(fileId, (int) pageIndex, writeCache, verifyChecksums);
+    final OCacheEntry cacheEntry =
+        doLoad(fileId, (int) pageIndex, writeCache, verifyChecksums, false);
 
     if (cacheEntry != null) {
       cacheEntry.acquireExclusiveLock();
@@ -123,14 +200,15 @@ public final class AsyncReadCache implements OReadCache {
       final boolean checkPinnedPages,
       final OWriteCache writeCache,
       final boolean verifyChecksums) {
-    return doLoad(fileId, (int) pageIndex, writeCache, verifyChecksums);
+    return doLoad(fileId, (int) pageIndex, writeCache, verifyChecksums, maxReadAheadPages > 1);
   }
 
   private OCacheEntry doLoad(
       final long extFileId,
       final int pageIndex,
       final OWriteCache writeCache,
-      final boolean verifyChecksums) {
+      final boolean verifyChecksums,
+      final boolean readAhead) {
     final long fileId = OAbstractWriteCache.checkFileIdCompatibility(writeCache.getId(), extFileId);
     final PageKey pageKey = new PageKey(fileId, pageIndex);
 
@@ -152,38 +230,53 @@ public final class AsyncReadCache implements OReadCache {
           if (trackHitRate) {
             hits.increment();
           }
+          hitsMetric.increment();
+
+          if (readAhead) {
+            countReadAheadHit(fileId, pageIndex);
+          }
 
           return cacheEntry;
         }
       } else {
         final boolean[] read = new boolean[1];
+        final int pageCount = readAhead ? readAheadWindow(fileId, pageIndex) : 1;
 
-        cacheEntry =
-            data.compute(
-                pageKey,
-                (page, entry) -> {
-                  if (entry == null) {
-                    try {
-                      final OCachePointer pointer =
-                          writeCache.load(
-                              fileId, pageIndex, new OModifiableBoolean(), verifyChecksums);
-                      if (pointer == null) {
-                        return null;
+        if (pageCount > 1) {
+          cacheEntry =
+              loadReadAheadPages(fileId, pageIndex, pageCount, writeCache, verifyChecksums, read);
+        } else {
+          cacheEntry =
+              data.compute(
+                  pageKey,
+                  (page, entry) -> {
+                    if (entry == null) {
+                      try {
+                        final OCachePointer pointer =
+                            writeCache.load(
+                                fileId, pageIndex, new OModifiableBoolean(), verifyChecksums);
+                        if (pointer == null) {
+                          return null;
+                        }
+
+                        cacheSize.incrementAndGet();
+                        return new OCacheEntryImpl(
+                            page.getFileId(), page.getPageIndex(), pointer);
+                      } catch (final IOException e) {
+                        throw OException.wrapException(
+                            new OStorageException(
+                                "Error during loading of page "
+                                    + pageIndex
+                                    + " for file "
+                                    + fileId),
+                            e);
                       }
-
-                      cacheSize.incrementAndGet();
-                      return new OCacheEntryImpl(page.getFileId(), page.getPageIndex(), pointer);
-                    } catch (final IOException e) {
-                      throw OException.wrapException(
-                          new OStorageException(
-                              "Error during loading of page " + pageIndex + " for file " + fileId),
-                          e);
+                    } else {
+                      read[0] = true;
+                      return entry;
                     }
-                  } else {
-                    read[0] = true;
-                    return entry;
-                  }
-                });
+                  });
+        }
 
         if (cacheEntry == null) {
           return null;
@@ -194,9 +287,11 @@ public final class AsyncReadCache implements OReadCache {
             if (trackHitRate) {
               hits.increment();
             }
+            hitsMetric.increment();
 
             afterRead(cacheEntry);
           } else {
+            missesMetric.increment();
             afterAdd(cacheEntry);
 
             try {
@@ -213,6 +308,132 @@ public final class AsyncReadCache implements OReadCache {
     }
   }
 
+  /**
+   * Calculates amount of pages which should be loaded starting from the missed page. Up to {@link
+   * #MAX_READ_AHEAD_STREAMS} sequential streams are tracked for each file, so scanners which read
+   * the same file concurrently do not reset windows of each other. Stream is started once two
+   * consecutive pages are missed. Each time the next miss of the stream is the page which follows
+   * its previous window, the window is doubled if most of the pages read ahead were requested and
+   * halved if most of them were not, so read-ahead follows the measured prefetch hit rate. Miss
+   * which does not continue any stream replaces the least recently used one, so random access
+   * loads single pages.
+   *
+   * <p>Pages are read ahead only by readers of the file which hold shared lock of the durable
+   * component, so pages of the window can not be allocated or changed concurrently.
+   */
+  private int readAheadWindow(final long fileId, final int pageIndex) {
+    final ReadAheadState state = readAheadStates.computeIfAbsent(fileId, k -> new ReadAheadState());
+
+    //noinspection SynchronizationOnLocalVariableOrMethodParameter
+    synchronized (state) {
+      final ReadAheadStream stream = state.stream(pageIndex);
+
+      if (stream.nextPageIndex != pageIndex) {
+        stream.window = 1;
+      } else if (stream.window <= 1) {
+        stream.window = Math.min(MIN_READ_AHEAD_PAGES, maxReadAheadPages);
+      } else {
+        if (stream.hits * 4 >= stream.prefetched * 3) {
+          stream.window = Math.min(stream.window * 2, maxReadAheadPages);
+        } else if (stream.hits * 2 < stream.prefetched) {
+          stream.window = stream.window / 2;
+        }
+      }
+
+      // pages which are already cached are not read again
+      int pageCount = 1;
+      while (pageCount < stream.window
+          && !data.containsKey(new PageKey(fileId, pageIndex + pageCount))) {
+        pageCount++;
+      }
+
+      stream.nextPageIndex = pageIndex + pageCount;
+      stream.hitPageIndex = pageIndex + 1;
+      stream.prefetched = pageCount - 1;
+      stream.hits = 0;
+
+      return pageCount;
+    }
+  }
+
+  /** Counts the hit of the page which was read ahead by one of the streams of the file. */
+  private void countReadAheadHit(final long fileId, final int pageIndex) {
+    final ReadAheadState state = readAheadStates.get(fileId);
+    if (state == null) {
+      return;
+    }
+
+    //noinspection SynchronizationOnLocalVariableOrMethodParameter
+    synchronized (state) {
+      for (final ReadAheadStream stream : state.streams) {
+        if (pageIndex >= stream.hitPageIndex
+            && pageIndex < stream.nextPageIndex) {
+          stream.hits++;
+          stream.hitPageIndex = pageIndex + 1;
+          return;
+        }
+      }
+    }
+  }
+
+  /**
+   * Loads the window of pages by a single read. I/O is performed outside of the map, so it does not
+   * block access to other pages, loaded pages are published once they are read.
+   */
+  private OCacheEntry loadReadAheadPages(
+      final long fileId,
+      final int pageIndex,
+      final int pageCount,
+      final OWriteCache writeCache,
+      final boolean verifyChecksums,
+      final boolean[] read) {
+    final OCachePointer[] pointers;
+    try {
+      pointers = writeCache.load(fileId, pageIndex, pageCount, verifyChecksums);
+    } catch (final IOException e) {
+      throw OException.wrapException(
+          new OStorageException(
+              "Error during loading of page " + pageIndex + " for file " + fileId),
+          e);
+    }
+
+    if (pointers.length == 0) {
+      return null;
+    }
+
+    final OCachePointer pointer = pointers[0];
+    final OCacheEntry cacheEntry = new OCacheEntryImpl(fileId, pageIndex, pointer);
+    final OCacheEntry oldCacheEntry =
+        data.putIfAbsent(new PageKey(fileId, pageIndex), cacheEntry);
+
+    addReadAheadPages(fileId, pointers);
+
+    if (oldCacheEntry != null) {
+      pointer.decrementReadersReferrer();
+      read[0] = true;
+      return oldCacheEntry;
+    }
+
+    cacheSize.incrementAndGet();
+    return cacheEntry;
+  }
+
+  private void addReadAheadPages(final long fileId, final OCachePointer[] pointers) {
+    for (int i = 1; i < pointers.length; i++) {
+      final OCachePointer pointer = pointers[i];
+      final PageKey pageKey = new PageKey(fileId, pointer.getPageIndex());
+
+      final OCacheEntry cacheEntry =
+          new OCacheEntryImpl(fileId, pointer.getPageIndex(), pointer);
+      if (data.putIfAbsent(pageKey, cacheEntry) == null) {
+        cacheSize.incrementAndGet();
+        afterAdd(cacheEntry);
+      } else {
+        pointer.decrementReadersReferrer();
+      }
+    }
+  }
+
   private OCacheEntry addNewPagePointerToTheCache(final long fileId, final int pageIndex) {
     final PageKey pageKey = new PageKey(fileId, pageIndex);
 
@@ -455,9 +676,11 @@ public final class AsyncReadCache implements OReadCache {
     fileId = OAbstractWriteCache.checkFileIdCompatibility(writeCache.getId(), fileId);
 
     final int filledUpTo = (int) writeCache.getFilledUpTo(fileId);
-    writeCache.truncateFile(fileId);
 
+    // pages are released before the file is truncated, write cache can not truncate file while
+    // pages mapped into memory are in use
     clearFile(fileId, filledUpTo, writeCache);
+    writeCache.truncateFile(fileId);
   }
 
   @Override
@@ -479,6 +702,8 @@ public final class AsyncReadCache implements OReadCache {
 
   @Override
   public final void deleteStorage(final OWriteCache writeCache) throws IOException {
+    stopWarmUp(writeCache);
+
     final Collection<Long> files = writeCache.files().values();
     final List<ORawPair<Long, Integer>> filledUpTo = new ArrayList<>(1024);
     for (final long fileId : files) {
@@ -494,6 +719,8 @@ public final class AsyncReadCache implements OReadCache {
 
   @Override
   public final void closeStorage(final OWriteCache writeCache) throws IOException {
+    stopWarmUp(writeCache);
+
     final Collection<Long> files = writeCache.files().values();
     final List<ORawPair<Long, Integer>> filledUpTo = new ArrayList<>(1024);
     for (final long fileId : files) {
@@ -508,6 +735,15 @@ public final class AsyncReadCache implements OReadCache {
   }
 
   private void clearFile(final long fileId, final int filledUpTo, final OWriteCache writeCache) {
+    readAheadStates.remove(fileId);
+
+    // warm up should not load pages of the file once file is truncated or removed
+    final WarmUpTask warmUpTask = warmUpTasks.get(OAbstractWriteCache.extractStorageId(fileId));
+    if (warmUpTask != null) {
+      warmUpTask.lock.lock();
+      warmUpTask.droppedFiles.add(OAbstractWriteCache.extractFileId(fileId));
+    }
+
     evictionLock.lock();
     try {
       emptyBuffers();
@@ -536,9 +772,107 @@ public final class AsyncReadCache implements OReadCache {
           }
         }
       }
+    } finally {
+      evictionLock.unlock();
+
+      if (warmUpTask != null) {
+        warmUpTask.lock.unlock();
+      }
+    }
+  }
+
+  @Override
+  public final void storeCacheState(final OWriteCache writeCache) {
+    final List<HotPage> pages = new ArrayList<>();
+    // buffers are not drained, state of the cache is only a hint for the next warm up
+    evictionLock.lock();
+    try {
+      // the hottest pages first, so they are kept if cache is smaller on the next open
+      collectHotPages(policy.protection(), writeCache.getId(), pages);
+      collectHotPages(policy.probation(), writeCache.getId(), pages);
+      collectHotPages(policy.eden(), writeCache.getId(), pages);
     } finally {
       evictionLock.unlock();
     }
+
+    final Path statePath = writeCache.getRootDirectory().resolve(CACHE_STATE_FILE);
+    final Path tmpPath = writeCache.getRootDirectory().resolve(CACHE_STATE_FILE + ".tmp");
+    try {
+      try (final DataOutputStream out =
+          new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmpPath)))) {
+        out.writeInt(CACHE_STATE_VERSION);
+        out.writeInt(pages.size());
+
+        for (final HotPage page : pages) {
+          out.writeInt(page.fileId);
+          out.writeInt(page.pageIndex);
+          out.writeByte(page.frequency);
+        }
+      }
+
+      Files.move(
+          tmpPath, statePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (final IOException e) {
+      OLogManager.instance().warn(this, "Can not store state of disk cache in %s", e, statePath);
+    }
+  }
+
+  private void collectHotPages(
+      final Iterator<OCacheEntry> entries, final int storageId, final List<HotPage> pages) {
+    final int limit = Math.min(maxCacheSize, CACHE_STATE_MAX_PAGES);
+    while (entries.hasNext() && pages.size() < limit) {
+      final OCacheEntry cacheEntry = entries.next();
+      if (OAbstractWriteCache.extractStorageId(cacheEntry.getFileId()) == storageId) {
+        pages.add(
+            new HotPage(
+                OAbstractWriteCache.extractFileId(cacheEntry.getFileId()),
+                (int) cacheEntry.getPageIndex(),
+                policy.frequency(cacheEntry)));
+      }
+    }
+  }
+
+  @Override
+  public final void loadCacheState(final OWriteCache writeCache, final int pagesPerSecond) {
+    final Path statePath = writeCache.getRootDirectory().resolve(CACHE_STATE_FILE);
+    if (!Files.exists(statePath)) {
+      return;
+    }
+
+    final List<HotPage> pages;
+    try (final DataInputStream in =
+        new DataInputStream(new BufferedInputStream(Files.newInputStream(statePath)))) {
+      if (in.readInt() != CACHE_STATE_VERSION) {
+        return;
+      }
+
+      final int size = in.readInt();
+      pages = new ArrayList<>(size);
+      for (int i = 0; i < size; i++) {
+        pages.add(new HotPage(in.readInt(), in.readInt(), in.readByte()));
+      }
+    } catch (final IOException e) {
+      OLogManager.instance().warn(this, "Can not read state of disk cache from %s", e, statePath);
+      return;
+    }
+
+    // pages are loaded in file order, so reads are sequential
+    Collections.sort(pages);
+
+    final WarmUpTask warmUpTask = new WarmUpTask(writeCache, pages, pagesPerSecond);
+    final WarmUpTask oldTask = warmUpTasks.put(writeCache.getId(), warmUpTask);
+    if (oldTask != null) {
+      oldTask.stop();
+    }
+
+    warmUpTask.future = warmUpExecutor.submit(warmUpTask);
+  }
+
+  private void stopWarmUp(final OWriteCache writeCache) {
+    final WarmUpTask warmUpTask = warmUpTasks.remove(writeCache.getId());
+    if (warmUpTask != null) {
+      warmUpTask.stop();
+    }
   }
 
   void assertSize() {
@@ -570,6 +904,235 @@ public final class AsyncReadCache implements OReadCache {
     return (int) ((hits.sum() * 100) / reqSum);
   }
 
+  private static final class ReadAheadState {
+    private final ReadAheadStream[] streams = new ReadAheadStream[MAX_READ_AHEAD_STREAMS];
+    private long accesses;
+
+    private ReadAheadState() {
+      for (int i = 0; i < streams.length; i++) {
+        streams[i] = new ReadAheadStream();
+      }
+    }
+
+    /**
+     * Returns the stream continued by the miss of the page, or the least recently used stream
+     * which is replaced by the new one.
+     */
+    private ReadAheadStream stream(final int pageIndex) {
+      accesses++;
+
+      ReadAheadStream leastRecentlyUsed = streams[0];
+      for (final ReadAheadStream stream : streams) {
+        if (stream.nextPageIndex == pageIndex) {
+          stream.lastAccess = accesses;
+          return stream;
+        }
+
+        if (stream.lastAccess < leastRecentlyUsed.lastAccess) {
+          leastRecentlyUsed = stream;
+        }
+      }
+
+      leastRecentlyUsed.lastAccess = accesses;
+      return leastRecentlyUsed;
+    }
+  }
+
+  private static final class ReadAheadStream {
+    /** Index of the page which follows the last loaded window of pages. */
+    private long nextPageIndex = -1;
+
+    /** Index of the first page of the window which was not requested yet. */
+    private long hitPageIndex;
+
+    /** Amount of pages read ahead by the last window. */
+    private int prefetched;
+
+    /** Amount of pages read ahead by the last window which were requested. */
+    private int hits;
+
+    private int window;
+    private long lastAccess;
+  }
+
+  private static final class HotPage implements Comparable<HotPage> {
+    private final int fileId;
+    private final int pageIndex;
+    private final int frequency;
+
+    private HotPage(final int fileId, final int pageIndex, final int frequency) {
+      this.fileId = fileId;
+      this.pageIndex = pageIndex;
+      this.frequency = frequency;
+    }
+
+    @Override
+    public int compareTo(final HotPage other) {
+      final int result = Integer.compare(fileId, other.fileId);
+      if (result != 0) {
+        return result;
+      }
+
+      return Integer.compare(pageIndex, other.pageIndex);
+    }
+  }
+
+  /**
+   * Loads pages stored by {@link #storeCacheState(OWriteCache)}. Only pages which existed when
+   * storage was opened are loaded, so warm up never races with allocation of new pages.
+   */
+  private final class WarmUpTask implements Runnable {
+    private final OWriteCache writeCache;
+    private final List<HotPage> pages;
+    private final int pagesPerSecond;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Set<Integer> droppedFiles = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean stopped;
+    private volatile Future<?> future;
+
+    private WarmUpTask(
+        final OWriteCache writeCache, final List<HotPage> pages, final int pagesPerSecond) {
+      this.writeCache = writeCache;
+      this.pages = pages;
+      this.pagesPerSecond = pagesPerSecond;
+    }
+
+    @Override
+    public void run() {
+      final long start = System.nanoTime();
+      int loaded = 0;
+      int currentFileId = -1;
+      long filledUpTo = 0;
+
+      try {
+        int index = 0;
+        while (index < pages.size()) {
+          if (stopped || cacheSize.get() >= policy.getMaxSize()) {
+            break;
+          }
+
+          final HotPage page = pages.get(index);
+          final long fileId = OAbstractWriteCache.composeFileId(writeCache.getId(), page.fileId);
+          if (page.fileId != currentFileId) {
+            currentFileId = page.fileId;
+            filledUpTo = writeCache.exists(fileId) ? writeCache.getFilledUpTo(fileId) : 0;
+          }
+
+          if (data.containsKey(new PageKey(fileId, page.pageIndex))) {
+            index++;
+            continue;
+          }
+
+          // consecutive pages of the file which are not cached yet are loaded by a single batch
+          // of reads
+          int batchSize = 1;
+          while (batchSize < WARM_UP_BATCH_PAGES && index + batchSize < pages.size()) {
+            final HotPage next = pages.get(index + batchSize);
+            if (next.fileId != page.fileId
+                || next.pageIndex != page.pageIndex + batchSize
+                || data.containsKey(new PageKey(fileId, next.pageIndex))) {
+              break;
+            }
+            batchSize++;
+          }
+
+          final List<HotPage> batch = pages.subList(index, index + batchSize);
+          index += batchSize;
+
+          final int pageCount = (int) Math.min(batchSize, filledUpTo - page.pageIndex);
+          if (pageCount <= 0) {
+            continue;
+          }
+
+          lock.lock();
+          try {
+            if (stopped || droppedFiles.contains(page.fileId)) {
+              continue;
+            }
+
+            final OCachePointer[] pointers =
+                writeCache.load(fileId, page.pageIndex, pageCount, true);
+            addWarmUpPages(fileId, pointers, batch);
+          } finally {
+            lock.unlock();
+          }
+
+          loaded += pageCount;
+          if (pagesPerSecond > 0) {
+            final long delay =
+                loaded * 1_000_000_000L / pagesPerSecond - (System.nanoTime() - start);
+            if (delay > 0) {
+              TimeUnit.NANOSECONDS.sleep(delay);
+            }
+          }
+        }
+
+        OLogManager.instance()
+            .debugNoDb(
+                this,
+                "%d pages were loaded into disk cache during warm up of %s",
+                null,
+                loaded,
+                writeCache.getRootDirectory());
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } catch (final IOException e) {
+        OLogManager.instance()
+            .warn(this, "Warm up of disk cache of %s was stopped", e, writeCache.getRootDirectory());
+      } finally {
+        warmUpTasks.remove(writeCache.getId(), this);
+      }
+    }
+
+    private void addWarmUpPages(
+        final long fileId, final OCachePointer[] pointers, final List<HotPage> batch) {
+      for (int i = 0; i < pointers.length; i++) {
+        final OCachePointer pointer = pointers[i];
+        final OCacheEntry cacheEntry =
+            new OCacheEntryImpl(fileId, pointer.getPageIndex(), pointer);
+
+        // pages loaded concurrently by readers are kept, they may be already changed
+        if (data.putIfAbsent(new PageKey(fileId, pointer.getPageIndex()), cacheEntry) == null) {
+          cacheSize.incrementAndGet();
+          afterAdd(cacheEntry);
+
+          final int frequency = batch.get(i).frequency;
+          afterWrite(() -> policy.onRestore(cacheEntry, frequency));
+        } else {
+          pointer.decrementReadersReferrer();
+        }
+      }
+    }
+
+    private void stop() {
+      stopped = true;
+
+      final Future<?> future = this.future;
+      if (future != null) {
+        try {
+          future.get();
+        } catch (final InterruptedException e) {
+          Thread.currentThread().interrupt();
+        } catch (final CancellationException | ExecutionException e) {
+          // warm up is only an optimization, errors are logged by executor
+        }
+      }
+    }
+  }
+
+  private static final class WarmUpThreadFactory implements ThreadFactory {
+    @Override
+    public Thread newThread(final Runnable r) {
+      final Thread thread =
+          new Thread(OStorageAbstract.storageThreadGroup, r, "Disk cache warm up thread");
+      thread.setDaemon(true);
+      thread.setUncaughtExceptionHandler(new OUncaughtExceptionHandler());
+      return thread;
+    }
+  }
+
   private enum DrainStatus {
     IDLE {
       @Override
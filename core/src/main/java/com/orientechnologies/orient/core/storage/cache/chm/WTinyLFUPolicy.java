@@ -95,6 +95,23 @@ final class WTinyLFUPolicy {
     assert probation.size() + protection.size() <= maxSecondLevelSize;
   }
 
+  /** @return Estimated access frequency of the page, used to persist the state of the cache. */
+  int frequency(final OCacheEntry cacheEntry) {
+    return admittor.frequency(
+        PageKey.hashCode(cacheEntry.getFileId(), (int) cacheEntry.getPageIndex()));
+  }
+
+  /**
+   * Restores access frequency of the page which was persisted together with the state of the
+   * cache, so warmed up pages are not evicted by the first scan which follows the warm up.
+   */
+  void onRestore(final OCacheEntry cacheEntry, final int frequency) {
+    final int hash = PageKey.hashCode(cacheEntry.getFileId(), (int) cacheEntry.getPageIndex());
+    for (int i = admittor.frequency(hash); i < frequency; i++) {
+      admittor.increment(hash);
+    }
+  }
+
   private void purgeEden() {
     while (eden.size() > maxEdenSize) {
       final OCacheEntry candidate = eden.poll();
@@ -0,0 +1,121 @@
+package com.orientechnologies.orient.core.storage.cache.local;
+
+import com.orientechnologies.common.log.OLogManager;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+
+/**
+ * Region of the data file mapped into memory by {@link OWOWCache}. Region is referenced by the
+ * pages which point to its memory and is unmapped once the last of them is released, so mapped
+ * memory is never accessed after unmap and mapping does not outlive pages of the file.
+ */
+final class OMappedRegion {
+  private static final Object UNSAFE;
+  private static final Method INVOKE_CLEANER;
+
+  static {
+    Object unsafe;
+    Method invokeCleaner;
+    try {
+      final Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+      invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+
+      final Field field = unsafeClass.getDeclaredField("theUnsafe");
+      field.setAccessible(true);
+      unsafe = field.get(null);
+    } catch (final ReflectiveOperationException | RuntimeException e) {
+      // JDK 8 has no Unsafe.invokeCleaner, cleaner of the buffer is called directly instead
+      unsafe = null;
+      invokeCleaner = null;
+    }
+
+    UNSAFE = unsafe;
+    INVOKE_CLEANER = invokeCleaner;
+  }
+
+  private final MappedByteBuffer buffer;
+
+  private int referrers;
+  private boolean unmapped;
+
+  OMappedRegion(final MappedByteBuffer buffer) {
+    this.buffer = buffer;
+  }
+
+  MappedByteBuffer getBuffer() {
+    return buffer;
+  }
+
+  /**
+   * Registers page which points to the memory of the region.
+   *
+   * @return <code>false</code> if region is already unmapped and can not be used any more.
+   */
+  synchronized boolean acquire() {
+    if (unmapped) {
+      return false;
+    }
+
+    referrers++;
+    return true;
+  }
+
+  /**
+   * Releases page which points to the memory of the region, region is unmapped once the last page
+   * is released.
+   *
+   * @return <code>true</code> if region is unmapped.
+   */
+  synchronized boolean release() {
+    referrers--;
+    assert referrers >= 0;
+
+    if (referrers == 0) {
+      unmap();
+      return true;
+    }
+
+    return false;
+  }
+
+  /** @return <code>true</code> if there are pages which point to the memory of the region. */
+  synchronized boolean isInUse() {
+    return referrers > 0;
+  }
+
+  /**
+   * Unmaps the region if there are no pages which point to its memory, otherwise region is
+   * unmapped once the last page is released.
+   */
+  synchronized void unmapIfUnused() {
+    if (referrers == 0) {
+      unmap();
+    }
+  }
+
+  private void unmap() {
+    if (unmapped) {
+      return;
+    }
+
+    unmapped = true;
+    try {
+      if (INVOKE_CLEANER != null) {
+        INVOKE_CLEANER.invoke(UNSAFE, buffer);
+      } else {
+        final Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+        cleanerMethod.setAccessible(true);
+
+        final Object cleaner = cleanerMethod.invoke(buffer);
+        if (cleaner != null) {
+          cleaner.getClass().getMethod("clean").invoke(cleaner);
+        }
+      }
+    } catch (final ReflectiveOperationException | RuntimeException e) {
+      OLogManager.instance()
+          .warn(this, "Can not unmap region of the file, it will be unmapped by GC", e);
+    }
+  }
+}
@@ -56,6 +56,7 @@ import com.orientechnologies.orient.core.storage.cache.OWriteCache;
 import com.orientechnologies.orient.core.storage.cache.local.doublewritelog.DoubleWriteLog;
 import com.orientechnologies.orient.core.storage.fs.AsyncFile;
 import com.orientechnologies.orient.core.storage.fs.IOResult;
+import com.orientechnologies.orient.core.storage.fs.IOUringFile;
 import com.orientechnologies.orient.core.storage.fs.OFile;
 import com.orientechnologies.orient.core.storage.impl.local.OLowDiskSpaceInformation;
 import com.orientechnologies.orient.core.storage.impl.local.OLowDiskSpaceListener;
@@ -79,6 +80,7 @@ import java.security.InvalidAlgorithmParameterException;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -198,6 +200,9 @@ public final class OWOWCache extends OAbstractWriteCache
 
   private static final int CHUNK_SIZE = 64 * 1024 * 1024;
 
+  /** Size of the region of file which is mapped into memory at once if mapped reads are used. */
+  private static final long MAPPED_REGION_SIZE = 64 * 1024 * 1024;
+
   /** Executor which runs in single thread all tasks are related to flush of write cache data. */
   private static final OScheduledThreadPoolExecutorWithLogging commitExecutor;
 
@@ -397,6 +402,25 @@ public final class OWOWCache extends OAbstractWriteCache
 
   private final boolean useNativeOsAPI;
 
+  /** Whether io_uring is used to access data files, it is used only if supported by OS. */
+  private final boolean useIOUring;
+
+  /**
+   * Whether pages which are not present in write cache are served directly from the regions of
+   * files mapped into memory. Not used for encrypted storages because pages are decrypted in place.
+   */
+  private final boolean memoryMappedReads;
+
+  /** Amount of pages in the single region of file mapped into memory. */
+  private final long pagesPerMappedRegion;
+
+  /**
+   * Regions of files mapped into memory which serve new page loads, mapped by internal file id and
+   * index of the region.
+   */
+  private final ConcurrentHashMap<Integer, ConcurrentHashMap<Long, OMappedRegion>> mappedRegions =
+      new ConcurrentHashMap<>();
+
   private final int exclusiveWriteCacheMaxSize;
 
   private final boolean callFsync;
@@ -438,7 +462,54 @@ public final class OWOWCache extends OAbstractWriteCache
       final byte[] iv,
       final byte[] aesKey,
       final boolean callFsync,
-      boolean useNativeOsAPI) {
+      boolean useNativeOsAPI,
+      final boolean memoryMappedReads,
+      final boolean useIOUring) {
+    this(
+        pageSize,
+        bufferPool,
+        writeAheadLog,
+        doubleWriteLog,
+        pagesFlushInterval,
+        shutdownTimeout,
+        exclusiveWriteCacheMaxSize,
+        storagePath,
+        storageName,
+        stringSerializer,
+        files,
+        id,
+        checksumMode,
+        iv,
+        aesKey,
+        callFsync,
+        useNativeOsAPI,
+        memoryMappedReads,
+        useIOUring,
+        MAPPED_REGION_SIZE);
+  }
+
+  /** @param mappedRegionSize Size of the region of file which is mapped into memory at once. */
+  OWOWCache(
+      final int pageSize,
+      final OByteBufferPool bufferPool,
+      final OWriteAheadLog writeAheadLog,
+      final DoubleWriteLog doubleWriteLog,
+      final long pagesFlushInterval,
+      final int shutdownTimeout,
+      final long exclusiveWriteCacheMaxSize,
+      final Path storagePath,
+      final String storageName,
+      final OBinarySerializer<String> stringSerializer,
+      final OClosableLinkedContainer<Long, OFile> files,
+      final int id,
+      final OChecksumMode checksumMode,
+      final byte[] iv,
+      final byte[] aesKey,
+      final boolean callFsync,
+      boolean useNativeOsAPI,
+      final boolean memoryMappedReads,
+      final boolean useIOUring,
+      final long mappedRegionSize) {
 
     if (aesKey != null && aesKey.length != 16 && aesKey.length != 24 && aesKey.length != 32) {
       throw new OInvalidStorageEncryptionKeyException(
@@ -450,11 +521,14 @@ public final class OWOWCache extends OAbstractWriteCache
     }
 
     this.useNativeOsAPI = useNativeOsAPI;
+    this.useIOUring = useIOUring && IOUringFile.isAvailable();
     this.shutdownTimeout = shutdownTimeout;
     this.pagesFlushInterval = pagesFlushInterval;
     this.iv = iv;
     this.aesKey = aesKey;
     this.callFsync = callFsync;
+    this.memoryMappedReads = memoryMappedReads && aesKey == null;
+    this.pagesPerMappedRegion = Math.max(1, mappedRegionSize / pageSize);
 
     filesLock.acquireWriteLock();
     try {
@@ -927,6 +1001,7 @@ public final class OWOWCache extends OAbstractWriteCache
                   + fileName);
         }
 
+        unmapRegions(intId, true);
         fileClassic.shrink(0);
 
         if (callFsync) {
@@ -1109,6 +1184,10 @@ public final class OWOWCache extends OAbstractWriteCache
         final OCachePointer pagePointer = writeCachePages.get(pageKey);
 
         if (pagePointer == null) {
+          if (!dataPointer.isPooled()) {
+            unmapRegion(intId, pageIndex);
+          }
+
           doPutInCache(dataPointer, pageKey);
         } else {
           assert pagePointer.equals(dataPointer);
@@ -1193,6 +1272,127 @@ public final class OWOWCache extends OAbstractWriteCache
     }
   }
 
+  @Override
+  public OCachePointer[] load(
+      final long fileId,
+      final long startPageIndex,
+      final int pageCount,
+      final boolean verifyChecksums)
+      throws IOException {
+    final int intId = extractFileId(fileId);
+    final long externalId = composeFileId(id, intId);
+
+    filesLock.acquireReadLock();
+    try {
+      final int count =
+          (int) Math.max(0, Math.min(pageCount, getFilledUpTo(externalId) - startPageIndex));
+      if (count == 0) {
+        return new OCachePointer[0];
+      }
+
+      final PageKey[] pageKeys = new PageKey[count];
+      for (int i = 0; i < count; i++) {
+        pageKeys[i] = new PageKey(intId, startPageIndex + i);
+      }
+
+      final Lock[] pageLocks = lockManager.acquireSharedLocksInBatch(pageKeys);
+      try {
+        final OCachePointer[] pointers = new OCachePointer[count];
+        final OPointer[] filePointers = new OPointer[count];
+        final List<ORawPair<Long, ByteBuffer>> reads = new ArrayList<>(count);
+        int loadedCount = count;
+
+        boolean loaded = false;
+        try {
+          final OClosableEntry<Long, OFile> entry = files.acquire(externalId);
+          try {
+            final OFile file = entry.get();
+            final long fileSize = file.getFileSize();
+
+            for (int i = 0; i < count; i++) {
+              // pages which are still in write cache are newer than their copies in file
+              final OCachePointer pagePointer = writeCachePages.get(pageKeys[i]);
+              if (pagePointer != null) {
+                pagePointer.incrementReadersReferrer();
+                pointers[i] = pagePointer;
+                continue;
+              }
+
+              // page is not stored in the file yet, it may be stored in double write log which is
+              // checked by the single page load, so the batch is cut short at this page
+              if ((startPageIndex + i + 1) * pageSize > fileSize) {
+                loadedCount = i;
+                break;
+              }
+
+              final OCachePointer mappedPage =
+                  memoryMappedReads
+                      ? loadMappedPage(intId, startPageIndex + i, file, verifyChecksums)
+                      : null;
+              if (mappedPage != null) {
+                pointers[i] = mappedPage;
+                pointers[i].incrementReadersReferrer();
+              } else {
+                filePointers[i] = bufferPool.acquireDirect(true);
+                reads.add(
+                    new ORawPair<>(
+                        (startPageIndex + i) * pageSize, filePointers[i].getNativeByteBuffer()));
+              }
+            }
+
+            if (!reads.isEmpty()) {
+              file.read(reads).await();
+            }
+          } finally {
+            files.release(entry);
+          }
+
+          if (loadedCount == 0) {
+            pointers[0] = loadFileContent(intId, startPageIndex, verifyChecksums);
+            if (pointers[0] != null) {
+              pointers[0].incrementReadersReferrer();
+              loadedCount = 1;
+            }
+          }
+
+          for (int i = 0; i < loadedCount; i++) {
+            if (filePointers[i] != null) {
+              final OPointer pointer =
+                  verifyLoadedPage(filePointers[i], intId, startPageIndex + i, verifyChecksums);
+              filePointers[i] = null;
+
+              pointers[i] =
+                  new OCachePointer(pointer, bufferPool, externalId, (int) (startPageIndex + i));
+              pointers[i].incrementReadersReferrer();
+            }
+          }
+
+          loaded = true;
+        } catch (final InterruptedException e) {
+          throw OException.wrapException(new OStorageException("Data load was interrupted"), e);
+        } finally {
+          if (!loaded) {
+            for (int i = 0; i < count; i++) {
+              if (filePointers[i] != null) {
+                bufferPool.release(filePointers[i]);
+              } else if (pointers[i] != null) {
+                pointers[i].decrementReadersReferrer();
+              }
+            }
+          }
+        }
+
+        return loadedCount == count ? pointers : Arrays.copyOf(pointers, loadedCount);
+      } finally {
+        for (final Lock pageLock : pageLocks) {
+          pageLock.unlock();
+        }
+      }
+    } finally {
+      filesLock.releaseReadLock();
+    }
+  }
+
   @Override
   public int allocateNewPage(final long fileId) throws IOException {
     filesLock.acquireReadLock();
@@ -1327,6 +1527,8 @@ public final class OWOWCache extends OAbstractWriteCache
     filesLock.acquireWriteLock();
     try {
       removeCachedPages(intId);
+      unmapRegions(intId, true);
+
       final OClosableEntry<Long, OFile> entry = files.acquire(fileId);
       try {
         entry.get().shrink(0);
@@ -1459,6 +1661,9 @@ public final class OWOWCache extends OAbstractWriteCache
 
       doubleWriteLog.close();
 
+      for (final Integer intId : new ArrayList<>(mappedRegions.keySet())) {
+        unmapRegions(intId, false);
+      }
       nameIdMap.clear();
       idNameMap.clear();
 
@@ -1489,6 +1694,8 @@ public final class OWOWCache extends OAbstractWriteCache
         removeCachedPages(intId);
       }
 
+      unmapRegions(intId, false);
+
       if (!files.close(fileId)) {
         throw new OStorageException(
             "Can not close file with id " + internalFileId(fileId) + " because it is still in use");
@@ -1861,9 +2068,17 @@ public final class OWOWCache extends OAbstractWriteCache
     Files.move(nameIdMapHolderFileV2T, storagePath.resolve(NAME_ID_MAP_V2));
   }
 
+  private OFile newFileInstance(final Path path) {
+    if (useIOUring) {
+      return new IOUringFile(path);
+    }
+
+    return new AsyncFile(path, useNativeOsAPI);
+  }
+
   private OFile createFileInstance(final String fileName, final int fileId) {
     final String internalFileName = createInternalFileName(fileName, fileId);
-    return new AsyncFile(storagePath.resolve(internalFileName), useNativeOsAPI);
+    return newFileInstance(storagePath.resolve(internalFileName));
   }
 
   private static String createInternalFileName(final String fileName, final int fileId) {
@@ -1938,7 +2153,7 @@ public final class OWOWCache extends OAbstractWriteCache
 
         if (files.get(externalId) == null) {
           final Path path = storagePath.resolve(idFileNameMap.get((nameIdEntry.getValue())));
-          final AsyncFile file = new AsyncFile(path, useNativeOsAPI);
+          final OFile file = newFileInstance(path);
 
           if (file.exists()) {
             file.open();
@@ -2011,8 +2226,7 @@ public final class OWOWCache extends OAbstractWriteCache
         final long externalId = composeFileId(id, nameIdEntry.getValue());
 
         if (files.get(externalId) == null) {
-          final OFile fileClassic =
-              new AsyncFile(storagePath.resolve(nameIdEntry.getKey()), useNativeOsAPI);
+          final OFile fileClassic = newFileInstance(storagePath.resolve(nameIdEntry.getKey()));
 
           if (fileClassic.exists()) {
             fileClassic.open();
@@ -2201,6 +2415,14 @@ public final class OWOWCache extends OAbstractWriteCache
 
         // if page is not stored in the file may be page is stored in double write log
         if (fileClassic.getFileSize() >= pageEndPosition) {
+          if (memoryMappedReads) {
+            final OCachePointer mappedPage =
+                loadMappedPage(internalFileId, pageIndex, fileClassic, verifyChecksums);
+            if (mappedPage != null) {
+              return mappedPage;
+            }
+          }
+
           OPointer pointer = bufferPool.acquireDirect(true);
           ByteBuffer buffer = pointer.getNativeByteBuffer();
 
@@ -2209,32 +2431,7 @@ public final class OWOWCache extends OAbstractWriteCache
 
           fileClassic.read(pagePosition, buffer, false);
 
-          if (verifyChecksums
-              && (checksumMode == OChecksumMode.StoreAndVerify
-                  || checksumMode == OChecksumMode.StoreAndThrow
-                  || checksumMode == OChecksumMode.StoreAndSwitchReadOnlyMode)) {
-            // if page is broken inside of data file we check double write log
-            if (!verifyMagicChecksumAndDecryptPage(buffer, internalFileId, pageIndex)) {
-              final OPointer doubleWritePointer =
-                  doubleWriteLog.loadPage(internalFileId, (int) pageIndex, bufferPool);
-
-              if (doubleWritePointer == null) {
-                assertPageIsBroken(pageIndex, fileId, pointer);
-              } else {
-                bufferPool.release(pointer);
-
-                buffer = doubleWritePointer.getNativeByteBuffer();
-                assert buffer.position() == 0;
-                pointer = doubleWritePointer;
-
-                if (!verifyMagicChecksumAndDecryptPage(buffer, internalFileId, pageIndex)) {
-                  assertPageIsBroken(pageIndex, fileId, pointer);
-                }
-              }
-            }
-          }
-
-          buffer.position(0);
+          pointer = verifyLoadedPage(pointer, internalFileId, pageIndex, verifyChecksums);
           return new OCachePointer(pointer, bufferPool, fileId, (int) pageIndex);
         } else {
           final OPointer pointer =
@@ -2263,6 +2460,192 @@ public final class OWOWCache extends OAbstractWriteCache
     }
   }
 
+  /**
+   * Returns content of the page located inside of the region of file mapped into memory, page
+   * content is not copied. Checksum of the page is verified when page is loaded into the cache, so
+   * it is done on first touch of the mapped memory.
+   *
+   * @return Pointer to the mapped page content or <code>null</code> if page is located in the tail
+   *     of file which is not mapped yet or its checksum is broken. In such case page should be read
+   *     from the file, so copy of the page from double write log is used if needed.
+   */
+  private OCachePointer loadMappedPage(
+      final int internalFileId,
+      final long pageIndex,
+      final OFile file,
+      final boolean verifyChecksums)
+      throws IOException {
+    final long regionIndex = pageIndex / pagesPerMappedRegion;
+    final long regionSize = pagesPerMappedRegion * pageSize;
+
+    // only regions which are completely filled by file are mapped, mapped memory outside of file
+    // can not be accessed
+    if (file.getFileSize() < (regionIndex + 1) * regionSize) {
+      return null;
+    }
+
+    final ConcurrentHashMap<Long, OMappedRegion> regions =
+        mappedRegions.computeIfAbsent(internalFileId, (k) -> new ConcurrentHashMap<>());
+    OMappedRegion region;
+    while (true) {
+      region = regions.get(regionIndex);
+      if (region == null) {
+        // private mapping is used, so changes of the pages done in memory are never written into
+        // the file directly, pages are written into the file during flush of write cache
+        try (final FileChannel channel =
+            FileChannel.open(
+                storagePath.resolve(file.getName()),
+                StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+          region =
+              new OMappedRegion(
+                  channel.map(
+                      FileChannel.MapMode.PRIVATE,
+                      OFile.HEADER_SIZE + regionIndex * regionSize,
+                      regionSize));
+        }
+
+        final OMappedRegion existingRegion = regions.putIfAbsent(regionIndex, region);
+        if (existingRegion != null) {
+          region.unmapIfUnused();
+          region = existingRegion;
+        }
+      }
+
+      if (region.acquire()) {
+        break;
+      }
+
+      // region was unmapped once the last of its pages was released
+      regions.remove(regionIndex, region);
+    }
+
+    final ByteBuffer page = region.getBuffer().duplicate();
+    final int pageOffset = (int) ((pageIndex - regionIndex * pagesPerMappedRegion) * pageSize);
+    page.position(pageOffset);
+    page.limit(pageOffset + pageSize);
+
+    final OPointer pointer = OPointer.wrap(page.slice().order(ByteOrder.nativeOrder()));
+    final ByteBuffer buffer = pointer.getNativeByteBuffer();
+
+    if (verifyChecksums
+        && (checksumMode == OChecksumMode.StoreAndVerify
+            || checksumMode == OChecksumMode.StoreAndThrow
+            || checksumMode == OChecksumMode.StoreAndSwitchReadOnlyMode)) {
+      if (!verifyMagicChecksumAndDecryptPage(buffer, internalFileId, pageIndex)) {
+        releaseMappedPage(regions, regionIndex, region);
+        return null;
+      }
+    }
+
+    buffer.position(0);
+
+    final OMappedRegion pageRegion = region;
+    return OCachePointer.unpooled(
+        pointer,
+        () -> releaseMappedPage(regions, regionIndex, pageRegion),
+        composeFileId(id, internalFileId),
+        (int) pageIndex);
+  }
+
+  private static void releaseMappedPage(
+      final ConcurrentHashMap<Long, OMappedRegion> regions,
+      final long regionIndex,
+      final OMappedRegion region) {
+    if (region.release()) {
+      regions.remove(regionIndex, region);
+    }
+  }
+
+  /**
+   * Stops serving of pages from the mapped region which contains passed in page. It is called once
+   * mapped page is changed, changes of page done in memory are not visible in the file till page
+   * flush, so new mapping of the region is needed to read the page from file once it is flushed.
+   * Region is unmapped once all pages which point to it are removed from the cache.
+   */
+  private void unmapRegion(final int internalFileId, final long pageIndex) {
+    final ConcurrentHashMap<Long, OMappedRegion> regions = mappedRegions.get(internalFileId);
+    if (regions != null) {
+      regions.remove(pageIndex / pagesPerMappedRegion);
+    }
+  }
+
+  /**
+   * Stops serving of pages from the mapped regions of the file, regions which are not used are
+   * unmapped immediately, the rest once their last page is released.
+   *
+   * @param requireUnused If <code>true</code> and pages of the file mapped into memory are still in
+   *     use, regions are kept and exception is thrown. Used before the file is truncated or
+   *     deleted, because memory of the mapped region can not be accessed once file is shrunk.
+   */
+  private void unmapRegions(final int internalFileId, final boolean requireUnused) {
+    final ConcurrentHashMap<Long, OMappedRegion> regions = mappedRegions.get(internalFileId);
+    if (regions == null) {
+      return;
+    }
+
+    if (requireUnused) {
+      for (final OMappedRegion region : regions.values()) {
+        if (region.isInUse()) {
+          throw new OStorageException(
+              "File with id "
+                  + internalFileId
+                  + " can not be truncated or deleted because its pages mapped into memory are"
+                  + " still in use");
+        }
+      }
+    }
+
+    mappedRegions.remove(internalFileId);
+    for (final OMappedRegion region : regions.values()) {
+      region.unmapIfUnused();
+    }
+  }
+
+  /**
+   * Verifies checksum of the page read from the data file and decrypts it. If page is broken its
+   * copy from double write log is used if any.
+   *
+   * @return Pointer to the verified content of the page, may differ from passed in pointer.
+   */
+  private OPointer verifyLoadedPage(
+      OPointer pointer,
+      final int internalFileId,
+      final long pageIndex,
+      final boolean verifyChecksums)
+      throws IOException {
+    final long fileId = composeFileId(id, internalFileId);
+    ByteBuffer buffer = pointer.getNativeByteBuffer();
+
+    if (verifyChecksums
+        && (checksumMode == OChecksumMode.StoreAndVerify
+            || checksumMode == OChecksumMode.StoreAndThrow
+            || checksumMode == OChecksumMode.StoreAndSwitchReadOnlyMode)) {
+      // if page is broken inside of data file we check double write log
+      if (!verifyMagicChecksumAndDecryptPage(buffer, internalFileId, pageIndex)) {
+        final OPointer doubleWritePointer =
+            doubleWriteLog.loadPage(internalFileId, (int) pageIndex, bufferPool);
+
+        if (doubleWritePointer == null) {
+          assertPageIsBroken(pageIndex, fileId, pointer);
+        } else {
+          bufferPool.release(pointer);
+
+          buffer = doubleWritePointer.getNativeByteBuffer();
+          assert buffer.position() == 0;
+          pointer = doubleWritePointer;
+
+          if (!verifyMagicChecksumAndDecryptPage(buffer, internalFileId, pageIndex)) {
+            assertPageIsBroken(pageIndex, fileId, pointer);
+          }
+        }
+      }
+    }
+
+    buffer.position(0);
+    return pointer;
+  }
+
   private void assertPageIsBroken(long pageIndex, long fileId, OPointer pointer) {
     final String message =
         "Magic number verification failed for page `"
@@ -3439,6 +3822,7 @@ public final class OWOWCache extends OAbstractWriteCache
       final long fileId = composeFileId(id, internalFileId);
 
       doRemoveCachePages(internalFileId);
+      unmapRegions(internalFileId, true);
 
       final OFile fileClassic = files.remove(fileId);
 
@@ -41,6 +41,7 @@ import com.orientechnologies.orient.core.exception.OStorageException;
 import com.orientechnologies.orient.core.index.engine.v1.OCellBTreeMultiValueIndexEngine;
 import com.orientechnologies.orient.core.storage.OChecksumMode;
 import com.orientechnologies.orient.core.storage.cache.OReadCache;
+import com.orientechnologies.orient.core.storage.cache.chm.AsyncReadCache;
 import com.orientechnologies.orient.core.storage.cache.local.OWOWCache;
 import com.orientechnologies.orient.core.storage.cache.local.doublewritelog.DoubleWriteLog;
 import com.orientechnologies.orient.core.storage.cache.local.doublewritelog.DoubleWriteLogGL;
@@ -53,6 +54,7 @@ import com.orientechnologies.orient.core.storage.impl.local.OStorageConfiguratio
 import com.orientechnologies.orient.core.storage.impl.local.paginated.StorageStartupMetadata;
 import com.orientechnologies.orient.core.storage.impl.local.paginated.atomicoperations.OAtomicOperation;
 import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.OLogSequenceNumber;
+import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.OWALCompressionMode;
 import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.OWriteAheadLog;
 import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.cas.CASDiskWriteAheadLog;
 import com.orientechnologies.orient.core.storage.index.engine.OHashTableIndexEngine;
@@ -135,7 +137,8 @@ public class OLocalPaginatedStorage extends OAbstractPaginatedStorage {
     OClusterBasedStorageConfiguration.TREE_NULL_FILE_EXTENSION,
     OCellBTreeMultiValueIndexEngine.DATA_FILE_EXTENSION,
     OCellBTreeMultiValueIndexEngine.M_CONTAINER_EXTENSION,
-    DoubleWriteLogGL.EXTENSION
+    DoubleWriteLogGL.EXTENSION,
+    AsyncReadCache.CACHE_STATE_EXTENSION
   };
 
   private static final int ONE_KB = 1024;
@@ -516,7 +519,12 @@ public class OLocalPaginatedStorage extends OAbstractPaginatedStorage {
         contextConfiguration.getValueAsBoolean(
             OGlobalConfiguration.STORAGE_PRINT_WAL_PERFORMANCE_STATISTICS),
         contextConfiguration.getValueAsInteger(
-            OGlobalConfiguration.STORAGE_PRINT_WAL_PERFORMANCE_INTERVAL));
+            OGlobalConfiguration.STORAGE_PRINT_WAL_PERFORMANCE_INTERVAL),
+        contextConfiguration.getValueAsEnum(
+            OGlobalConfiguration.WAL_COMPRESSION_MODE, OWALCompressionMode.class),
+        contextConfiguration.getValueAsInteger(
+            OGlobalConfiguration.WAL_COMPRESSION_MIN_RECORD_SIZE),
+        contextConfiguration.getValueAsInteger(OGlobalConfiguration.WAL_GROUP_COMMIT_MAX_WAIT));
   }
 
   @Override
@@ -784,7 +792,13 @@ public class OLocalPaginatedStorage extends OAbstractPaginatedStorage {
             contextConfiguration.getValueAsBoolean(
                 OGlobalConfiguration.STORAGE_PRINT_WAL_PERFORMANCE_STATISTICS),
             contextConfiguration.getValueAsInteger(
-                OGlobalConfiguration.STORAGE_PRINT_WAL_PERFORMANCE_INTERVAL));
+                OGlobalConfiguration.STORAGE_PRINT_WAL_PERFORMANCE_INTERVAL),
+            contextConfiguration.getValueAsEnum(
+                OGlobalConfiguration.WAL_COMPRESSION_MODE, OWALCompressionMode.class),
+            contextConfiguration.getValueAsInteger(
+                OGlobalConfiguration.WAL_COMPRESSION_MIN_RECORD_SIZE),
+            contextConfiguration.getValueAsInteger(
+                OGlobalConfiguration.WAL_GROUP_COMMIT_MAX_WAIT));
 
     diskWriteAheadLog.addLowDiskSpaceListener(this);
     writeAheadLog = diskWriteAheadLog;
@@ -846,7 +860,10 @@ public class OLocalPaginatedStorage extends OAbstractPaginatedStorage {
             iv,
             aesKey,
             contextConfiguration.getValueAsBoolean(OGlobalConfiguration.STORAGE_CALL_FSYNC),
-            contextConfiguration.getValueAsBoolean(OGlobalConfiguration.DISK_USE_NATIVE_OS_API));
+            contextConfiguration.getValueAsBoolean(OGlobalConfiguration.DISK_USE_NATIVE_OS_API),
+            contextConfiguration.getValueAsBoolean(
+                OGlobalConfiguration.STORAGE_DISK_CACHE_MEMORY_MAPPED_READS),
+            contextConfiguration.getValueAsBoolean(OGlobalConfiguration.DISK_USE_IO_URING));
 
     wowCache.addLowDiskSpaceListener(this);
     wowCache.loadRegisteredFiles();
@@ -203,6 +203,69 @@ public final class AsyncFile implements OFile {
     return asyncIOResult;
   }
 
+  @Override
+  public IOResult read(List<ORawPair<Long, ByteBuffer>> buffers) {
+    final CountDownLatch latch = new CountDownLatch(buffers.size());
+    final AsyncIOResult asyncIOResult = new AsyncIOResult(latch);
+
+    int issued = 0;
+    try {
+      lock.sharedLock();
+      try {
+        checkForClose();
+        // all positions are checked before the first read is issued, so the caller never gets
+        // an exception while reads into its buffers are still in progress
+        for (final ORawPair<Long, ByteBuffer> pair : buffers) {
+          checkPosition(pair.first);
+          checkPosition(pair.first + pair.second.limit() - 1);
+        }
+
+        for (final ORawPair<Long, ByteBuffer> pair : buffers) {
+          final ByteBuffer byteBuffer = pair.second;
+          byteBuffer.rewind();
+
+          final long position = pair.first + HEADER_SIZE;
+          fileChannel.read(
+              byteBuffer, position, latch, new ReadHandler(byteBuffer, asyncIOResult, position));
+          issued++;
+        }
+      } finally {
+        lock.sharedUnlock();
+      }
+    } catch (final RuntimeException e) {
+      awaitIssued(latch, buffers.size() - issued);
+      throw e;
+    }
+
+    return asyncIOResult;
+  }
+
+  /**
+   * Waits till already issued operations of the batch are completed, so buffers of the batch can
+   * be released once the batch failed.
+   *
+   * @param notIssued Amount of operations of the batch which were not issued.
+   */
+  private static void awaitIssued(final CountDownLatch latch, final int notIssued) {
+    for (int i = 0; i < notIssued; i++) {
+      latch.countDown();
+    }
+
+    boolean interrupted = false;
+    while (true) {
+      try {
+        latch.await();
+        break;
+      } catch (final InterruptedException e) {
+        interrupted = true;
+      }
+    }
+
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
   @Override
   public void read(long offset, ByteBuffer buffer, boolean throwOnEof) throws IOException {
     lock.sharedLock();
@@ -471,6 +534,44 @@ public final class AsyncFile implements OFile {
     }
   }
 
+  private final class ReadHandler implements CompletionHandler<Integer, CountDownLatch> {
+    private final ByteBuffer byteBuffer;
+    private final AsyncIOResult ioResult;
+    private final long position;
+
+    private ReadHandler(ByteBuffer byteBuffer, AsyncIOResult ioResult, long position) {
+      this.byteBuffer = byteBuffer;
+      this.ioResult = ioResult;
+      this.position = position;
+    }
+
+    @Override
+    public void completed(Integer result, CountDownLatch attachment) {
+      if (result == -1) {
+        failed(new EOFException("End of file " + osFile + " is reached."), attachment);
+      } else if (byteBuffer.remaining() > 0) {
+        lock.sharedLock();
+        try {
+          checkForClose();
+
+          fileChannel.read(byteBuffer, position + byteBuffer.position(), attachment, this);
+        } finally {
+          lock.sharedUnlock();
+        }
+      } else {
+        attachment.countDown();
+      }
+    }
+
+    @Override
+    public void failed(Throwable exc, CountDownLatch attachment) {
+      ioResult.exc = exc;
+      OLogManager.instance().error(this, "Error during read operation from the file " + osFile, exc);
+
+      attachment.countDown();
+    }
+  }
+
   private static final class AsyncIOResult implements IOResult {
     private final CountDownLatch latch;
     private Throwable exc;
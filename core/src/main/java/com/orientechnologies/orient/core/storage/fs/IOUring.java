@@ -0,0 +1,333 @@
+package com.orientechnologies.orient.core.storage.fs;
+
+import com.kenai.jffi.MemoryIO;
+import com.kenai.jffi.Platform;
+import com.orientechnologies.common.jnr.LastErrorException;
+import com.orientechnologies.common.jnr.ONative;
+import com.orientechnologies.common.log.OLogManager;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.util.List;
+import sun.misc.Unsafe;
+
+/**
+ * Minimal binding of Linux io_uring interface. Requests are placed into the submission queue shared
+ * with the kernel and submitted all at once, so the device receives the whole batch of requests
+ * instead of the single request per thread as it happens in case of {@link
+ * java.nio.channels.AsynchronousFileChannel} which is emulated by thread pool on Linux.
+ *
+ * <p>Instance of the ring is not thread safe, access to it is serialized by the caller.
+ */
+final class IOUring implements AutoCloseable {
+  static final int IORING_OP_READV = 1;
+  static final int IORING_OP_WRITEV = 2;
+  static final int IORING_OP_FSYNC = 3;
+
+  private static final int IORING_FSYNC_DATASYNC = 1;
+  private static final int IORING_ENTER_GETEVENTS = 1;
+
+  private static final long IORING_OFF_SQ_RING = 0L;
+  private static final long IORING_OFF_CQ_RING = 0x8000000L;
+  private static final long IORING_OFF_SQES = 0x10000000L;
+
+  /** Size of io_uring_params structure. */
+  private static final int PARAMS_SIZE = 120;
+
+  private static final int SQ_OFF = 40;
+  private static final int CQ_OFF = 80;
+
+  private static final int SQE_SIZE = 64;
+  private static final int CQE_SIZE = 16;
+  private static final int IOVEC_SIZE = 16;
+
+  private static final Unsafe UNSAFE;
+
+  private static volatile Boolean available;
+
+  static {
+    UNSAFE =
+        AccessController.doPrivileged(
+            (PrivilegedAction<Unsafe>)
+                () -> {
+                  try {
+                    final Field f = Unsafe.class.getDeclaredField("theUnsafe");
+                    f.setAccessible(true);
+                    return (Unsafe) f.get(null);
+                  } catch (NoSuchFieldException | IllegalAccessException e) {
+                    throw new Error(e);
+                  }
+                });
+  }
+
+  private final int ringFd;
+  private final int entries;
+
+  private final long sqRing;
+  private final long sqRingSize;
+  private final long sqHead;
+  private final long sqTail;
+  private final int sqMask;
+  private final long sqArray;
+
+  private final long sqes;
+  private final long sqesSize;
+
+  private final long cqRing;
+  private final long cqRingSize;
+  private final long cqHead;
+  private final long cqTail;
+  private final int cqMask;
+  private final long cqes;
+
+  private final long iovecs;
+
+  /**
+   * Set if completion of the submitted requests can not be awaited after an error, such ring can
+   * not be used any more because the kernel may still access memory of those requests.
+   */
+  private boolean broken;
+
+  /** Single request to the ring, result of the request is set once request is completed. */
+  static final class Request {
+    private final int opcode;
+    private final int fd;
+
+    long offset;
+    long address;
+    int length;
+
+    /** Amount of bytes read or written or negated error code. */
+    int result;
+
+    Request(
+        final int opcode, final int fd, final long offset, final long address, final int length) {
+      this.opcode = opcode;
+      this.fd = fd;
+      this.offset = offset;
+      this.address = address;
+      this.length = length;
+    }
+  }
+
+  IOUring(final int entries) throws IOException {
+    final ONative nativeAPI = ONative.instance();
+    final MemoryIO memoryIO = MemoryIO.getInstance();
+
+    final long params = memoryIO.allocateMemory(PARAMS_SIZE, true);
+    try {
+      try {
+        ringFd = nativeAPI.ioUringSetup(entries, params);
+      } catch (final LastErrorException e) {
+        throw new IOException("Can not create io_uring instance", e);
+      }
+
+      this.entries = UNSAFE.getInt(params);
+      final int cqEntries = UNSAFE.getInt(params + 4);
+
+      sqRingSize = UNSAFE.getInt(params + SQ_OFF + 24) + (long) this.entries * Integer.BYTES;
+      cqRingSize = UNSAFE.getInt(params + CQ_OFF + 20) + (long) cqEntries * CQE_SIZE;
+      sqesSize = (long) this.entries * SQE_SIZE;
+
+      long sqRingAddress = 0;
+      long cqRingAddress = 0;
+      try {
+        sqRingAddress = nativeAPI.mmap(sqRingSize, ringFd, IORING_OFF_SQ_RING);
+        cqRingAddress = nativeAPI.mmap(cqRingSize, ringFd, IORING_OFF_CQ_RING);
+        sqes = nativeAPI.mmap(sqesSize, ringFd, IORING_OFF_SQES);
+      } catch (final LastErrorException e) {
+        if (cqRingAddress != 0) {
+          nativeAPI.munmap(cqRingAddress, cqRingSize);
+        }
+        if (sqRingAddress != 0) {
+          nativeAPI.munmap(sqRingAddress, sqRingSize);
+        }
+        nativeAPI.close(ringFd);
+
+        throw new IOException("Can not map io_uring queues", e);
+      }
+
+      sqRing = sqRingAddress;
+      cqRing = cqRingAddress;
+
+      sqHead = sqRing + UNSAFE.getInt(params + SQ_OFF);
+      sqTail = sqRing + UNSAFE.getInt(params + SQ_OFF + 4);
+      sqMask = UNSAFE.getInt(sqRing + UNSAFE.getInt(params + SQ_OFF + 8));
+      sqArray = sqRing + UNSAFE.getInt(params + SQ_OFF + 24);
+
+      cqHead = cqRing + UNSAFE.getInt(params + CQ_OFF);
+      cqTail = cqRing + UNSAFE.getInt(params + CQ_OFF + 4);
+      cqMask = UNSAFE.getInt(cqRing + UNSAFE.getInt(params + CQ_OFF + 8));
+      cqes = cqRing + UNSAFE.getInt(params + CQ_OFF + 20);
+    } finally {
+      memoryIO.freeMemory(params);
+    }
+
+    iovecs = memoryIO.allocateMemory((long) this.entries * IOVEC_SIZE, true);
+  }
+
+  /**
+   * @return <code>true</code> if io_uring is supported by OS, check is done only once by creation
+   *     of the test instance of the ring.
+   */
+  static boolean isAvailable() {
+    Boolean result = available;
+    if (result != null) {
+      return result;
+    }
+
+    synchronized (IOUring.class) {
+      result = available;
+      if (result != null) {
+        return result;
+      }
+
+      result = false;
+      if (Platform.getPlatform().getOS() == Platform.OS.LINUX
+          && Platform.getPlatform().addressSize() == 64) {
+        try (final IOUring ignored = new IOUring(2)) {
+          result = true;
+        } catch (final IOException | RuntimeException | LinkageError e) {
+          OLogManager.instance()
+              .infoNoDb(IOUring.class, "io_uring is not supported, async file IO will be used", e);
+        }
+      }
+
+      available = result;
+      return result;
+    }
+  }
+
+  int getEntries() {
+    return entries;
+  }
+
+  /**
+   * Submits all passed in requests and waits till all of them are completed. If amount of requests
+   * exceeds size of the ring they are submitted in several batches.
+   *
+   * <p>If submission fails, requests which are not accepted by the kernel are dropped and requests
+   * which are already submitted are awaited before exception is thrown, so memory of the requests
+   * can be released by the caller.
+   */
+  void execute(final List<Request> requests) throws IOException {
+    if (broken) {
+      throw new IOException("io_uring instance can not be used because of the previous error");
+    }
+
+    final int size = requests.size();
+
+    for (int start = 0; start < size; start += entries) {
+      final int count = Math.min(entries, size - start);
+
+      // only this thread changes tail of the submission queue
+      int tail = UNSAFE.getInt(sqTail);
+      for (int i = 0; i < count; i++) {
+        final Request request = requests.get(start + i);
+        final int index = tail & sqMask;
+        final long sqe = sqes + (long) index * SQE_SIZE;
+
+        UNSAFE.setMemory(sqe, SQE_SIZE, (byte) 0);
+        UNSAFE.putByte(sqe, (byte) request.opcode);
+        UNSAFE.putInt(sqe + 4, request.fd);
+        UNSAFE.putLong(sqe + 8, request.offset);
+
+        if (request.opcode == IORING_OP_FSYNC) {
+          UNSAFE.putInt(sqe + 28, IORING_FSYNC_DATASYNC);
+        } else {
+          final long iovec = iovecs + (long) index * IOVEC_SIZE;
+          UNSAFE.putLong(iovec, request.address);
+          UNSAFE.putLong(iovec + 8, request.length);
+
+          UNSAFE.putLong(sqe + 16, iovec);
+          UNSAFE.putInt(sqe + 24, 1);
+        }
+
+        UNSAFE.putLong(sqe + 32, start + i);
+        UNSAFE.putInt(sqArray + (long) index * Integer.BYTES, index);
+
+        tail++;
+      }
+
+      // entries have to be visible to the kernel before new tail
+      UNSAFE.putIntVolatile(null, sqTail, tail);
+
+      int submitted = 0;
+      int completed = 0;
+      while (completed < count) {
+        try {
+          submitted +=
+              ONative.instance()
+                  .ioUringEnter(
+                      ringFd, count - submitted, count - completed, IORING_ENTER_GETEVENTS);
+        } catch (final LastErrorException e) {
+          if (e.getErrorCode() != ONative.EINTR && e.getErrorCode() != ONative.EAGAIN) {
+            // entries which are not consumed by the kernel are removed from the submission queue,
+            // otherwise they would be submitted together with the next batch
+            UNSAFE.putIntVolatile(null, sqTail, UNSAFE.getIntVolatile(null, sqHead));
+            awaitSubmitted(requests, submitted - completed - reapCompletions(requests));
+
+            throw new IOException("Error during submission of IO requests", e);
+          }
+        }
+
+        completed += reapCompletions(requests);
+      }
+    }
+  }
+
+  /**
+   * Waits till passed in amount of already submitted requests is completed. If waiting fails ring
+   * is marked as broken.
+   */
+  private void awaitSubmitted(final List<Request> requests, int pending) throws IOException {
+    while (pending > 0) {
+      try {
+        ONative.instance().ioUringEnter(ringFd, 0, pending, IORING_ENTER_GETEVENTS);
+      } catch (final LastErrorException e) {
+        if (e.getErrorCode() != ONative.EINTR && e.getErrorCode() != ONative.EAGAIN) {
+          broken = true;
+          throw new IOException("Can not wait for completion of submitted IO requests", e);
+        }
+      }
+
+      pending -= reapCompletions(requests);
+    }
+  }
+
+  /**
+   * Reads results of the completed requests from the completion queue.
+   *
+   * @return Amount of completed requests.
+   */
+  private int reapCompletions(final List<Request> requests) {
+    int head = UNSAFE.getInt(cqHead);
+    final int cqTailValue = UNSAFE.getIntVolatile(null, cqTail);
+
+    int completed = 0;
+    while (head != cqTailValue) {
+      final long cqe = cqes + (long) (head & cqMask) * CQE_SIZE;
+      final int requestIndex = (int) UNSAFE.getLong(cqe);
+      requests.get(requestIndex).result = UNSAFE.getInt(cqe + 8);
+
+      head++;
+      completed++;
+    }
+
+    UNSAFE.putIntVolatile(null, cqHead, head);
+    return completed;
+  }
+
+  @Override
+  public void close() {
+    final ONative nativeAPI = ONative.instance();
+
+    nativeAPI.munmap(sqes, sqesSize);
+    nativeAPI.munmap(cqRing, cqRingSize);
+    nativeAPI.munmap(sqRing, sqRingSize);
+    nativeAPI.close(ringFd);
+
+    MemoryIO.getInstance().freeMemory(iovecs);
+  }
+}
@@ -0,0 +1,530 @@
+package com.orientechnologies.orient.core.storage.fs;
+
+import com.kenai.jffi.MemoryIO;
+import com.orientechnologies.common.concur.lock.ScalableRWLock;
+import com.orientechnologies.common.exception.OException;
+import com.orientechnologies.common.jnr.LastErrorException;
+import com.orientechnologies.common.jnr.ONative;
+import com.orientechnologies.common.log.OLogManager;
+import com.orientechnologies.common.util.ORawPair;
+import com.orientechnologies.orient.core.exception.OStorageException;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Implementation of {@link OFile} which performs IO operations using Linux io_uring interface. All
+ * pages passed in single batch of reads or writes are submitted to the kernel at once, so device
+ * receives deep queue of requests which is needed to reach full performance of NVMe devices.
+ *
+ * <p>Rings are shared between all files, caller thread selects the ring by its id, so concurrent
+ * threads use different rings most of the time. Use {@link #isAvailable()} to check whether
+ * io_uring is supported before creation of the file, {@link AsyncFile} should be used otherwise.
+ */
+public final class IOUringFile implements OFile {
+  /** Amount of entries in submission queue of the single ring. */
+  private static final int RING_ENTRIES = 256;
+
+  /** Rings shared by all files till the end of the process, created by {@link #isAvailable()}. */
+  private static volatile IOUring[] rings;
+
+  private static volatile Boolean available;
+
+  private final ScalableRWLock lock = new ScalableRWLock();
+  private volatile Path osFile;
+
+  private final AtomicLong dirtyCounter = new AtomicLong();
+  private final Object flushSemaphore = new Object();
+
+  private final AtomicLong size = new AtomicLong();
+  private final AtomicLong committedSize = new AtomicLong();
+
+  private int fd = -1;
+
+  public IOUringFile(final Path osFile) {
+    this.osFile = osFile;
+  }
+
+  /**
+   * @return <code>true</code> if io_uring is supported by current OS and all the rings used by the
+   *     files can be created, rings are created only once by the first call.
+   */
+  public static boolean isAvailable() {
+    final Boolean result = available;
+    if (result != null) {
+      return result;
+    }
+
+    synchronized (IOUringFile.class) {
+      if (available == null) {
+        if (IOUring.isAvailable()) {
+          rings = createRings(Runtime.getRuntime().availableProcessors(), RING_ENTRIES);
+        }
+        available = rings != null;
+      }
+
+      return available;
+    }
+  }
+
+  /**
+   * Creates passed amount of rings, if any of them can not be created, for example because of the
+   * limit of locked memory, rings created so far are closed and <code>null</code> is returned.
+   */
+  static IOUring[] createRings(final int count, final int entries) {
+    final IOUring[] result = new IOUring[count];
+    int created = 0;
+    try {
+      for (; created < count; created++) {
+        result[created] = new IOUring(entries);
+      }
+      return result;
+    } catch (final IOException | RuntimeException | LinkageError e) {
+      OLogManager.instance()
+          .warn(
+              IOUringFile.class,
+              "Can not create %d io_uring instances of %d entries, async file IO will be used",
+              e,
+              count,
+              entries);
+      for (int i = 0; i < created; i++) {
+        result[i].close();
+      }
+      return null;
+    }
+  }
+
+  @Override
+  public void create() throws IOException {
+    lock.exclusiveLock();
+    try {
+      if (fd >= 0) {
+        throw new OStorageException("File " + osFile + " is already opened.");
+      }
+
+      Files.createFile(osFile);
+
+      doOpen();
+    } finally {
+      lock.exclusiveUnlock();
+    }
+  }
+
+  @Override
+  public void open() {
+    lock.exclusiveLock();
+    try {
+      doOpen();
+    } catch (IOException e) {
+      throw OException.wrapException(new OStorageException("Can not open file " + osFile), e);
+    } finally {
+      lock.exclusiveUnlock();
+    }
+  }
+
+  private void doOpen() throws IOException {
+    if (fd >= 0) {
+      throw new OStorageException("File " + osFile + " is already opened.");
+    }
+
+    try {
+      fd = ONative.instance().open(osFile.toAbsolutePath().toString(), ONative.O_RDWR);
+    } catch (LastErrorException e) {
+      throw new IOException("Can not open file " + osFile, e);
+    }
+
+    initSize();
+  }
+
+  private void initSize() throws IOException {
+    long fileSize = ONative.instance().lseek(fd, 0, ONative.SEEK_END);
+    if (fileSize < HEADER_SIZE) {
+      final ByteBuffer buffer = ByteBuffer.allocateDirect(HEADER_SIZE);
+      execute(
+          IOUring.IORING_OP_WRITEV, Collections.singletonList(new ORawPair<>(0L, buffer)), true);
+      dirtyCounter.incrementAndGet();
+
+      fileSize = HEADER_SIZE;
+    }
+
+    final long currentSize = fileSize - HEADER_SIZE;
+
+    size.set(currentSize);
+    committedSize.set(currentSize);
+  }
+
+  @Override
+  public long getFileSize() {
+    return size.get();
+  }
+
+  @Override
+  public String getName() {
+    return osFile.getFileName().toString();
+  }
+
+  @Override
+  public boolean isOpen() {
+    lock.sharedLock();
+    try {
+      return fd >= 0;
+    } finally {
+      lock.sharedUnlock();
+    }
+  }
+
+  @Override
+  public boolean exists() {
+    return Files.exists(osFile);
+  }
+
+  @Override
+  public void write(long offset, ByteBuffer buffer) throws IOException {
+    write(Collections.singletonList(new ORawPair<>(offset, buffer))).await();
+  }
+
+  @Override
+  public IOResult write(List<ORawPair<Long, ByteBuffer>> buffers) throws IOException {
+    lock.sharedLock();
+    try {
+      checkForClose();
+
+      final List<ORawPair<Long, ByteBuffer>> writes = new ArrayList<>(buffers.size());
+      for (final ORawPair<Long, ByteBuffer> pair : buffers) {
+        final ByteBuffer buffer = pair.second;
+        buffer.rewind();
+
+        checkPosition(pair.first);
+        checkPosition(pair.first + buffer.limit() - 1);
+
+        writes.add(new ORawPair<>(pair.first + HEADER_SIZE, buffer));
+      }
+
+      execute(IOUring.IORING_OP_WRITEV, writes, true);
+      dirtyCounter.incrementAndGet();
+    } finally {
+      lock.sharedUnlock();
+    }
+
+    return () -> {};
+  }
+
+  @Override
+  public IOResult read(List<ORawPair<Long, ByteBuffer>> buffers) throws IOException {
+    lock.sharedLock();
+    try {
+      checkForClose();
+
+      final List<ORawPair<Long, ByteBuffer>> reads = new ArrayList<>(buffers.size());
+      for (final ORawPair<Long, ByteBuffer> pair : buffers) {
+        final ByteBuffer buffer = pair.second;
+        buffer.rewind();
+
+        checkPosition(pair.first);
+        checkPosition(pair.first + buffer.limit() - 1);
+
+        reads.add(new ORawPair<>(pair.first + HEADER_SIZE, buffer));
+      }
+
+      execute(IOUring.IORING_OP_READV, reads, true);
+    } finally {
+      lock.sharedUnlock();
+    }
+
+    return () -> {};
+  }
+
+  @Override
+  public void read(long offset, ByteBuffer buffer, boolean throwOnEof) throws IOException {
+    lock.sharedLock();
+    try {
+      checkForClose();
+      checkPosition(offset);
+
+      buffer.position(0);
+      execute(
+          IOUring.IORING_OP_READV,
+          Collections.singletonList(new ORawPair<>(offset + HEADER_SIZE, buffer)),
+          throwOnEof);
+    } finally {
+      lock.sharedUnlock();
+    }
+  }
+
+  /**
+   * Submits reads or writes of the passed in buffers, each buffer is processed from its position
+   * till its limit. Requests which are completed partially are resubmitted till all data are
+   * processed.
+   *
+   * @param throwOnEof Whether exception is thrown if end of file is reached during read, otherwise
+   *     rest of the buffer is left untouched.
+   */
+  private void execute(
+      final int opcode, final List<ORawPair<Long, ByteBuffer>> buffers, final boolean throwOnEof)
+      throws IOException {
+    final MemoryIO memoryIO = MemoryIO.getInstance();
+
+    final List<IOUring.Request> requests = new ArrayList<>(buffers.size());
+    final List<ByteBuffer> requestBuffers = new ArrayList<>(buffers.size());
+    // only direct buffers can be passed to the kernel, content of heap buffers is copied
+    final List<ORawPair<ByteBuffer, ByteBuffer>> heapBuffers = new ArrayList<>();
+
+    for (final ORawPair<Long, ByteBuffer> pair : buffers) {
+      ByteBuffer buffer = pair.second;
+      if (!buffer.isDirect()) {
+        final ByteBuffer directBuffer = ByteBuffer.allocateDirect(buffer.remaining());
+        if (opcode == IOUring.IORING_OP_WRITEV) {
+          directBuffer.put(buffer.duplicate());
+          directBuffer.flip();
+        }
+
+        heapBuffers.add(new ORawPair<>(buffer, directBuffer));
+        buffer = directBuffer;
+      }
+
+      requests.add(
+          new IOUring.Request(
+              opcode,
+              fd,
+              pair.first,
+              memoryIO.getDirectBufferAddress(buffer) + buffer.position(),
+              buffer.remaining()));
+      requestBuffers.add(buffer);
+    }
+
+    List<IOUring.Request> pending = requests;
+    while (!pending.isEmpty()) {
+      final IOUring ring = ring();
+      //noinspection SynchronizationOnLocalVariableOrMethodParameter
+      synchronized (ring) {
+        ring.execute(pending);
+      }
+
+      final List<IOUring.Request> incomplete = new ArrayList<>();
+      for (final IOUring.Request request : pending) {
+        if (request.result < 0) {
+          throw new IOException(
+              "Error during IO operation on the file "
+                  + osFile
+                  + ", error code "
+                  + (-request.result));
+        }
+
+        if (request.result == 0 && opcode == IOUring.IORING_OP_READV) {
+          if (throwOnEof) {
+            throw new EOFException("End of file " + osFile + " is reached.");
+          }
+
+          continue;
+        }
+
+        if (request.result < request.length) {
+          request.offset += request.result;
+          request.address += request.result;
+          request.length -= request.result;
+
+          incomplete.add(request);
+        }
+      }
+
+      pending = incomplete;
+    }
+
+    for (final ByteBuffer buffer : requestBuffers) {
+      buffer.position(buffer.limit());
+    }
+
+    for (final ORawPair<ByteBuffer, ByteBuffer> pair : heapBuffers) {
+      final ByteBuffer buffer = pair.first;
+      if (opcode == IOUring.IORING_OP_READV) {
+        pair.second.flip();
+        buffer.put(pair.second);
+      } else {
+        buffer.position(buffer.limit());
+      }
+    }
+  }
+
+  @Override
+  public long allocateSpace(int size) throws IOException {
+    lock.sharedLock();
+    try {
+      checkForClose();
+
+      final long currentSize = this.size.addAndGet(size);
+      final long allocatedPosition = currentSize - size;
+
+      long currentCommittedSize = this.committedSize.get();
+      while (currentCommittedSize < currentSize) {
+        if (this.committedSize.compareAndSet(currentCommittedSize, currentSize)) {
+          ONative.instance()
+              .fallocate(
+                  fd, currentCommittedSize + HEADER_SIZE, currentSize - currentCommittedSize);
+          break;
+        }
+
+        currentCommittedSize = committedSize.get();
+      }
+
+      return allocatedPosition;
+    } catch (LastErrorException e) {
+      throw new IOException("Can not allocate space in file " + osFile, e);
+    } finally {
+      lock.sharedUnlock();
+    }
+  }
+
+  @Override
+  public void shrink(long size) throws IOException {
+    lock.exclusiveLock();
+    try {
+      checkForClose();
+
+      this.size.set(0);
+      this.committedSize.set(size);
+
+      ONative.instance().ftruncate(fd, size + HEADER_SIZE);
+    } catch (LastErrorException e) {
+      throw new IOException("Can not truncate file " + osFile, e);
+    } finally {
+      lock.exclusiveUnlock();
+    }
+  }
+
+  @Override
+  public void synch() {
+    lock.sharedLock();
+    try {
+      doSynch();
+    } finally {
+      lock.sharedUnlock();
+    }
+  }
+
+  private void doSynch() {
+    synchronized (flushSemaphore) {
+      long dirtyCounterValue = dirtyCounter.get();
+      if (dirtyCounterValue > 0) {
+        try {
+          final IOUring.Request request = new IOUring.Request(IOUring.IORING_OP_FSYNC, fd, 0, 0, 0);
+          final IOUring ring = ring();
+          //noinspection SynchronizationOnLocalVariableOrMethodParameter
+          synchronized (ring) {
+            ring.execute(Collections.singletonList(request));
+          }
+
+          if (request.result < 0) {
+            throw new IOException("Can not fsync file, error code " + (-request.result));
+          }
+        } catch (final IOException e) {
+          OLogManager.instance()
+              .warn(
+                  this,
+                  "Error during flush of file %s. Data may be lost in case of power failure",
+                  e,
+                  getName());
+        }
+
+        dirtyCounter.addAndGet(-dirtyCounterValue);
+      }
+    }
+  }
+
+  @Override
+  public void close() {
+    lock.exclusiveLock();
+    try {
+      doSynch();
+      doClose();
+    } finally {
+      lock.exclusiveUnlock();
+    }
+  }
+
+  private void doClose() {
+    // ignore if closed
+    if (fd >= 0) {
+      ONative.instance().close(fd);
+      fd = -1;
+    }
+  }
+
+  @Override
+  public void delete() throws IOException {
+    lock.exclusiveLock();
+    try {
+      doClose();
+
+      Files.delete(osFile);
+    } finally {
+      lock.exclusiveUnlock();
+    }
+  }
+
+  @Override
+  public void renameTo(Path newFile) throws IOException {
+    lock.exclusiveLock();
+    try {
+      doClose();
+
+      //noinspection NonAtomicOperationOnVolatileField
+      osFile = Files.move(osFile, newFile);
+
+      doOpen();
+    } finally {
+      lock.exclusiveUnlock();
+    }
+  }
+
+  @Override
+  public void replaceContentWith(final Path newContentFile) throws IOException {
+    lock.exclusiveLock();
+    try {
+      doClose();
+
+      Files.copy(newContentFile, osFile, StandardCopyOption.REPLACE_EXISTING);
+
+      doOpen();
+    } finally {
+      lock.exclusiveUnlock();
+    }
+  }
+
+  private static IOUring ring() {
+    final IOUring[] rings = IOUringFile.rings;
+    if (rings == null) {
+      throw new OStorageException(
+          "io_uring rings are not created, check IOUringFile.isAvailable() before file usage");
+    }
+    return rings[(int) (Thread.currentThread().getId() % rings.length)];
+  }
+
+  private void checkPosition(long offset) {
+    final long fileSize = size.get();
+    if (offset < 0 || offset >= fileSize) {
+      throw new OStorageException(
+          "You are going to access region outside of allocated file position. File size = "
+              + fileSize
+              + ", requested position "
+              + offset);
+    }
+  }
+
+  private void checkForClose() {
+    if (fd < 0) {
+      throw new OStorageException("File " + osFile + " is closed");
+    }
+  }
+
+  @Override
+  public String toString() {
+    return osFile.toString();
+  }
+}
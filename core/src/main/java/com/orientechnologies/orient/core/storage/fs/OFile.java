@@ -18,6 +18,12 @@ public interface OFile extends OClosableItem {
 
   void read(long offset, ByteBuffer buffer, boolean throwOnEof) throws IOException;
 
+  /**
+   * Issues reads of all passed in buffers at once, each buffer is read starting from the related
+   * offset till the buffer limit. Reads are completed once {@link IOResult#await()} returns.
+   */
+  IOResult read(List<ORawPair<Long, ByteBuffer>> buffers) throws IOException;
+
   void write(long offset, ByteBuffer buffer) throws IOException;
 
   IOResult write(List<ORawPair<Long, ByteBuffer>> buffers) throws IOException;
@@ -34,6 +34,7 @@ import com.orientechnologies.common.io.OIOException;
 import com.orientechnologies.common.log.OLogManager;
 import com.orientechnologies.common.profiler.ModifiableLongProfileHookValue;
 import com.orientechnologies.common.profiler.OProfiler;
+import com.orientechnologies.common.profiler.metrics.OHistogram;
 import com.orientechnologies.common.serialization.types.OBinarySerializer;
 import com.orientechnologies.common.serialization.types.OIntegerSerializer;
 import com.orientechnologies.common.serialization.types.OUTF8Serializer;
@@ -47,6 +48,8 @@ import com.orientechnologies.common.util.ORawPair;
 import com.orientechnologies.common.util.OUncaughtExceptionHandler;
 import com.orientechnologies.orient.core.OConstants;
 import com.orientechnologies.orient.core.Orient;
+import com.orientechnologies.orient.core.cache.OCommandCache;
+import com.orientechnologies.orient.core.cache.OCommandCacheSoftRefs;
 import com.orientechnologies.orient.core.command.OCommandExecutor;
 import com.orientechnologies.orient.core.command.OCommandOutputListener;
 import com.orientechnologies.orient.core.command.OCommandRequestText;
@@ -102,6 +105,7 @@ import com.orientechnologies.orient.core.index.engine.v1.OCellBTreeMultiValueInd
 import com.orientechnologies.orient.core.index.engine.v1.OCellBTreeSingleValueIndexEngine;
 import com.orientechnologies.orient.core.metadata.OMetadataDefault;
 import com.orientechnologies.orient.core.metadata.schema.OImmutableClass;
+import com.orientechnologies.orient.core.metadata.schema.OSchema;
 import com.orientechnologies.orient.core.metadata.schema.OType;
 import com.orientechnologies.orient.core.metadata.security.OSecurityUser;
 import com.orientechnologies.orient.core.metadata.security.OToken;
@@ -167,6 +171,7 @@ import com.orientechnologies.orient.core.storage.ridbag.sbtree.OSBTreeCollection
 import com.orientechnologies.orient.core.storage.ridbag.sbtree.OSBTreeCollectionManagerAbstract;
 import com.orientechnologies.orient.core.storage.ridbag.sbtree.OSBTreeCollectionManagerShared;
 import com.orientechnologies.orient.core.storage.ridbag.sbtree.OSBTreeRidBag;
+import com.orientechnologies.orient.core.tx.OTransaction;
 import com.orientechnologies.orient.core.tx.OTransactionAbstract;
 import com.orientechnologies.orient.core.tx.OTransactionData;
 import com.orientechnologies.orient.core.tx.OTransactionId;
@@ -204,6 +209,7 @@ import java.util.TreeSet;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
@@ -271,6 +277,14 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
   private volatile OLowDiskSpaceInformation lowDiskSpace;
   private volatile boolean modificationLock;
   private volatile boolean readLock;
+  /** Durability of the transactions which do not set it explicitly. */
+  private volatile OTransaction.DURABILITY txDurability = OTransaction.DURABILITY.ASYNC;
+  /** Whether keys of the hottest pages are kept between close and open of the storage. */
+  private volatile boolean keepDiskCacheState;
+  /** Minimum interval in nanoseconds between stores of the disk cache state, 0 if only on close. */
+  private volatile long diskCacheStateSaveInterval;
+  /** Time in nanoseconds of the last store or load of the disk cache state. */
+  private volatile long lastDiskCacheStateSave;
   /** Set of pages which were detected as broken and need to be repaired. */
   private final Set<OPair<String, Long>> brokenPages =
       Collections.newSetFromMap(new ConcurrentHashMap<>(0));
@@ -284,6 +298,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
   private final AtomicOperationIdGen idGen = new AtomicOperationIdGen();
 
   private boolean wereDataRestoredAfterOpen;
+  private final Object restoreAllocationLock = new Object();
   private UUID uuid;
   private volatile byte[] lastMetadata = null;
 
@@ -301,6 +316,8 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
   private final OModifiableLong txCommit = new OModifiableLong();
   private final OModifiableLong txRollback = new OModifiableLong();
 
+  private final OHistogram commitDuration;
+
   private final AtomicInteger sessionCount = new AtomicInteger(0);
   private final AtomicLong lastCloseTime = new AtomicLong(System.currentTimeMillis());
 
@@ -315,6 +332,14 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
     recordVersionManager = new OPartitionedLockManager<>();
 
     registerProfilerHooks();
+    commitDuration =
+        Orient.instance()
+            .getMetrics()
+            .histogram(
+                "orientdb_transaction_commit_duration_seconds",
+                "Duration of commit of transactions",
+                "database",
+                name);
     sbTreeCollectionManager = new OSBTreeCollectionManagerShared(this);
   }
 
@@ -394,12 +419,25 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
           return;
         }
 
+        final long timer = Orient.instance().getProfiler().startChrono();
+
         if (!exists()) {
           throw new OStorageException(
               "Cannot open the storage '" + name + "' because it does not exist in path: " + url);
         }
 
         initLockingStrategy(contextConfiguration);
+        txDurability =
+            contextConfiguration.getValueAsEnum(
+                OGlobalConfiguration.STORAGE_TX_DURABILITY, OTransaction.DURABILITY.class);
+        keepDiskCacheState =
+            contextConfiguration.getValueAsBoolean(
+                OGlobalConfiguration.STORAGE_KEEP_DISK_CACHE_STATE);
+        diskCacheStateSaveInterval =
+            TimeUnit.SECONDS.toNanos(
+                contextConfiguration.getValueAsInteger(
+                    OGlobalConfiguration.STORAGE_DISK_CACHE_STATE_SAVE_INTERVAL));
+        lastDiskCacheStateSave = System.nanoTime();
 
         readIv();
 
@@ -424,6 +462,8 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
                 this,
                 contextConfiguration.getValueAsBoolean(
                     OGlobalConfiguration.STORAGE_TRACK_PAGE_OPERATIONS_IN_TX),
+                contextConfiguration.getValueAsBoolean(
+                    OGlobalConfiguration.STORAGE_MEMORY_APPLY_CHANGES_IN_PLACE),
                 contextConfiguration.getValueAsInteger(
                         OGlobalConfiguration.STORAGE_PAGE_OPERATIONS_CACHE_SIZE)
                     * 1024
@@ -470,6 +510,17 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
                 lastMetadata = startupMetadata.txMetadata;
               }
             });
+
+        if (keepDiskCacheState) {
+          readCache.loadCacheState(
+              writeCache,
+              contextConfiguration.getValueAsInteger(
+                  OGlobalConfiguration.STORAGE_DISK_CACHE_WARM_UP_RATE));
+        }
+
+        Orient.instance()
+            .getProfiler()
+            .stopChrono("db." + name + ".open", "Open a database", timer, "db.*.open");
       } catch (final RuntimeException e) {
         try {
           if (writeCache != null) {
@@ -725,6 +776,17 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
 
         uuid = UUID.randomUUID();
         initLockingStrategy(contextConfiguration);
+        txDurability =
+            contextConfiguration.getValueAsEnum(
+                OGlobalConfiguration.STORAGE_TX_DURABILITY, OTransaction.DURABILITY.class);
+        keepDiskCacheState =
+            contextConfiguration.getValueAsBoolean(
+                OGlobalConfiguration.STORAGE_KEEP_DISK_CACHE_STATE);
+        diskCacheStateSaveInterval =
+            TimeUnit.SECONDS.toNanos(
+                contextConfiguration.getValueAsInteger(
+                    OGlobalConfiguration.STORAGE_DISK_CACHE_STATE_SAVE_INTERVAL));
+        lastDiskCacheStateSave = System.nanoTime();
         initIv();
 
         initWalAndDiskCache(contextConfiguration);
@@ -739,6 +801,8 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
                 this,
                 contextConfiguration.getValueAsBoolean(
                     OGlobalConfiguration.STORAGE_TRACK_PAGE_OPERATIONS_IN_TX),
+                contextConfiguration.getValueAsBoolean(
+                    OGlobalConfiguration.STORAGE_MEMORY_APPLY_CHANGES_IN_PLACE),
                 contextConfiguration.getValueAsInteger(
                         OGlobalConfiguration.STORAGE_PAGE_OPERATIONS_CACHE_SIZE)
                     * 1024
@@ -2238,7 +2302,12 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
    */
   @Override
   public List<ORecordOperation> commit(final OTransactionInternal clientTx) {
-    return commit(clientTx, false);
+    final long start = System.nanoTime();
+    try {
+      return commit(clientTx, false);
+    } finally {
+      commitDuration.recordSince(start);
+    }
   }
 
   /**
@@ -2249,7 +2318,12 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
    */
   @SuppressWarnings("UnusedReturnValue")
   public List<ORecordOperation> commitPreAllocated(final OTransactionInternal clientTx) {
-    return commit(clientTx, true);
+    final long start = System.nanoTime();
+    try {
+      return commit(clientTx, true);
+    } finally {
+      commitDuration.recordSince(start);
+    }
   }
 
   /**
@@ -2333,6 +2407,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
       }
 
       final List<ORecordOperation> result = new ArrayList<>(8);
+      OLogSequenceNumber commitLsn = null;
       stateLock.acquireReadLock();
       try {
         if (modificationLock) {
@@ -2448,11 +2523,13 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
             if (rollback) {
               rollback(transaction);
             } else {
-              endStorageTx(transaction, recordOperations);
+              commitLsn = endStorageTx(transaction, recordOperations);
             }
 
             this.transaction.set(null);
           }
+
+          invalidateCommandCache(database, recordOperations);
         } finally {
           atomicOperationsManager.ensureThatComponentsUnlocked();
           database.getMetadata().clearThreadLocalSchemaSnapshot();
@@ -2482,6 +2559,8 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
         }
       }
 
+      waitTillDurable(transaction, commitLsn);
+
       if (OLogManager.instance().isDebugEnabled()) {
         OLogManager.instance()
             .debug(
@@ -4422,6 +4501,56 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
     }
   }
 
+  /** @return Names of the classes which own passed in clusters. */
+  private static Set<String> getInvolvedClasses(
+      final ODatabaseDocumentInternal database, final Set<String> clusters) {
+    if (clusters == null) return null;
+
+    final OSchema schema = database.getMetadata().getImmutableSchemaSnapshot();
+    final Set<String> classes = new HashSet<>();
+    for (final String cluster : clusters) {
+      final int clusterId = database.getClusterIdByName(cluster);
+      if (clusterId >= 0) {
+        OCommandCacheSoftRefs.addClassesOfCluster(schema, clusterId, false, classes);
+      }
+    }
+    return classes;
+  }
+
+  /**
+   * Invalidates cached results of commands which were read from clusters or classes of the records
+   * changed by the committed transaction. Results of polymorphic queries are invalidated too,
+   * because superclasses of the changed classes are invalidated together with them.
+   */
+  private void invalidateCommandCache(
+      final ODatabaseDocumentInternal database,
+      final Collection<ORecordOperation> recordOperations) {
+    final OCommandCache commandCache = database.getMetadata().getCommandCache();
+    if (commandCache == null || !commandCache.isEnabled()) {
+      return;
+    }
+
+    final OSchema schema = database.getMetadata().getImmutableSchemaSnapshot();
+    final Set<String> clusterNames = new HashSet<>();
+    final Set<String> classNames = new HashSet<>();
+    for (final ORecordOperation recordOperation : recordOperations) {
+      if (recordOperation.type == ORecordOperation.LOADED) {
+        continue;
+      }
+
+      final int clusterId = recordOperation.getRID().getClusterId();
+      final OCluster cluster =
+          clusterId >= 0 && clusterId < clusters.size() ? clusters.get(clusterId) : null;
+      if (cluster != null && clusterNames.add(cluster.getName())) {
+        OCommandCacheSoftRefs.addClassesOfCluster(schema, clusterId, true, classNames);
+      }
+    }
+
+    if (!clusterNames.isEmpty()) {
+      commandCache.invalidateResults(clusterNames, classNames);
+    }
+  }
+
   @SuppressWarnings("WeakerAccess")
   public final Object executeCommand(
       final OCommandRequestText iCommand, final OCommandExecutor executor) {
@@ -4439,14 +4568,17 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
         }
         boolean foundInCache = false;
         Object result = null;
-        if (iCommand.isCacheableResult()
-            && executor.isCacheable()
-            && iCommand.getParameters() == null) {
+        final OCommandCache commandCache = db.getMetadata().getCommandCache();
+        // RESULTS READ IN TRANSACTION MAY CONTAIN ITS NOT COMMITTED CHANGES
+        final boolean cacheable =
+            iCommand.isCacheableResult()
+                && executor.isCacheable()
+                && !db.getTransaction().isActive();
+        // READ BEFORE THE EXECUTION TO AVOID CACHING OF RESULTS INVALIDATED DURING THE EXECUTION
+        final long cacheVersion = commandCache.getVersion();
+        if (cacheable && iCommand.getParameters() == null) {
           // TRY WITH COMMAND CACHE
-          result =
-              db.getMetadata()
-                  .getCommandCache()
-                  .get(db.getUser(), iCommand.getText(), iCommand.getLimit());
+          result = commandCache.get(db.getUser(), iCommand.getText(), iCommand.getLimit());
 
           if (result != null) {
             foundInCache = true;
@@ -4473,20 +4605,21 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
           result = executor.execute(params);
 
           if (result != null
-              && iCommand.isCacheableResult()
-              && executor.isCacheable()
+              && cacheable
+              && commandCache.isEnabled()
               && (iCommand.getParameters() == null || iCommand.getParameters().isEmpty()))
           // CACHE THE COMMAND RESULT
           {
-            db.getMetadata()
-                .getCommandCache()
-                .put(
-                    db.getUser(),
-                    iCommand.getText(),
-                    result,
-                    iCommand.getLimit(),
-                    executor.getInvolvedClusters(),
-                    System.currentTimeMillis() - beginTime);
+            final Set<String> involvedClusters = executor.getInvolvedClusters();
+            commandCache.put(
+                db.getUser(),
+                iCommand.getText(),
+                result,
+                iCommand.getLimit(),
+                involvedClusters,
+                getInvolvedClasses(db, involvedClusters),
+                System.currentTimeMillis() - beginTime,
+                cacheVersion);
           }
         }
 
@@ -4925,6 +5058,14 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
       } else {
         OLogManager.instance().debugNoDb(this, "No reason to make fuzzy checkpoint", null);
       }
+
+      // the state is only a hint for warm up, so it is not stored on every checkpoint
+      if (keepDiskCacheState
+          && diskCacheStateSaveInterval > 0
+          && System.nanoTime() - lastDiskCacheStateSave >= diskCacheStateSaveInterval) {
+        readCache.storeCacheState(writeCache);
+        lastDiskCacheStateSave = System.nanoTime();
+      }
     } catch (final IOException ioe) {
       throw OException.wrapException(new OIOException("Error during fuzzy checkpoint"), ioe);
     } finally {
@@ -5179,14 +5320,36 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
     }
   }
 
-  private void endStorageTx(
+  private OLogSequenceNumber endStorageTx(
       final OTransactionInternal txi, final Collection<ORecordOperation> recordOperations)
       throws IOException {
-    atomicOperationsManager.endAtomicOperation(false);
+    final OLogSequenceNumber lsn = atomicOperationsManager.endAtomicOperation(false);
     assert OAtomicOperationsManager.getCurrentOperation() == null;
 
     OTransactionAbstract.updateCacheFromEntries(txi.getDatabase(), recordOperations, true);
     txCommit.increment();
+
+    return lsn;
+  }
+
+  /**
+   * Waits till changes of the committed transaction are synced to the disk if it is required by
+   * durability of the transaction or by the default durability of the storage.
+   */
+  private void waitTillDurable(
+      final OTransactionInternal transaction, final OLogSequenceNumber commitLsn) {
+    if (commitLsn == null) {
+      return;
+    }
+
+    OTransaction.DURABILITY durability = transaction.getDurability();
+    if (durability == null) {
+      durability = txDurability;
+    }
+
+    if (durability != OTransaction.DURABILITY.ASYNC) {
+      writeAheadLog.waitTillDurable(commitLsn, durability == OTransaction.DURABILITY.GROUP);
+    }
   }
 
   private void startStorageTx(final OTransactionInternal clientTx) throws IOException {
@@ -5228,6 +5391,8 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
               "Storage '"
                   + name
                   + "' was not closed properly. Will try to recover from write ahead log");
+      final long timer = Orient.instance().getProfiler().startChrono();
+      final long recoveryStart = System.nanoTime();
       try {
         wereDataRestoredAfterOpen = restoreFromWAL() != null;
 
@@ -5241,7 +5406,18 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
         throw e;
       }
 
-      OLogManager.instance().info(this, "Storage data recover was completed");
+      Orient.instance()
+          .getProfiler()
+          .stopChrono(
+              "db." + name + ".recover",
+              "Recover a database from the write ahead log",
+              timer,
+              "db.*.recover");
+      OLogManager.instance()
+          .info(
+              this,
+              "Storage data recover was completed in %,d ms",
+              (System.nanoTime() - recoveryStart) / 1_000_000);
     }
   }
 
@@ -5812,6 +5988,9 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
 
         if (readCache != null) {
           if (!onDelete) {
+            if (keepDiskCacheState) {
+              readCache.storeCacheState(writeCache);
+            }
             readCache.closeStorage(writeCache);
           } else {
             readCache.deleteStorage(writeCache);
@@ -5820,6 +5999,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
 
         if (onDelete) {
           writeAheadLog.delete();
+          Orient.instance().getMetrics().unregisterAll("database", name);
         } else {
           writeAheadLog.close();
         }
@@ -6320,8 +6500,15 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
 
       long lastReportTime = 0;
 
+      final int batchSize = OGlobalConfiguration.WAL_RESTORE_BATCH_SIZE.getValueAsInteger();
+      final int restoreThreads = OGlobalConfiguration.WAL_RESTORE_THREADS.getValueAsInteger();
+
+      final OParallelPageRestore pageRestore =
+          restoreThreads > 1
+              ? new OParallelPageRestore(name, restoreThreads, this::restorePage)
+              : null;
       try {
-        List<WriteableWALRecord> records = writeAheadLog.read(lsn, 1_000);
+        List<WriteableWALRecord> records = writeAheadLog.read(lsn, batchSize);
         while (!records.isEmpty()) {
           for (final WriteableWALRecord walRecord : records) {
             logSequenceNumber = walRecord.getLsn();
@@ -6335,7 +6522,11 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
               // flushed to the disk
               if (atomicUnit != null) {
                 atomicUnit.add(walRecord);
-                restoreAtomicUnit(atomicUnit, atLeastOnePageUpdate);
+                if (pageRestore != null) {
+                  restoreAtomicUnit(atomicUnit, atLeastOnePageUpdate, pageRestore);
+                } else {
+                  restoreAtomicUnit(atomicUnit, atLeastOnePageUpdate);
+                }
               }
               byte[] metadata = operationMetadata.remove(atomicUnitEndRecord.getOperationUnitId());
               if (metadata != null) {
@@ -6406,7 +6597,11 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
             }
           }
 
-          records = writeAheadLog.next(records.get(records.size() - 1).getLsn(), 1_000);
+          records = writeAheadLog.next(records.get(records.size() - 1).getLsn(), batchSize);
+        }
+
+        if (pageRestore != null) {
+          pageRestore.awaitCompletion();
         }
       } catch (final OWALPageBrokenException e) {
         OLogManager.instance()
@@ -6420,6 +6615,15 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
                 this,
                 "Data restore was paused because of exception. The rest of changes will be rolled back.",
                 e);
+      } finally {
+        if (pageRestore != null) {
+          // changes which are already submitted are applied whatever the reason restore is
+          // stopped by, as in case of single-threaded restore
+          pageRestore.close();
+          if (pageRestore.isFailed()) {
+            logSequenceNumber = pageRestore.getLastAppliedLsn();
+          }
+        }
       }
 
       if (atLeastOnePageUpdate.getValue()) {
@@ -6455,50 +6659,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
         }
       } else if (walRecord instanceof OUpdatePageRecord) {
         final OUpdatePageRecord updatePageRecord = (OUpdatePageRecord) walRecord;
-
-        long fileId = updatePageRecord.getFileId();
-        if (!writeCache.exists(fileId)) {
-          final String fileName = writeCache.restoreFileById(fileId);
-
-          if (fileName == null) {
-            throw new OStorageException(
-                "File with id "
-                    + fileId
-                    + " was deleted from storage, the rest of operations can not be restored");
-          } else {
-            OLogManager.instance()
-                .warn(
-                    this,
-                    "Previously deleted file with name "
-                        + fileName
-                        + " was deleted but new empty file was added to continue restore process");
-          }
-        }
-
-        final long pageIndex = updatePageRecord.getPageIndex();
-        fileId = writeCache.externalFileId(writeCache.internalFileId(fileId));
-
-        OCacheEntry cacheEntry =
-            readCache.loadForWrite(fileId, pageIndex, true, writeCache, false, null);
-        if (cacheEntry == null) {
-          do {
-            if (cacheEntry != null) {
-              readCache.releaseFromWrite(cacheEntry, writeCache, true);
-            }
-
-            cacheEntry = readCache.allocateNewPage(fileId, writeCache, null);
-          } while (cacheEntry.getPageIndex() != pageIndex);
-        }
-
-        try {
-          final ODurablePage durablePage = new ODurablePage(cacheEntry);
-          if (durablePage.getLsn().compareTo(walRecord.getLsn()) < 0) {
-            durablePage.restoreChanges(updatePageRecord.getChanges());
-            durablePage.setLsn(updatePageRecord.getLsn());
-          }
-        } finally {
-          readCache.releaseFromWrite(cacheEntry, writeCache, true);
-        }
+        restorePage(restoredFileId(updatePageRecord), updatePageRecord);
 
         atLeastOnePageUpdate.setValue(true);
       } else if (walRecord instanceof OAtomicUnitStartRecord) {
@@ -6523,6 +6684,112 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
     }
   }
 
+  /**
+   * Restores atomic unit passing its page changes to the threads of parallel restore. Atomic units
+   * which create or delete files are applied by the current thread once all the changes submitted
+   * before them are applied.
+   */
+  private void restoreAtomicUnit(
+      final List<OWALRecord> atomicUnit,
+      final OModifiableBoolean atLeastOnePageUpdate,
+      final OParallelPageRestore pageRestore)
+      throws IOException {
+    final OLogSequenceNumber unitLsn = atomicUnit.get(atomicUnit.size() - 1).getLsn();
+    for (final OWALRecord walRecord : atomicUnit) {
+      if (walRecord instanceof OFileCreatedWALRecord
+          || walRecord instanceof OFileDeletedWALRecord) {
+        pageRestore.awaitCompletion();
+        restoreAtomicUnit(atomicUnit, atLeastOnePageUpdate);
+        pageRestore.applied(unitLsn);
+        return;
+      }
+    }
+
+    final List<ORawPair<Long, OUpdatePageRecord>> changes = new ArrayList<>();
+    for (final OWALRecord walRecord : atomicUnit) {
+      if (walRecord instanceof OUpdatePageRecord) {
+        final OUpdatePageRecord updatePageRecord = (OUpdatePageRecord) walRecord;
+        changes.add(new ORawPair<>(restoredFileId(updatePageRecord), updatePageRecord));
+
+        atLeastOnePageUpdate.setValue(true);
+      } else if (!(walRecord instanceof OAtomicUnitStartRecord
+          || walRecord instanceof OAtomicUnitEndRecord
+          || walRecord instanceof OHighLevelTransactionChangeRecord)) {
+        OLogManager.instance()
+            .error(
+                this,
+                "Invalid WAL record type was passed %s. Given record will be skipped.",
+                null,
+                walRecord.getClass());
+
+        assert false : "Invalid WAL record type was passed " + walRecord.getClass().getName();
+      }
+    }
+
+    pageRestore.submit(unitLsn, changes);
+  }
+
+  /**
+   * @return id of the file changed by the passed in record, if file was deleted it is restored
+   *     empty to continue restore process
+   */
+  private long restoredFileId(final OUpdatePageRecord updatePageRecord) throws IOException {
+    final long fileId = updatePageRecord.getFileId();
+    if (!writeCache.exists(fileId)) {
+      final String fileName = writeCache.restoreFileById(fileId);
+
+      if (fileName == null) {
+        throw new OStorageException(
+            "File with id "
+                + fileId
+                + " was deleted from storage, the rest of operations can not be restored");
+      } else {
+        OLogManager.instance()
+            .warn(
+                this,
+                "Previously deleted file with name "
+                    + fileName
+                    + " was deleted but new empty file was added to continue restore process");
+      }
+    }
+
+    return writeCache.externalFileId(writeCache.internalFileId(fileId));
+  }
+
+  private void restorePage(final long fileId, final OUpdatePageRecord updatePageRecord)
+      throws IOException {
+    final long pageIndex = updatePageRecord.getPageIndex();
+
+    OCacheEntry cacheEntry =
+        readCache.loadForWrite(fileId, pageIndex, true, writeCache, false, null);
+    if (cacheEntry == null) {
+      // pages are allocated one by one till the required one, so allocation can not be done by
+      // several restore threads at once
+      synchronized (restoreAllocationLock) {
+        cacheEntry = readCache.loadForWrite(fileId, pageIndex, true, writeCache, false, null);
+        if (cacheEntry == null) {
+          do {
+            if (cacheEntry != null) {
+              readCache.releaseFromWrite(cacheEntry, writeCache, true);
+            }
+
+            cacheEntry = readCache.allocateNewPage(fileId, writeCache, null);
+          } while (cacheEntry.getPageIndex() != pageIndex);
+        }
+      }
+    }
+
+    try {
+      final ODurablePage durablePage = new ODurablePage(cacheEntry);
+      if (durablePage.getLsn().compareTo(updatePageRecord.getLsn()) < 0) {
+        durablePage.restoreChanges(updatePageRecord.getChanges());
+        durablePage.setLsn(updatePageRecord.getLsn());
+      }
+    } finally {
+      readCache.releaseFromWrite(cacheEntry, writeCache, true);
+    }
+  }
+
   /**
    * Method which is called before any data modification operation to check alarm conditions such
    * as:
@@ -0,0 +1,309 @@
+package com.orientechnologies.orient.core.storage.impl.local;
+
+import com.orientechnologies.common.exception.OException;
+import com.orientechnologies.common.util.ORawPair;
+import com.orientechnologies.common.util.OUncaughtExceptionHandler;
+import com.orientechnologies.orient.core.exception.OStorageException;
+import com.orientechnologies.orient.core.storage.OStorageAbstract;
+import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.OLogSequenceNumber;
+import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.OUpdatePageRecord;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Applies page changes read from WAL during data restore using several threads. Changes are
+ * partitioned by file and page index, so all changes of the same page are applied by the same
+ * thread in the order in which they were submitted, which is the order of their LSNs. Atomic
+ * operations are committed in order: changes of the same atomic operation are applied in parallel,
+ * but a change is applied only once all the atomic operations submitted before it are applied.
+ *
+ * <p>Only page changes are applied in parallel, operations on files have to be applied by the
+ * caller after {@link #awaitCompletion()} is called, so they are ordered with the page changes of
+ * the previous atomic operations.
+ *
+ * <p>If a change can not be applied, changes of the atomic operations which follow the failed one
+ * are skipped, so as in case of single-threaded restore data are restored till the first failed
+ * atomic operation and none of the following atomic operations is applied even partially.
+ */
+final class OParallelPageRestore implements AutoCloseable {
+  /** Maximum amount of changes waiting to be applied by a single thread */
+  private static final int QUEUE_SIZE = 4 * 1024;
+
+  private static final PageChange STOP = new PageChange(null, -1, null);
+
+  interface PageRestorer {
+    void restorePage(long fileId, OUpdatePageRecord updatePageRecord) throws IOException;
+  }
+
+  private final PageRestorer restorer;
+  private final BlockingQueue<PageChange>[] queues;
+  private final Thread[] threads;
+
+  private final Object completionLock = new Object();
+  private long pendingChanges;
+
+  /** Submitted atomic operations which are not applied yet, in the order of submission. */
+  private final ArrayDeque<AtomicUnit> units = new ArrayDeque<>();
+
+  private long unitCounter;
+  private OLogSequenceNumber lastAppliedLsn;
+
+  /** Sequence number of the first atomic operation which failed to be applied. */
+  private volatile long failedUnit = Long.MAX_VALUE;
+
+  private volatile Throwable error;
+
+  @SuppressWarnings("unchecked")
+  OParallelPageRestore(final String storageName, final int threads, final PageRestorer restorer) {
+    this.restorer = restorer;
+    this.queues = new BlockingQueue[threads];
+    this.threads = new Thread[threads];
+
+    for (int i = 0; i < threads; i++) {
+      final BlockingQueue<PageChange> queue = new ArrayBlockingQueue<>(QUEUE_SIZE);
+      queues[i] = queue;
+
+      final Thread thread =
+          new Thread(OStorageAbstract.storageThreadGroup, () -> applyChanges(queue));
+      thread.setDaemon(true);
+      thread.setName("OrientDB WAL Restore (" + storageName + ") " + i);
+      thread.setUncaughtExceptionHandler(new OUncaughtExceptionHandler());
+      this.threads[i] = thread;
+      thread.start();
+    }
+  }
+
+  /**
+   * Schedules changes of pages made by single atomic operation, changes submitted for the same
+   * page are applied in the order of submission.
+   *
+   * @param unitLsn LSN of the end of atomic operation
+   * @param changes Pairs of file id and change of the page of this file
+   */
+  void submit(
+      final OLogSequenceNumber unitLsn, final List<ORawPair<Long, OUpdatePageRecord>> changes)
+      throws IOException {
+    checkError();
+
+    final AtomicUnit unit = new AtomicUnit(unitCounter++, unitLsn, changes.size());
+    synchronized (completionLock) {
+      pendingChanges += changes.size();
+      units.add(unit);
+      // atomic operation without page changes is applied once all previous ones are applied
+      advanceAppliedUnits();
+    }
+
+    for (final ORawPair<Long, OUpdatePageRecord> change : changes) {
+      final long fileId = change.first;
+      final OUpdatePageRecord updatePageRecord = change.second;
+      final int partition =
+          (int) Math.floorMod(31 * fileId + updatePageRecord.getPageIndex(), (long) queues.length);
+      try {
+        queues[partition].put(new PageChange(unit, fileId, updatePageRecord));
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw OException.wrapException(new OStorageException("Data restore was interrupted"), e);
+      }
+    }
+  }
+
+  /**
+   * Registers atomic operation applied by the caller, should be called after {@link
+   * #awaitCompletion()}.
+   */
+  void applied(final OLogSequenceNumber unitLsn) throws IOException {
+    submit(unitLsn, Collections.emptyList());
+  }
+
+  /**
+   * Waits till all submitted changes are processed and throws the first error which happened
+   * during their application, if any.
+   */
+  void awaitCompletion() throws IOException {
+    awaitProcessed();
+    checkError();
+  }
+
+  /**
+   * Waits till all submitted changes are either applied or skipped because of the previous error.
+   * Unlike {@link #awaitCompletion()} does not throw the error of application of changes, so it can
+   * be used when restore is stopped because of the other reason.
+   */
+  void awaitProcessed() {
+    boolean interrupted = false;
+    synchronized (completionLock) {
+      while (pendingChanges > 0) {
+        try {
+          completionLock.wait();
+        } catch (final InterruptedException e) {
+          // buffers of changes can not be released while they are applied
+          interrupted = true;
+        }
+      }
+    }
+
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * @return LSN of the last atomic operation which was applied together with all the atomic
+   *     operations submitted before it, or <code>null</code> if there is no such atomic operation.
+   */
+  OLogSequenceNumber getLastAppliedLsn() {
+    synchronized (completionLock) {
+      return lastAppliedLsn;
+    }
+  }
+
+  /** @return <code>true</code> if application of one of the submitted changes failed. */
+  boolean isFailed() {
+    return error != null;
+  }
+
+  /** Waits till submitted changes are processed and stops the threads. */
+  @Override
+  public void close() {
+    awaitProcessed();
+
+    // queues are empty once all the changes are processed
+    for (final BlockingQueue<PageChange> queue : queues) {
+      queue.offer(STOP);
+    }
+
+    for (final Thread thread : threads) {
+      try {
+        thread.join();
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+    }
+  }
+
+  private void applyChanges(final BlockingQueue<PageChange> queue) {
+    while (true) {
+      final PageChange change;
+      try {
+        change = queue.take();
+      } catch (final InterruptedException e) {
+        return;
+      }
+
+      if (change == STOP) {
+        return;
+      }
+
+      boolean applied = false;
+      try {
+        awaitPreviousUnits(change.unit);
+
+        if (change.unit.sequence < failedUnit) {
+          restorer.restorePage(change.fileId, change.updatePageRecord);
+          applied = true;
+        }
+      } catch (final Exception | Error e) {
+        synchronized (completionLock) {
+          // the error of the earliest atomic operation is reported, as single-threaded restore
+          // would do
+          if (change.unit.sequence < failedUnit) {
+            failedUnit = change.unit.sequence;
+            error = e;
+          }
+
+          // changes waiting for the failed atomic operation are skipped
+          completionLock.notifyAll();
+        }
+      } finally {
+        synchronized (completionLock) {
+          change.unit.remainingChanges--;
+          if (!applied) {
+            change.unit.failed = true;
+          }
+          advanceAppliedUnits();
+
+          pendingChanges--;
+          completionLock.notifyAll();
+        }
+      }
+    }
+  }
+
+  /**
+   * Waits till all the atomic operations submitted before the passed in one are applied, or one of
+   * them fails. Changes are queued in the order of submission, so changes of the previous atomic
+   * operations are never queued behind the waiting change.
+   */
+  private void awaitPreviousUnits(final AtomicUnit unit) {
+    synchronized (completionLock) {
+      while (units.peek() != unit && unit.sequence < failedUnit) {
+        try {
+          completionLock.wait();
+        } catch (final InterruptedException ignore) {
+          // submitted changes have to be processed, otherwise restore never completes
+        }
+      }
+    }
+  }
+
+  private void advanceAppliedUnits() {
+    assert Thread.holdsLock(completionLock);
+
+    AtomicUnit unit = units.peek();
+    while (unit != null && unit.remainingChanges == 0 && !unit.failed) {
+      lastAppliedLsn = unit.lsn;
+      units.poll();
+      unit = units.peek();
+    }
+  }
+
+  private void checkError() throws IOException {
+    final Throwable e = error;
+    if (e == null) {
+      return;
+    }
+
+    if (e instanceof IOException) {
+      throw (IOException) e;
+    }
+    if (e instanceof RuntimeException) {
+      throw (RuntimeException) e;
+    }
+    if (e instanceof Error) {
+      throw (Error) e;
+    }
+    throw OException.wrapException(new OStorageException("Error during data restore"), e);
+  }
+
+  private static final class AtomicUnit {
+    private final long sequence;
+    private final OLogSequenceNumber lsn;
+
+    private int remainingChanges;
+    private boolean failed;
+
+    private AtomicUnit(final long sequence, final OLogSequenceNumber lsn, final int changes) {
+      this.sequence = sequence;
+      this.lsn = lsn;
+      this.remainingChanges = changes;
+    }
+  }
+
+  private static final class PageChange {
+    private final AtomicUnit unit;
+    private final long fileId;
+    private final OUpdatePageRecord updatePageRecord;
+
+    private PageChange(
+        final AtomicUnit unit, final long fileId, final OUpdatePageRecord updatePageRecord) {
+      this.unit = unit;
+      this.fileId = fileId;
+      this.updatePageRecord = updatePageRecord;
+    }
+  }
+}
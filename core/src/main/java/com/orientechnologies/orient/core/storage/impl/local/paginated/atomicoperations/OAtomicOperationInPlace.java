@@ -0,0 +1,665 @@
+/*
+ *
+ *  *  Copyright 2010-2016 OrientDB LTD (http://orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://orientdb.com
+ *
+ */
+package com.orientechnologies.orient.core.storage.impl.local.paginated.atomicoperations;
+
+import com.orientechnologies.common.serialization.types.OByteSerializer;
+import com.orientechnologies.common.serialization.types.OIntegerSerializer;
+import com.orientechnologies.common.serialization.types.OLongSerializer;
+import com.orientechnologies.common.serialization.types.OShortSerializer;
+import com.orientechnologies.common.util.ORawPair;
+import com.orientechnologies.orient.core.storage.cache.OCacheEntry;
+import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.OLogSequenceNumber;
+import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.OWALChanges;
+import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.OWriteAheadLog;
+import com.orientechnologies.orient.core.storage.index.sbtreebonsai.local.OBonsaiBucketPointer;
+import com.orientechnologies.orient.core.storage.memory.ODirectMemoryOnlyDiskCache;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Atomic operation used by in-memory storages which applies all changes directly to the pages
+ * instead of collecting them as page diffs which are applied at the end of the operation.
+ *
+ * <p>Only the bytes which are overwritten inside of pages existing before the operation are kept
+ * in a compact undo log, pages allocated by the operation are not tracked at all. If the operation
+ * is rolled back the undo log is replayed in reverse order and pages allocated by the operation are
+ * removed. Isolation of changes is provided by the exclusive locks of the components which are held
+ * till the end of the atomic operation.
+ *
+ * <p>Nothing is written to the WAL by this operation, so it can not be used by durable storages.
+ */
+final class OAtomicOperationInPlace implements OAtomicOperation {
+  /** File id, page index, offset inside of page and length of overwritten data. */
+  private static final int UNDO_RECORD_HEADER_SIZE =
+      2 * OLongSerializer.LONG_SIZE + 2 * OIntegerSerializer.INT_SIZE;
+
+  private final int storageId;
+  private final long operationUnitId;
+
+  private boolean rollback;
+
+  private final Set<String> lockedObjects = new HashSet<>();
+
+  private final ODirectMemoryOnlyDiskCache diskCache;
+
+  private final Map<String, OAtomicOperationMetadata<?>> metadata = new HashMap<>();
+
+  private int componentOperationsCount;
+
+  /**
+   * Pointers to ridbags deleted during current transaction. We can not reuse pointers if we delete
+   * ridbag and then create new one inside of the same transaction.
+   */
+  private final Set<OBonsaiBucketPointer> deletedBonsaiPointers = new HashSet<>();
+
+  private final Map<ORawPair<Integer, Integer>, Set<Integer>> deletedRecordPositions =
+      new HashMap<>();
+
+  /** Content of the page regions overwritten by the operation, see {@link #logOverwrite}. */
+  private byte[] undoLog = new byte[1024];
+
+  private int undoLogSize;
+
+  /** Positions of the undo records inside of {@link #undoLog}. */
+  private int[] undoRecords = new int[64];
+
+  private int undoRecordsCount;
+
+  /** Changes of the files themselves, they are rolled back in order with the undo records. */
+  private final List<FileUndo> fileUndo = new ArrayList<>();
+
+  /**
+   * Size of the files at the moment when the first page was allocated in them by the operation.
+   * Pages at or beyond this index do not need to be logged.
+   */
+  private final Map<Long, Long> allocatedFrom = new HashMap<>();
+
+  OAtomicOperationInPlace(
+      final long operationUnitId, final ODirectMemoryOnlyDiskCache diskCache, final int storageId) {
+    this.storageId = storageId;
+    this.operationUnitId = operationUnitId;
+    this.diskCache = diskCache;
+  }
+
+  @Override
+  public long getOperationUnitId() {
+    return operationUnitId;
+  }
+
+  @Override
+  public OCacheEntry loadPageForWrite(
+      long fileId,
+      final long pageIndex,
+      final boolean checkPinnedPages,
+      final int pageCount,
+      final boolean verifyChecksum) {
+    assert pageCount > 0;
+
+    fileId = checkFileIdCompatibility(fileId, storageId);
+
+    final OCacheEntry cacheEntry =
+        diskCache.loadForRead(fileId, pageIndex, checkPinnedPages, diskCache, verifyChecksum);
+    if (cacheEntry == null) {
+      return null;
+    }
+
+    final Long firstAllocatedPage = allocatedFrom.get(fileId);
+    if (firstAllocatedPage != null && pageIndex >= firstAllocatedPage) {
+      return new OCacheEntryChanges(cacheEntry, new InPlaceChanges(-1, -1));
+    }
+
+    return new OCacheEntryChanges(cacheEntry, new InPlaceChanges(fileId, pageIndex));
+  }
+
+  @Override
+  public OCacheEntry loadPageForRead(
+      long fileId, final long pageIndex, final boolean checkPinnedPages, final int pageCount) {
+    assert pageCount > 0;
+
+    fileId = checkFileIdCompatibility(fileId, storageId);
+    return diskCache.loadForRead(fileId, pageIndex, checkPinnedPages, diskCache, true);
+  }
+
+  @Override
+  public void addMetadata(final OAtomicOperationMetadata<?> metadata) {
+    this.metadata.put(metadata.getKey(), metadata);
+  }
+
+  @Override
+  public OAtomicOperationMetadata<?> getMetadata(final String key) {
+    return metadata.get(key);
+  }
+
+  @Override
+  public void addDeletedRidBag(OBonsaiBucketPointer rootPointer) {
+    deletedBonsaiPointers.add(rootPointer);
+  }
+
+  @Override
+  public Set<OBonsaiBucketPointer> getDeletedBonsaiPointers() {
+    return deletedBonsaiPointers;
+  }
+
+  @Override
+  public OCacheEntry addPage(long fileId) {
+    fileId = checkFileIdCompatibility(fileId, storageId);
+
+    if (!allocatedFrom.containsKey(fileId)) {
+      final long filledUpTo = diskCache.getFilledUpTo(fileId);
+      allocatedFrom.put(fileId, filledUpTo);
+      fileUndo.add(new PagesAllocated(undoRecordsCount, fileId, filledUpTo));
+    }
+
+    final OCacheEntry cacheEntry = diskCache.allocateNewPage(fileId, diskCache, null);
+    final OCacheEntryChanges entryChanges =
+        new OCacheEntryChanges(cacheEntry, new InPlaceChanges(-1, -1));
+    entryChanges.isNew = true;
+
+    return entryChanges;
+  }
+
+  @Override
+  public void releasePageFromRead(final OCacheEntry cacheEntry) {
+    if (cacheEntry instanceof OCacheEntryChanges) {
+      releasePageFromWrite(cacheEntry);
+    } else {
+      diskCache.releaseFromRead(cacheEntry, diskCache);
+    }
+  }
+
+  @Override
+  public void releasePageFromWrite(final OCacheEntry cacheEntry) {
+    final OCacheEntryChanges real = (OCacheEntryChanges) cacheEntry;
+
+    if (real.isNew) {
+      diskCache.releaseFromWrite(real.getDelegate(), diskCache, true);
+    } else {
+      diskCache.releaseFromRead(real.getDelegate(), diskCache);
+    }
+  }
+
+  @Override
+  public long filledUpTo(long fileId) {
+    fileId = checkFileIdCompatibility(fileId, storageId);
+    return diskCache.getFilledUpTo(fileId);
+  }
+
+  @Override
+  public long addFile(final String fileName) {
+    final long fileId = diskCache.addFile(fileName, diskCache);
+    fileUndo.add(new FileAdded(undoRecordsCount, fileId));
+
+    allocatedFrom.put(fileId, 0L);
+    return fileId;
+  }
+
+  @Override
+  public long loadFile(final String fileName) {
+    return diskCache.loadFile(fileName);
+  }
+
+  @Override
+  public void deleteFile(long fileId) {
+    fileId = checkFileIdCompatibility(fileId, storageId);
+
+    final String fileName = diskCache.fileNameById(fileId);
+    fileUndo.add(new FileRemoved(undoRecordsCount, fileId, fileName, copyPages(fileId)));
+
+    allocatedFrom.remove(fileId);
+    diskCache.deleteFile(fileId, diskCache);
+  }
+
+  @Override
+  public boolean isFileExists(final String fileName) {
+    return diskCache.exists(fileName);
+  }
+
+  @Override
+  public String fileNameById(long fileId) {
+    fileId = checkFileIdCompatibility(fileId, storageId);
+    return diskCache.fileNameById(fileId);
+  }
+
+  @Override
+  public void truncateFile(long fileId) {
+    fileId = checkFileIdCompatibility(fileId, storageId);
+
+    fileUndo.add(new FileRemoved(undoRecordsCount, fileId, null, copyPages(fileId)));
+
+    allocatedFrom.remove(fileId);
+    diskCache.truncateFile(fileId, diskCache);
+  }
+
+  /**
+   * Changes are already applied to the pages, so only rollback of the operation requires any
+   * actions. Nothing is logged into the WAL so <code>null</code> is returned.
+   */
+  @Override
+  public OLogSequenceNumber commitChanges(final OWriteAheadLog writeAheadLog) {
+    if (rollback) {
+      undo();
+    }
+
+    undoLog = null;
+    undoRecords = null;
+    fileUndo.clear();
+    allocatedFrom.clear();
+
+    return null;
+  }
+
+  private void undo() {
+    int fileUndoIndex = fileUndo.size() - 1;
+
+    for (int i = undoRecordsCount - 1; i >= 0; i--) {
+      while (fileUndoIndex >= 0 && fileUndo.get(fileUndoIndex).position > i) {
+        fileUndo.get(fileUndoIndex).undo();
+        fileUndoIndex--;
+      }
+
+      int position = undoRecords[i];
+      final long fileId = OLongSerializer.INSTANCE.deserializeNative(undoLog, position);
+      position += OLongSerializer.LONG_SIZE;
+      final long pageIndex = OLongSerializer.INSTANCE.deserializeNative(undoLog, position);
+      position += OLongSerializer.LONG_SIZE;
+      final int pageOffset = OIntegerSerializer.INSTANCE.deserializeNative(undoLog, position);
+      position += OIntegerSerializer.INT_SIZE;
+      final int length = OIntegerSerializer.INSTANCE.deserializeNative(undoLog, position);
+      position += OIntegerSerializer.INT_SIZE;
+
+      final OCacheEntry cacheEntry =
+          diskCache.loadForWrite(fileId, pageIndex, false, diskCache, false, null);
+      assert cacheEntry != null;
+      try {
+        final ByteBuffer buffer = cacheEntry.getCachePointer().getBuffer();
+        buffer.position(pageOffset);
+        buffer.put(undoLog, position, length);
+      } finally {
+        diskCache.releaseFromWrite(cacheEntry, diskCache, true);
+      }
+    }
+
+    while (fileUndoIndex >= 0) {
+      fileUndo.get(fileUndoIndex).undo();
+      fileUndoIndex--;
+    }
+  }
+
+  /** Keeps content of the page region which is going to be overwritten by the operation. */
+  private void logOverwrite(
+      final long fileId,
+      final long pageIndex,
+      final ByteBuffer buffer,
+      final int pageOffset,
+      final int length) {
+    final int recordSize = UNDO_RECORD_HEADER_SIZE + length;
+    if (undoLogSize + recordSize > undoLog.length) {
+      undoLog = Arrays.copyOf(undoLog, Math.max(undoLog.length << 1, undoLogSize + recordSize));
+    }
+    if (undoRecordsCount == undoRecords.length) {
+      undoRecords = Arrays.copyOf(undoRecords, undoRecords.length << 1);
+    }
+
+    undoRecords[undoRecordsCount] = undoLogSize;
+    undoRecordsCount++;
+
+    OLongSerializer.INSTANCE.serializeNative(fileId, undoLog, undoLogSize);
+    undoLogSize += OLongSerializer.LONG_SIZE;
+    OLongSerializer.INSTANCE.serializeNative(pageIndex, undoLog, undoLogSize);
+    undoLogSize += OLongSerializer.LONG_SIZE;
+    OIntegerSerializer.INSTANCE.serializeNative(pageOffset, undoLog, undoLogSize);
+    undoLogSize += OIntegerSerializer.INT_SIZE;
+    OIntegerSerializer.INSTANCE.serializeNative(length, undoLog, undoLogSize);
+    undoLogSize += OIntegerSerializer.INT_SIZE;
+
+    for (int i = 0; i < length; i++) {
+      undoLog[undoLogSize + i] = buffer.get(pageOffset + i);
+    }
+    undoLogSize += length;
+  }
+
+  private byte[][] copyPages(final long fileId) {
+    final int pageSize = diskCache.pageSize();
+    final byte[][] pages = new byte[(int) diskCache.getFilledUpTo(fileId)][];
+
+    for (int pageIndex = 0; pageIndex < pages.length; pageIndex++) {
+      final OCacheEntry cacheEntry =
+          diskCache.loadForRead(fileId, pageIndex, false, diskCache, false);
+      try {
+        final ByteBuffer buffer = cacheEntry.getCachePointer().getBufferDuplicate();
+        final byte[] page = new byte[pageSize];
+
+        buffer.position(0);
+        buffer.get(page);
+
+        pages[pageIndex] = page;
+      } finally {
+        diskCache.releaseFromRead(cacheEntry, diskCache);
+      }
+    }
+
+    return pages;
+  }
+
+  public void rollbackInProgress() {
+    rollback = true;
+  }
+
+  public boolean isRollbackInProgress() {
+    return rollback;
+  }
+
+  public void addLockedObject(final String lockedObject) {
+    lockedObjects.add(lockedObject);
+  }
+
+  public boolean containsInLockedObjects(final String objectToLock) {
+    return lockedObjects.contains(objectToLock);
+  }
+
+  public Iterable<String> lockedObjects() {
+    return lockedObjects;
+  }
+
+  @Override
+  public boolean equals(final Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+
+    final OAtomicOperationInPlace operation = (OAtomicOperationInPlace) o;
+
+    return operationUnitId == operation.operationUnitId;
+  }
+
+  @Override
+  public int hashCode() {
+    return Long.hashCode(operationUnitId);
+  }
+
+  private static int storageId(final long fileId) {
+    return (int) (fileId >>> 32);
+  }
+
+  private static long composeFileId(final long fileId, final int storageId) {
+    return (((long) storageId) << 32) | fileId;
+  }
+
+  private static long checkFileIdCompatibility(final long fileId, final int storageId) {
+    // indicates that storage has no it's own id.
+    if (storageId == -1) {
+      return fileId;
+    }
+
+    if (storageId(fileId) == 0) {
+      return composeFileId(fileId, storageId);
+    }
+
+    return fileId;
+  }
+
+  @Override
+  public void addDeletedRecordPosition(int clusterId, int pageIndex, int recordPosition) {
+    final ORawPair<Integer, Integer> key = new ORawPair<>(clusterId, pageIndex);
+    final Set<Integer> recordPositions =
+        deletedRecordPositions.computeIfAbsent(key, k -> new HashSet<>());
+    recordPositions.add(recordPosition);
+  }
+
+  @Override
+  public Set<Integer> getBookedRecordPositions(int clusterId, int pageIndex) {
+    return deletedRecordPositions.getOrDefault(
+        new ORawPair<>(clusterId, pageIndex), Collections.emptySet());
+  }
+
+  @Override
+  public void incrementComponentOperations() {
+    componentOperationsCount++;
+  }
+
+  @Override
+  public void decrementComponentOperations() {
+    componentOperationsCount--;
+  }
+
+  @Override
+  public int getComponentOperations() {
+    return componentOperationsCount;
+  }
+
+  /**
+   * Writes changes directly to the page and logs overwritten data if page existed before the
+   * operation. Page index equal to -1 means that page was allocated by the operation.
+   */
+  private final class InPlaceChanges implements OWALChanges {
+    private final long fileId;
+    private final long pageIndex;
+
+    private boolean hasChanges;
+
+    private InPlaceChanges(final long fileId, final long pageIndex) {
+      this.fileId = fileId;
+      this.pageIndex = pageIndex;
+    }
+
+    private void beforeWrite(final ByteBuffer buffer, final int offset, final int length) {
+      if (pageIndex >= 0) {
+        logOverwrite(fileId, pageIndex, buffer, offset, length);
+      }
+
+      hasChanges = true;
+    }
+
+    @Override
+    public byte getByteValue(final ByteBuffer buffer, final int offset) {
+      return buffer.get(offset);
+    }
+
+    @Override
+    public byte[] getBinaryValue(final ByteBuffer buffer, final int offset, final int len) {
+      final byte[] result = new byte[len];
+
+      buffer.position(offset);
+      buffer.get(result);
+
+      return result;
+    }
+
+    @Override
+    public short getShortValue(final ByteBuffer buffer, final int offset) {
+      return buffer.getShort(offset);
+    }
+
+    @Override
+    public int getIntValue(final ByteBuffer buffer, final int offset) {
+      return buffer.getInt(offset);
+    }
+
+    @Override
+    public long getLongValue(final ByteBuffer buffer, final int offset) {
+      return buffer.getLong(offset);
+    }
+
+    @Override
+    public void setLongValue(final ByteBuffer buffer, final long value, final int offset) {
+      beforeWrite(buffer, offset, OLongSerializer.LONG_SIZE);
+      buffer.putLong(offset, value);
+    }
+
+    @Override
+    public void setIntValue(final ByteBuffer buffer, final int value, final int offset) {
+      beforeWrite(buffer, offset, OIntegerSerializer.INT_SIZE);
+      buffer.putInt(offset, value);
+    }
+
+    @Override
+    public void setShortValue(final ByteBuffer buffer, final short value, final int offset) {
+      beforeWrite(buffer, offset, OShortSerializer.SHORT_SIZE);
+      buffer.putShort(offset, value);
+    }
+
+    @Override
+    public void setByteValue(final ByteBuffer buffer, final byte value, final int offset) {
+      beforeWrite(buffer, offset, OByteSerializer.BYTE_SIZE);
+      buffer.put(offset, value);
+    }
+
+    @Override
+    public void setBinaryValue(final ByteBuffer buffer, final byte[] value, final int offset) {
+      beforeWrite(buffer, offset, value.length);
+
+      buffer.position(offset);
+      buffer.put(value);
+    }
+
+    @Override
+    public void moveData(final ByteBuffer buffer, final int from, final int to, final int len) {
+      beforeWrite(buffer, to, len);
+
+      final ByteBuffer rb = buffer.asReadOnlyBuffer();
+      rb.position(from);
+      rb.limit(from + len);
+
+      buffer.position(to);
+      buffer.put(rb);
+    }
+
+    @Override
+    public boolean hasChanges() {
+      return hasChanges;
+    }
+
+    @Override
+    public void applyChanges(final ByteBuffer buffer) {
+      throw new UnsupportedOperationException("Changes are already applied to the page");
+    }
+
+    @Override
+    public int serializedSize() {
+      throw new UnsupportedOperationException("Changes are not tracked");
+    }
+
+    @Override
+    public int toStream(final int offset, final byte[] stream) {
+      throw new UnsupportedOperationException("Changes are not tracked");
+    }
+
+    @Override
+    public void toStream(final ByteBuffer byteBuffer) {
+      throw new UnsupportedOperationException("Changes are not tracked");
+    }
+
+    @Override
+    public int fromStream(final int offset, final byte[] stream) {
+      throw new UnsupportedOperationException("Changes are not tracked");
+    }
+
+    @Override
+    public void fromStream(final ByteBuffer buffer) {
+      throw new UnsupportedOperationException("Changes are not tracked");
+    }
+  }
+
+  private abstract static class FileUndo {
+    /** Amount of undo records logged before the change of the file. */
+    private final int position;
+
+    private FileUndo(final int position) {
+      this.position = position;
+    }
+
+    abstract void undo();
+  }
+
+  private final class FileAdded extends FileUndo {
+    private final long fileId;
+
+    private FileAdded(final int position, final long fileId) {
+      super(position);
+      this.fileId = fileId;
+    }
+
+    @Override
+    void undo() {
+      diskCache.deleteFile(fileId, diskCache);
+    }
+  }
+
+  private final class PagesAllocated extends FileUndo {
+    private final long fileId;
+    private final long size;
+
+    private PagesAllocated(final int position, final long fileId, final long size) {
+      super(position);
+      this.fileId = fileId;
+      this.size = size;
+    }
+
+    @Override
+    void undo() {
+      diskCache.shrinkFile(fileId, size);
+    }
+  }
+
+  /** Restores content of deleted or truncated file. */
+  private final class FileRemoved extends FileUndo {
+    private final long fileId;
+    private final String fileName;
+    private final byte[][] pages;
+
+    private FileRemoved(
+        final int position, final long fileId, final String fileName, final byte[][] pages) {
+      super(position);
+      this.fileId = fileId;
+      this.fileName = fileName;
+      this.pages = pages;
+    }
+
+    @Override
+    void undo() {
+      if (fileName != null) {
+        diskCache.addFile(fileName, fileId, diskCache);
+      } else {
+        diskCache.truncateFile(fileId, diskCache);
+      }
+
+      for (final byte[] page : pages) {
+        final OCacheEntry cacheEntry = diskCache.allocateNewPage(fileId, diskCache, null);
+        try {
+          final ByteBuffer buffer = cacheEntry.getCachePointer().getBuffer();
+          buffer.position(0);
+          buffer.put(page);
+        } finally {
+          diskCache.releaseFromWrite(cacheEntry, diskCache, true);
+        }
+      }
+    }
+  }
+}
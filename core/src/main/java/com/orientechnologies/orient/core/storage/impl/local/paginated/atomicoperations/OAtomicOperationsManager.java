@@ -39,6 +39,7 @@ import com.orientechnologies.orient.core.storage.impl.local.paginated.atomicoper
 import com.orientechnologies.orient.core.storage.impl.local.paginated.base.ODurableComponent;
 import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.OLogSequenceNumber;
 import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.OWriteAheadLog;
+import com.orientechnologies.orient.core.storage.memory.ODirectMemoryOnlyDiskCache;
 import java.io.IOException;
 import java.util.Iterator;
 import java.util.Objects;
@@ -82,6 +83,12 @@ public class OAtomicOperationsManager {
   private final boolean trackPageOperations;
   private final int operationsCacheLimit;
 
+  /**
+   * Disk cache of in-memory storage if changes are applied directly to the pages, see {@link
+   * OAtomicOperationInPlace}, or <code>null</code> otherwise.
+   */
+  private final ODirectMemoryOnlyDiskCache inPlaceCache;
+
   private final OperationsFreezer atomicOperationsFreezer = new OperationsFreezer();
   private final OperationsFreezer componentOperationsFreezer = new OperationsFreezer();
   private final AtomicOperationsTable atomicOperationsTable;
@@ -91,12 +98,34 @@ public class OAtomicOperationsManager {
       boolean trackPageOperations,
       int operationsCacheLimit,
       AtomicOperationsTable atomicOperationsTable) {
+    this(storage, trackPageOperations, false, operationsCacheLimit, atomicOperationsTable);
+  }
+
+  /**
+   * @param applyChangesInPlace If <code>true</code> and storage is in-memory storage, changes of
+   *     atomic operations are applied directly to the pages and only information needed to roll
+   *     them back is kept. Flag is ignored by storages which have durable write cache.
+   */
+  public OAtomicOperationsManager(
+      OAbstractPaginatedStorage storage,
+      boolean trackPageOperations,
+      boolean applyChangesInPlace,
+      int operationsCacheLimit,
+      AtomicOperationsTable atomicOperationsTable) {
     this.storage = storage;
     this.writeAheadLog = storage.getWALInstance();
     this.readCache = storage.getReadCache();
     this.writeCache = storage.getWriteCache();
 
-    this.trackPageOperations = trackPageOperations;
+    if (applyChangesInPlace
+        && writeCache instanceof ODirectMemoryOnlyDiskCache
+        && readCache == writeCache) {
+      this.inPlaceCache = (ODirectMemoryOnlyDiskCache) writeCache;
+    } else {
+      this.inPlaceCache = null;
+    }
+
+    this.trackPageOperations = trackPageOperations && inPlaceCache == null;
     this.operationsCacheLimit = operationsCacheLimit;
     this.idGen = storage.getIdGen();
     this.atomicOperationsTable = atomicOperationsTable;
@@ -123,13 +152,17 @@ public class OAtomicOperationsManager {
     }
 
     atomicOperationsTable.startOperation(unitId, activeSegment);
-    if (metadata != null) {
+    if (inPlaceCache != null) {
+      lsn = null;
+    } else if (metadata != null) {
       lsn = writeAheadLog.logAtomicOperationStartRecord(true, unitId, metadata);
     } else {
       lsn = writeAheadLog.logAtomicOperationStartRecord(true, unitId);
     }
 
-    if (!trackPageOperations) {
+    if (inPlaceCache != null) {
+      operation = new OAtomicOperationInPlace(unitId, inPlaceCache, storage.getId());
+    } else if (!trackPageOperations) {
       operation =
           new OAtomicOperationBinaryTracking(lsn, unitId, readCache, writeCache, storage.getId());
     } else {
@@ -353,8 +386,9 @@ public class OAtomicOperationsManager {
    * Ends the current atomic operation on this manager.
    *
    * @param rollback {@code true} to indicate a rollback, {@code false} for successful commit.
+   * @return LSN of the last record of the operation or {@code null} if nothing was logged.
    */
-  public void endAtomicOperation(boolean rollback) throws IOException {
+  public OLogSequenceNumber endAtomicOperation(boolean rollback) throws IOException {
     final OAtomicOperation operation = currentOperation.get();
 
     if (operation == null) {
@@ -362,19 +396,17 @@ public class OAtomicOperationsManager {
       throw new ODatabaseException("There is no atomic operation active");
     }
 
+    OLogSequenceNumber lsn = null;
     try {
       if (rollback) {
         operation.rollbackInProgress();
       }
 
       try {
-        final OLogSequenceNumber lsn;
-        if (trackPageOperations) {
+        if (trackPageOperations || inPlaceCache != null) {
           lsn = operation.commitChanges(writeAheadLog);
         } else if (!operation.isRollbackInProgress()) {
           lsn = operation.commitChanges(writeAheadLog);
-        } else {
-          lsn = null;
         }
 
         final long operationId = operation.getOperationUnitId();
@@ -408,6 +440,8 @@ public class OAtomicOperationsManager {
     } finally {
       atomicOperationsFreezer.endOperation();
     }
+
+    return lsn;
   }
 
   public void ensureThatComponentsUnlocked() {
@@ -13,7 +13,7 @@ import java.util.List;
 public class OCacheEntryChanges implements OCacheEntry {
 
   protected OCacheEntry delegate;
-  protected final OWALChanges changes = new OWALPageChangesPortion();
+  protected final OWALChanges changes;
 
   protected boolean isNew;
 
@@ -23,11 +23,18 @@ public class OCacheEntryChanges implements OCacheEntry {
 
   public OCacheEntryChanges(final OCacheEntry entry) {
     delegate = entry;
+    changes = new OWALPageChangesPortion();
   }
 
   @SuppressWarnings("WeakerAccess")
   public OCacheEntryChanges(final boolean verifyCheckSum) {
     this.verifyCheckSum = verifyCheckSum;
+    changes = new OWALPageChangesPortion();
+  }
+
+  OCacheEntryChanges(final OCacheEntry entry, final OWALChanges changes) {
+    delegate = entry;
+    this.changes = changes;
   }
 
   @Override
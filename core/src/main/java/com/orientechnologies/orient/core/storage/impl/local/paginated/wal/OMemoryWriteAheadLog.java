@@ -157,6 +157,9 @@ public class OMemoryWriteAheadLog extends OAbstractWriteAheadLog {
     event.run();
   }
 
+  @Override
+  public void waitTillDurable(OLogSequenceNumber lsn, boolean group) {}
+
   @Override
   public boolean appendNewSegment() {
     return false;
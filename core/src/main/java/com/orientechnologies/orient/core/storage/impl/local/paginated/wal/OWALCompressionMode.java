@@ -0,0 +1,19 @@
+package com.orientechnologies.orient.core.storage.impl.local.paginated.wal;
+
+/**
+ * Compression of the WAL records content. All modes produce LZ4 blocks, so records are
+ * decompressed in the same way independently of the mode used by the storage which wrote them.
+ */
+public enum OWALCompressionMode {
+  /** Records are written uncompressed. */
+  Off,
+
+  /** Records are compressed by fast LZ4 compressor. */
+  Fast,
+
+  /**
+   * Records are compressed by LZ4 HC compressor, which gives better compression ratio at the cost
+   * of higher CPU usage during logging, decompression speed is the same as for {@link #Fast} mode.
+   */
+  High
+}
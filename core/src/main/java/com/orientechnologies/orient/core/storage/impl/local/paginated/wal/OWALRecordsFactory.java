@@ -321,9 +321,20 @@ public final class OWALRecordsFactory {
   public static final OWALRecordsFactory INSTANCE = new OWALRecordsFactory();
 
   private static final LZ4Factory factory = LZ4Factory.fastestInstance();
-  private static final int MIN_COMPRESSED_RECORD_SIZE = 8 * 1024;
+  public static final int DEFAULT_MIN_COMPRESSED_RECORD_SIZE = 8 * 1024;
 
   public static OPair<ByteBuffer, Long> toStream(final WriteableWALRecord walRecord) {
+    return toStream(walRecord, OWALCompressionMode.Fast, DEFAULT_MIN_COMPRESSED_RECORD_SIZE);
+  }
+
+  /**
+   * Serializes WAL record, content of the record is compressed if size of the record is not less
+   * than passed in minimum size and compressed content is smaller than original one.
+   */
+  public static OPair<ByteBuffer, Long> toStream(
+      final WriteableWALRecord walRecord,
+      final OWALCompressionMode compressionMode,
+      final int minCompressedRecordSize) {
     final int contentSize = walRecord.serializedSize() + 2;
 
     final ByteBuffer content = ByteBuffer.allocate(contentSize).order(ByteOrder.nativeOrder());
@@ -332,11 +343,16 @@ public final class OWALRecordsFactory {
     content.putShort((short) recordId);
     walRecord.toStream(content);
 
-    if (MIN_COMPRESSED_RECORD_SIZE <= 0 || contentSize < MIN_COMPRESSED_RECORD_SIZE) {
+    if (compressionMode == OWALCompressionMode.Off
+        || minCompressedRecordSize <= 0
+        || contentSize < minCompressedRecordSize) {
       return new OPair<>(content, 0L);
     }
 
-    final LZ4Compressor compressor = factory.fastCompressor();
+    final LZ4Compressor compressor =
+        compressionMode == OWALCompressionMode.High
+            ? factory.highCompressor()
+            : factory.fastCompressor();
     final int maxCompressedLength = compressor.maxCompressedLength(contentSize - 1);
 
     final ByteBuffer compressedContent =
@@ -83,6 +83,17 @@ public interface OWriteAheadLog {
 
   OLogSequenceNumber getFlushedLsn();
 
+  /**
+   * Waits till all records up to the given LSN are synced to the disk. If calls of fsync are
+   * disabled, waits till the records are written into the WAL files.
+   *
+   * @param lsn LSN of the last record which has to be synced.
+   * @param group if <code>true</code> sync is delayed on the group commit interval so records of
+   *     all callers which arrive during this interval are synced by the single call, otherwise sync
+   *     is started immediately.
+   */
+  void waitTillDurable(OLogSequenceNumber lsn, boolean group);
+
   /**
    * Cut WAL content till passed in value of LSN at maximum in many cases smaller portion of WAL may
    * be cut. If value of LSN is bigger than values provided in {@link
@@ -6,6 +6,7 @@ import com.orientechnologies.common.directmemory.OPointer;
 import com.orientechnologies.common.exception.OException;
 import com.orientechnologies.common.io.OIOUtils;
 import com.orientechnologies.common.log.OLogManager;
+import com.orientechnologies.common.profiler.metrics.OHistogram;
 import com.orientechnologies.common.serialization.types.OIntegerSerializer;
 import com.orientechnologies.common.serialization.types.OLongSerializer;
 import com.orientechnologies.common.thread.OScheduledThreadPoolExecutorWithLogging;
@@ -13,6 +14,7 @@ import com.orientechnologies.common.thread.OThreadPoolExecutorWithLogging;
 import com.orientechnologies.common.types.OModifiableLong;
 import com.orientechnologies.common.util.OPair;
 import com.orientechnologies.common.util.OUncaughtExceptionHandler;
+import com.orientechnologies.orient.core.Orient;
 import com.orientechnologies.orient.core.exception.OInvalidStorageEncryptionKeyException;
 import com.orientechnologies.orient.core.exception.OSecurityException;
 import com.orientechnologies.orient.core.exception.OStorageException;
@@ -29,6 +31,7 @@ import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.OFullC
 import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.OFuzzyCheckpointEndRecord;
 import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.OFuzzyCheckpointStartRecord;
 import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.OLogSequenceNumber;
+import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.OWALCompressionMode;
 import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.OWALRecord;
 import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.OWALRecordsFactory;
 import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.OWriteAheadLog;
@@ -76,6 +79,7 @@ import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
@@ -107,6 +111,11 @@ public final class CASDiskWriteAheadLog implements OWriteAheadLog {
 
   private static final int MASTER_RECORD_SIZE = 20;
   private static final int BATCH_READ_SIZE = 4 * 1024;
+  /** Amount of pages fetched from a segment by a single read operation */
+  private static final int READ_AHEAD_PAGES = 16;
+
+  /** Default maximum time in ms during which group commit waits for the sync of WAL records. */
+  public static final int DEFAULT_GROUP_COMMIT_MAX_WAIT = 5;
 
   protected static final int DEFAULT_MAX_CACHE_SIZE = Integer.MAX_VALUE;
 
@@ -246,6 +255,24 @@ public final class CASDiskWriteAheadLog implements OWriteAheadLog {
 
   private final boolean callFsync;
 
+  private final OHistogram fsyncDuration;
+
+  private final OWALCompressionMode compressionMode;
+
+  /** Minimum size of the record content which is compressed. */
+  private final int minCompressedRecordSize;
+
+  /** Maximum time in ms during which group commit waits for the sync of WAL records. */
+  private final int groupCommitMaxWait;
+
+  private final AtomicBoolean groupSyncScheduled = new AtomicBoolean();
+
+  /** Notified each time when {@link #flushedLSN} is changed or {@link #syncError} is set. */
+  private final Object syncMonitor = new Object();
+
+  /** Error of the last failed write or sync of WAL records. */
+  private volatile Throwable syncError;
+
   private final boolean printPerformanceStatistic;
   private final int statisticPrintInterval;
 
@@ -282,6 +309,57 @@ public final class CASDiskWriteAheadLog implements OWriteAheadLog {
       boolean printPerformanceStatistic,
       int statisticPrintInterval)
       throws IOException {
+    this(
+        storageName,
+        storagePath,
+        walPath,
+        maxPagesCacheSize,
+        bufferSize,
+        aesKey,
+        iv,
+        segmentsInterval,
+        maxSegmentSize,
+        commitDelay,
+        filterWALFiles,
+        locale,
+        walSizeHardLimit,
+        freeSpaceLimit,
+        fsyncInterval,
+        allowDirectIO,
+        keepSingleWALSegment,
+        callFsync,
+        printPerformanceStatistic,
+        statisticPrintInterval,
+        OWALCompressionMode.Fast,
+        OWALRecordsFactory.DEFAULT_MIN_COMPRESSED_RECORD_SIZE,
+        DEFAULT_GROUP_COMMIT_MAX_WAIT);
+  }
+
+  public CASDiskWriteAheadLog(
+      final String storageName,
+      final Path storagePath,
+      final Path walPath,
+      final int maxPagesCacheSize,
+      final int bufferSize,
+      byte[] aesKey,
+      byte[] iv,
+      long segmentsInterval,
+      final long maxSegmentSize,
+      final int commitDelay,
+      final boolean filterWALFiles,
+      final Locale locale,
+      final long walSizeHardLimit,
+      final long freeSpaceLimit,
+      final int fsyncInterval,
+      boolean allowDirectIO,
+      boolean keepSingleWALSegment,
+      boolean callFsync,
+      boolean printPerformanceStatistic,
+      int statisticPrintInterval,
+      final OWALCompressionMode compressionMode,
+      final int minCompressedRecordSize,
+      final int groupCommitMaxWait)
+      throws IOException {
 
     if (aesKey != null && aesKey.length != 16 && aesKey.length != 24 && aesKey.length != 32) {
       throw new OInvalidStorageEncryptionKeyException(
@@ -300,6 +378,9 @@ public final class CASDiskWriteAheadLog implements OWriteAheadLog {
 
     this.segmentsInterval = segmentsInterval;
     this.callFsync = callFsync;
+    this.compressionMode = compressionMode;
+    this.minCompressedRecordSize = minCompressedRecordSize;
+    this.groupCommitMaxWait = groupCommitMaxWait;
     this.printPerformanceStatistic = printPerformanceStatistic;
     this.statisticPrintInterval = statisticPrintInterval;
 
@@ -317,6 +398,14 @@ public final class CASDiskWriteAheadLog implements OWriteAheadLog {
 
     this.fileStore = Files.getFileStore(walLocation);
     this.storageName = storageName;
+    this.fsyncDuration =
+        Orient.instance()
+            .getMetrics()
+            .histogram(
+                "orientdb_wal_fsync_duration_seconds",
+                "Duration of fsync of WAL files",
+                "database",
+                storageName);
 
     if (allowDirectIO) {
       blockSize = OIOUtils.calculateBlockSize(walLocation.toAbsolutePath().toString());
@@ -804,103 +893,116 @@ public final class CASDiskWriteAheadLog implements OWriteAheadLog {
                 filePosition = expectedFilePosition;
               }
 
+              // read ahead several pages with a single sequential read
+              final int pagesToRead =
+                  (int)
+                      Math.min(
+                          READ_AHEAD_PAGES,
+                          (chSize - expectedFilePosition + pageSize - 1) / pageSize);
               final OPointer ptr;
               if (allowDirectIO) {
-                ptr = allocator.allocate(pageSize, blockSize, false);
+                ptr = allocator.allocate(pageSize * pagesToRead, blockSize, false);
               } else {
                 ptr = null;
               }
               try {
-                final ByteBuffer buffer;
+                final ByteBuffer pages;
                 if (ptr != null) {
-                  buffer = ptr.getNativeByteBuffer().order(ByteOrder.nativeOrder());
+                  pages = ptr.getNativeByteBuffer();
                 } else {
-                  buffer = ByteBuffer.allocate(pageSize).order(ByteOrder.nativeOrder());
+                  pages = ByteBuffer.allocate(pageSize * pagesToRead);
                 }
 
-                assert buffer.position() == 0;
-                file.readBuffer(buffer);
-                filePosition += buffer.position();
-
-                pagesRead++;
-
-                if (checkPageIsBrokenAndDecrypt(buffer, segment, pageIndex, pageSize)) {
-                  OLogManager.instance()
-                      .errorNoDb(
-                          this,
-                          "WAL page %d of segment %s is broken, read of records will be stopped",
-                          null,
-                          pageIndex,
-                          segmentName);
-                  return result;
-                }
+                assert pages.position() == 0;
+                file.readBuffer(pages);
+                filePosition += pages.position();
+
+                for (int i = 0; i < pagesToRead; i++) {
+                  pages.limit((i + 1) * pageSize);
+                  pages.position(i * pageSize);
+                  final ByteBuffer buffer = pages.slice().order(ByteOrder.nativeOrder());
+
+                  pagesRead++;
+
+                  if (checkPageIsBrokenAndDecrypt(buffer, segment, pageIndex, pageSize)) {
+                    OLogManager.instance()
+                        .errorNoDb(
+                            this,
+                            "WAL page %d of segment %s is broken, read of records will be stopped",
+                            null,
+                            pageIndex,
+                            segmentName);
+                    return result;
+                  }
 
-                buffer.position((int) (position - pageIndex * pageSize));
-                while (buffer.remaining() > 0) {
-                  if (recordLen == -1) {
-                    if (recordLenBytes == null) {
-                      lsnPos = pageIndex * pageSize + buffer.position();
+                  buffer.position((int) (position - pageIndex * pageSize));
+                  while (buffer.remaining() > 0) {
+                    if (recordLen == -1) {
+                      if (recordLenBytes == null) {
+                        lsnPos = pageIndex * pageSize + buffer.position();
 
-                      if (buffer.remaining() >= OIntegerSerializer.INT_SIZE) {
-                        recordLen = buffer.getInt();
-                      } else {
-                        recordLenBytes = new byte[OIntegerSerializer.INT_SIZE];
-                        recordLenRead = buffer.remaining();
+                        if (buffer.remaining() >= OIntegerSerializer.INT_SIZE) {
+                          recordLen = buffer.getInt();
+                        } else {
+                          recordLenBytes = new byte[OIntegerSerializer.INT_SIZE];
+                          recordLenRead = buffer.remaining();
 
-                        buffer.get(recordLenBytes, 0, recordLenRead);
-                        continue;
+                          buffer.get(recordLenBytes, 0, recordLenRead);
+                          continue;
+                        }
+                      } else {
+                        buffer.get(
+                            recordLenBytes,
+                            recordLenRead,
+                            OIntegerSerializer.INT_SIZE - recordLenRead);
+                        recordLen =
+                            OIntegerSerializer.INSTANCE.deserializeNative(recordLenBytes, 0);
                       }
-                    } else {
-                      buffer.get(
-                          recordLenBytes,
-                          recordLenRead,
-                          OIntegerSerializer.INT_SIZE - recordLenRead);
-                      recordLen = OIntegerSerializer.INSTANCE.deserializeNative(recordLenBytes, 0);
-                    }
 
-                    if (recordLen == 0) {
-                      // end of page is reached
-                      recordLen = -1;
-                      recordLenBytes = null;
-                      recordLenRead = -1;
+                      if (recordLen == 0) {
+                        // end of page is reached
+                        recordLen = -1;
+                        recordLenBytes = null;
+                        recordLenRead = -1;
 
-                      break;
-                    }
+                        break;
+                      }
 
-                    recordContent = new byte[recordLen];
-                  }
+                      recordContent = new byte[recordLen];
+                    }
 
-                  final int bytesToRead = Math.min(recordLen - bytesRead, buffer.remaining());
-                  buffer.get(recordContent, bytesRead, bytesToRead);
-                  bytesRead += bytesToRead;
+                    final int bytesToRead = Math.min(recordLen - bytesRead, buffer.remaining());
+                    buffer.get(recordContent, bytesRead, bytesToRead);
+                    bytesRead += bytesToRead;
 
-                  if (bytesRead == recordLen) {
-                    final WriteableWALRecord walRecord =
-                        OWALRecordsFactory.INSTANCE.fromStream(recordContent);
-                    walRecord.setLsn(new OLogSequenceNumber(segment, lsnPos));
+                    if (bytesRead == recordLen) {
+                      final WriteableWALRecord walRecord =
+                          OWALRecordsFactory.INSTANCE.fromStream(recordContent);
+                      walRecord.setLsn(new OLogSequenceNumber(segment, lsnPos));
 
-                    recordContent = null;
-                    bytesRead = 0;
-                    recordLen = -1;
+                      recordContent = null;
+                      bytesRead = 0;
+                      recordLen = -1;
 
-                    recordLenBytes = null;
-                    recordLenRead = -1;
+                      recordLenBytes = null;
+                      recordLenRead = -1;
 
-                    result.add(walRecord);
+                      result.add(walRecord);
 
-                    if (result.size() == limit) {
-                      return result;
+                      if (result.size() == limit) {
+                        return result;
+                      }
                     }
                   }
+
+                  pageIndex++;
+                  position = pageIndex * pageSize + CASWALPage.RECORDS_OFFSET;
                 }
               } finally {
                 if (ptr != null) {
                   allocator.deallocate(ptr);
                 }
               }
-
-              pageIndex++;
-              position = pageIndex * pageSize + CASWALPage.RECORDS_OFFSET;
             }
 
             // we can jump to a new segment and skip and of the current file because of thread
@@ -1468,7 +1570,8 @@ public final class CASDiskWriteAheadLog implements OWriteAheadLog {
 
   private OLogSequenceNumber doLogRecord(final WriteableWALRecord writeableRecord) {
     if (writeableRecord.getBinaryContentLen() < 0) {
-      final OPair<ByteBuffer, Long> serializedRecord = OWALRecordsFactory.toStream(writeableRecord);
+      final OPair<ByteBuffer, Long> serializedRecord =
+          OWALRecordsFactory.toStream(writeableRecord, compressionMode, minCompressedRecordSize);
       writeableRecord.setBinaryContent(serializedRecord.key, serializedRecord.value);
     }
 
@@ -1651,6 +1754,81 @@ public final class CASDiskWriteAheadLog implements OWriteAheadLog {
     return flushedLSN;
   }
 
+  @Override
+  public void waitTillDurable(final OLogSequenceNumber lsn, final boolean group) {
+    if (isDurable(lsn)) {
+      return;
+    }
+
+    if (group) {
+      scheduleGroupSync();
+    } else {
+      doFlush(true);
+    }
+
+    final Throwable previousError = syncError;
+    try {
+      synchronized (syncMonitor) {
+        while (!isDurable(lsn)) {
+          // records can not become durable if WAL can not be written, waiting would never end
+          final Throwable error = syncError;
+          if (error != previousError) {
+            throw OException.wrapException(
+                new OStorageException(
+                    "WAL of storage " + storageName + " can not be synced, changes may be lost"),
+                error);
+          }
+
+          syncMonitor.wait(Math.max(groupCommitMaxWait, 1));
+
+          // sync may be already completed before our record was written, request the next one
+          if (!isDurable(lsn)) {
+            scheduleGroupSync();
+          }
+        }
+      }
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw OException.wrapException(
+          new OStorageException("Wait for WAL sync of storage " + storageName + " was interrupted"),
+          e);
+    }
+  }
+
+  private void syncFailed(final Throwable e) {
+    syncError = e;
+
+    synchronized (syncMonitor) {
+      syncMonitor.notifyAll();
+    }
+  }
+
+  /**
+   * Flushed LSN is changed only after records are synced, unless calls of fsync are disabled, in
+   * which case records are only written into the WAL files.
+   */
+  private boolean isDurable(final OLogSequenceNumber lsn) {
+    final OLogSequenceNumber localFlushedLsn = flushedLSN;
+    return localFlushedLsn != null && localFlushedLsn.compareTo(lsn) >= 0;
+  }
+
+  /**
+   * Schedules sync of all logged records after the group commit interval, so all commits which
+   * arrive during this interval are made durable by the single sync call. Only one sync is
+   * scheduled at any moment.
+   */
+  private void scheduleGroupSync() {
+    if (groupSyncScheduled.compareAndSet(false, true)) {
+      commitExecutor.schedule(
+          () -> {
+            groupSyncScheduled.set(false);
+            new RecordsWriter(true, true).run();
+          },
+          groupCommitMaxWait,
+          TimeUnit.MILLISECONDS);
+    }
+  }
+
   private void doEncryptionDecryption(
       final long segmentId,
       final long pageIndex,
@@ -2237,7 +2415,9 @@ public final class CASDiskWriteAheadLog implements OWriteAheadLog {
                             }
 
                             if (callFsync) {
+                              final long fsyncStart = System.nanoTime();
                               walFile.force(true);
+                              fsyncDuration.recordSince(fsyncStart);
                             }
 
                             updateCheckpoint(writtenCheckpoint);
@@ -2245,6 +2425,10 @@ public final class CASDiskWriteAheadLog implements OWriteAheadLog {
 
                             fireEventsFor(flushedLSN);
 
+                            synchronized (syncMonitor) {
+                              syncMonitor.notifyAll();
+                            }
+
                             if (printPerformanceStatistic) {
                               final long endTs = System.nanoTime();
                               //noinspection NonAtomicOperationOnVolatileField
@@ -2255,6 +2439,7 @@ public final class CASDiskWriteAheadLog implements OWriteAheadLog {
                           } catch (final IOException e) {
                             OLogManager.instance()
                                 .errorNoDb(this, "Error during FSync of WAL data", e);
+                            syncFailed(e);
                             throw e;
                           }
 
@@ -2268,9 +2453,11 @@ public final class CASDiskWriteAheadLog implements OWriteAheadLog {
         }
       } catch (final IOException | ExecutionException e) {
         OLogManager.instance().errorNoDb(this, "Error during WAL writing", e);
+        syncFailed(e);
         throw new IllegalStateException(e);
       } catch (final RuntimeException | Error e) {
         OLogManager.instance().errorNoDb(this, "Error during WAL writing", e);
+        syncFailed(e);
         throw e;
       }
     }
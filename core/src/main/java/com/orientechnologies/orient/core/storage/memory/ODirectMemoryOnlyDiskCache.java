@@ -350,6 +350,20 @@ public final class ODirectMemoryOnlyDiskCache extends OAbstractWriteCache
     file.clear();
   }
 
+  /**
+   * Removes all pages of the file starting from the passed in page index. It is used to roll back
+   * allocation of pages done by atomic operations which apply their changes directly to the pages.
+   *
+   * @param fileId Id of the file to shrink.
+   * @param size New size of the file in pages.
+   */
+  public final void shrinkFile(final long fileId, final long size) {
+    final int intId = extractFileId(fileId);
+
+    final MemoryFile file = getFile(intId);
+    file.shrink(size);
+  }
+
   @Override
   public final void flush() {}
 
@@ -535,6 +549,31 @@ public final class ODirectMemoryOnlyDiskCache extends OAbstractWriteCache
       return content.size();
     }
 
+    private void shrink(final long size) {
+      boolean thereAreNotReleased = false;
+
+      clearLock.writeLock().lock();
+      try {
+        final Map<Long, OCacheEntry> removed = content.tailMap(size, true);
+        for (final OCacheEntry entry : removed.values()) {
+          //noinspection SynchronizationOnLocalVariableOrMethodParameter
+          synchronized (entry) {
+            thereAreNotReleased |= entry.getUsagesCount() > 0;
+            entry.getCachePointer().decrementReferrer();
+          }
+        }
+
+        removed.clear();
+      } finally {
+        clearLock.writeLock().unlock();
+      }
+
+      if (thereAreNotReleased) {
+        throw new IllegalStateException(
+            "Some cache entries were not released. Storage may be in invalid state.");
+      }
+    }
+
     private void clear() {
       boolean thereAreNotReleased = false;
 
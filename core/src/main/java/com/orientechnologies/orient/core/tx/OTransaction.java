@@ -52,6 +52,27 @@ public interface OTransaction extends OBasicTransaction {
     REPEATABLE_READ
   }
 
+  /**
+   * Guarantee given by the commit about persistence of the transaction changes once commit returns.
+   * Changes are synced to the disk only if <code>storage.callFsync</code> is enabled, otherwise
+   * {@link #SYNC} and {@link #GROUP} commits wait till changes are written into the WAL files
+   * without sync, so they can be lost on the power failure as well.
+   */
+  enum DURABILITY {
+    /** Commit returns only after the changes are synced to the disk, sync is started immediately. */
+    SYNC,
+    /**
+     * Commit returns only after the changes are synced to the disk, but sync is delayed for the
+     * short period so the changes of concurrent transactions are synced by the single call.
+     */
+    GROUP,
+    /**
+     * Commit returns once changes are written into the WAL, changes are synced to the disk in the
+     * background and can be lost on the power failure.
+     */
+    ASYNC
+  }
+
   void begin();
 
   void commit();
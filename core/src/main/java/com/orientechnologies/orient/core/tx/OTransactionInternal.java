@@ -114,6 +114,14 @@ public interface OTransactionInternal extends OBasicTransaction {
 
   default void storageBegun() {}
 
+  /**
+   * @return durability requested for this transaction or {@code null} if the default durability of
+   *     the storage should be used.
+   */
+  default OTransaction.DURABILITY getDurability() {
+    return null;
+  }
+
   void prepareSerializedOperations() throws IOException;
 
   Iterator<byte[]> getSerializedOperations();
@@ -67,6 +67,7 @@ public class OTransactionOptimistic extends OTransactionRealAbstract {
   private boolean usingLog = true;
   private int txStartCounter;
   private boolean sentToServer = false;
+  private DURABILITY durability;
 
   public OTransactionOptimistic(final ODatabaseDocumentInternal iDatabase) {
     super(iDatabase, txSerial.incrementAndGet());
@@ -125,6 +126,19 @@ public class OTransactionOptimistic extends OTransactionRealAbstract {
     }
   }
 
+  @Override
+  public DURABILITY getDurability() {
+    return durability;
+  }
+
+  /**
+   * Sets durability of this transaction, {@code null} means that the default durability of the
+   * storage is used.
+   */
+  public void setDurability(final DURABILITY durability) {
+    this.durability = durability;
+  }
+
   @Override
   public int amountOfNestedTxs() {
     return txStartCounter;
@@ -69,6 +69,7 @@ public class OChannelBinaryProtocol {
   public static final byte REQUEST_QUERY_NEXT_PAGE = 47; // since 3.0
 
   public static final byte REQUEST_SERVER_QUERY = 50; // since 3.2
+  public static final byte REQUEST_PREPARE_QUERY = 51; // since 3.2
 
   public static final byte REQUEST_TX_COMMIT = 60;
   public static final byte REQUEST_TX_BEGIN = 61;
@@ -143,8 +144,10 @@ public class OChannelBinaryProtocol {
       36; // ABILITY TO CREATE DATABASE FROM INCREMENTAL BACKUP
   public static final int PROTOCOL_VERSION_37 = 37;
   public static final int PROTOCOL_VERSION_38 = 38;
+  public static final int PROTOCOL_VERSION_39 = 39; // STALENESS BOUND ON QUERY REQUESTS
+  public static final int PROTOCOL_VERSION_40 = 40; // PREPARED QUERY STATEMENTS
 
-  public static final int CURRENT_PROTOCOL_VERSION = PROTOCOL_VERSION_38;
+  public static final int CURRENT_PROTOCOL_VERSION = PROTOCOL_VERSION_40;
   public static final int OLDEST_SUPPORTED_PROTOCOL_VERSION = PROTOCOL_VERSION_26;
 
   // This are specific messages inside the subscribe message
@@ -0,0 +1,86 @@
+package com.orientechnologies.common.profiler.metrics;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class OMetricsRegistryTest {
+
+  @Test
+  public void testBucketBounds() {
+    for (long value = 0; value < 1_000_000; value++) {
+      final int index = OHistogram.index(value);
+      Assert.assertTrue(value <= OHistogram.upperBound(index));
+      if (index > 0) Assert.assertTrue(value > OHistogram.upperBound(index - 1));
+    }
+
+    Assert.assertEquals(OHistogram.BUCKETS - 1, OHistogram.index(Long.MAX_VALUE));
+  }
+
+  @Test
+  public void testPercentiles() {
+    final OMetricsRegistry registry = new OMetricsRegistry();
+    final OHistogram histogram = registry.histogram("test_duration_seconds", "Test");
+
+    for (int i = 1; i <= 1000; i++) {
+      histogram.record(i * 1_000_000L);
+    }
+
+    final OHistogram.Snapshot snapshot = histogram.snapshot();
+    Assert.assertEquals(1000, snapshot.getCount());
+    Assert.assertEquals(1_000_000_000L, snapshot.getMax());
+    Assert.assertEquals(500_500_000.0, snapshot.getMean(), 0.001);
+
+    assertWithinError(500_000_000L, snapshot.getValueAtPercentile(50));
+    assertWithinError(990_000_000L, snapshot.getValueAtPercentile(99));
+    Assert.assertEquals(1_000_000_000L, snapshot.getValueAtPercentile(100));
+  }
+
+  @Test
+  public void testGetOrCreate() {
+    final OMetricsRegistry registry = new OMetricsRegistry();
+    final OCounter counter = registry.counter("test_total", "Test", "database", "one");
+
+    Assert.assertSame(counter, registry.counter("test_total", "Test", "database", "one"));
+    Assert.assertNotSame(counter, registry.counter("test_total", "Test", "database", "two"));
+
+    try {
+      registry.histogram("test_total", "Test", "database", "one");
+      Assert.fail();
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+
+    registry.unregisterAll("database", "one");
+    Assert.assertArrayEquals(new String[] {"test_total{database=\"two\"}"}, registry.getSeries());
+  }
+
+  @Test
+  public void testPrometheusFormat() {
+    final OMetricsRegistry registry = new OMetricsRegistry();
+    registry.counter("test_total", "Test counter", "database", "a\"b").add(3);
+    final OHistogram histogram =
+        registry.histogram("test_duration_seconds", "Test histogram", "database", "demo");
+    histogram.record(2_000_000L);
+    histogram.record(2_000_000_000L);
+
+    final String text = registry.toPrometheus();
+
+    Assert.assertTrue(text.contains("# TYPE test_total counter\n"));
+    Assert.assertTrue(text.contains("test_total{database=\"a\\\"b\"} 3\n"));
+    Assert.assertTrue(text.contains("# TYPE test_duration_seconds histogram\n"));
+    Assert.assertTrue(
+        text.contains("test_duration_seconds_bucket{database=\"demo\",le=\"0.001\"} 0\n"));
+    Assert.assertTrue(
+        text.contains("test_duration_seconds_bucket{database=\"demo\",le=\"0.0025\"} 1\n"));
+    Assert.assertTrue(
+        text.contains("test_duration_seconds_bucket{database=\"demo\",le=\"+Inf\"} 2\n"));
+    Assert.assertTrue(text.contains("test_duration_seconds_sum{database=\"demo\"} 2.002\n"));
+    Assert.assertTrue(text.contains("test_duration_seconds_count{database=\"demo\"} 2\n"));
+  }
+
+  private static void assertWithinError(final long expected, final long actual) {
+    Assert.assertTrue(
+        "Expected " + expected + " but was " + actual,
+        Math.abs(actual - expected) <= expected / 16);
+  }
+}
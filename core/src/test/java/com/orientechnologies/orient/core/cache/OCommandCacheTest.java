@@ -24,12 +24,16 @@ import com.orientechnologies.orient.core.config.OGlobalConfiguration;
 import com.orientechnologies.orient.core.db.document.ODatabaseDocument;
 import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
 import com.orientechnologies.orient.core.metadata.OMetadataInternal;
+import com.orientechnologies.orient.core.metadata.schema.OClass;
 import com.orientechnologies.orient.core.metadata.security.OUser;
 import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.sql.executor.OResultSet;
 import com.orientechnologies.orient.core.sql.query.OSQLSynchQuery;
 import java.io.File;
 import java.io.IOException;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import org.junit.Assert;
 import org.junit.Test;
@@ -125,4 +129,154 @@ public class OCommandCacheTest {
 
     Assert.assertEquals(f.exists(), false);
   }
+
+  @Test
+  public void testInvalidationOnCommitOfSubclass() {
+    OGlobalConfiguration.COMMAND_CACHE_ENABLED.setValue(true);
+    OGlobalConfiguration.COMMAND_CACHE_MIN_EXECUTION_TIME.setValue(0);
+    OGlobalConfiguration.COMMAND_CACHE_EVICT_STRATEGY.setValue(OCommandCache.STRATEGY.PER_CLUSTER);
+    ODatabaseDocument db =
+        new ODatabaseDocumentTx(
+            "memory:" + OCommandCacheTest.class.getSimpleName() + "Invalidation");
+    db.create();
+
+    try {
+      OClass parent = db.getMetadata().getSchema().createClass("CacheParent");
+      db.getMetadata().getSchema().createClass("CacheChild", parent);
+      db.getMetadata().getSchema().createClass("CacheOther");
+
+      db.save(new ODocument("CacheParent"));
+
+      OCommandCache commandCache = ((OMetadataInternal) db.getMetadata()).getCommandCache();
+      commandCache.clear();
+
+      List<ODocument> parents = query(db, "select from CacheParent");
+      Assert.assertEquals(1, parents.size());
+      query(db, "select from CacheOther");
+      Assert.assertEquals(2, commandCache.size());
+
+      db.begin();
+      db.save(new ODocument("CacheChild"));
+      // NOT COMMITTED CHANGES DO NOT INVALIDATE CACHED RESULTS
+      Assert.assertEquals(2, commandCache.size());
+      db.commit();
+
+      // RESULT OF THE POLYMORPHIC QUERY IS INVALIDATED, RESULT OF OTHER CLASS IS KEPT
+      Assert.assertEquals(1, commandCache.size());
+      Assert.assertEquals(2, query(db, "select from CacheParent").size());
+    } finally {
+      db.drop();
+    }
+  }
+
+  @Test
+  public void testResultOfInvalidatedVersionIsNotCached() {
+    OGlobalConfiguration.COMMAND_CACHE_ENABLED.setValue(true);
+    OGlobalConfiguration.COMMAND_CACHE_MIN_EXECUTION_TIME.setValue(0);
+    OGlobalConfiguration.COMMAND_CACHE_EVICT_STRATEGY.setValue(OCommandCache.STRATEGY.PER_CLUSTER);
+    ODatabaseDocument db =
+        new ODatabaseDocumentTx("memory:" + OCommandCacheTest.class.getSimpleName() + "Version");
+    db.create();
+
+    try {
+      OCommandCache commandCache = ((OMetadataInternal) db.getMetadata()).getCommandCache();
+      OUser user = new OUser("admin");
+
+      long version = commandCache.getVersion();
+      commandCache.invalidateResults(Collections.singleton("test"), Collections.emptySet());
+      commandCache.put(
+          user, "select from Test", "stale", -1, Collections.singleton("test"), null, 10, version);
+      Assert.assertNull(commandCache.get(user, "select from Test", -1));
+
+      version = commandCache.getVersion();
+      commandCache.put(
+          user, "select from Test", "fresh", -1, Collections.singleton("test"), null, 10, version);
+      Assert.assertEquals("fresh", commandCache.get(user, "select from Test", -1));
+    } finally {
+      db.drop();
+    }
+  }
+
+  @Test
+  public void testQueryResultsAreCachedTillCommit() {
+    OGlobalConfiguration.COMMAND_CACHE_ENABLED.setValue(true);
+    OGlobalConfiguration.COMMAND_CACHE_MIN_EXECUTION_TIME.setValue(0);
+    OGlobalConfiguration.COMMAND_CACHE_EVICT_STRATEGY.setValue(OCommandCache.STRATEGY.PER_CLUSTER);
+    ODatabaseDocument db =
+        new ODatabaseDocumentTx("memory:" + OCommandCacheTest.class.getSimpleName() + "Query");
+    db.create();
+
+    try {
+      db.getMetadata().getSchema().createClass("CacheQuery");
+      db.getMetadata().getSchema().createClass("CacheOther");
+      for (int i = 0; i < 5; i++) {
+        db.save(new ODocument("CacheQuery").field("value", i));
+      }
+
+      OCommandCache commandCache = ((OMetadataInternal) db.getMetadata()).getCommandCache();
+      commandCache.clear();
+
+      // RESULTS ARE CACHED ONCE CONSUMED
+      try (OResultSet result = db.query("select from CacheQuery")) {
+        Assert.assertEquals(5, result.stream().count());
+      }
+      Assert.assertEquals(1, commandCache.size());
+
+      // CACHED RESULTS ARE COPIED, CHANGES OF THE CALLER DO NOT AFFECT THEM
+      try (OResultSet result = db.query("select from CacheQuery")) {
+        result.next().toElement().setProperty("value", -1);
+      }
+      try (OResultSet result = db.query("select from CacheQuery")) {
+        Assert.assertEquals(
+            0, result.stream().filter(item -> (int) item.getProperty("value") == -1).count());
+      }
+
+      // ANY COMMIT INVALIDATES RESULTS OF QUERIES, THEY MAY READ RECORDS OF ANY CLASS
+      db.save(new ODocument("CacheOther"));
+      Assert.assertEquals(0, commandCache.size());
+
+      db.save(new ODocument("CacheQuery").field("value", 5));
+      try (OResultSet result = db.query("select from CacheQuery")) {
+        Assert.assertEquals(6, result.stream().count());
+      }
+    } finally {
+      db.drop();
+    }
+  }
+
+  @Test
+  public void testSizeBoundAndFrequencyAdmission() {
+    OCommandCacheMap map = new OCommandCacheMap(100 * 1000);
+
+    // POPULAR QUERY FILLS THE WHOLE MAIN SPACE
+    OCommandCacheSoftRefs.OCachedResult popular = result("popular", 90 * 1000, "a");
+    for (int i = 0; i < 10; i++) map.get("popular");
+    map.put(popular);
+    map.put(result("filler", 1000, "b"));
+    Assert.assertNotNull(map.get("popular"));
+
+    // ONE-OFF QUERIES DO NOT EVICT IT
+    for (int i = 0; i < 100; i++) map.put(result("oneOff" + i, 5000, "b"));
+    Assert.assertNotNull(map.get("popular"));
+    Assert.assertTrue(map.getSize() <= map.getMaxSize());
+    Assert.assertTrue(map.getEvictions() > 0);
+
+    Assert.assertEquals(1, map.invalidate(new HashSet<>(Collections.singleton("a")), null));
+    Assert.assertNull(map.get("popular"));
+  }
+
+  private static OCommandCacheSoftRefs.OCachedResult result(
+      String key, long size, String cluster) {
+    OCommandCacheSoftRefs.OCachedResult result =
+        new OCommandCacheSoftRefs.OCachedResult(key, Collections.singleton(cluster));
+    result.key = key;
+    result.size = size;
+    return result;
+  }
+
+  private static List<ODocument> query(ODatabaseDocument db, String text) {
+    OSQLSynchQuery<ODocument> query = new OSQLSynchQuery<ODocument>(text);
+    query.setCacheableResult(true);
+    return db.query(query);
+  }
 }
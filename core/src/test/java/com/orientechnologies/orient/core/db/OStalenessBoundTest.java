@@ -0,0 +1,33 @@
+package com.orientechnologies.orient.core.db;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class OStalenessBoundTest {
+
+  @Test
+  public void testMillisBound() {
+    OStalenessBound bound = OStalenessBound.ofMillis(100);
+    assertTrue(bound.isSatisfiedBy(100, 1000));
+    assertFalse(bound.isSatisfiedBy(101, 0));
+  }
+
+  @Test
+  public void testTransactionsBound() {
+    OStalenessBound bound = OStalenessBound.ofTransactions(2);
+    assertTrue(bound.isSatisfiedBy(Long.MAX_VALUE, 2));
+    assertFalse(bound.isSatisfiedBy(0, 3));
+  }
+
+  @Test
+  public void testCombinedBound() {
+    OStalenessBound bound = OStalenessBound.of(50, 0);
+    assertTrue(bound.isSatisfiedBy(10, 0));
+    assertFalse(bound.isSatisfiedBy(10, 1));
+    assertFalse(bound.isSatisfiedBy(60, 0));
+    assertEquals(bound, OStalenessBound.of(50, 0));
+  }
+}
@@ -507,4 +507,31 @@ public class OrientDBEmbeddedTests {
     orientDb.drop(dbName);
     orientDb.close();
   }
+
+  @Test
+  public void testLoadAllDatabasesInParallel() {
+    String path = "./target/testLoadAllDatabasesInParallel/";
+    OrientDB orientDb = new OrientDB("embedded:" + path, OrientDBConfig.defaultConfig());
+    for (int i = 0; i < 3; i++) {
+      orientDb.create("db" + i, ODatabaseType.PLOCAL);
+    }
+    orientDb.close();
+
+    OrientDBConfig config =
+        OrientDBConfig.builder()
+            .addConfig(OGlobalConfiguration.SERVER_OPEN_DATABASES_PARALLELISM, 2)
+            .build();
+    orientDb = new OrientDB("embedded:" + path, config);
+    OrientDBEmbedded embedded = (OrientDBEmbedded) orientDb.getInternal();
+    embedded.loadAllDatabases();
+    for (int i = 0; i < 3; i++) {
+      OAbstractPaginatedStorage storage = embedded.getStorage("db" + i);
+      assertNotNull(storage);
+      assertFalse(storage.isClosed());
+    }
+    for (int i = 0; i < 3; i++) {
+      orientDb.drop("db" + i);
+    }
+    orientDb.close();
+  }
 }
@@ -0,0 +1,229 @@
+package com.orientechnologies.orient.core.db.tool;
+
+import com.orientechnologies.common.io.OFileUtils;
+import com.orientechnologies.orient.core.command.OCommandOutputListener;
+import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.db.record.OIdentifiable;
+import com.orientechnologies.orient.core.db.record.ridbag.ORidBag;
+import com.orientechnologies.orient.core.index.OIndex;
+import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.sql.executor.OResultSet;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ODatabaseBinaryExportImportTest {
+  private static final OCommandOutputListener LISTENER =
+      new OCommandOutputListener() {
+        @Override
+        public void onMessage(String iText) {}
+      };
+
+  private File directory;
+  private ODatabaseDocumentInternal db;
+  private ODatabaseDocumentInternal dbImp;
+
+  @Before
+  public void before() throws IOException {
+    directory = Files.createTempDirectory("binaryExport").toFile();
+
+    db = new ODatabaseDocumentTx("memory:" + ODatabaseBinaryExportImportTest.class.getSimpleName());
+    db.create();
+
+    final OClass person = db.getMetadata().getSchema().createClass("Person");
+    person.createProperty("name", OType.STRING);
+    person.createIndex("Person.name", OClass.INDEX_TYPE.UNIQUE, "name");
+    db.getMetadata().getSchema().createClass("Group");
+  }
+
+  @After
+  public void after() {
+    if (dbImp != null) {
+      dbImp.activateOnCurrentThread();
+      dbImp.drop();
+    }
+
+    db.activateOnCurrentThread();
+    db.drop();
+
+    OFileUtils.deleteRecursively(directory);
+  }
+
+  @Test
+  public void testExportImport() {
+    ODocument previous = null;
+    for (int i = 0; i < 100; i++) {
+      final ODocument doc = new ODocument("Person");
+      doc.field("name", "name" + i);
+      doc.field("friend", previous);
+      doc.save();
+
+      previous = doc;
+    }
+
+    // holes in cluster positions are not preserved by import
+    db.command("delete from Person where name in ['name0', 'name50']").close();
+
+    final ORidBag members = new ORidBag();
+    try (OResultSet result = db.query("select from Person")) {
+      result.stream().forEach(item -> members.add(item.getIdentity().get()));
+    }
+    new ODocument("Group").field("name", "all").field("members", members).save();
+
+    new ODatabaseBinaryExport(db, directory.getPath(), LISTENER)
+        .setOptions("-parallel=2")
+        .run();
+
+    dbImp =
+        new ODatabaseDocumentTx(
+            "memory:import_" + ODatabaseBinaryExportImportTest.class.getSimpleName());
+    dbImp.create();
+    new ODatabaseBinaryImport(dbImp, directory.getPath(), LISTENER)
+        .setOptions("-parallel=2")
+        .run();
+
+    Assert.assertEquals(98, dbImp.countClass("Person"));
+
+    final OIndex index =
+        dbImp.getMetadata().getIndexManagerInternal().getIndex(dbImp, "Person.name");
+    Assert.assertNotNull(index);
+    Assert.assertEquals(98, index.getInternal().size());
+
+    try (OResultSet result = dbImp.query("select from Person where name = 'name42'")) {
+      final ODocument doc = (ODocument) result.next().toElement();
+      final ODocument friend = ((OIdentifiable) doc.field("friend")).getRecord();
+      Assert.assertEquals("name41", friend.field("name"));
+    }
+
+    try (OResultSet result = dbImp.query("select from Person where name = 'name51'")) {
+      final ODocument doc = (ODocument) result.next().toElement();
+      Assert.assertNull(doc.field("friend"));
+    }
+
+    try (OResultSet result = dbImp.query("select from Group")) {
+      final ODocument group = (ODocument) result.next().toElement();
+      final ORidBag importedMembers = group.field("members");
+      Assert.assertEquals(98, importedMembers.size());
+
+      for (OIdentifiable member : importedMembers) {
+        final ODocument person = member.getRecord();
+        Assert.assertEquals("Person", person.getClassName());
+      }
+    }
+  }
+
+  @Test
+  public void testGlobalPropertyIdsDiffer() {
+    new ODocument("Person").field("name", "person").save();
+
+    new ODatabaseBinaryExport(db, directory.getPath(), LISTENER).run();
+
+    dbImp =
+        new ODatabaseDocumentTx(
+            "memory:import_" + ODatabaseBinaryExportImportTest.class.getSimpleName());
+    dbImp.create();
+    // takes id which property of Person class has in exported database
+    dbImp.getMetadata().getSchema().createClass("Other").createProperty("other", OType.STRING);
+
+    try {
+      new ODatabaseBinaryImport(dbImp, directory.getPath(), LISTENER).run();
+      Assert.fail();
+    } catch (ODatabaseExportException e) {
+      Assert.assertTrue(e.getCause() instanceof ODatabaseImportException);
+    }
+
+    dbImp.activateOnCurrentThread();
+    Assert.assertFalse(dbImp.getMetadata().getSchema().existsClass("Person"));
+  }
+
+  @Test
+  public void testPropertiesDeclaredOutOfAlphabeticalOrder() {
+    // schema import creates classes and properties in alphabetical order
+    final OClass zone = db.getMetadata().getSchema().createClass("Zone");
+    zone.createProperty("zip", OType.STRING);
+    zone.createProperty("code", OType.INTEGER);
+    zone.createProperty("area", OType.DOUBLE);
+
+    final OClass address = db.getMetadata().getSchema().createClass("Address");
+    address.createProperty("street", OType.STRING);
+    address.createProperty("number", OType.LONG);
+    address.createProperty("zone", OType.LINK, zone);
+
+    final ODocument zoneDoc =
+        new ODocument("Zone").field("zip", "00100").field("code", 7).field("area", 12.5);
+    zoneDoc.save();
+    new ODocument("Address")
+        .field("street", "Main street")
+        .field("number", 42L)
+        .field("zone", zoneDoc)
+        .save();
+
+    new ODatabaseBinaryExport(db, directory.getPath(), LISTENER).run();
+
+    dbImp =
+        new ODatabaseDocumentTx(
+            "memory:import_" + ODatabaseBinaryExportImportTest.class.getSimpleName());
+    dbImp.create();
+    new ODatabaseBinaryImport(dbImp, directory.getPath(), LISTENER).run();
+
+    try (OResultSet result = dbImp.query("select from Address")) {
+      final ODocument doc = (ODocument) result.next().toElement();
+      Assert.assertEquals("Main street", doc.field("street"));
+      Assert.assertEquals(42L, (long) doc.field("number"));
+
+      final ODocument zoneImp = ((OIdentifiable) doc.field("zone")).getRecord();
+      Assert.assertEquals("Zone", zoneImp.getClassName());
+      Assert.assertEquals("00100", zoneImp.field("zip"));
+      Assert.assertEquals(7, (int) zoneImp.field("code"));
+      Assert.assertEquals(12.5, (double) zoneImp.field("area"), 0);
+    }
+  }
+
+  @Test
+  public void testLinkToNotExportedClusterFailsImport() {
+    final ODocument admin;
+    try (OResultSet result = db.query("select from OUser where name = 'admin'")) {
+      admin = (ODocument) result.next().toElement();
+    }
+    new ODocument("Person").field("name", "person").field("owner", admin).save();
+
+    new ODatabaseBinaryExport(db, directory.getPath(), LISTENER).run();
+
+    dbImp =
+        new ODatabaseDocumentTx(
+            "memory:import_" + ODatabaseBinaryExportImportTest.class.getSimpleName());
+    dbImp.create();
+    try {
+      new ODatabaseBinaryImport(dbImp, directory.getPath(), LISTENER).run();
+      Assert.fail();
+    } catch (ODatabaseExportException e) {
+      Assert.assertTrue(e.getCause() instanceof ODatabaseImportException);
+    }
+  }
+
+  @Test
+  public void testExcludeClass() {
+    new ODocument("Person").field("name", "person").save();
+    new ODocument("Group").field("name", "group").save();
+
+    new ODatabaseBinaryExport(db, directory.getPath(), LISTENER)
+        .setOptions("-excludeClass=Group")
+        .run();
+
+    dbImp =
+        new ODatabaseDocumentTx(
+            "memory:import_" + ODatabaseBinaryExportImportTest.class.getSimpleName());
+    dbImp.create();
+    new ODatabaseBinaryImport(dbImp, directory.getPath(), LISTENER).run();
+
+    Assert.assertEquals(1, dbImp.countClass("Person"));
+    Assert.assertFalse(dbImp.getMetadata().getSchema().existsClass("Group"));
+  }
+}
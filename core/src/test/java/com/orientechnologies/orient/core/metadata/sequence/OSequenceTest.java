@@ -10,9 +10,12 @@ import com.orientechnologies.orient.core.exception.OSequenceException;
 import com.orientechnologies.orient.core.record.OVertex;
 import com.orientechnologies.orient.core.record.impl.ODocument;
 import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.Assert;
 import org.junit.Before;
@@ -682,4 +685,76 @@ public class OSequenceTest {
 
     sequences.dropSequence("MYSEQ");
   }
+
+  @Test
+  public void testRelaxedOrderingCached() throws Exception {
+    OSequence.CreateParams params =
+        new OSequence.CreateParams()
+            .setDefaults()
+            .setIncrement(2)
+            .setCacheSize(3)
+            .setLimitValue(12L)
+            .setRecyclable(true)
+            .setRelaxedOrdering(true);
+    sequences.createSequence("mySeq", OSequence.SEQUENCE_TYPE.CACHED, params);
+    OSequence myseq = sequences.getSequence("MYSEQ");
+
+    assertThat(((OSequenceCached) myseq).isRelaxedOrdering()).isTrue();
+    assertThat(myseq.current()).isEqualTo(0);
+    assertThat(myseq.next()).isEqualTo(2);
+    assertThat(myseq.current()).isEqualTo(2);
+    assertThat(myseq.next()).isEqualTo(4);
+    assertThat(myseq.next()).isEqualTo(6);
+    assertThat(myseq.next()).isEqualTo(8);
+    assertThat(myseq.next()).isEqualTo(10);
+    assertThat(myseq.next()).isEqualTo(12);
+    assertThat(myseq.next()).isEqualTo(0);
+
+    myseq.updateParams(new OSequence.CreateParams().resetNull().setRelaxedOrdering(false));
+    assertThat(((OSequenceCached) myseq).isRelaxedOrdering()).isFalse();
+    // values left in the discarded range are skipped
+    assertThat(myseq.next()).isEqualTo(6);
+
+    sequences.dropSequence("MYSEQ");
+  }
+
+  @Test
+  public void testRelaxedOrderingCachedMT() throws Exception {
+    OSequence.CreateParams params =
+        new OSequence.CreateParams().setDefaults().setCacheSize(50).setRelaxedOrdering(true);
+    sequences.createSequence("mtSeq", OSequence.SEQUENCE_TYPE.CACHED, params);
+
+    final int count = 1000;
+    final int threads = 8;
+    final Set<Long> values = ConcurrentHashMap.newKeySet();
+    final AtomicInteger errors = new AtomicInteger(0);
+    ExecutorService service = Executors.newFixedThreadPool(threads);
+
+    for (int i = 0; i < threads; i++) {
+      service.execute(
+          () -> {
+            ODatabaseDocument databaseDocument =
+                new ODatabaseDocumentTx("memory:" + OSequenceTest.class.getSimpleName());
+            databaseDocument.open("admin", "admin");
+            try {
+              OSequence mtSeq =
+                  databaseDocument.getMetadata().getSequenceLibrary().getSequence("mtSeq");
+              for (int j = 0; j < count; j++) {
+                values.add(mtSeq.next());
+              }
+            } catch (Exception e) {
+              e.printStackTrace();
+              errors.incrementAndGet();
+            } finally {
+              databaseDocument.close();
+            }
+          });
+    }
+    service.shutdown();
+    assertThat(service.awaitTermination(1, TimeUnit.MINUTES)).isTrue();
+    db.activateOnCurrentThread();
+
+    assertThat(errors.get()).isEqualTo(0);
+    assertThat(values).hasSize(count * threads);
+  }
 }
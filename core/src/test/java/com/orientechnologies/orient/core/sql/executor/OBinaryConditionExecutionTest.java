@@ -0,0 +1,107 @@
+package com.orientechnologies.orient.core.sql.executor;
+
+import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import java.math.BigDecimal;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class OBinaryConditionExecutionTest {
+  private static ODatabaseDocumentInternal db;
+
+  @BeforeClass
+  public static void beforeClass() {
+    db = new ODatabaseDocumentTx("memory:OBinaryConditionExecutionTest");
+    db.create();
+
+    final OClass clazz = db.getMetadata().getSchema().createClass("BinaryCondition");
+    clazz.createProperty("number", OType.INTEGER);
+    clazz.createProperty("name", OType.STRING);
+
+    for (int i = 0; i < 100; i++) {
+      final ODocument document = new ODocument("BinaryCondition");
+      document.field("number", i);
+      document.field("name", "name" + i);
+      document.field("schemaless", i % 10);
+      document.save();
+    }
+  }
+
+  @AfterClass
+  public static void afterClass() {
+    db.drop();
+  }
+
+  @Test
+  public void testCompareOperators() {
+    Assert.assertEquals(1, count("select from BinaryCondition where number = 10"));
+    Assert.assertEquals(99, count("select from BinaryCondition where number <> 10"));
+    Assert.assertEquals(99, count("select from BinaryCondition where number != 10"));
+    Assert.assertEquals(10, count("select from BinaryCondition where number < 10"));
+    Assert.assertEquals(11, count("select from BinaryCondition where number <= 10"));
+    Assert.assertEquals(89, count("select from BinaryCondition where number > 10"));
+    Assert.assertEquals(90, count("select from BinaryCondition where number >= 10"));
+  }
+
+  @Test
+  public void testStringAndSchemalessFields() {
+    Assert.assertEquals(1, count("select from BinaryCondition where name = 'name42'"));
+    Assert.assertEquals(10, count("select from BinaryCondition where schemaless = 3"));
+    Assert.assertEquals(
+        1, count("select from BinaryCondition where schemaless = 3 and name = 'name13'"));
+  }
+
+  @Test
+  public void testMatchedRecordIsDeserialized() {
+    db.getLocalCache().clear();
+    try (OResultSet result = db.query("select from BinaryCondition where number = 7")) {
+      Assert.assertTrue(result.hasNext());
+      final OResult item = result.next();
+      Assert.assertEquals("name7", item.getProperty("name"));
+      Assert.assertEquals(7, (int) item.<Integer>getProperty("schemaless"));
+      Assert.assertFalse(result.hasNext());
+    }
+  }
+
+  @Test
+  public void testMissingFieldFallsBack() {
+    Assert.assertEquals(0, count("select from BinaryCondition where missing = 3"));
+    Assert.assertEquals(100, count("select from BinaryCondition where missing is null"));
+  }
+
+  @Test
+  public void testMixedTypesAreComparedAsInterpreted() {
+    Assert.assertEquals(0, count("select from BinaryCondition where number = 'abc'"));
+
+    // integral numbers are widened without loss
+    Assert.assertEquals(1, count("select from BinaryCondition where number = ?", 10L));
+    Assert.assertEquals(10, count("select from BinaryCondition where number < ?", 10L));
+    Assert.assertEquals(89, count("select from BinaryCondition where number > ?", (short) 10));
+
+    // decimals are not truncated
+    final BigDecimal decimal = new BigDecimal("10.5");
+    Assert.assertEquals(0, count("select from BinaryCondition where number = ?", decimal));
+    Assert.assertEquals(11, count("select from BinaryCondition where number < ?", decimal));
+    Assert.assertEquals(89, count("select from BinaryCondition where number > ?", decimal));
+  }
+
+  @Test
+  public void testUnsupportedTypePairsAreNotMatched() {
+    Assert.assertEquals(0, count("select from BinaryCondition where number > #5:0"));
+    Assert.assertEquals(0, count("select from BinaryCondition where number >= #5:0"));
+    Assert.assertEquals(0, count("select from BinaryCondition where number < #5:0"));
+    Assert.assertEquals(0, count("select from BinaryCondition where number <= #5:0"));
+  }
+
+  private static long count(final String query, final Object... args) {
+    db.getLocalCache().clear();
+    try (OResultSet result = db.query(query, args)) {
+      return result.stream().count();
+    }
+  }
+}
@@ -3992,6 +3992,178 @@ public class OSelectStatementExecutionTest {
     }
   }
 
+  @Test
+  public void testParallelAggregation() {
+    boolean oldAuto = OGlobalConfiguration.QUERY_PARALLEL_AUTO.getValueAsBoolean();
+    long oldMinimum = OGlobalConfiguration.QUERY_PARALLEL_MINIMUM_RECORDS.getValueAsLong();
+    try {
+      OGlobalConfiguration.QUERY_PARALLEL_AUTO.setValue(true);
+      OGlobalConfiguration.QUERY_PARALLEL_MINIMUM_RECORDS.setValue(10);
+
+      String className = "testParallelAggregation";
+      db.getMetadata().getSchema().createClass(className, 4);
+      for (int i = 0; i < 5000; i++) {
+        ODocument doc = new ODocument(className);
+        doc.setProperty("val", i);
+        doc.setProperty("type", "t" + (i % 3));
+        doc.save();
+      }
+
+      try (OResultSet result =
+          db.query(
+              "select count(*) as c, sum(val) as s, min(val) as mi, max(val) as ma, avg(val) as a"
+                  + " from "
+                  + className
+                  + " where val >= 1000")) {
+        Assert.assertTrue(
+            result.getExecutionPlan().get().getSteps().stream()
+                .anyMatch(x -> x instanceof ParallelAggregateStep));
+        OResult item = result.next();
+        Assert.assertEquals(4000L, (Object) item.getProperty("c"));
+        Assert.assertEquals(11998000L, ((Number) item.getProperty("s")).longValue());
+        Assert.assertEquals(1000, (Object) item.getProperty("mi"));
+        Assert.assertEquals(4999, (Object) item.getProperty("ma"));
+        Assert.assertEquals(2999, ((Number) item.getProperty("a")).intValue());
+        Assert.assertFalse(result.hasNext());
+      }
+
+      try (OResultSet result =
+          db.query(
+              "select type, count(*) as c, max(val) as ma from "
+                  + className
+                  + " group by type order by type")) {
+        for (int i = 0; i < 3; i++) {
+          OResult item = result.next();
+          Assert.assertEquals("t" + i, item.getProperty("type"));
+          Assert.assertEquals(i < 2 ? 1667L : 1666L, (Object) item.getProperty("c"));
+          Assert.assertEquals(4998 + i - (i < 2 ? 0 : 3), (Object) item.getProperty("ma"));
+        }
+        Assert.assertFalse(result.hasNext());
+      }
+
+      try (OResultSet result =
+          db.query("select count(*) as c from " + className + " where val < 0")) {
+        Assert.assertEquals(0L, (Object) result.next().getProperty("c"));
+        Assert.assertFalse(result.hasNext());
+      }
+    } finally {
+      OGlobalConfiguration.QUERY_PARALLEL_AUTO.setValue(oldAuto);
+      OGlobalConfiguration.QUERY_PARALLEL_MINIMUM_RECORDS.setValue(oldMinimum);
+    }
+  }
+
+  @Test
+  public void testVectorizedAggregation() {
+    boolean oldVectorized = OGlobalConfiguration.QUERY_VECTORIZED_EXECUTION.getValueAsBoolean();
+    int oldBatchSize = OGlobalConfiguration.QUERY_VECTORIZED_BATCH_SIZE.getValueAsInteger();
+    try {
+      OGlobalConfiguration.QUERY_VECTORIZED_BATCH_SIZE.setValue(64);
+
+      String className = "testVectorizedAggregation";
+      OClass clazz = db.getMetadata().getSchema().createClass(className);
+      clazz.createProperty("val", OType.INTEGER);
+      clazz.createProperty("amount", OType.DOUBLE);
+      clazz.createProperty("name", OType.STRING);
+      for (int i = 0; i < 1000; i++) {
+        ODocument doc = new ODocument(className);
+        doc.setProperty("val", i);
+        if (i % 10 != 0) {
+          doc.setProperty("amount", i * 0.5);
+        }
+        doc.setProperty("name", "n" + (i % 7));
+        doc.save();
+      }
+
+      String query =
+          "select count(*) as c, count(amount) as ca, sum(val) as s, min(val) as mi,"
+              + " max(val) as ma, avg(val) as a, sum(amount) as sa, max(name) as mn from "
+              + className
+              + " where val >= 100 and name <> 'n5' and amount < ?";
+
+      OGlobalConfiguration.QUERY_VECTORIZED_EXECUTION.setValue(false);
+      OResult expected;
+      try (OResultSet result = db.query(query, 300)) {
+        expected = result.next();
+      }
+
+      OGlobalConfiguration.QUERY_VECTORIZED_EXECUTION.setValue(true);
+      try (OResultSet result = db.query(query, 300)) {
+        Assert.assertTrue(
+            result.getExecutionPlan().get().getSteps().stream()
+                .anyMatch(x -> x instanceof VectorizedAggregateStep));
+        OResult item = result.next();
+        for (String name : expected.getPropertyNames()) {
+          Assert.assertEquals(name, expected.getProperty(name), item.getProperty(name));
+        }
+        Assert.assertEquals(599, (Object) item.getProperty("ma"));
+        Assert.assertEquals("n6", item.getProperty("mn"));
+        Assert.assertFalse(result.hasNext());
+      }
+
+      try (OResultSet result =
+          db.query("select count(*) as c from " + className + " where val < 0")) {
+        Assert.assertEquals(0L, (Object) result.next().getProperty("c"));
+        Assert.assertFalse(result.hasNext());
+      }
+
+      try (OResultSet result =
+          db.query("select max(val) + 1 as m from " + className + " where name = 'n0'")) {
+        Assert.assertTrue(
+            result.getExecutionPlan().get().getSteps().stream()
+                .anyMatch(x -> x instanceof VectorizedAggregateStep));
+        Assert.assertEquals(995, (Object) result.next().getProperty("m"));
+        Assert.assertFalse(result.hasNext());
+      }
+    } finally {
+      OGlobalConfiguration.QUERY_VECTORIZED_EXECUTION.setValue(oldVectorized);
+      OGlobalConfiguration.QUERY_VECTORIZED_BATCH_SIZE.setValue(oldBatchSize);
+    }
+  }
+
+  @Test
+  public void testVectorizedAggregationSkippedWithIndex() {
+    boolean oldVectorized = OGlobalConfiguration.QUERY_VECTORIZED_EXECUTION.getValueAsBoolean();
+    try {
+      OGlobalConfiguration.QUERY_VECTORIZED_EXECUTION.setValue(true);
+
+      String className = "testVectorizedAggregationSkippedWithIndex";
+      OClass clazz = db.getMetadata().getSchema().createClass(className);
+      clazz.createProperty("val", OType.INTEGER);
+      clazz.createProperty("name", OType.STRING);
+      clazz.createIndex(className + ".val", OClass.INDEX_TYPE.NOTUNIQUE, "val");
+      for (int i = 0; i < 1000; i++) {
+        ODocument doc = new ODocument(className);
+        doc.setProperty("val", i % 100);
+        doc.setProperty("name", "n" + (i % 7));
+        doc.save();
+      }
+
+      try (OResultSet result =
+          db.query("select max(name) as m from " + className + " where val = 5")) {
+        Assert.assertFalse(
+            result.getExecutionPlan().get().getSteps().stream()
+                .anyMatch(x -> x instanceof VectorizedAggregateStep));
+        Assert.assertTrue(
+            result.getExecutionPlan().get().getSteps().stream()
+                .anyMatch(x -> x instanceof FetchFromIndexStep));
+        Assert.assertEquals("n6", result.next().getProperty("m"));
+        Assert.assertFalse(result.hasNext());
+      }
+
+      try (OResultSet result =
+          db.query("select max(val) as m from " + className + " where name = 'n5'")) {
+        // no index on the condition, the whole class is scanned anyway
+        Assert.assertTrue(
+            result.getExecutionPlan().get().getSteps().stream()
+                .anyMatch(x -> x instanceof VectorizedAggregateStep));
+        Assert.assertEquals(99, (Object) result.next().getProperty("m"));
+        Assert.assertFalse(result.hasNext());
+      }
+    } finally {
+      OGlobalConfiguration.QUERY_VECTORIZED_EXECUTION.setValue(oldVectorized);
+    }
+  }
+
   @Test
   public void testXor() {
     try (OResultSet result = db.query("select 15 ^ 4 as foo")) {
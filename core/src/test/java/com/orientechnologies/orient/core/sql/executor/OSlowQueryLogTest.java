@@ -0,0 +1,164 @@
+package com.orientechnologies.orient.core.sql.executor;
+
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
+import com.orientechnologies.orient.core.db.ODatabaseSession;
+import com.orientechnologies.orient.core.db.ODatabaseType;
+import com.orientechnologies.orient.core.db.OrientDB;
+import com.orientechnologies.orient.core.db.OrientDBConfig;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.exception.OSecurityAccessException;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import java.util.List;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class OSlowQueryLogTest {
+  static ODatabaseDocumentInternal db;
+
+  @BeforeClass
+  public static void beforeClass() {
+    db = new ODatabaseDocumentTx("memory:OSlowQueryLogTest");
+    db.create();
+  }
+
+  @AfterClass
+  public static void afterClass() {
+    db.drop();
+  }
+
+  @Test
+  public void testOldestQueriesAreOverwritten() {
+    OSlowQueryLog log = new OSlowQueryLog(3, 100);
+    for (int i = 0; i < 5; i++) {
+      log.add(query("select " + i, 100 + i));
+    }
+
+    List<OSlowQuery> queries = log.getQueries();
+    Assert.assertEquals(3, queries.size());
+    Assert.assertEquals("select 4", queries.get(0).getStatement());
+    Assert.assertEquals("select 3", queries.get(1).getStatement());
+    Assert.assertEquals("select 2", queries.get(2).getStatement());
+
+    log.clear();
+    Assert.assertTrue(log.getQueries().isEmpty());
+  }
+
+  @Test
+  public void testSlowStatementIsProfiledUntilItIsFast() {
+    OSlowQueryLog log = new OSlowQueryLog(10, 100);
+
+    Assert.assertFalse(log.onExecuted("select 1", 10, false));
+    Assert.assertFalse(log.isProfiled("select 1"));
+
+    Assert.assertTrue(log.onExecuted("select 1", 150, false));
+    Assert.assertTrue(log.isProfiled("select 1"));
+
+    Assert.assertTrue(log.onExecuted("select 1", 150, true));
+    Assert.assertTrue(log.isProfiled("select 1"));
+
+    Assert.assertFalse(log.onExecuted("select 1", 10, true));
+    Assert.assertFalse(log.isProfiled("select 1"));
+  }
+
+  @Test
+  public void testDisabled() {
+    OSlowQueryLog log = new OSlowQueryLog(10, 0);
+
+    Assert.assertFalse(log.isEnabled());
+    Assert.assertFalse(log.onExecuted("select 1", 1000, false));
+    Assert.assertFalse(log.isProfiled("select 1"));
+  }
+
+  @Test
+  public void testQueryMetadata() {
+    OSlowQueryLog log = OSlowQueryLog.get(db);
+    log.clear();
+    log.add(query("select from V", 1500));
+
+    try (OResultSet result = db.query("select from metadata:slowQueries")) {
+      Assert.assertTrue(result.hasNext());
+      OResult item = result.next();
+      Assert.assertEquals("select from V", item.getProperty("statement"));
+      Assert.assertEquals(1500L, (long) item.getProperty("elapsedTimeMillis"));
+      Assert.assertFalse(result.hasNext());
+    }
+
+    log.clear();
+  }
+
+  @Test
+  public void testSlowQueryIsLoggedAndProfiledOnRerun() {
+    OrientDBConfig config =
+        OrientDBConfig.builder()
+            .addConfig(OGlobalConfiguration.QUERY_SLOW_LOG_THRESHOLD, 1L)
+            .build();
+    OrientDB context = new OrientDB("embedded:", config);
+    context.create("testSlowQueryLog", ODatabaseType.MEMORY);
+    try {
+      ODatabaseSession session = context.open("testSlowQueryLog", "admin", "admin");
+      session.createClass("SlowQuery");
+      for (int i = 0; i < 20000; i++) {
+        session.save(new ODocument("SlowQuery").field("value", i));
+      }
+
+      String statement = "select from SlowQuery where value >= 0 order by value desc";
+      for (int i = 0; i < 2; i++) {
+        try (OResultSet result = session.query(statement)) {
+          Assert.assertEquals(20000, result.stream().count());
+        }
+      }
+
+      List<OSlowQuery> queries =
+          OSlowQueryLog.get((ODatabaseDocumentInternal) session).getQueries();
+      Assert.assertEquals(2, queries.size());
+
+      // the first execution is logged with the plan only
+      OSlowQuery first = queries.get(1);
+      Assert.assertEquals(statement, first.getStatement());
+      Assert.assertEquals(20000, first.getRows());
+      Assert.assertFalse(first.isProfiled());
+      Assert.assertNotNull(first.getExecutionPlan());
+
+      // the next execution of the same statement is profiled
+      OSlowQuery rerun = queries.get(0);
+      Assert.assertEquals(statement, rerun.getStatement());
+      Assert.assertTrue(rerun.isProfiled());
+      List<OResult> steps = rerun.getExecutionPlan().getProperty("steps");
+      Assert.assertFalse(steps.isEmpty());
+      long cost = 0;
+      for (OResult step : steps) {
+        cost += step.<Long>getProperty("cost");
+      }
+      Assert.assertTrue(cost > 0);
+      session.close();
+
+      // logged statements of all the users can be read only by the server administrators
+      ODatabaseSession reader = context.open("testSlowQueryLog", "reader", "reader");
+      try (OResultSet result = reader.query("select from metadata:slowQueries")) {
+        result.hasNext();
+        Assert.fail();
+      } catch (OSecurityAccessException e) {
+        // expected
+      } finally {
+        reader.close();
+      }
+    } finally {
+      context.drop("testSlowQueryLog");
+      context.close();
+    }
+  }
+
+  private static OSlowQuery query(String statement, long elapsedTimeMillis) {
+    return new OSlowQuery(
+        statement,
+        "admin",
+        System.currentTimeMillis(),
+        elapsedTimeMillis,
+        1,
+        false,
+        new OResultInternal());
+  }
+}
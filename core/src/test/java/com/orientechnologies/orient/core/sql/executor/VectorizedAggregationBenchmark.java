@@ -0,0 +1,111 @@
+package com.orientechnologies.orient.core.sql.executor;
+
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
+import com.orientechnologies.orient.core.db.ODatabaseType;
+import com.orientechnologies.orient.core.db.OrientDB;
+import com.orientechnologies.orient.core.db.OrientDBConfig;
+import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the aggregation of a class calculated by {@link VectorizedAggregateStep} with the one
+ * calculated by the interpreted steps, to check the gain before enabling {@link
+ * OGlobalConfiguration#QUERY_VECTORIZED_EXECUTION} by default.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, batchSize = 1)
+@Warmup(iterations = 5, batchSize = 1)
+@Fork(1)
+public class VectorizedAggregationBenchmark {
+  private static final String NAME = "vectorized-benchmark";
+
+  @Param({"false", "true"})
+  public boolean vectorized;
+
+  @Param({"1000000"})
+  public int records;
+
+  private OrientDB context;
+  private ODatabaseDocumentInternal db;
+
+  public static void main(String[] args) throws RunnerException {
+    final Options opt =
+        new OptionsBuilder()
+            .include("VectorizedAggregationBenchmark.*")
+            .jvmArgs("-server", "-Xmx4G", "-Xms1G")
+            .build();
+    new Runner(opt).run();
+  }
+
+  @Setup(Level.Trial)
+  public void setup() {
+    OGlobalConfiguration.QUERY_VECTORIZED_EXECUTION.setValue(vectorized);
+    context = new OrientDB("embedded:.", OrientDBConfig.defaultConfig());
+    if (context.exists(NAME)) {
+      context.drop(NAME);
+    }
+    context.create(NAME, ODatabaseType.MEMORY);
+    db = (ODatabaseDocumentInternal) context.open(NAME, "admin", "admin");
+
+    OClass clazz = db.getMetadata().getSchema().createClass("Sale");
+    clazz.createProperty("quantity", OType.INTEGER);
+    clazz.createProperty("amount", OType.DOUBLE);
+    clazz.createProperty("region", OType.STRING);
+    for (int i = 0; i < records; i++) {
+      ODocument doc = new ODocument("Sale");
+      doc.setProperty("quantity", i % 100);
+      doc.setProperty("amount", (i % 1000) * 0.25);
+      doc.setProperty("region", "r" + (i % 10));
+      doc.save();
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    db.activateOnCurrentThread();
+    db.close();
+    context.drop(NAME);
+    context.close();
+  }
+
+  @Benchmark
+  public Object aggregateAll() {
+    try (OResultSet result =
+        db.query("select count(*), sum(quantity), avg(amount), max(amount) from Sale")) {
+      return result.next();
+    }
+  }
+
+  @Benchmark
+  public Object aggregateFiltered() {
+    try (OResultSet result =
+        db.query(
+            "select count(*), sum(quantity), min(amount) from Sale"
+                + " where quantity >= 10 and region <> 'r3' and amount < ?",
+            200.0)) {
+      return result.next();
+    }
+  }
+}
@@ -33,7 +33,15 @@ public class OExecutionPlanCacheTest {
     Assert.assertTrue(cache.contains(stm));
 
     OClass clazz = db.getMetadata().getSchema().createClass(testName);
-    Assert.assertFalse(cache.contains(stm));
+    Assert.assertTrue(cache.contains(stm)); // the plan does not depend on the new class
+
+    stm = "SELECT FROM " + testName;
+    Thread.sleep(2);
+    db.query(stm).close();
+    Assert.assertTrue(cache.contains(stm));
+
+    db.getMetadata().getSchema().createClass(testName + "Sub", clazz);
+    Assert.assertFalse(cache.contains(stm)); // a new subclass changes the polymorphic clusters
 
     Thread.sleep(2);
 
@@ -57,4 +65,62 @@ public class OExecutionPlanCacheTest {
 
     db.close();
   }
+
+  @Test
+  public void testSubclassIndexInvalidation() throws InterruptedException {
+    String testName = "testSubclassIndexInvalidation";
+    ODatabaseDocumentTx db = new ODatabaseDocumentTx("memory:OExecutionPlanCacheTestSubclass");
+    db.create();
+    OExecutionPlanCache cache = OExecutionPlanCache.instance(db);
+
+    OClass clazz = db.getMetadata().getSchema().createClass(testName);
+    clazz.createProperty("name", OType.STRING);
+    OClass subclass = db.getMetadata().getSchema().createClass(testName + "Sub", clazz);
+    String stm = "SELECT FROM " + testName + " WHERE name = 'foo'";
+
+    Thread.sleep(2);
+    db.query(stm).close();
+    Assert.assertTrue(cache.contains(stm));
+
+    // the planner can fetch the records of the subclass from its own index
+    subclass.createIndex(testName + "SubName", OClass.INDEX_TYPE.NOTUNIQUE, "name");
+    Assert.assertFalse(cache.contains(stm));
+
+    Thread.sleep(2);
+    db.query(stm).close();
+    Assert.assertTrue(cache.contains(stm));
+
+    db.getMetadata().getIndexManager().dropIndex(testName + "SubName");
+    Assert.assertFalse(cache.contains(stm));
+
+    Thread.sleep(2);
+    db.query(stm).close();
+    Assert.assertTrue(cache.contains(stm));
+    int tracked = cache.getTrackedClasses();
+
+    db.getMetadata().getSchema().dropClass(testName + "Sub");
+    db.getMetadata().getSchema().dropClass(testName);
+    Assert.assertFalse(cache.contains(stm));
+    Assert.assertEquals(tracked - 1, cache.getTrackedClasses());
+
+    db.close();
+  }
+
+  @Test
+  public void testMetrics() throws InterruptedException {
+    ODatabaseDocumentTx db = new ODatabaseDocumentTx("memory:OExecutionPlanCacheTestMetrics");
+    db.create();
+    OExecutionPlanCache cache = OExecutionPlanCache.instance(db);
+    String stm = "SELECT FROM OUser WHERE name = 'testMetrics'";
+    Thread.sleep(2);
+
+    long hits = cache.getHits();
+    long misses = cache.getMisses();
+    db.query(stm).close();
+    db.query(stm).close();
+    Assert.assertEquals(misses + 1, cache.getMisses());
+    Assert.assertEquals(hits + 1, cache.getHits());
+
+    db.close();
+  }
 }
@@ -23,4 +23,26 @@ public class OStatementCacheTest {
     Assert.assertTrue(cache.contains("select from foo"));
     Assert.assertFalse(cache.contains("select from baz"));
   }
+
+  @Test
+  public void testPrepare() {
+    OStatementCache cache = new OStatementCache(2);
+    long foo = cache.prepare("select from foo where name = ?");
+    long bar = cache.prepare("select from bar where name = ?");
+
+    Assert.assertNotEquals(0, foo);
+    Assert.assertNotEquals(foo, bar);
+    Assert.assertEquals(foo, cache.prepare("select from foo where name = ?"));
+    Assert.assertEquals(
+        "select from foo where name = ?", cache.getPrepared(foo).getOriginalStatement());
+
+    cache.getPrepared(foo);
+    cache.prepare("select from baz where name = ?");
+    Assert.assertNotNull(cache.getPrepared(foo));
+    Assert.assertNull(cache.getPrepared(bar));
+
+    cache.clear();
+    Assert.assertNull(cache.getPrepared(foo));
+    Assert.assertNotEquals(foo, cache.prepare("select from foo where name = ?"));
+  }
 }
@@ -15,15 +15,19 @@ import com.orientechnologies.orient.core.metadata.schema.OSchema;
 import com.orientechnologies.orient.core.record.impl.ODocument;
 import com.orientechnologies.orient.core.sql.executor.OResult;
 import com.orientechnologies.orient.core.sql.executor.OResultSet;
+import com.orientechnologies.orient.core.storage.cache.OReadCache;
 import com.orientechnologies.orient.core.storage.cache.OWriteCache;
+import com.orientechnologies.orient.core.storage.cache.chm.AsyncReadCache;
 import com.orientechnologies.orient.core.storage.disk.OLocalPaginatedStorage;
 import com.orientechnologies.orient.core.storage.fs.OFile;
 import com.orientechnologies.orient.core.storage.impl.local.paginated.base.ODurablePage;
+import java.io.DataInputStream;
 import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.BeforeClass;
@@ -315,6 +319,60 @@ public class OStorageTestIT {
     }
   }
 
+  @Test
+  public void testKeepDiskCacheState() throws Exception {
+    final OrientDBConfig config =
+        OrientDBConfig.builder()
+            .addConfig(OGlobalConfiguration.STORAGE_KEEP_DISK_CACHE_STATE, true)
+            .build();
+
+    orientDB = new OrientDB("embedded:" + buildPath.toFile().getAbsolutePath(), config);
+    orientDB.create(OStorageTestIT.class.getSimpleName(), ODatabaseType.PLOCAL, config);
+
+    ODatabaseSession session =
+        orientDB.open(OStorageTestIT.class.getSimpleName(), "admin", "admin", config);
+    session.getMetadata().getSchema().createClass("WarmUp");
+    for (int i = 0; i < 1000; i++) {
+      final ODocument document = new ODocument("WarmUp");
+      document.field("value", i);
+      document.save();
+    }
+
+    final Path storagePath =
+        ((OLocalPaginatedStorage) ((ODatabaseDocumentInternal) session).getStorage())
+            .getStoragePath();
+    session.close();
+    orientDB.close();
+
+    final Path statePath = storagePath.resolve("cache" + AsyncReadCache.CACHE_STATE_EXTENSION);
+    Assert.assertTrue(Files.exists(statePath));
+
+    final int hotPages;
+    try (final DataInputStream in = new DataInputStream(Files.newInputStream(statePath))) {
+      in.readInt();
+      hotPages = in.readInt();
+    }
+    Assert.assertTrue(hotPages > 0);
+
+    orientDB = new OrientDB("embedded:" + buildPath.toFile().getAbsolutePath(), config);
+    session = orientDB.open(OStorageTestIT.class.getSimpleName(), "admin", "admin", config);
+
+    // pages of the storage were removed from the cache on close, so all hot pages are loaded
+    // again by the warm up
+    final OLocalPaginatedStorage storage =
+        (OLocalPaginatedStorage) ((ODatabaseDocumentInternal) session).getStorage();
+    final OReadCache readCache = storage.getReadCache();
+    final long expectedMemory = (long) hotPages * storage.getWriteCache().pageSize();
+    final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+    while (readCache.getUsedMemory() < expectedMemory && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+    }
+    Assert.assertTrue(readCache.getUsedMemory() >= expectedMemory);
+
+    Assert.assertEquals(1000, session.countClass("WarmUp"));
+    session.close();
+  }
+
   @After
   public void after() {
     orientDB.drop(OStorageTestIT.class.getSimpleName());
@@ -0,0 +1,116 @@
+package com.orientechnologies.orient.core.storage;
+
+import com.orientechnologies.common.io.OFileUtils;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
+import com.orientechnologies.orient.core.db.ODatabaseSession;
+import com.orientechnologies.orient.core.db.ODatabaseType;
+import com.orientechnologies.orient.core.db.OrientDB;
+import com.orientechnologies.orient.core.db.OrientDBConfig;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.storage.impl.local.OAbstractPaginatedStorage;
+import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.OLogSequenceNumber;
+import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.OWriteAheadLog;
+import com.orientechnologies.orient.core.tx.OTransaction;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class OTransactionDurabilityTestIT {
+  private static final String DB_NAME = OTransactionDurabilityTestIT.class.getSimpleName();
+
+  private OrientDB orientDB;
+  private String buildDirectory;
+
+  @Before
+  public void before() {
+    buildDirectory =
+        System.getProperty("buildDirectory", ".") + File.separator + "transactionDurabilityTest";
+    OFileUtils.deleteRecursively(new File(buildDirectory));
+
+    final OrientDBConfig config =
+        OrientDBConfig.builder()
+            .addConfig(OGlobalConfiguration.STORAGE_TX_DURABILITY, OTransaction.DURABILITY.GROUP)
+            .build();
+    orientDB = new OrientDB("embedded:" + buildDirectory, config);
+    orientDB.create(DB_NAME, ODatabaseType.PLOCAL, config);
+  }
+
+  @After
+  public void after() {
+    orientDB.drop(DB_NAME);
+    orientDB.close();
+
+    OFileUtils.deleteRecursively(new File(buildDirectory));
+  }
+
+  @Test
+  public void testCommitIsDurable() {
+    try (ODatabaseSession session = orientDB.open(DB_NAME, "admin", "admin")) {
+      session.createClass("Durable");
+
+      final OWriteAheadLog wal =
+          ((OAbstractPaginatedStorage) ((ODatabaseDocumentInternal) session).getStorage())
+              .getWALInstance();
+
+      for (final OTransaction.DURABILITY durability : OTransaction.DURABILITY.values()) {
+        for (int i = 0; i < 10; i++) {
+          session.begin();
+          session.save(new ODocument("Durable").field("value", i));
+          session.commit(durability);
+
+          if (durability != OTransaction.DURABILITY.ASYNC) {
+            final OLogSequenceNumber flushedLsn = wal.getFlushedLsn();
+            Assert.assertNotNull(flushedLsn);
+            Assert.assertTrue(flushedLsn.compareTo(wal.end()) >= 0);
+          }
+        }
+      }
+
+      Assert.assertEquals(30, session.countClass("Durable"));
+    }
+  }
+
+  @Test
+  public void testConcurrentGroupCommit() throws Exception {
+    try (ODatabaseSession session = orientDB.open(DB_NAME, "admin", "admin")) {
+      session.createClass("Durable");
+    }
+
+    final ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      final List<Future<Void>> futures = new ArrayList<>();
+      for (int n = 0; n < 8; n++) {
+        futures.add(
+            executor.submit(
+                () -> {
+                  try (ODatabaseSession session = orientDB.open(DB_NAME, "admin", "admin")) {
+                    for (int i = 0; i < 100; i++) {
+                      session.begin();
+                      session.save(new ODocument("Durable").field("value", i));
+                      session.commit();
+                    }
+                  }
+                  return null;
+                }));
+      }
+
+      for (final Future<Void> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+
+    try (ODatabaseSession session = orientDB.open(DB_NAME, "admin", "admin")) {
+      Assert.assertEquals(800, session.countClass("Durable"));
+    }
+  }
+}
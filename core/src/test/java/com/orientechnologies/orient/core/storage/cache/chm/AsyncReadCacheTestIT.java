@@ -26,6 +26,7 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -106,6 +107,69 @@ public class AsyncReadCacheTestIT {
     readCache.assertSize();
   }
 
+  @Test
+  public void testSequentialReadAhead() {
+    final int pageSize = 4 * 1024;
+
+    final ODirectMemoryAllocator allocator = new ODirectMemoryAllocator();
+    final OByteBufferPool byteBufferPool = new OByteBufferPool(pageSize, allocator, 256);
+    final long maxMemory = 64 * 1024 * 1024;
+
+    final AsyncReadCache readCache =
+        new AsyncReadCache(byteBufferPool, maxMemory, pageSize, true, 32);
+    final MockedWriteCache writeCache = new MockedWriteCache(byteBufferPool);
+
+    final int pageCount = 4 * 1024;
+    for (int i = 0; i < pageCount; i++) {
+      final OCacheEntry cacheEntry = readCache.loadForRead(1, i, false, writeCache, true);
+      Assert.assertEquals(i, cacheEntry.getPageIndex());
+      readCache.releaseFromRead(cacheEntry, writeCache);
+    }
+
+    // window grows up to 32 pages, so only a small part of pages is loaded by separate reads
+    Assert.assertTrue(
+        "Too many reads " + writeCache.loads.get(), writeCache.loads.get() < pageCount / 16);
+    Assert.assertTrue(readCache.hitRate() > 90);
+
+    readCache.assertSize();
+    readCache.assertConsistency();
+
+    readCache.clear();
+    Assert.assertEquals(0, readCache.getUsedMemory());
+  }
+
+  @Test
+  public void testInterleavedSequentialReadAhead() {
+    final int pageSize = 4 * 1024;
+
+    final ODirectMemoryAllocator allocator = new ODirectMemoryAllocator();
+    final OByteBufferPool byteBufferPool = new OByteBufferPool(pageSize, allocator, 256);
+    final long maxMemory = 64 * 1024 * 1024;
+
+    final AsyncReadCache readCache =
+        new AsyncReadCache(byteBufferPool, maxMemory, pageSize, true, 32);
+    final MockedWriteCache writeCache = new MockedWriteCache(byteBufferPool);
+
+    // two scanners of the same file read their ranges of pages in turns
+    final int pageCount = 2 * 1024;
+    for (int i = 0; i < pageCount; i++) {
+      for (final int start : new int[] {0, 64 * 1024}) {
+        final OCacheEntry cacheEntry = readCache.loadForRead(1, start + i, false, writeCache, true);
+        Assert.assertEquals(start + i, cacheEntry.getPageIndex());
+        readCache.releaseFromRead(cacheEntry, writeCache);
+      }
+    }
+
+    Assert.assertTrue(
+        "Too many reads " + writeCache.loads.get(), writeCache.loads.get() < 2 * pageCount / 16);
+
+    readCache.assertSize();
+    readCache.assertConsistency();
+
+    readCache.clear();
+    Assert.assertEquals(0, readCache.getUsedMemory());
+  }
+
   @Test
   public void testZiphianDistribution() throws Exception {
     final int pageSize = 4 * 1024;
@@ -340,6 +404,7 @@ public class AsyncReadCacheTestIT {
 
   private static final class MockedWriteCache implements OWriteCache {
     private final OByteBufferPool byteBufferPool;
+    private final AtomicInteger loads = new AtomicInteger();
 
     MockedWriteCache(final OByteBufferPool byteBufferPool) {
       this.byteBufferPool = byteBufferPool;
@@ -420,12 +485,32 @@ public class AsyncReadCacheTestIT {
       return 0;
     }
 
+    @Override
+    public OCachePointer[] load(
+        final long fileId,
+        final long startPageIndex,
+        final int pageCount,
+        final boolean verifyChecksums) {
+      loads.incrementAndGet();
+
+      final OCachePointer[] pointers = new OCachePointer[pageCount];
+      for (int i = 0; i < pageCount; i++) {
+        final OPointer pointer = byteBufferPool.acquireDirect(true);
+        pointers[i] = new OCachePointer(pointer, byteBufferPool, fileId, (int) startPageIndex + i);
+        pointers[i].incrementReadersReferrer();
+      }
+
+      return pointers;
+    }
+
     @Override
     public OCachePointer load(
         final long fileId,
         final long startPageIndex,
         final OModifiableBoolean cacheHit,
         final boolean verifyChecksums) {
+      loads.incrementAndGet();
+
       final OPointer pointer = byteBufferPool.acquireDirect(true);
       final OCachePointer cachePointer =
           new OCachePointer(pointer, byteBufferPool, fileId, (int) startPageIndex);
@@ -0,0 +1,259 @@
+package com.orientechnologies.orient.core.storage.cache.local;
+
+import com.orientechnologies.common.collection.closabledictionary.OClosableLinkedContainer;
+import com.orientechnologies.common.directmemory.OByteBufferPool;
+import com.orientechnologies.common.exception.OException;
+import com.orientechnologies.common.io.OFileUtils;
+import com.orientechnologies.common.serialization.types.OStringSerializer;
+import com.orientechnologies.common.types.OModifiableBoolean;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.exception.OStorageException;
+import com.orientechnologies.orient.core.storage.OChecksumMode;
+import com.orientechnologies.orient.core.storage.cache.OCachePointer;
+import com.orientechnologies.orient.core.storage.cache.local.doublewritelog.DoubleWriteLogNoOP;
+import com.orientechnologies.orient.core.storage.fs.OFile;
+import com.orientechnologies.orient.core.storage.impl.local.paginated.base.ODurablePage;
+import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.cas.CASDiskWriteAheadLog;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.Random;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class WOWCacheMappedReadsTestIT {
+  private static final int pageSize = ODurablePage.NEXT_FREE_POSITION + 8;
+
+  /** Small regions are used, so pages of the file are spread between several of them. */
+  private static final int pagesPerRegion = 4;
+
+  private static final OByteBufferPool bufferPool = new OByteBufferPool(pageSize);
+  private static Path storagePath;
+
+  private final OClosableLinkedContainer<Long, OFile> files = new OClosableLinkedContainer<>(1024);
+
+  private CASDiskWriteAheadLog writeAheadLog;
+  private OWOWCache wowCache;
+
+  @BeforeClass
+  public static void beforeClass() {
+    OGlobalConfiguration.STORAGE_EXCLUSIVE_FILE_ACCESS.setValue(Boolean.FALSE);
+    OGlobalConfiguration.FILE_LOCK.setValue(Boolean.FALSE);
+
+    final String buildDirectory = System.getProperty("buildDirectory", ".");
+    storagePath = Paths.get(buildDirectory).resolve("WOWCacheMappedReadsTest");
+  }
+
+  @AfterClass
+  public static void afterClass() {
+    bufferPool.clear();
+
+    OGlobalConfiguration.STORAGE_EXCLUSIVE_FILE_ACCESS.setValue(Boolean.TRUE);
+    OGlobalConfiguration.FILE_LOCK.setValue(Boolean.TRUE);
+  }
+
+  @Before
+  public void before() throws Exception {
+    OFileUtils.deleteRecursively(storagePath.toFile());
+    Files.createDirectories(storagePath);
+
+    writeAheadLog =
+        new CASDiskWriteAheadLog(
+            "WOWCacheMappedReadsTest",
+            storagePath,
+            storagePath,
+            12_000,
+            128,
+            null,
+            null,
+            Integer.MAX_VALUE,
+            Integer.MAX_VALUE,
+            25,
+            true,
+            Locale.US,
+            -1,
+            1024L * 1024 * 1024,
+            1000,
+            true,
+            false,
+            false,
+            true,
+            10);
+    wowCache =
+        new OWOWCache(
+            pageSize,
+            bufferPool,
+            writeAheadLog,
+            new DoubleWriteLogNoOP(),
+            10,
+            10,
+            100,
+            storagePath,
+            "WOWCacheMappedReadsTest",
+            OStringSerializer.INSTANCE,
+            files,
+            1,
+            OChecksumMode.StoreAndVerify,
+            null,
+            null,
+            false,
+            true,
+            true,
+            false,
+            (long) pagesPerRegion * pageSize);
+
+    wowCache.loadRegisteredFiles();
+  }
+
+  @After
+  public void after() throws IOException {
+    wowCache.delete();
+    writeAheadLog.delete();
+
+    OFileUtils.deleteRecursively(storagePath.toFile());
+  }
+
+  @Test
+  public void testLoadModifyFlushReload() throws IOException {
+    final long fileId = wowCache.addFile("mappedReads.tst");
+    final byte[][] pageData = fillPages(fileId, 10);
+
+    // pages of the last region which is not completely filled by the file are read from the file
+    for (int i = 0; i < pageData.length; i++) {
+      final OCachePointer cachePointer = wowCache.load(fileId, i, new OModifiableBoolean(), true);
+      Assert.assertEquals(i >= 2 * pagesPerRegion, cachePointer.isPooled());
+      Assert.assertArrayEquals(pageData[i], readData(cachePointer));
+      cachePointer.decrementReadersReferrer();
+    }
+
+    pageData[1] = writePage(fileId, 1);
+
+    OCachePointer cachePointer = wowCache.load(fileId, 1, new OModifiableBoolean(), true);
+    Assert.assertArrayEquals(pageData[1], readData(cachePointer));
+    cachePointer.decrementReadersReferrer();
+
+    wowCache.flush();
+
+    // region of the changed page is mapped again, so content of the flushed page is visible
+    for (int i = 0; i < pagesPerRegion; i++) {
+      cachePointer = wowCache.load(fileId, i, new OModifiableBoolean(), true);
+      Assert.assertFalse(cachePointer.isPooled());
+      Assert.assertArrayEquals(pageData[i], readData(cachePointer));
+      cachePointer.decrementReadersReferrer();
+    }
+  }
+
+  @Test
+  public void testBatchLoad() throws IOException {
+    final long fileId = wowCache.addFile("mappedReads.tst");
+    final byte[][] pageData = fillPages(fileId, 10);
+
+    final OCachePointer[] pointers = wowCache.load(fileId, 2, 8, true);
+    Assert.assertEquals(8, pointers.length);
+    for (int i = 0; i < pointers.length; i++) {
+      Assert.assertArrayEquals(pageData[i + 2], readData(pointers[i]));
+      pointers[i].decrementReadersReferrer();
+    }
+  }
+
+  @Test
+  public void testTruncateIsRejectedWhileMappedPageIsUsed() throws IOException {
+    final long fileId = wowCache.addFile("mappedReads.tst");
+    fillPages(fileId, 10);
+
+    final OCachePointer cachePointer = wowCache.load(fileId, 5, new OModifiableBoolean(), true);
+    Assert.assertFalse(cachePointer.isPooled());
+
+    try {
+      wowCache.truncateFile(fileId);
+      Assert.fail();
+    } catch (OStorageException e) {
+      // expected
+    }
+    Assert.assertEquals(10, wowCache.getFilledUpTo(fileId));
+
+    cachePointer.decrementReadersReferrer();
+
+    wowCache.truncateFile(fileId);
+    Assert.assertEquals(0, wowCache.getFilledUpTo(fileId));
+
+    // file is mapped again once it grows after truncation
+    final byte[][] pageData = fillPages(fileId, 4);
+    for (int i = 0; i < pageData.length; i++) {
+      final OCachePointer pointer = wowCache.load(fileId, i, new OModifiableBoolean(), true);
+      Assert.assertFalse(pointer.isPooled());
+      Assert.assertArrayEquals(pageData[i], readData(pointer));
+      pointer.decrementReadersReferrer();
+    }
+  }
+
+  @Test
+  public void testDeleteIsRejectedWhileMappedPageIsUsed() throws IOException {
+    final long fileId = wowCache.addFile("mappedReads.tst");
+    fillPages(fileId, 4);
+
+    final OCachePointer cachePointer = wowCache.load(fileId, 0, new OModifiableBoolean(), true);
+    Assert.assertFalse(cachePointer.isPooled());
+
+    try {
+      wowCache.deleteFile(fileId);
+      Assert.fail();
+    } catch (OException e) {
+      // expected
+    }
+    Assert.assertTrue(wowCache.exists(fileId));
+
+    cachePointer.decrementReadersReferrer();
+
+    wowCache.deleteFile(fileId);
+    Assert.assertFalse(wowCache.exists(fileId));
+  }
+
+  /** Allocates pages, fills them by random data and flushes them into the file. */
+  private byte[][] fillPages(final long fileId, final int pages) throws IOException {
+    final byte[][] pageData = new byte[pages][];
+    for (int i = 0; i < pages; i++) {
+      Assert.assertEquals(i, wowCache.allocateNewPage(fileId));
+      pageData[i] = writePage(fileId, i);
+    }
+
+    wowCache.flush();
+    return pageData;
+  }
+
+  private byte[] writePage(final long fileId, final int pageIndex) throws IOException {
+    final byte[] data = new byte[8];
+    new Random().nextBytes(data);
+
+    final OCachePointer cachePointer =
+        wowCache.load(fileId, pageIndex, new OModifiableBoolean(), false);
+    cachePointer.acquireExclusiveLock();
+    try {
+      final ByteBuffer buffer = cachePointer.getBufferDuplicate();
+      buffer.position(ODurablePage.NEXT_FREE_POSITION);
+      buffer.put(data);
+    } finally {
+      cachePointer.releaseExclusiveLock();
+    }
+
+    wowCache.store(fileId, pageIndex, cachePointer);
+    cachePointer.decrementReadersReferrer();
+
+    return data;
+  }
+
+  private static byte[] readData(final OCachePointer cachePointer) {
+    final byte[] data = new byte[8];
+    final ByteBuffer buffer = cachePointer.getBufferDuplicate();
+    buffer.position(ODurablePage.NEXT_FREE_POSITION);
+    buffer.get(data);
+    return data;
+  }
+}
@@ -2,6 +2,7 @@ package com.orientechnologies.orient.core.storage.fs;
 
 import com.orientechnologies.common.io.OFileUtils;
 import com.orientechnologies.common.util.ORawPair;
+import com.orientechnologies.orient.core.exception.OStorageException;
 import java.io.File;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
@@ -286,4 +287,58 @@ public class AsyncFileTest {
     file.close();
     Assert.assertFalse(file.isOpen());
   }
+
+  @Test
+  public void testReadSeveralChunks() throws Exception {
+    final AsyncFile file = new AsyncFile(buildDirectoryPath, true);
+    file.create();
+
+    final long position = file.allocateSpace(2048);
+    final byte[] data = new byte[2048];
+    new Random().nextBytes(data);
+    file.write(position, ByteBuffer.wrap(data));
+
+    final ByteBuffer first = ByteBuffer.allocate(1024).order(ByteOrder.nativeOrder());
+    final ByteBuffer second = ByteBuffer.allocate(1024).order(ByteOrder.nativeOrder());
+    final List<ORawPair<Long, ByteBuffer>> reads = new ArrayList<>();
+    reads.add(new ORawPair<>(position + 1024, second));
+    reads.add(new ORawPair<>(position, first));
+
+    file.read(reads).await();
+
+    final byte[] result = new byte[2048];
+    System.arraycopy(first.array(), 0, result, 0, 1024);
+    System.arraycopy(second.array(), 0, result, 1024, 1024);
+    Assert.assertArrayEquals(data, result);
+    file.close();
+  }
+
+  @Test
+  public void testReadSeveralChunksOutsideOfFile() throws Exception {
+    final AsyncFile file = new AsyncFile(buildDirectoryPath, true);
+    file.create();
+
+    final long position = file.allocateSpace(1024);
+    final byte[] data = new byte[1024];
+    new Random().nextBytes(data);
+    file.write(position, ByteBuffer.wrap(data));
+
+    final ByteBuffer first = ByteBuffer.allocate(1024).order(ByteOrder.nativeOrder());
+    final ByteBuffer second = ByteBuffer.allocate(1024).order(ByteOrder.nativeOrder());
+    final List<ORawPair<Long, ByteBuffer>> reads = new ArrayList<>();
+    reads.add(new ORawPair<>(position, first));
+    reads.add(new ORawPair<>(position + 1024, second));
+
+    try {
+      file.read(reads);
+      Assert.fail();
+    } catch (OStorageException e) {
+      // expected
+    }
+
+    // no read of the batch is issued, so buffers are not changed once the batch is rejected
+    Assert.assertArrayEquals(new byte[1024], first.array());
+    Assert.assertArrayEquals(new byte[1024], second.array());
+    file.close();
+  }
 }
@@ -0,0 +1,27 @@
+package com.orientechnologies.orient.core.storage.fs;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+public class IOUringFileSetupTest {
+
+  @Test
+  public void testRingsSetupFailure() {
+    // the kernel refuses rings of more than 32768 entries, on other OSes no ring can be created
+    Assert.assertNull(IOUringFile.createRings(2, 1 << 20));
+  }
+
+  @Test
+  public void testRingsSetup() {
+    Assume.assumeTrue(IOUringFile.isAvailable());
+
+    final IOUring[] rings = IOUringFile.createRings(2, 8);
+    Assert.assertNotNull(rings);
+    Assert.assertEquals(2, rings.length);
+    for (final IOUring ring : rings) {
+      Assert.assertNotNull(ring);
+      ring.close();
+    }
+  }
+}
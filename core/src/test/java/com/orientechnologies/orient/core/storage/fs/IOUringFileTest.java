@@ -0,0 +1,114 @@
+package com.orientechnologies.orient.core.storage.fs;
+
+import com.orientechnologies.common.io.OFileUtils;
+import com.orientechnologies.common.util.ORawPair;
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class IOUringFileTest {
+  private static Path buildDirectoryPath;
+
+  @BeforeClass
+  public static void beforeClass() {
+    String buildDirectory = System.getProperty("buildDirectory");
+    if (buildDirectory == null || buildDirectory.isEmpty()) buildDirectory = ".";
+
+    buildDirectory += File.separator + "ioUringFileTest";
+    buildDirectoryPath = Paths.get(buildDirectory);
+  }
+
+  @Before
+  public void before() {
+    Assume.assumeTrue(IOUringFile.isAvailable());
+    OFileUtils.deleteRecursively(buildDirectoryPath.toFile());
+  }
+
+  @Test
+  public void testWrite() throws Exception {
+    final IOUringFile file = new IOUringFile(buildDirectoryPath);
+    file.create();
+
+    file.allocateSpace(128);
+    file.allocateSpace(256);
+
+    final long position = file.allocateSpace(1024);
+    Assert.assertEquals(128 + 256, position);
+
+    final byte[] data = new byte[1024];
+    final Random random = new Random();
+
+    random.nextBytes(data);
+
+    file.write(position, ByteBuffer.wrap(data));
+
+    final ByteBuffer result = ByteBuffer.allocate(1024).order(ByteOrder.nativeOrder());
+    file.read(position, result, true);
+
+    Assert.assertArrayEquals(data, result.array());
+    file.close();
+  }
+
+  @Test
+  public void testBatchWriteRead() throws Exception {
+    IOUringFile file = new IOUringFile(buildDirectoryPath);
+    file.create();
+
+    final int pageSize = 4096;
+    final int pages = 1024;
+    file.allocateSpace(pages * pageSize);
+
+    final Random random = new Random();
+    final byte[][] data = new byte[pages][];
+    final List<ORawPair<Long, ByteBuffer>> writes = new ArrayList<>();
+
+    for (int i = 0; i < pages; i++) {
+      data[i] = new byte[pageSize];
+      random.nextBytes(data[i]);
+
+      final ByteBuffer buffer = ByteBuffer.allocateDirect(pageSize).order(ByteOrder.nativeOrder());
+      buffer.put(data[i]);
+      writes.add(new ORawPair<>((long) i * pageSize, buffer));
+    }
+
+    file.write(writes).await();
+    file.synch();
+    file.close();
+
+    file = new IOUringFile(buildDirectoryPath);
+    file.open();
+    Assert.assertEquals(pages * pageSize, file.getFileSize());
+
+    final List<ORawPair<Long, ByteBuffer>> reads = new ArrayList<>();
+    for (int i = 0; i < pages; i++) {
+      reads.add(
+          new ORawPair<>(
+              (long) i * pageSize,
+              ByteBuffer.allocateDirect(pageSize).order(ByteOrder.nativeOrder())));
+    }
+
+    file.read(reads).await();
+
+    for (int i = 0; i < pages; i++) {
+      final ByteBuffer buffer = reads.get(i).second;
+      buffer.rewind();
+
+      final byte[] result = new byte[pageSize];
+      buffer.get(result);
+
+      Assert.assertArrayEquals(data[i], result);
+    }
+
+    file.close();
+  }
+}
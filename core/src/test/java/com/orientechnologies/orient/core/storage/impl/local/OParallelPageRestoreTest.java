@@ -0,0 +1,198 @@
+package com.orientechnologies.orient.core.storage.impl.local;
+
+import com.orientechnologies.common.util.ORawPair;
+import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.OLogSequenceNumber;
+import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.OUpdatePageRecord;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class OParallelPageRestoreTest {
+
+  @Test
+  public void testChangesOfPageAreAppliedInOrder() throws Exception {
+    final Map<String, List<Long>> applied = new ConcurrentHashMap<>();
+
+    try (OParallelPageRestore restore =
+        new OParallelPageRestore(
+            "test",
+            4,
+            (fileId, record) ->
+                applied
+                    .computeIfAbsent(fileId + ":" + record.getPageIndex(), k -> new ArrayList<>())
+                    .add(record.getLsn().getPosition()))) {
+      for (int i = 0; i < 10_000; i++) {
+        final OUpdatePageRecord record = new OUpdatePageRecord(i % 7, i % 3, i, null);
+        record.setLsn(new OLogSequenceNumber(1, i));
+        restore.submit(
+            record.getLsn(), Collections.singletonList(new ORawPair<>((long) (i % 3), record)));
+      }
+      restore.awaitCompletion();
+
+      Assert.assertEquals(new OLogSequenceNumber(1, 9_999), restore.getLastAppliedLsn());
+    }
+
+    Assert.assertEquals(21, applied.size());
+    long total = 0;
+    for (final List<Long> positions : applied.values()) {
+      for (int i = 1; i < positions.size(); i++) {
+        Assert.assertTrue(positions.get(i - 1) < positions.get(i));
+      }
+      total += positions.size();
+    }
+    Assert.assertEquals(10_000, total);
+  }
+
+  @Test
+  public void testErrorIsRethrown() throws Exception {
+    try (OParallelPageRestore restore =
+        new OParallelPageRestore(
+            "test",
+            2,
+            (fileId, record) -> {
+              throw new IOException("test");
+            })) {
+      final OUpdatePageRecord record = new OUpdatePageRecord(0, 0, 0, null);
+      record.setLsn(new OLogSequenceNumber(1, 0));
+      restore.submit(record.getLsn(), Collections.singletonList(new ORawPair<>(0L, record)));
+      try {
+        restore.awaitCompletion();
+        Assert.fail();
+      } catch (IOException e) {
+        Assert.assertEquals("test", e.getMessage());
+      }
+
+      Assert.assertNull(restore.getLastAppliedLsn());
+    }
+  }
+
+  /** Reading of WAL stops at the broken page while submitted changes are still queued. */
+  @Test
+  public void testSubmittedChangesAreAppliedOnClose() throws Exception {
+    final Set<Long> applied = ConcurrentHashMap.newKeySet();
+
+    final OParallelPageRestore restore =
+        new OParallelPageRestore(
+            "test",
+            4,
+            (fileId, record) -> {
+              try {
+                Thread.sleep(1);
+              } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+              }
+              applied.add(record.getLsn().getPosition());
+            });
+
+    submitUnits(restore, 50);
+    restore.close();
+
+    Assert.assertEquals(200, applied.size());
+    Assert.assertEquals(new OLogSequenceNumber(1, 50 * 5 - 1), restore.getLastAppliedLsn());
+  }
+
+  /** Page change of atomic unit in the middle of WAL is broken and can not be applied. */
+  @Test
+  public void testUnitsBeforeFailedOneAreApplied() throws Exception {
+    final Set<Long> applied = ConcurrentHashMap.newKeySet();
+    final long brokenPosition = 30 * 5 + 2;
+
+    final OParallelPageRestore restore =
+        new OParallelPageRestore(
+            "test",
+            4,
+            (fileId, record) -> {
+              if (record.getLsn().getPosition() == brokenPosition) {
+                throw new IOException("broken");
+              }
+              applied.add(record.getLsn().getPosition());
+            });
+
+    try {
+      submitUnits(restore, 60);
+      restore.awaitCompletion();
+      Assert.fail();
+    } catch (IOException e) {
+      Assert.assertEquals("broken", e.getMessage());
+    } finally {
+      restore.close();
+    }
+
+    for (long position = 0; position < 30 * 5; position++) {
+      if (position % 5 != 4) {
+        Assert.assertTrue(applied.contains(position));
+      }
+    }
+    Assert.assertEquals(new OLogSequenceNumber(1, 30 * 5 - 1), restore.getLastAppliedLsn());
+  }
+
+  /**
+   * Page change of atomic unit in the middle of WAL fails after changes of the following units are
+   * already queued to the other threads, none of them may be applied.
+   */
+  @Test
+  public void testUnitsAfterFailedOneAreNotApplied() throws Exception {
+    final List<Long> applied = Collections.synchronizedList(new ArrayList<>());
+    final long brokenPosition = 30 * 5 + 1;
+
+    final OParallelPageRestore restore =
+        new OParallelPageRestore(
+            "test",
+            4,
+            (fileId, record) -> {
+              if (record.getLsn().getPosition() == brokenPosition) {
+                try {
+                  Thread.sleep(100);
+                } catch (InterruptedException e) {
+                  Thread.currentThread().interrupt();
+                }
+                throw new IOException("broken");
+              }
+              applied.add(record.getLsn().getPosition());
+            });
+
+    try {
+      submitUnits(restore, 60);
+      restore.awaitCompletion();
+      Assert.fail();
+    } catch (IOException e) {
+      Assert.assertEquals("broken", e.getMessage());
+    } finally {
+      restore.close();
+    }
+
+    // units are applied in order, changes of the broken unit itself may be applied partially
+    for (int i = 1; i < applied.size(); i++) {
+      Assert.assertTrue(applied.get(i - 1) / 5 <= applied.get(i) / 5);
+    }
+    for (final long position : applied) {
+      Assert.assertTrue("Change " + position + " is applied", position < 31 * 5);
+    }
+    Assert.assertEquals(30 * 4 + 3, applied.size());
+    Assert.assertEquals(new OLogSequenceNumber(1, 30 * 5 - 1), restore.getLastAppliedLsn());
+  }
+
+  /**
+   * Submits atomic units of four page changes each, changes of unit N have LSN positions from 5 * N
+   * till 5 * N + 3, the end of unit has position 5 * N + 4.
+   */
+  private static void submitUnits(final OParallelPageRestore restore, final int units)
+      throws IOException {
+    for (int unit = 0; unit < units; unit++) {
+      final List<ORawPair<Long, OUpdatePageRecord>> changes = new ArrayList<>();
+      for (int i = 0; i < 4; i++) {
+        final OUpdatePageRecord record = new OUpdatePageRecord(unit * 4 + i, 1, unit, null);
+        record.setLsn(new OLogSequenceNumber(1, unit * 5 + i));
+        changes.add(new ORawPair<>(1L, record));
+      }
+
+      restore.submit(new OLogSequenceNumber(1, unit * 5 + 4), changes);
+    }
+  }
+}
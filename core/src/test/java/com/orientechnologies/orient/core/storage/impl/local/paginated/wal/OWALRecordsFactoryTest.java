@@ -0,0 +1,48 @@
+package com.orientechnologies.orient.core.storage.impl.local.paginated.wal;
+
+import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.common.WriteableWALRecord;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class OWALRecordsFactoryTest {
+  @Test
+  public void testCompressionModes() {
+    final char[] name = new char[16 * 1024];
+    Arrays.fill(name, 'a');
+    final OFileCreatedWALRecord record = new OFileCreatedWALRecord(42, new String(name), 24);
+
+    final int serializedSize = record.serializedSize() + 2;
+    for (final OWALCompressionMode mode : OWALCompressionMode.values()) {
+      final ByteBuffer buffer = OWALRecordsFactory.toStream(record, mode, 1024).key;
+
+      if (mode == OWALCompressionMode.Off) {
+        Assert.assertEquals(serializedSize, buffer.limit());
+      } else {
+        Assert.assertTrue(buffer.limit() < serializedSize);
+      }
+
+      final WriteableWALRecord restored =
+          OWALRecordsFactory.INSTANCE.fromStream(Arrays.copyOf(buffer.array(), buffer.limit()));
+      Assert.assertTrue(restored instanceof OFileCreatedWALRecord);
+
+      final OFileCreatedWALRecord restoredRecord = (OFileCreatedWALRecord) restored;
+      Assert.assertEquals(record.getFileName(), restoredRecord.getFileName());
+      Assert.assertEquals(record.getFileId(), restoredRecord.getFileId());
+    }
+  }
+
+  @Test
+  public void testSmallRecordIsNotCompressed() {
+    final OFileCreatedWALRecord record = new OFileCreatedWALRecord(42, "aaaaaaaaaaaaaaaa", 24);
+
+    final ByteBuffer buffer =
+        OWALRecordsFactory.toStream(
+                record,
+                OWALCompressionMode.High,
+                OWALRecordsFactory.DEFAULT_MIN_COMPRESSED_RECORD_SIZE)
+            .key;
+    Assert.assertEquals(record.serializedSize() + 2, buffer.limit());
+  }
+}
@@ -169,7 +169,9 @@ public class WOWCacheTestIT {
             null,
             null,
             false,
-            true);
+            true,
+            false,
+            false);
 
     wowCache.loadRegisteredFiles();
   }
@@ -273,7 +275,9 @@ public class WOWCacheTestIT {
             iv,
             aesKey,
             false,
-            true);
+            true,
+            false,
+            false);
 
     wowCache.loadRegisteredFiles();
 
@@ -494,7 +498,9 @@ public class WOWCacheTestIT {
             iv,
             aesKey,
             false,
-            true);
+            true,
+            false,
+            false);
 
     wowCache.loadRegisteredFiles();
 
@@ -0,0 +1,121 @@
+package com.orientechnologies.orient.core.storage.memory;
+
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.db.ODatabaseSession;
+import com.orientechnologies.orient.core.db.ODatabaseType;
+import com.orientechnologies.orient.core.db.OrientDB;
+import com.orientechnologies.orient.core.db.OrientDBConfig;
+import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.sql.executor.OResultSet;
+import com.orientechnologies.orient.core.storage.ORecordDuplicatedException;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class OInPlaceMemoryStorageTest {
+  private static final String DB_NAME = OInPlaceMemoryStorageTest.class.getSimpleName();
+
+  private OrientDB orientDB;
+
+  @Before
+  public void before() {
+    final OrientDBConfig config =
+        OrientDBConfig.builder()
+            .addConfig(OGlobalConfiguration.STORAGE_MEMORY_APPLY_CHANGES_IN_PLACE, true)
+            .build();
+    orientDB = new OrientDB("embedded:", config);
+    orientDB.create(DB_NAME, ODatabaseType.MEMORY, config);
+
+    try (ODatabaseSession session = orientDB.open(DB_NAME, "admin", "admin")) {
+      final OClass clazz = session.createClass("InPlace");
+      clazz.createProperty("key", OType.INTEGER);
+      clazz.createProperty("value", OType.STRING);
+      clazz.createIndex("InPlaceKeyIndex", OClass.INDEX_TYPE.UNIQUE, "key");
+    }
+  }
+
+  @After
+  public void after() {
+    orientDB.drop(DB_NAME);
+    orientDB.close();
+  }
+
+  @Test
+  public void testCommit() {
+    try (ODatabaseSession session = orientDB.open(DB_NAME, "admin", "admin")) {
+      for (int i = 0; i < 1000; i++) {
+        session.begin();
+        session.save(new ODocument("InPlace").field("key", i).field("value", "value" + i));
+        session.commit();
+      }
+
+      session.begin();
+      try (OResultSet result = session.query("select from InPlace where key < 500")) {
+        result.stream()
+            .forEach(
+                item -> {
+                  final ODocument document = (ODocument) item.toElement();
+                  document.field("value", "updated" + document.field("key"));
+                  session.save(document);
+                });
+      }
+      session.commit();
+
+      Assert.assertEquals(1000, session.countClass("InPlace"));
+      Assert.assertEquals(500, count(session, "select from InPlace where value like 'updated%'"));
+      Assert.assertEquals(1, count(session, "select from InPlace where key = 999"));
+    }
+  }
+
+  @Test
+  public void testRollback() {
+    try (ODatabaseSession session = orientDB.open(DB_NAME, "admin", "admin")) {
+      for (int i = 0; i < 100; i++) {
+        session.save(new ODocument("InPlace").field("key", i).field("value", "value" + i));
+      }
+
+      session.begin();
+      try (OResultSet result = session.query("select from InPlace")) {
+        result.stream()
+            .forEach(
+                item -> {
+                  final ODocument document = (ODocument) item.toElement();
+                  document.field("value", "updated");
+                  session.save(document);
+                });
+      }
+
+      for (int i = 100; i < 2000; i++) {
+        session.save(new ODocument("InPlace").field("key", i).field("value", "value" + i));
+      }
+      session.save(new ODocument("InPlace").field("key", 42).field("value", "duplicate"));
+
+      try {
+        session.commit();
+        Assert.fail();
+      } catch (ORecordDuplicatedException e) {
+        // expected
+      }
+
+      session.getLocalCache().clear();
+
+      Assert.assertEquals(100, session.countClass("InPlace"));
+      Assert.assertEquals(0, count(session, "select from InPlace where value = 'updated'"));
+      Assert.assertEquals(0, count(session, "select from InPlace where key = 1000"));
+      Assert.assertEquals(
+          1, count(session, "select from InPlace where key = 42 and value = 'value42'"));
+
+      session.save(new ODocument("InPlace").field("key", 1000).field("value", "value1000"));
+      Assert.assertEquals(101, session.countClass("InPlace"));
+    }
+  }
+
+  private static long count(final ODatabaseSession session, final String query) {
+    try (OResultSet result = session.query(query)) {
+      return result.stream().count();
+    }
+  }
+}
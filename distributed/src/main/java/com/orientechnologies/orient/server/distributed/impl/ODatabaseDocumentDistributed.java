@@ -17,6 +17,7 @@ import com.orientechnologies.orient.core.Orient;
 import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
 import com.orientechnologies.orient.core.db.OScenarioThreadLocal;
 import com.orientechnologies.orient.core.db.OSharedContext;
+import com.orientechnologies.orient.core.db.OStalenessBound;
 import com.orientechnologies.orient.core.db.OrientDBConfig;
 import com.orientechnologies.orient.core.db.document.ODatabaseDocumentEmbedded;
 import com.orientechnologies.orient.core.db.record.OIdentifiable;
@@ -29,6 +30,7 @@ import com.orientechnologies.orient.core.exception.ODatabaseException;
 import com.orientechnologies.orient.core.exception.OLowDiskSpaceException;
 import com.orientechnologies.orient.core.exception.ORecordNotFoundException;
 import com.orientechnologies.orient.core.exception.OSchemaException;
+import com.orientechnologies.orient.core.exception.OStaleReadException;
 import com.orientechnologies.orient.core.exception.OValidationException;
 import com.orientechnologies.orient.core.id.ORID;
 import com.orientechnologies.orient.core.id.ORecordId;
@@ -113,6 +115,26 @@ public class ODatabaseDocumentDistributed extends ODatabaseDocumentEmbedded {
     return distributedManager.getLocalNodeName();
   }
 
+  @Override
+  protected void checkReadStaleness() {
+    final OStalenessBound bound = getReadStalenessBound();
+    if (bound == null || distributedManager.isOffline()) {
+      return;
+    }
+
+    final ODistributedDatabaseImpl distributedDatabase =
+        distributedManager.getMessageService().getDatabase(getName());
+    if (distributedDatabase != null && !distributedDatabase.isWithinStalenessBound(bound)) {
+      throw new OStaleReadException(
+          "Database '"
+              + getName()
+              + "' on server '"
+              + getLocalNodeName()
+              + "' is further behind than the accepted staleness "
+              + bound);
+    }
+  }
+
   /**
    * returns the cluster map for current deploy. The keys of the map are node names, the values
    * contain names of clusters (data files) available on the single node.
@@ -22,6 +22,7 @@ package com.orientechnologies.orient.server.distributed.impl;
 import com.orientechnologies.orient.core.serialization.OStreamable;
 import com.orientechnologies.orient.core.storage.impl.local.OSyncSource;
 import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.OLogSequenceNumber;
+import com.orientechnologies.orient.server.distributed.ORemoteServerController;
 import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.File;
@@ -29,15 +30,35 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
 import java.util.zip.GZIPInputStream;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
 
 public class ODistributedDatabaseChunk implements OStreamable {
+  private static final LZ4Factory LZ4_FACTORY = LZ4Factory.fastestInstance();
+
   public String filePath;
   public long offset;
   public byte[] buffer;
   public boolean gzipCompressed;
   public boolean last;
   public boolean incremental;
+  /** Compress the content with LZ4 when the chunk is sent over the network. */
+  public boolean lz4Compressed;
+  /**
+   * The chunk was read from a backup which allows random access, so any chunk can be requested
+   * again by its offset in parallel or after a failure.
+   */
+  public boolean resumable;
+  /** CRC32 of the uncompressed content, calculated by the node which sends the chunk. */
+  public long checksum;
+  /**
+   * Write checksum, compression and random access flags of the chunk. They are understood only by
+   * nodes of {@link ORemoteServerController#PROTOCOL_VERSION_SYNC_CHUNKS} and later, other nodes
+   * receive the chunk in the old layout.
+   */
+  public boolean extended;
   // This are not used anymore remove in the next version
   public long walSegment;
   public long walPosition;
@@ -67,6 +88,7 @@ public class ODistributedDatabaseChunk implements OStreamable {
           buffer = new byte[read];
           System.arraycopy(local, 0, buffer, 0, read);
         }
+        checksum = calculateChecksum(buffer);
 
         if (in.available() == 0 && backgroundBackup.getFinished().await(0, TimeUnit.NANOSECONDS)) {
           // BACKUP COMPLETED
@@ -150,6 +172,41 @@ public class ODistributedDatabaseChunk implements OStreamable {
       // BACKUP COMPLETED
       last = true;
     }
+    checksum = calculateChecksum(buffer);
+  }
+
+  /**
+   * Creates a chunk from a content already read at the passed offset of a backup which supports
+   * random access, so the chunk can be requested again or out of order by the receiver.
+   */
+  public ODistributedDatabaseChunk(
+      final String filePath,
+      final long offset,
+      final byte[] buffer,
+      final boolean last,
+      final boolean incremental,
+      final boolean lz4Compressed) {
+    this.filePath = filePath;
+    this.offset = offset;
+    this.buffer = buffer;
+    this.last = last;
+    this.incremental = incremental;
+    this.lz4Compressed = lz4Compressed;
+    this.resumable = true;
+    this.walSegment = -1;
+    this.walPosition = -1;
+    this.checksum = calculateChecksum(buffer);
+  }
+
+  /** Verifies the content received from the network against the checksum of the sender. */
+  public boolean isChecksumValid() {
+    return checksum == calculateChecksum(buffer);
+  }
+
+  private static long calculateChecksum(final byte[] content) {
+    final CRC32 crc32 = new CRC32();
+    crc32.update(content, 0, content.length);
+    return crc32.getValue();
   }
 
   @Override
@@ -159,17 +216,42 @@ public class ODistributedDatabaseChunk implements OStreamable {
 
   @Override
   public void toStream(final DataOutput out) throws IOException {
+    final boolean lz4 = extended && lz4Compressed;
+
     out.writeUTF(filePath);
     out.writeLong(offset);
-    out.writeInt(buffer.length);
-    out.write(buffer);
-    // This false is because here there was the momentum
-    out.writeBoolean(false);
+    if (lz4) {
+      // THE CONTENT IS WRITTEN COMPRESSED IN THE EXTENDED SECTION
+      out.writeInt(0);
+    } else {
+      out.writeInt(buffer.length);
+      out.write(buffer);
+    }
+    // Here there was the momentum, now it marks the presence of the extended section
+    out.writeBoolean(extended);
     out.writeBoolean(gzipCompressed);
     out.writeBoolean(last);
     out.writeBoolean(incremental);
     out.writeLong(walSegment);
     out.writeLong(walPosition);
+
+    if (!extended) {
+      return;
+    }
+
+    // EXTENDED SECTION
+    out.writeLong(checksum);
+    out.writeBoolean(resumable);
+    out.writeBoolean(lz4);
+    if (lz4) {
+      final LZ4Compressor compressor = LZ4_FACTORY.fastCompressor();
+      final byte[] compressed = new byte[compressor.maxCompressedLength(buffer.length)];
+      final int compressedLength =
+          compressor.compress(buffer, 0, buffer.length, compressed, 0, compressed.length);
+      out.writeInt(buffer.length);
+      out.writeInt(compressedLength);
+      out.write(compressed, 0, compressedLength);
+    }
   }
 
   @Override
@@ -179,13 +261,30 @@ public class ODistributedDatabaseChunk implements OStreamable {
     int size = in.readInt();
     buffer = new byte[size];
     in.readFully(buffer);
-    // This read boolean is because here there was the momentum
-    in.readBoolean();
+    // Here there was the momentum, now it marks the presence of the extended section
+    extended = in.readBoolean();
     gzipCompressed = in.readBoolean();
     last = in.readBoolean();
     incremental = in.readBoolean();
     walSegment = in.readLong();
     walPosition = in.readLong();
+
+    if (extended) {
+      checksum = in.readLong();
+      resumable = in.readBoolean();
+      lz4Compressed = in.readBoolean();
+      if (lz4Compressed) {
+        final int rawLength = in.readInt();
+        final byte[] compressed = new byte[in.readInt()];
+        in.readFully(compressed);
+        buffer = new byte[rawLength];
+        LZ4_FACTORY.fastDecompressor().decompress(compressed, 0, buffer, 0, rawLength);
+      }
+    } else {
+      checksum = calculateChecksum(buffer);
+      resumable = false;
+      lz4Compressed = false;
+    }
   }
 
   public OLogSequenceNumber getLastWal() {
@@ -37,6 +37,7 @@ import com.orientechnologies.orient.core.Orient;
 import com.orientechnologies.orient.core.command.OCommandDistributedReplicateRequest;
 import com.orientechnologies.orient.core.config.OGlobalConfiguration;
 import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
+import com.orientechnologies.orient.core.db.OStalenessBound;
 import com.orientechnologies.orient.core.exception.OSecurityAccessException;
 import com.orientechnologies.orient.core.id.ORID;
 import com.orientechnologies.orient.core.storage.impl.local.OAbstractPaginatedStorage;
@@ -118,6 +119,7 @@ public class ODistributedDatabaseImpl implements ODistributedDatabase {
   private final OSimpleLockManager<Object> indexKeyLockManager;
   private AtomicLong operationsRunnig = new AtomicLong(0);
   private ODistributedSynchronizedSequence sequenceManager;
+  private final OReplicaLagTracker replicaLag = new OReplicaLagTracker();
   private final AtomicLong pending = new AtomicLong();
   private ThreadPoolExecutor requestExecutor;
   private OLockManager lockManager = new OLockManagerImpl();
@@ -1280,8 +1282,26 @@ public class ODistributedDatabaseImpl implements ODistributedDatabase {
     return activeTxContexts;
   }
 
+  /**
+   * Checks how far the local copy of the database is behind the other nodes, comparing the local
+   * status of the transaction sequences with the latest one they notified, see {@link
+   * OReplicaLagTracker}. A database which is not ONLINE, for example because it is still
+   * synchronizing, never satisfies a bound.
+   */
+  public boolean isWithinStalenessBound(final OStalenessBound bound) {
+    if (!manager.isNodeOnline(localNodeName, databaseName) || sequenceManager == null) {
+      return false;
+    }
+    return replicaLag.isWithinBound(
+        bound, sequenceManager.currentStatus(), System.currentTimeMillis());
+  }
+
   @Override
   public void validateStatus(OTransactionSequenceStatus status) {
+    if (sequenceManager != null) {
+      replicaLag.notifyStatus(
+          status, sequenceManager.currentStatus(), System.currentTimeMillis());
+    }
     List<OTransactionId> res = sequenceManager.checkSelfStatus(status);
     res.removeAll(this.inQueue);
     if (!res.isEmpty()) {
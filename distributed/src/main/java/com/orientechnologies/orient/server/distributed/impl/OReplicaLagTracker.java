@@ -0,0 +1,60 @@
+package com.orientechnologies.orient.server.distributed.impl;
+
+import com.orientechnologies.orient.core.db.OStalenessBound;
+import com.orientechnologies.orient.core.tx.OTransactionSequenceStatus;
+import java.util.Arrays;
+
+/**
+ * Tracks how far the local copy of a database is behind the other nodes of the cluster. The local
+ * status of the transaction sequences is compared with the highest one notified by the other
+ * nodes: every sequence the local status lacks is a transaction committed elsewhere and not yet
+ * here. The lag in time is measured from the moment the local copy was first seen behind.
+ */
+public class OReplicaLagTracker {
+  private long[] latestKnown = new long[0];
+  private long behindSince = -1;
+
+  /** Merges the status notified by another node with the ones notified before. */
+  public synchronized void notifyStatus(
+      final OTransactionSequenceStatus remote,
+      final OTransactionSequenceStatus local,
+      final long now) {
+    final long[] sequences = remote.getStatus();
+    if (sequences.length > latestKnown.length) {
+      latestKnown = Arrays.copyOf(latestKnown, sequences.length);
+    }
+    for (int i = 0; i < sequences.length; i++) {
+      latestKnown[i] = Math.max(latestKnown[i], sequences[i]);
+    }
+    updateBehindSince(getMissingTransactions(local), now);
+  }
+
+  /** Returns the transactions known to be committed on other nodes and not in the local status. */
+  public synchronized long getMissingTransactions(final OTransactionSequenceStatus local) {
+    final long[] sequences = local.getStatus();
+    long missing = 0;
+    for (int i = 0; i < latestKnown.length; i++) {
+      final long localSequence = i < sequences.length ? sequences[i] : 0;
+      if (latestKnown[i] > localSequence) {
+        missing += latestKnown[i] - localSequence;
+      }
+    }
+    return missing;
+  }
+
+  public synchronized boolean isWithinBound(
+      final OStalenessBound bound, final OTransactionSequenceStatus local, final long now) {
+    final long missing = getMissingTransactions(local);
+    updateBehindSince(missing, now);
+    final long lagMillis = behindSince < 0 ? 0 : now - behindSince;
+    return bound.isSatisfiedBy(lagMillis, missing);
+  }
+
+  private void updateBehindSince(final long missing, final long now) {
+    if (missing == 0) {
+      behindSince = -1;
+    } else if (behindSince < 0) {
+      behindSince = now;
+    }
+  }
+}
@@ -3,17 +3,28 @@ package com.orientechnologies.orient.server.distributed.impl;
 import com.orientechnologies.common.collection.OMultiValue;
 import com.orientechnologies.common.exception.OException;
 import com.orientechnologies.common.io.OFileUtils;
+import com.orientechnologies.common.thread.OThreadPoolExecutorWithLogging;
 import com.orientechnologies.common.util.OUncaughtExceptionHandler;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
 import com.orientechnologies.orient.server.distributed.ODistributedException;
 import com.orientechnologies.orient.server.distributed.ODistributedRequest;
 import com.orientechnologies.orient.server.distributed.ODistributedResponse;
 import com.orientechnologies.orient.server.distributed.ODistributedServerLog;
+import com.orientechnologies.orient.server.distributed.ORemoteServerController;
+import com.orientechnologies.orient.server.distributed.ORemoteTaskFactory;
 import com.orientechnologies.orient.server.distributed.impl.task.OCopyDatabaseChunkTask;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.PipedInputStream;
 import java.io.PipedOutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 public class OSyncReceiver implements Runnable {
   private ODistributedAbstractPlugin distributed;
@@ -69,41 +80,64 @@ public class OSyncReceiver implements Runnable {
       inputStream = new PipedInputStream(output);
       started.countDown();
       try {
+        if (!chunk.isChecksumValid()) {
+          if (!chunk.resumable) {
+            throw new ODistributedException(
+                "Checksum mismatch on chunk #1 of database '" + databaseName + "'");
+          }
+          chunk = fetchChunk(chunk.filePath, 1, chunk.offset, chunk.lz4Compressed);
+        }
 
         long fileSize = writeDatabaseChunk(1, chunk, output);
-        for (int chunkNum = 2; !chunk.last; chunkNum++) {
-          final ODistributedResponse response =
-              distributed.sendRequest(
-                  databaseName,
-                  null,
-                  OMultiValue.getSingletonList(iNode),
-                  new OCopyDatabaseChunkTask(
-                      chunk.filePath, chunkNum, chunk.offset + chunk.buffer.length, false),
-                  distributed.getNextMessageIdCounter(),
-                  ODistributedRequest.EXECUTION_MODE.RESPONSE,
-                  null);
-
-          if (response == null) {
-            output.close();
-            done.countDown();
-            return;
-          } else {
-            final Object result = response.getPayload();
-            if (result instanceof Boolean) continue;
-            else if (result instanceof Exception) {
-              ODistributedServerLog.error(
-                  this,
-                  distributed.nodeName,
-                  iNode,
-                  ODistributedServerLog.DIRECTION.IN,
-                  "error on installing database %s in %s (chunk #%d)",
-                  (Exception) result,
-                  databaseName,
-                  dbPath,
-                  chunkNum);
-            } else if (result instanceof ODistributedDatabaseChunk) {
-              chunk = (ODistributedDatabaseChunk) result;
-              fileSize += writeDatabaseChunk(chunkNum, chunk, output);
+        if (!chunk.last && chunk.resumable) {
+          fileSize += fetchChunksInParallel(chunk);
+        } else {
+          for (int chunkNum = 2; !chunk.last; chunkNum++) {
+            final ODistributedResponse response =
+                distributed.sendRequest(
+                    databaseName,
+                    null,
+                    OMultiValue.getSingletonList(iNode),
+                    new OCopyDatabaseChunkTask(
+                        chunk.filePath,
+                        chunkNum,
+                        chunk.offset + chunk.buffer.length,
+                        false,
+                        getSourceProtocolVersion()),
+                    distributed.getNextMessageIdCounter(),
+                    ODistributedRequest.EXECUTION_MODE.RESPONSE,
+                    null);
+
+            if (response == null) {
+              output.close();
+              done.countDown();
+              return;
+            } else {
+              final Object result = response.getPayload();
+              if (result instanceof Boolean) continue;
+              else if (result instanceof Exception) {
+                ODistributedServerLog.error(
+                    this,
+                    distributed.nodeName,
+                    iNode,
+                    ODistributedServerLog.DIRECTION.IN,
+                    "error on installing database %s in %s (chunk #%d)",
+                    (Exception) result,
+                    databaseName,
+                    dbPath,
+                    chunkNum);
+              } else if (result instanceof ODistributedDatabaseChunk) {
+                chunk = (ODistributedDatabaseChunk) result;
+                if (!chunk.isChecksumValid()) {
+                  throw new ODistributedException(
+                      "Checksum mismatch on chunk #"
+                          + chunkNum
+                          + " of database '"
+                          + databaseName
+                          + "'");
+                }
+                fileSize += writeDatabaseChunk(chunkNum, chunk, output);
+              }
             }
           }
         }
@@ -146,6 +180,147 @@ public class OSyncReceiver implements Runnable {
     }
   }
 
+  /**
+   * Fetches the remaining chunks of a backup which supports random access. Since all the chunks
+   * except the last one have the same size of the first one, up to {@link
+   * OGlobalConfiguration#DISTRIBUTED_DEPLOYDB_PARALLEL_CHUNKS} chunks are requested in parallel and
+   * written in order as soon as they arrive.
+   */
+  private long fetchChunksInParallel(final ODistributedDatabaseChunk firstChunk)
+      throws IOException, InterruptedException {
+    final int parallelChunks =
+        Math.max(1, OGlobalConfiguration.DISTRIBUTED_DEPLOYDB_PARALLEL_CHUNKS.getValueAsInteger());
+    final boolean compressed =
+        OGlobalConfiguration.DISTRIBUTED_DEPLOYDB_CHUNK_COMPRESSION.getValueAsBoolean();
+    final int chunkSize = firstChunk.buffer.length;
+
+    final ExecutorService executor =
+        new OThreadPoolExecutorWithLogging(
+            parallelChunks,
+            parallelChunks,
+            0L,
+            TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(),
+            r -> {
+              final Thread thread = new Thread(r);
+              thread.setDaemon(true);
+              thread.setName(
+                  "OrientDB installDatabase chunk fetcher node="
+                      + distributed.nodeName
+                      + " db="
+                      + databaseName);
+              thread.setUncaughtExceptionHandler(new OUncaughtExceptionHandler());
+              return thread;
+            });
+
+    final Deque<Future<ODistributedDatabaseChunk>> window = new ArrayDeque<>();
+    long written = 0;
+    int nextChunkNum = 2;
+    int chunkNum = 2;
+    try {
+      boolean last = false;
+      while (!last) {
+        while (window.size() < parallelChunks) {
+          final int num = nextChunkNum++;
+          final long offset = firstChunk.offset + (long) (num - 1) * chunkSize;
+          window.addLast(
+              executor.submit(() -> fetchChunk(firstChunk.filePath, num, offset, compressed)));
+        }
+
+        final ODistributedDatabaseChunk chunk = window.removeFirst().get();
+        written += writeDatabaseChunk(chunkNum++, chunk, output);
+        last = chunk.last;
+      }
+    } catch (ExecutionException e) {
+      throw OException.wrapException(
+          new ODistributedException("Error on transferring database '" + databaseName + "'"),
+          e.getCause());
+    } finally {
+      for (Future<ODistributedDatabaseChunk> future : window) {
+        future.cancel(true);
+      }
+      executor.shutdownNow();
+    }
+
+    return written;
+  }
+
+  /**
+   * Returns the distributed protocol version of the node which sends the database, so the chunks
+   * are requested in a layout it understands.
+   */
+  private int getSourceProtocolVersion() {
+    final ORemoteTaskFactory factory =
+        distributed.getTaskFactoryManager().getFactoryByServerName(iNode);
+    return factory != null
+        ? factory.getProtocolVersion()
+        : ORemoteServerController.MIN_SUPPORTED_PROTOCOL_VERSION;
+  }
+
+  /**
+   * Requests the chunk at the passed offset, requesting it again if it does not arrive or its
+   * checksum does not match, up to {@link OGlobalConfiguration#DISTRIBUTED_DEPLOYDB_CHUNK_RETRIES}
+   * times.
+   */
+  private ODistributedDatabaseChunk fetchChunk(
+      final String filePath, final int chunkNum, final long offset, final boolean compressed) {
+    final int maxRetries =
+        OGlobalConfiguration.DISTRIBUTED_DEPLOYDB_CHUNK_RETRIES.getValueAsInteger();
+    for (int attempt = 0; ; attempt++) {
+      Object result;
+      try {
+        final ODistributedResponse response =
+            distributed.sendRequest(
+                databaseName,
+                null,
+                OMultiValue.getSingletonList(iNode),
+                new OCopyDatabaseChunkTask(
+                    filePath, chunkNum, offset, compressed, getSourceProtocolVersion()),
+                distributed.getNextMessageIdCounter(),
+                ODistributedRequest.EXECUTION_MODE.RESPONSE,
+                null);
+        result = response != null ? response.getPayload() : null;
+      } catch (RuntimeException e) {
+        result = e;
+      }
+
+      if (result instanceof ODistributedDatabaseChunk) {
+        final ODistributedDatabaseChunk chunk = (ODistributedDatabaseChunk) result;
+        if (chunk.isChecksumValid()) {
+          return chunk;
+        }
+        result = "checksum mismatch";
+      }
+
+      if (attempt >= maxRetries) {
+        throw new ODistributedException(
+            "Cannot receive chunk #"
+                + chunkNum
+                + " offset="
+                + offset
+                + " of database '"
+                + databaseName
+                + "' after "
+                + (attempt + 1)
+                + " attempts, last result: "
+                + result);
+      }
+
+      ODistributedServerLog.warn(
+          this,
+          distributed.nodeName,
+          iNode,
+          ODistributedServerLog.DIRECTION.IN,
+          "Error on receiving chunk #%d offset=%d of database '%s' (%s), requesting it again (attempt %d/%d)",
+          chunkNum,
+          offset,
+          databaseName,
+          result,
+          attempt + 1,
+          maxRetries);
+    }
+  }
+
   protected long writeDatabaseChunk(
       final int iChunkId, final ODistributedDatabaseChunk chunk, final OutputStream out)
       throws IOException {
@@ -51,6 +51,7 @@ public class OSharedContextDistributed extends OSharedContextEmbedded {
                 .getContextConfiguration()
                 .getValueAsInteger(OGlobalConfiguration.STATEMENT_CACHE_SIZE));
     this.registerListener(executionPlanCache);
+    this.registerListener((OCommandCacheSoftRefs) commandCache);
 
     queryStats = new OQueryStats();
   }
@@ -1,5 +1,6 @@
 package com.orientechnologies.orient.server.distributed.impl.task;
 
+import com.orientechnologies.common.exception.OException;
 import com.orientechnologies.common.log.OLogManager;
 import com.orientechnologies.common.types.OModifiableBoolean;
 import com.orientechnologies.orient.core.command.OCommandOutputListener;
@@ -10,24 +11,30 @@ import com.orientechnologies.orient.core.storage.impl.local.OSyncSource;
 import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.OLogSequenceNumber;
 import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.OWriteAheadLog;
 import com.orientechnologies.orient.server.distributed.ODistributedDatabase;
+import com.orientechnologies.orient.server.distributed.ODistributedException;
 import com.orientechnologies.orient.server.distributed.ODistributedRequestId;
 import com.orientechnologies.orient.server.distributed.ODistributedServerLog;
 import com.orientechnologies.orient.server.distributed.ODistributedServerManager;
+import com.orientechnologies.orient.server.distributed.impl.ODistributedDatabaseChunk;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.io.PipedInputStream;
-import java.io.PipedOutputStream;
+import java.io.RandomAccessFile;
 import java.nio.file.Files;
 import java.nio.file.Paths;
-import java.util.TimerTask;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
+/**
+ * Writes the backup of a database in a file which is then served in chunks to the node which
+ * installs the database. Since the file is kept, chunks can be read at any offset: in parallel and
+ * again after a failure, also while the backup is still running.
+ */
 public class OBackgroundBackup implements Runnable, OSyncSource {
   private OSyncDatabaseTask oSyncDatabaseTask;
   private final ODistributedServerManager iManager;
@@ -41,8 +48,9 @@ public class OBackgroundBackup implements Runnable, OSyncSource {
   private final CountDownLatch finished = new CountDownLatch(1);
   private volatile InputStream inputStream;
   public volatile boolean valid = true;
-  private TimerTask timerTask;
-  private volatile long lastRead;
+  private volatile boolean failed = false;
+  // the backup is written already deflated, compressing it again on the wire is a waste of CPU
+  private volatile boolean deflated = false;
 
   public OBackgroundBackup(
       OSyncDatabaseTask oSyncDatabaseTask,
@@ -72,7 +80,6 @@ public class OBackgroundBackup implements Runnable, OSyncSource {
                 + " db="
                 + database.getName());
     database.activateOnCurrentThread();
-    startExpireTask();
     try {
       try {
 
@@ -90,10 +97,7 @@ public class OBackgroundBackup implements Runnable, OSyncSource {
         else resultedBackupFile.getParentFile().mkdirs();
         resultedBackupFile.createNewFile();
 
-        final OutputStream fileOutputStream = new FileOutputStream(resultedBackupFile);
-        PipedOutputStream pipedOutputStream = new PipedOutputStream();
-        inputStream = new PipedInputStream(pipedOutputStream, OSyncDatabaseTask.CHUNK_MAX_SIZE);
-        OutputStream dest = new TeeOutputStream(fileOutputStream, pipedOutputStream);
+        final OutputStream dest = new FileOutputStream(resultedBackupFile);
         if (database.getStorage().supportIncremental()) {
           OWriteAheadLog wal =
               ((OAbstractPaginatedStorage) database.getStorage().getUnderlying()).getWALInstance();
@@ -105,14 +109,18 @@ public class OBackgroundBackup implements Runnable, OSyncSource {
 
           try {
             incremental.set(true);
+            // the incremental backup is a zip stream of deflated entries
+            deflated = true;
             started.countDown();
             database.getStorage().fullIncrementalBackup(dest);
           } catch (UnsupportedOperationException u) {
             throw u;
-          } catch (RuntimeException r) {
-            finished.countDown();
-            throw r;
           } finally {
+            try {
+              dest.close();
+            } catch (IOException e2) {
+              OLogManager.instance().debug(this, "Error performing backup ", e2);
+            }
             wal.removeCutTillLimit(lsn);
           }
           finished.countDown();
@@ -138,6 +146,7 @@ public class OBackgroundBackup implements Runnable, OSyncSource {
             Callable<Object> startListener =
                 () -> {
                   incremental.set(false);
+                  deflated = compression > 0;
                   started.countDown();
                   return null;
                 };
@@ -154,8 +163,6 @@ public class OBackgroundBackup implements Runnable, OSyncSource {
             } catch (IOException e2) {
               OLogManager.instance().debug(this, "Error performing backup ", e2);
             }
-            finished.countDown();
-            this.timerTask.cancel();
           }
         }
 
@@ -176,11 +183,10 @@ public class OBackgroundBackup implements Runnable, OSyncSource {
                 e,
                 database.getName());
         throw e;
-      } finally {
-        finished.countDown();
-        this.timerTask.cancel();
       }
     } catch (Exception e) {
+      failed = true;
+      valid = false;
       OLogManager.instance()
           .errorNoDb(
               this,
@@ -192,30 +198,52 @@ public class OBackgroundBackup implements Runnable, OSyncSource {
       } catch (IOException ioe) {
         OLogManager.instance().errorNoDb(this, "Can not delete file %s\n", ioe, resultedBackupFile);
       }
+    } finally {
+      started.countDown();
+      finished.countDown();
     }
   }
 
-  private void startExpireTask() {
-    lastRead = System.currentTimeMillis();
-    long timeout =
-        database
-            .getConfiguration()
-            .getValueAsLong(OGlobalConfiguration.DISTRIBUTED_DEPLOYCHUNK_TASK_SYNCH_TIMEOUT);
-    timerTask =
-        new TimerTask() {
-          @Override
-          public void run() {
-            if (System.currentTimeMillis() - lastRead > timeout * 3) {
-              try {
-                inputStream.close();
-                this.cancel();
-              } catch (IOException e) {
-                e.printStackTrace();
-              }
-            }
-          }
-        };
-    database.getSharedContext().getOrientDB().schedule(timerTask, timeout, timeout);
+  /**
+   * Reads the chunk of the backup which starts at the passed offset. If the backup is still running
+   * waits until a full chunk is written, so all the chunks except the last one have the same size
+   * and the receiver can compute their offsets upfront. The chunk is not compressed again if the
+   * backup is already deflated.
+   */
+  public ODistributedDatabaseChunk readChunk(
+      final long offset, final int maxSize, final boolean compressed)
+      throws IOException, InterruptedException {
+    // the size is read after the completion, so a completed backup is never seen with a stale size
+    boolean completed = finished.getCount() == 0;
+    long fileSize = resultedBackupFile.length();
+    while (!completed && fileSize < offset + maxSize) {
+      if (failed) {
+        throw new ODistributedException(
+            "Backup of database '" + database.getName() + "' failed, chunk cannot be read");
+      }
+      completed = finished.await(100, TimeUnit.MILLISECONDS);
+      fileSize = resultedBackupFile.length();
+    }
+    if (failed) {
+      throw new ODistributedException(
+          "Backup of database '" + database.getName() + "' failed, chunk cannot be read");
+    }
+
+    final int toRead = (int) Math.max(0, Math.min(maxSize, fileSize - offset));
+    final byte[] buffer = new byte[toRead];
+    try (RandomAccessFile file = new RandomAccessFile(resultedBackupFile, "r")) {
+      file.seek(offset);
+      file.readFully(buffer);
+    }
+
+    final boolean last = completed && offset + toRead >= fileSize;
+    return new ODistributedDatabaseChunk(
+        resultedBackupFile.getAbsolutePath(),
+        offset,
+        buffer,
+        last,
+        incremental.get(),
+        compressed && !deflated);
   }
 
   public void makeStreamFromFile() throws IOException, InterruptedException {
@@ -244,7 +272,16 @@ public class OBackgroundBackup implements Runnable, OSyncSource {
   }
 
   public InputStream getInputStream() {
-    this.lastRead = System.currentTimeMillis();
+    if (inputStream == null) {
+      try {
+        makeStreamFromFile();
+      } catch (IOException e) {
+        throw OException.wrapException(
+            new ODistributedException("Cannot open backup file " + finalBackupPath), e);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
     return inputStream;
   }
 
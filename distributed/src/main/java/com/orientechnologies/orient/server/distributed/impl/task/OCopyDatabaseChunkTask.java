@@ -29,6 +29,7 @@ import com.orientechnologies.orient.server.distributed.ODistributedException;
 import com.orientechnologies.orient.server.distributed.ODistributedRequestId;
 import com.orientechnologies.orient.server.distributed.ODistributedServerLog;
 import com.orientechnologies.orient.server.distributed.ODistributedServerManager;
+import com.orientechnologies.orient.server.distributed.ORemoteServerController;
 import com.orientechnologies.orient.server.distributed.ORemoteTaskFactory;
 import com.orientechnologies.orient.server.distributed.impl.ODistributedDatabaseChunk;
 import com.orientechnologies.orient.server.distributed.impl.ODistributedStorage;
@@ -50,15 +51,26 @@ public class OCopyDatabaseChunkTask extends OAbstractReplicatedTask {
   private int chunkNum;
   private long offset;
   private boolean compressed;
+  private int protocolVersion = ORemoteServerController.CURRENT_PROTOCOL_VERSION;
 
   public OCopyDatabaseChunkTask() {}
 
+  /**
+   * @param iCompressed asks to compress the chunk on the wire, honoured only if the node which
+   *     serves the chunk speaks the protocol version passed
+   * @param iProtocolVersion distributed protocol version of the node which serves the chunk
+   */
   public OCopyDatabaseChunkTask(
-      final String iFileName, final int iChunkNum, final long iOffset, final boolean iCompressed) {
+      final String iFileName,
+      final int iChunkNum,
+      final long iOffset,
+      final boolean iCompressed,
+      final int iProtocolVersion) {
     fileName = iFileName;
     chunkNum = iChunkNum;
     offset = iOffset;
     compressed = iCompressed;
+    protocolVersion = iProtocolVersion;
   }
 
   @Override
@@ -77,9 +89,20 @@ public class OCopyDatabaseChunkTask extends OAbstractReplicatedTask {
       throw new ODistributedException("database not available anymore during sync");
     }
     OSyncSource b = storage.getLastValidBackup();
+    if (b == null) {
+      throw new ODistributedException("backup not available anymore during sync");
+    }
 
-    final ODistributedDatabaseChunk result =
-        new ODistributedDatabaseChunk(b, OSyncDatabaseTask.CHUNK_MAX_SIZE);
+    final ODistributedDatabaseChunk result;
+    if (b instanceof OBackgroundBackup) {
+      // FULL BACKUPS ARE KEPT ON DISK: THE CHUNK CAN BE READ AT ANY OFFSET
+      result =
+          ((OBackgroundBackup) b)
+              .readChunk(offset, OSyncDatabaseTask.CHUNK_MAX_SIZE, compressed);
+    } else {
+      result = new ODistributedDatabaseChunk(b, OSyncDatabaseTask.CHUNK_MAX_SIZE);
+    }
+    result.extended = protocolVersion >= ORemoteServerController.PROTOCOL_VERSION_SYNC_CHUNKS;
 
     ODistributedServerLog.info(
         this,
@@ -119,6 +142,9 @@ public class OCopyDatabaseChunkTask extends OAbstractReplicatedTask {
     out.writeUTF(fileName);
     out.writeInt(chunkNum);
     out.writeLong(offset);
+    if (protocolVersion >= ORemoteServerController.PROTOCOL_VERSION_SYNC_CHUNKS) {
+      out.writeBoolean(compressed);
+    }
   }
 
   @Override
@@ -126,6 +152,10 @@ public class OCopyDatabaseChunkTask extends OAbstractReplicatedTask {
     fileName = in.readUTF();
     chunkNum = in.readInt();
     offset = in.readLong();
+    protocolVersion = factory.getProtocolVersion();
+    compressed =
+        protocolVersion >= ORemoteServerController.PROTOCOL_VERSION_SYNC_CHUNKS
+            && in.readBoolean();
   }
 
   @Override
@@ -153,4 +183,8 @@ public class OCopyDatabaseChunkTask extends OAbstractReplicatedTask {
   public boolean isCompressed() {
     return compressed;
   }
+
+  public int getProtocolVersion() {
+    return protocolVersion;
+  }
 }
@@ -19,6 +19,7 @@
  */
 package com.orientechnologies.orient.server.distributed.impl.task;
 
+import com.orientechnologies.orient.server.distributed.ORemoteServerController;
 import com.orientechnologies.orient.server.distributed.ORemoteTaskFactory;
 import com.orientechnologies.orient.server.distributed.operation.NodeOperationTask;
 import com.orientechnologies.orient.server.distributed.task.ORemoteTask;
@@ -30,11 +31,25 @@ import com.orientechnologies.orient.server.distributed.task.ORemoteTask;
  *
  * <ul>
  *   <li>V2 (11/09/2017)
+ *   <li>V3: chunks of database sync are read by offset, carry a checksum and can be compressed
  * </ul>
  *
+ * <p>Tasks read their content according to the protocol version of the factory, which is the one
+ * negotiated with the node which sent them.
+ *
  * @author Luigi Dell'Aquila (l.dellaquila--at--orientdb.com)
  */
 public class ODefaultRemoteTaskFactoryV3 implements ORemoteTaskFactory {
+  private final int protocolVersion;
+
+  public ODefaultRemoteTaskFactoryV3() {
+    this(ORemoteServerController.CURRENT_PROTOCOL_VERSION);
+  }
+
+  public ODefaultRemoteTaskFactoryV3(final int protocolVersion) {
+    this.protocolVersion = protocolVersion;
+  }
+
   @Override
   public ORemoteTask createTask(final int code) {
     switch (code) {
@@ -113,6 +128,6 @@ public class ODefaultRemoteTaskFactoryV3 implements ORemoteTaskFactory {
 
   @Override
   public int getProtocolVersion() {
-    return 3;
+    return protocolVersion;
   }
 }
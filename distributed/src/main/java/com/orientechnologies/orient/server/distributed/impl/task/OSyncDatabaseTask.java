@@ -34,6 +34,7 @@ import com.orientechnologies.orient.server.distributed.ODistributedRequestId;
 import com.orientechnologies.orient.server.distributed.ODistributedServerLog;
 import com.orientechnologies.orient.server.distributed.ODistributedServerLog.DIRECTION;
 import com.orientechnologies.orient.server.distributed.ODistributedServerManager;
+import com.orientechnologies.orient.server.distributed.ORemoteServerController;
 import com.orientechnologies.orient.server.distributed.ORemoteTaskFactory;
 import com.orientechnologies.orient.server.distributed.impl.ODistributedDatabaseChunk;
 import com.orientechnologies.orient.server.distributed.impl.ODistributedStorage;
@@ -51,6 +52,8 @@ import java.util.concurrent.TimeUnit;
 public class OSyncDatabaseTask extends OAbstractSyncDatabaseTask {
   public static final int FACTORYID = 14;
 
+  private int protocolVersion = ORemoteServerController.CURRENT_PROTOCOL_VERSION;
+
   public OSyncDatabaseTask() {}
 
   @Override
@@ -152,7 +155,6 @@ public class OSyncDatabaseTask extends OAbstractSyncDatabaseTask {
           // WHILE THE DB IS NOT UPDATED
           ((ODistributedStorage) database.getStorage()).setLastValidBackup(backup);
         } else {
-          backup.makeStreamFromFile();
           ODistributedServerLog.info(
               this,
               iManager.getLocalNodeName(),
@@ -172,7 +174,11 @@ public class OSyncDatabaseTask extends OAbstractSyncDatabaseTask {
         }
 
         final ODistributedDatabaseChunk chunk =
-            new ODistributedDatabaseChunk(backup, CHUNK_MAX_SIZE);
+            backup.readChunk(
+                0,
+                CHUNK_MAX_SIZE,
+                OGlobalConfiguration.DISTRIBUTED_DEPLOYDB_CHUNK_COMPRESSION.getValueAsBoolean());
+        chunk.extended = protocolVersion >= ORemoteServerController.PROTOCOL_VERSION_SYNC_CHUNKS;
 
         ODistributedServerLog.info(
             this,
@@ -234,6 +240,7 @@ public class OSyncDatabaseTask extends OAbstractSyncDatabaseTask {
   @Override
   public void fromStream(final DataInput in, final ORemoteTaskFactory factory) throws IOException {
     random = in.readLong();
+    protocolVersion = factory.getProtocolVersion();
   }
 
   @Override
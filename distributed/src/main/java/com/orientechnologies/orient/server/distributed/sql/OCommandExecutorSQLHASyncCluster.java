@@ -46,6 +46,8 @@ import com.orientechnologies.orient.server.distributed.ODistributedException;
 import com.orientechnologies.orient.server.distributed.ODistributedRequest;
 import com.orientechnologies.orient.server.distributed.ODistributedResponse;
 import com.orientechnologies.orient.server.distributed.ODistributedServerLog;
+import com.orientechnologies.orient.server.distributed.ORemoteServerController;
+import com.orientechnologies.orient.server.distributed.ORemoteTaskFactory;
 import com.orientechnologies.orient.server.distributed.impl.ODatabaseDocumentDistributed;
 import com.orientechnologies.orient.server.distributed.impl.ODistributedAbstractPlugin;
 import com.orientechnologies.orient.server.distributed.impl.ODistributedDatabaseChunk;
@@ -208,6 +210,12 @@ public class OCommandExecutorSQLHASyncCluster extends OCommandExecutorSQLAbstrac
           if (completedFile.exists()) completedFile.delete();
 
           fileSize = writeDatabaseChunk(nodeName, 1, chunk, out);
+          final ORemoteTaskFactory sourceFactory =
+              dManager.getTaskFactoryManager().getFactoryByServerName(r.getKey());
+          final int sourceProtocolVersion =
+              sourceFactory != null
+                  ? sourceFactory.getProtocolVersion()
+                  : ORemoteServerController.MIN_SUPPORTED_PROTOCOL_VERSION;
           for (int chunkNum = 2; !chunk.last; chunkNum++) {
             final Object result =
                 dManager.sendRequest(
@@ -215,7 +223,11 @@ public class OCommandExecutorSQLHASyncCluster extends OCommandExecutorSQLAbstrac
                     null,
                     OMultiValue.getSingletonList(r.getKey()),
                     new OCopyDatabaseChunkTask(
-                        chunk.filePath, chunkNum, chunk.offset + chunk.buffer.length, false),
+                        chunk.filePath,
+                        chunkNum,
+                        chunk.offset + chunk.buffer.length,
+                        false,
+                        sourceProtocolVersion),
                     dManager.getNextMessageIdCounter(),
                     ODistributedRequest.EXECUTION_MODE.RESPONSE,
                     null);
@@ -0,0 +1,111 @@
+package com.orientechnologies.orient.server.distributed.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ODistributedDatabaseChunkTest {
+
+  @Test
+  public void testCompressedSerialization() throws IOException {
+    final byte[] content = new byte[64 * 1024];
+    for (int i = 0; i < content.length; i++) {
+      content[i] = (byte) (i % 17);
+    }
+
+    final ODistributedDatabaseChunk from =
+        new ODistributedDatabaseChunk("/tmp/backup.zip", 1024, content, false, true, true);
+    from.extended = true;
+    final byte[] serialized = serialize(from);
+    Assert.assertTrue(serialized.length < content.length);
+
+    final ODistributedDatabaseChunk to = deserialize(serialized);
+    Assert.assertEquals(from.filePath, to.filePath);
+    Assert.assertEquals(from.offset, to.offset);
+    Assert.assertEquals(from.last, to.last);
+    Assert.assertEquals(from.incremental, to.incremental);
+    Assert.assertTrue(to.resumable);
+    Assert.assertTrue(to.lz4Compressed);
+    Assert.assertArrayEquals(content, to.buffer);
+    Assert.assertTrue(to.isChecksumValid());
+  }
+
+  @Test
+  public void testUncompressedSerialization() throws IOException {
+    final byte[] content = new byte[1000];
+    new Random(42).nextBytes(content);
+
+    final ODistributedDatabaseChunk from =
+        new ODistributedDatabaseChunk("/tmp/backup.zip", 0, content, true, false, false);
+    from.extended = true;
+    final ODistributedDatabaseChunk to = deserialize(serialize(from));
+
+    Assert.assertTrue(to.last);
+    Assert.assertFalse(to.lz4Compressed);
+    Assert.assertArrayEquals(content, to.buffer);
+    Assert.assertTrue(to.isChecksumValid());
+  }
+
+  @Test
+  public void testCorruptedContentFailsChecksum() throws IOException {
+    final byte[] content = new byte[1000];
+    new Random(42).nextBytes(content);
+
+    final ODistributedDatabaseChunk from =
+        new ODistributedDatabaseChunk("/tmp/backup.zip", 0, content, false, false, false);
+    from.extended = true;
+    final byte[] serialized = serialize(from);
+    // THE CONTENT STARTS AFTER THE FILE PATH, THE OFFSET AND THE CONTENT LENGTH
+    final int contentStart = 2 + "/tmp/backup.zip".length() + 8 + 4;
+    serialized[contentStart + 10] ^= 0xFF;
+
+    final ODistributedDatabaseChunk to = deserialize(serialized);
+    Assert.assertFalse(Arrays.equals(content, to.buffer));
+    Assert.assertFalse(to.isChecksumValid());
+  }
+
+  @Test
+  public void testOldLayoutSerialization() throws IOException {
+    final byte[] content = new byte[1000];
+    new Random(42).nextBytes(content);
+
+    // NODES OF THE OLD PROTOCOL RECEIVE THE CHUNK WITHOUT CHECKSUM AND COMPRESSION
+    final ODistributedDatabaseChunk from =
+        new ODistributedDatabaseChunk("/tmp/backup.zip", 512, content, true, false, true);
+    final byte[] serialized = serialize(from);
+    final int oldLayoutLength = 2 + "/tmp/backup.zip".length() + 8 + 4 + content.length + 4 + 16;
+    Assert.assertEquals(oldLayoutLength, serialized.length);
+
+    final ODistributedDatabaseChunk to = deserialize(serialized);
+    Assert.assertFalse(to.extended);
+    Assert.assertFalse(to.resumable);
+    Assert.assertFalse(to.lz4Compressed);
+    Assert.assertEquals(from.offset, to.offset);
+    Assert.assertTrue(to.last);
+    Assert.assertArrayEquals(content, to.buffer);
+    Assert.assertTrue(to.isChecksumValid());
+  }
+
+  private static byte[] serialize(final ODistributedDatabaseChunk chunk) throws IOException {
+    final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(baos)) {
+      chunk.toStream(out);
+    }
+    return baos.toByteArray();
+  }
+
+  private static ODistributedDatabaseChunk deserialize(final byte[] serialized)
+      throws IOException {
+    final ODistributedDatabaseChunk chunk = new ODistributedDatabaseChunk();
+    try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(serialized))) {
+      chunk.fromStream(in);
+    }
+    return chunk;
+  }
+}
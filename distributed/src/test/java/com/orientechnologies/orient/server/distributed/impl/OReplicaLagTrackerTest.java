@@ -0,0 +1,74 @@
+package com.orientechnologies.orient.server.distributed.impl;
+
+import com.orientechnologies.orient.core.db.OStalenessBound;
+import com.orientechnologies.orient.core.tx.OTransactionId;
+import com.orientechnologies.orient.server.distributed.impl.task.transaction.OTransactionSequenceManager;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class OReplicaLagTrackerTest {
+
+  @Test
+  public void testReplicaBehind() {
+    final OTransactionSequenceManager coordinator = new OTransactionSequenceManager("one", 1000);
+    final OTransactionSequenceManager replica = new OTransactionSequenceManager("two", 1000);
+    final OReplicaLagTracker lag = new OReplicaLagTracker();
+
+    final OTransactionId first = coordinator.next().get();
+    final OTransactionId second = coordinator.next().get();
+    final OTransactionId third = coordinator.next().get();
+    coordinator.notifySuccess(first);
+    coordinator.notifySuccess(second);
+    coordinator.notifySuccess(third);
+    // THE REPLICA COMMITTED ONLY THE FIRST TRANSACTION
+    replica.validateTransactionId(first);
+    replica.notifySuccess(first);
+
+    lag.notifyStatus(coordinator.currentStatus(), replica.currentStatus(), 1000);
+    Assert.assertEquals(2, lag.getMissingTransactions(replica.currentStatus()));
+    Assert.assertFalse(
+        lag.isWithinBound(OStalenessBound.ofTransactions(1), replica.currentStatus(), 1000));
+    Assert.assertTrue(
+        lag.isWithinBound(OStalenessBound.ofTransactions(2), replica.currentStatus(), 1000));
+    Assert.assertTrue(
+        lag.isWithinBound(OStalenessBound.ofMillis(500), replica.currentStatus(), 1500));
+    Assert.assertFalse(
+        lag.isWithinBound(OStalenessBound.ofMillis(500), replica.currentStatus(), 1600));
+
+    // A STALE STATUS OF ANOTHER NODE DOES NOT HIDE THE LAG
+    lag.notifyStatus(replica.currentStatus(), replica.currentStatus(), 1700);
+    Assert.assertEquals(2, lag.getMissingTransactions(replica.currentStatus()));
+
+    replica.validateTransactionId(second);
+    replica.notifySuccess(second);
+    replica.validateTransactionId(third);
+    replica.notifySuccess(third);
+    Assert.assertEquals(0, lag.getMissingTransactions(replica.currentStatus()));
+    Assert.assertTrue(
+        lag.isWithinBound(OStalenessBound.of(0, 0), replica.currentStatus(), 2000));
+  }
+
+  @Test
+  public void testLagMeasuredFromFirstTimeBehind() {
+    final OTransactionSequenceManager coordinator = new OTransactionSequenceManager("one", 1000);
+    final OTransactionSequenceManager replica = new OTransactionSequenceManager("two", 1000);
+    final OReplicaLagTracker lag = new OReplicaLagTracker();
+
+    final OTransactionId first = coordinator.next().get();
+    coordinator.notifySuccess(first);
+    replica.validateTransactionId(first);
+    replica.notifySuccess(first);
+    // THE REPLICA IS UP TO DATE WHEN THE STATUS ARRIVES
+    lag.notifyStatus(coordinator.currentStatus(), replica.currentStatus(), 1000);
+    Assert.assertTrue(
+        lag.isWithinBound(OStalenessBound.ofMillis(0), replica.currentStatus(), 5000));
+
+    final OTransactionId second = coordinator.next().get();
+    coordinator.notifySuccess(second);
+    lag.notifyStatus(coordinator.currentStatus(), replica.currentStatus(), 6000);
+    Assert.assertTrue(
+        lag.isWithinBound(OStalenessBound.ofMillis(100), replica.currentStatus(), 6100));
+    Assert.assertFalse(
+        lag.isWithinBound(OStalenessBound.ofMillis(100), replica.currentStatus(), 6101));
+  }
+}
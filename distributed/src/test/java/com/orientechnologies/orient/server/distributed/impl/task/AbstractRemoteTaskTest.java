@@ -1,5 +1,6 @@
 package com.orientechnologies.orient.server.distributed.impl.task;
 
+import com.orientechnologies.orient.server.distributed.ORemoteTaskFactory;
 import com.orientechnologies.orient.server.distributed.task.ORemoteTask;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
@@ -10,6 +11,11 @@ import java.io.IOException;
 public abstract class AbstractRemoteTaskTest {
 
   protected void serializeDeserialize(ORemoteTask from, ORemoteTask to) throws IOException {
+    serializeDeserialize(from, to, new ODefaultRemoteTaskFactoryV3());
+  }
+
+  protected void serializeDeserialize(
+      ORemoteTask from, ORemoteTask to, ORemoteTaskFactory factory) throws IOException {
     ByteArrayOutputStream baos = new ByteArrayOutputStream();
     DataOutputStream out = new DataOutputStream(baos);
     from.toStream(out);
@@ -18,6 +24,6 @@ public abstract class AbstractRemoteTaskTest {
     baos.close();
     ByteArrayInputStream bais = new ByteArrayInputStream(serialized);
     DataInputStream in = new DataInputStream(bais);
-    to.fromStream(in, new ODefaultRemoteTaskFactoryV3());
+    to.fromStream(in, factory);
   }
 }
@@ -1,5 +1,6 @@
 package com.orientechnologies.orient.server.distributed.impl.task;
 
+import com.orientechnologies.orient.server.distributed.ORemoteServerController;
 import java.io.IOException;
 import org.junit.Assert;
 import org.junit.Test;
@@ -8,7 +9,9 @@ public class OCopyDatabaseChunkTaskTest extends AbstractRemoteTaskTest {
 
   @Test
   public void testSerialization() throws IOException {
-    OCopyDatabaseChunkTask from = new OCopyDatabaseChunkTask("foo1", 10, 20L, false);
+    OCopyDatabaseChunkTask from =
+        new OCopyDatabaseChunkTask(
+            "foo1", 10, 20L, false, ORemoteServerController.CURRENT_PROTOCOL_VERSION);
     OCopyDatabaseChunkTask to = new OCopyDatabaseChunkTask();
     serializeDeserialize(from, to);
 
@@ -17,4 +20,31 @@ public class OCopyDatabaseChunkTaskTest extends AbstractRemoteTaskTest {
     Assert.assertEquals(from.getOffset(), to.getOffset());
     Assert.assertEquals(from.isCompressed(), to.isCompressed());
   }
+
+  @Test
+  public void testCompressedSerialization() throws IOException {
+    final int version = ORemoteServerController.PROTOCOL_VERSION_SYNC_CHUNKS;
+    OCopyDatabaseChunkTask from = new OCopyDatabaseChunkTask("foo1", 10, 20L, true, version);
+    OCopyDatabaseChunkTask to = new OCopyDatabaseChunkTask();
+    serializeDeserialize(from, to, new ODefaultRemoteTaskFactoryV3(version));
+
+    Assert.assertEquals(from.getOffset(), to.getOffset());
+    Assert.assertTrue(to.isCompressed());
+    Assert.assertEquals(version, to.getProtocolVersion());
+  }
+
+  @Test
+  public void testSerializationForOldProtocol() throws IOException {
+    final int version = ORemoteServerController.MIN_SUPPORTED_PROTOCOL_VERSION;
+    OCopyDatabaseChunkTask from = new OCopyDatabaseChunkTask("foo1", 10, 20L, true, version);
+    OCopyDatabaseChunkTask to = new OCopyDatabaseChunkTask();
+    serializeDeserialize(from, to, new ODefaultRemoteTaskFactoryV3(version));
+
+    Assert.assertEquals(from.getFileName(), to.getFileName());
+    Assert.assertEquals(from.getChunkNum(), to.getChunkNum());
+    Assert.assertEquals(from.getOffset(), to.getOffset());
+    // THE OLD PROTOCOL HAS NO COMPRESSION FLAG
+    Assert.assertFalse(to.isCompressed());
+    Assert.assertEquals(version, to.getProtocolVersion());
+  }
 }
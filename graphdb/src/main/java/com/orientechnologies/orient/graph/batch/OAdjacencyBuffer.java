@@ -0,0 +1,417 @@
+package com.orientechnologies.orient.graph.batch;
+
+import com.orientechnologies.common.exception.OException;
+import com.orientechnologies.orient.core.exception.ODatabaseException;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Buffer of adjacency entries used by {@link OGraphBatchInsert}. Every entry consists of three
+ * <code>long</code> values: id of the vertex the entry belongs to, value of the entry and its
+ * metadata, which are interpreted by {@link OGraphBatchInsert}.
+ *
+ * <p>Entries are kept in a primitive array. Once the configured amount of entries is reached they
+ * are sorted by vertex id and spilled to a temporary file as a sorted run. After all entries are
+ * added, {@link #cursor()} merges all runs and returns entries ordered by vertex id, so adjacency
+ * lists of the vertices can be built one by one without keeping the whole graph in memory. If there
+ * are more than {@link #MERGE_FAN_IN} runs they are first merged into bigger runs, so the amount of
+ * files opened at once stays bounded.
+ *
+ * <p>Instances are not thread safe.
+ */
+final class OAdjacencyBuffer {
+  private static final int ENTRY_SIZE = 3;
+  private static final int INSERTION_SORT_THRESHOLD = 16;
+  private static final int IO_BUFFER_SIZE = 64 * 1024;
+  /** Maximum amount of runs which are read at once. */
+  static final int MERGE_FAN_IN = 64;
+  /** Some JVMs reserve header words in an array, bigger arrays can not be allocated. */
+  private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+
+  private final int maxEntries;
+  private final File spillDirectory;
+
+  private long[] entries;
+  private int size;
+
+  private final List<File> runs = new ArrayList<>();
+  private final List<Long> runSizes = new ArrayList<>();
+
+  private Cursor cursor;
+
+  /**
+   * @param initialCapacity Initial amount of entries which can be kept in memory without resizing.
+   * @param maxEntries Maximum amount of entries which are kept in memory before they are spilled to
+   *     disk.
+   * @param spillDirectory Directory where sorted runs are created, <code>null</code> means
+   *     directory of temporary files.
+   */
+  OAdjacencyBuffer(final int initialCapacity, final int maxEntries, final File spillDirectory) {
+    this.maxEntries = Math.min(Math.max(maxEntries, 1), MAX_ARRAY_SIZE / ENTRY_SIZE);
+    this.spillDirectory = spillDirectory;
+    this.entries = new long[Math.min(Math.max(initialCapacity, 16), this.maxEntries) * ENTRY_SIZE];
+  }
+
+  void add(final long vertex, final long value, final long meta) {
+    if (cursor != null) {
+      throw new IllegalStateException("Entries can not be added once they are read");
+    }
+
+    if (size == maxEntries) {
+      spill();
+    } else if (size * ENTRY_SIZE == entries.length) {
+      final long newLength = Math.min((long) size << 1, maxEntries) * ENTRY_SIZE;
+      entries = Arrays.copyOf(entries, (int) Math.min(newLength, MAX_ARRAY_SIZE));
+    }
+
+    final int index = size * ENTRY_SIZE;
+    entries[index] = vertex;
+    entries[index + 1] = value;
+    entries[index + 2] = meta;
+    size++;
+  }
+
+  /** @return Amount of sorted runs spilled to disk. */
+  int getRunsCount() {
+    return runs.size();
+  }
+
+  /**
+   * Returns cursor which iterates over all added entries ordered by vertex id. Cursor is created
+   * once, subsequent calls return the same cursor.
+   */
+  Cursor cursor() {
+    if (cursor == null) {
+      sort(entries, 0, size - 1);
+
+      while (runs.size() > MERGE_FAN_IN) {
+        mergeRuns();
+      }
+
+      final List<Source> sources = openRuns(0, runs.size());
+      sources.add(new MemorySource(entries, size));
+      cursor = new Cursor(sources);
+    }
+
+    return cursor;
+  }
+
+  /** Releases memory and removes all files used by the buffer. */
+  void close() {
+    if (cursor != null) {
+      cursor.close();
+    }
+
+    for (final File run : runs) {
+      //noinspection ResultOfMethodCallIgnored
+      run.delete();
+    }
+
+    runs.clear();
+    runSizes.clear();
+    entries = null;
+  }
+
+  /**
+   * Merges every {@link #MERGE_FAN_IN} consecutive runs into a single run, so the amount of runs
+   * is divided by {@link #MERGE_FAN_IN} at every pass.
+   */
+  private void mergeRuns() {
+    final List<File> mergedRuns = new ArrayList<>();
+    final List<Long> mergedSizes = new ArrayList<>();
+    final List<File> createdRuns = new ArrayList<>();
+
+    for (int from = 0; from < runs.size(); from += MERGE_FAN_IN) {
+      final int to = Math.min(from + MERGE_FAN_IN, runs.size());
+      if (to - from == 1) {
+        mergedRuns.add(runs.get(from));
+        mergedSizes.add(runSizes.get(from));
+        continue;
+      }
+
+      long mergedSize = 0;
+      final Cursor merge = new Cursor(openRuns(from, to));
+      try {
+        final File run = File.createTempFile("adjacency", ".run", spillDirectory);
+        run.deleteOnExit();
+        createdRuns.add(run);
+        mergedRuns.add(run);
+
+        try (DataOutputStream output =
+            new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(run), IO_BUFFER_SIZE))) {
+          while (!merge.queue.isEmpty()) {
+            output.writeLong(merge.vertex());
+            output.writeLong(merge.value());
+            output.writeLong(merge.meta());
+            mergedSize++;
+            merge.next();
+          }
+        }
+      } catch (final IOException e) {
+        // the runs are left as they are, only the partially merged ones are removed
+        for (final File run : createdRuns) {
+          //noinspection ResultOfMethodCallIgnored
+          run.delete();
+        }
+        throw OException.wrapException(
+            new ODatabaseException("Error during merging of adjacency entries"), e);
+      } finally {
+        merge.close();
+      }
+      mergedSizes.add(mergedSize);
+    }
+
+    for (final File run : runs) {
+      if (!mergedRuns.contains(run)) {
+        //noinspection ResultOfMethodCallIgnored
+        run.delete();
+      }
+    }
+
+    runs.clear();
+    runs.addAll(mergedRuns);
+    runSizes.clear();
+    runSizes.addAll(mergedSizes);
+  }
+
+  /** Opens the runs between passed in indexes, the upper one is exclusive. */
+  private List<Source> openRuns(final int from, final int to) {
+    final List<Source> sources = new ArrayList<>(to - from + 1);
+    try {
+      for (int i = from; i < to; i++) {
+        sources.add(new RunSource(runs.get(i), runSizes.get(i)));
+      }
+    } catch (final IOException e) {
+      for (final Source source : sources) {
+        source.close();
+      }
+      throw OException.wrapException(
+          new ODatabaseException("Error during reading of adjacency entries"), e);
+    }
+
+    return sources;
+  }
+
+  private void spill() {
+    sort(entries, 0, size - 1);
+
+    try {
+      final File run = File.createTempFile("adjacency", ".run", spillDirectory);
+      run.deleteOnExit();
+
+      try (DataOutputStream output =
+          new DataOutputStream(
+              new BufferedOutputStream(new FileOutputStream(run), IO_BUFFER_SIZE))) {
+        for (int i = 0; i < size * ENTRY_SIZE; i++) {
+          output.writeLong(entries[i]);
+        }
+      }
+
+      runs.add(run);
+      runSizes.add((long) size);
+    } catch (final IOException e) {
+      throw OException.wrapException(
+          new ODatabaseException("Error during spilling of adjacency entries to disk"), e);
+    }
+
+    size = 0;
+  }
+
+  /** Sorts entries between passed in indexes (inclusive) by vertex id. */
+  private static void sort(final long[] entries, int from, int to) {
+    while (to - from >= INSERTION_SORT_THRESHOLD) {
+      final long pivot = entries[((from + to) >>> 1) * ENTRY_SIZE];
+
+      int i = from;
+      int j = to;
+      while (i <= j) {
+        while (entries[i * ENTRY_SIZE] < pivot) {
+          i++;
+        }
+        while (entries[j * ENTRY_SIZE] > pivot) {
+          j--;
+        }
+
+        if (i <= j) {
+          swap(entries, i, j);
+          i++;
+          j--;
+        }
+      }
+
+      // recursion into smaller part keeps depth of the stack logarithmic
+      if (j - from < to - i) {
+        sort(entries, from, j);
+        from = i;
+      } else {
+        sort(entries, i, to);
+        to = j;
+      }
+    }
+
+    for (int i = from + 1; i <= to; i++) {
+      for (int j = i; j > from && entries[(j - 1) * ENTRY_SIZE] > entries[j * ENTRY_SIZE]; j--) {
+        swap(entries, j - 1, j);
+      }
+    }
+  }
+
+  private static void swap(final long[] entries, final int first, final int second) {
+    final int firstIndex = first * ENTRY_SIZE;
+    final int secondIndex = second * ENTRY_SIZE;
+
+    for (int n = 0; n < ENTRY_SIZE; n++) {
+      final long value = entries[firstIndex + n];
+      entries[firstIndex + n] = entries[secondIndex + n];
+      entries[secondIndex + n] = value;
+    }
+  }
+
+  /**
+   * Iterates over entries ordered by vertex id. Current entry is available till {@link #next()} is
+   * called, {@link #vertex()} returns -1 if there are no more entries.
+   */
+  static final class Cursor {
+    private final PriorityQueue<Source> queue;
+
+    private Cursor(final List<Source> sources) {
+      queue =
+          new PriorityQueue<>(
+              Math.max(sources.size(), 1), (a, b) -> Long.compare(a.vertex, b.vertex));
+
+      for (final Source source : sources) {
+        if (source.fetch()) {
+          queue.add(source);
+        } else {
+          source.close();
+        }
+      }
+    }
+
+    long vertex() {
+      final Source source = queue.peek();
+      if (source == null) {
+        return -1;
+      }
+
+      return source.vertex;
+    }
+
+    long value() {
+      return queue.element().value;
+    }
+
+    long meta() {
+      return queue.element().meta;
+    }
+
+    void next() {
+      final Source source = queue.poll();
+      if (source == null) {
+        return;
+      }
+
+      if (source.fetch()) {
+        queue.add(source);
+      } else {
+        source.close();
+      }
+    }
+
+    private void close() {
+      for (final Source source : queue) {
+        source.close();
+      }
+
+      queue.clear();
+    }
+  }
+
+  private abstract static class Source {
+    long vertex;
+    long value;
+    long meta;
+
+    /** Reads next entry, returns <code>false</code> if there are no more entries. */
+    abstract boolean fetch();
+
+    void close() {}
+  }
+
+  private static final class MemorySource extends Source {
+    private final long[] entries;
+    private final int size;
+    private int position;
+
+    private MemorySource(final long[] entries, final int size) {
+      this.entries = entries;
+      this.size = size;
+    }
+
+    @Override
+    boolean fetch() {
+      if (position == size) {
+        return false;
+      }
+
+      final int index = position * ENTRY_SIZE;
+      vertex = entries[index];
+      value = entries[index + 1];
+      meta = entries[index + 2];
+
+      position++;
+      return true;
+    }
+  }
+
+  private static final class RunSource extends Source {
+    private final DataInputStream input;
+    private long remaining;
+
+    private RunSource(final File run, final long size) throws IOException {
+      this.input =
+          new DataInputStream(new BufferedInputStream(new FileInputStream(run), IO_BUFFER_SIZE));
+      this.remaining = size;
+    }
+
+    @Override
+    boolean fetch() {
+      if (remaining == 0) {
+        return false;
+      }
+
+      try {
+        vertex = input.readLong();
+        value = input.readLong();
+        meta = input.readLong();
+      } catch (final IOException e) {
+        throw OException.wrapException(
+            new ODatabaseException("Error during reading of adjacency entries"), e);
+      }
+
+      remaining--;
+      return true;
+    }
+
+    @Override
+    void close() {
+      try {
+        input.close();
+      } catch (final IOException e) {
+        throw OException.wrapException(
+            new ODatabaseException("Error during closing of adjacency entries file"), e);
+      }
+    }
+  }
+}
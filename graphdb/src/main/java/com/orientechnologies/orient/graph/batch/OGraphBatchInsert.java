@@ -14,22 +14,33 @@ import com.orientechnologies.orient.core.metadata.schema.OSchema;
 import com.orientechnologies.orient.core.record.impl.ODocument;
 import com.tinkerpop.blueprints.impls.orient.OrientEdgeType;
 import com.tinkerpop.blueprints.impls.orient.OrientVertexType;
+import java.io.File;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
- * this is and API for fast batch import of graphs with only one class for edges and one class for
- * vertices, starting from an empty (or non existing) DB. This class allows import of graphs with
+ * this is and API for fast batch import of graphs, starting from an empty (or non existing) DB.
+ * This class allows import of graphs with
  *
  * <ul>
  *   <li>properties on edges
  *   <li>properties on vertices
  *   <li>Long values for vertex ids
+ *   <li>several edge classes, see {@link #createEdge(Long, Long, String, Map)}
+ *   <li>several vertex classes mapped to ranges of vertex ids, see {@link #addVertexClass(long,
+ *       String)}
  * </ul>
  *
+ * <p>Adjacency of vertices is not kept in heap as objects but as primitive entries which are
+ * sorted and spilled to disk once there are more than {@link #setMaxBufferedEntries(int)} of them.
+ * During end() the sorted runs are merged and vertices with their ridbags are created one by one,
+ * in parallel for every cluster of the vertex classes.
+ *
  * <p>This batch insert procedure is made of four phases, that have to be executed in the correct
  * order:
  *
@@ -81,21 +92,34 @@ import java.util.concurrent.atomic.AtomicInteger;
  */
 public class OGraphBatchInsert {
 
+  /** Default maximum amount of adjacency entries kept in memory before they are spilled to disk. */
+  public static final int DEFAULT_MAX_BUFFERED_ENTRIES = 4 * 1024 * 1024;
+
+  // kinds of adjacency entries, stored in the lowest two bits of entry metadata
+  private static final int OUT = 0;
+  private static final int IN = 1;
+  private static final int VERTEX = 2;
+
   private final String userName;
   private final String dbUrl;
   private final String password;
-  private Map<Long, List<Object>> out = new HashMap<Long, List<Object>>();
-  private Map<Long, List<Object>> in = new HashMap<Long, List<Object>>();
+  private OAdjacencyBuffer[] buffers;
   private String idPropertyName = "uid";
   private String edgeClass = OrientEdgeType.CLASS_NAME;
   private String vertexClass = OrientVertexType.CLASS_NAME;
-  private OClass oVertexClass;
+  private final List<String> edgeClasses = new ArrayList<String>();
+  private final Map<String, Integer> edgeClassIndexes = new HashMap<String, Integer>();
+  private final TreeMap<Long, String> vertexClassRanges = new TreeMap<Long, String>();
+  private long[] rangeFirstIds;
+  private String[] rangeClasses;
   private ODatabaseDocument db;
   private int averageEdgeNumberPerNode = -1;
   private int estimatedEntries = -1;
+  private int maxBufferedEntries = DEFAULT_MAX_BUFFERED_ENTRIES;
+  private String spillDirectory;
   private int bonsaiThreshold = 1000;
-  private int[] clusterIds;
-  private long[] lastClusterPositions;
+  private int[][] clusterIds;
+  private long[][] lastClusterPositions;
   private long[] nextVerticesToCreate; // absolute value
   private long last = 0;
 
@@ -108,12 +132,12 @@ public class OGraphBatchInsert {
   class BatchImporterJob extends Thread {
 
     private final int mod;
-    private OClass vClass;
     private long last;
+    private OClass[] vertexClasses;
+    private ORidBag[] bags;
 
-    BatchImporterJob(int mod, OClass vertexClass, long last) {
+    BatchImporterJob(int mod, long last) {
       this.mod = mod;
-      this.vClass = vertexClass;
       this.last = last;
     }
 
@@ -135,74 +159,64 @@ public class OGraphBatchInsert {
 
     private void run(ODatabaseDocument db) {
       db.declareIntent(new OIntentMassiveInsert());
-      int clusterId = clusterIds[mod];
-
-      final String outField =
-          OrientEdgeType.CLASS_NAME.equals(edgeClass) ? "out_" : ("out_" + edgeClass);
-      final String inField =
-          OrientEdgeType.CLASS_NAME.equals(edgeClass) ? "in_" : ("in_" + edgeClass);
-
-      String clusterName = db.getClusterNameById(clusterId);
-      // long firstAvailableClusterPosition = lastClusterPositions[mod] + 1;
 
       for (long i = nextVerticesToCreate[mod]; i <= last; i += parallel) {
-        createVertex(db, i, inField, outField, clusterName, null);
+        createVertex(db, i, null);
       }
       db.declareIntent(null);
     }
 
+    /**
+     * Creates vertex with given id consuming its adjacency entries, vertices have to be created in
+     * ascending order of ids.
+     */
     public void createVertex(ODatabaseDocument db, long i, Map<String, Object> properties) {
-      int clusterId = clusterIds[mod];
+      if (vertexClasses == null) {
+        final OSchema schema = db.getMetadata().getSchema();
+        vertexClasses = new OClass[rangeClasses.length];
+        for (int n = 0; n < rangeClasses.length; n++) {
+          vertexClasses[n] = schema.getClass(rangeClasses[n]);
+        }
 
-      final String outField =
-          OrientEdgeType.CLASS_NAME.equals(edgeClass) ? "out_" : ("out_" + edgeClass);
-      final String inField =
-          OrientEdgeType.CLASS_NAME.equals(edgeClass) ? "in_" : ("in_" + edgeClass);
-      String clusterName = db.getClusterNameById(clusterId);
+        bags = new ORidBag[edgeClasses.size() * 2];
+      }
 
-      createVertex(db, i, inField, outField, clusterName, properties);
-    }
+      final int range = getRange(i);
+      final String clusterName = db.getClusterNameById(clusterIds[range][mod]);
+      final OAdjacencyBuffer.Cursor cursor = buffers[mod].cursor();
 
-    private void createVertex(
-        ODatabaseDocument db,
-        long i,
-        String inField,
-        String outField,
-        String clusterName,
-        Map<String, Object> properties) {
-      final List<Object> outIds = out.get(i);
-      final List<Object> inIds = in.get(i);
-      final ODocument doc = new ODocument(vClass);
-      if (outIds == null && inIds == null) {
-        db.save(doc, clusterName).delete();
-      } else {
-        doc.field(idPropertyName, i);
-        if (outIds != null) {
-          final ORidBag outBag = new ORidBag();
-          for (Object l : outIds) {
-
-            ORecordId rid;
-            if (l instanceof ORecordId) {
-              rid = (ORecordId) l;
-            } else {
-              rid = new ORecordId(getClusterId((Long) l), getClusterPosition((Long) l));
-            }
-            outBag.add(rid);
+      ODocument doc = null;
+      while (cursor.vertex() == i) {
+        if (doc == null) {
+          doc = new ODocument(vertexClasses[range]);
+          doc.field(idPropertyName, i);
+        }
+
+        final long meta = cursor.meta();
+        final int kind = (int) (meta & 3);
+        if (kind != VERTEX) {
+          final int bagIndex = getEdgeClassIndex(meta) * 2 + kind;
+          ORidBag bag = bags[bagIndex];
+          if (bag == null) {
+            bag = new ORidBag();
+            bags[bagIndex] = bag;
           }
-          doc.field(outField, outBag);
+
+          bag.add(toRid(cursor.value(), meta));
         }
-        if (inIds != null) {
-          final ORidBag inBag = new ORidBag();
-          for (Object l : inIds) {
-            ORecordId rid;
-            if (l instanceof ORecordId) {
-              rid = (ORecordId) l;
-            } else {
-              rid = new ORecordId(getClusterId((Long) l), getClusterPosition((Long) l));
-            }
-            inBag.add(rid);
+
+        cursor.next();
+      }
+
+      if (doc == null) {
+        db.save(new ODocument(vertexClasses[range]), clusterName).delete();
+      } else {
+        for (int bagIndex = 0; bagIndex < bags.length; bagIndex++) {
+          final ORidBag bag = bags[bagIndex];
+          if (bag != null) {
+            doc.field(getFieldName(bagIndex / 2, bagIndex % 2), bag);
+            bags[bagIndex] = null;
           }
-          doc.field(inField, inBag);
         }
 
         doc.fromMap(properties);
@@ -267,51 +281,71 @@ public class OGraphBatchInsert {
         this.useLightWeigthEdges = true;
       }
     }
+
+    final TreeMap<Long, String> ranges = new TreeMap<Long, String>();
+    ranges.put(0L, vertexClass);
+    ranges.putAll(vertexClassRanges);
+
+    rangeFirstIds = new long[ranges.size()];
+    rangeClasses = new String[ranges.size()];
+    int range = 0;
+    for (Map.Entry<Long, String> entry : ranges.entrySet()) {
+      rangeFirstIds[range] = entry.getKey();
+      rangeClasses[range] = entry.getValue();
+      range++;
+    }
+
     createBaseSchema();
 
-    out =
-        estimatedEntries > 0
-            ? new HashMap<Long, List<Object>>(estimatedEntries)
-            : new HashMap<Long, List<Object>>();
-    in =
-        estimatedEntries > 0
-            ? new HashMap<Long, List<Object>>(estimatedEntries)
-            : new HashMap<Long, List<Object>>();
-
-    OClass vClass = db.getMetadata().getSchema().getClass(this.vertexClass);
-    int[] existingClusters = vClass.getClusterIds();
-    for (int c = existingClusters.length; c <= parallel; c++) {
-      vClass.addCluster(vClass.getName() + "_" + c);
+    final File spillDir = spillDirectory != null ? new File(spillDirectory) : null;
+    buffers = new OAdjacencyBuffer[parallel];
+    for (int i = 0; i < parallel; i++) {
+      buffers[i] =
+          new OAdjacencyBuffer(
+              estimatedEntries > 0 ? estimatedEntries / parallel : 1024,
+              maxBufferedEntries / parallel,
+              spillDir);
     }
 
-    clusterIds = vClass.getClusterIds();
+    clusterIds = new int[rangeClasses.length][];
+    lastClusterPositions = new long[rangeClasses.length][];
+    for (range = 0; range < rangeClasses.length; range++) {
+      OClass vClass = db.getMetadata().getSchema().getClass(rangeClasses[range]);
+      int[] existingClusters = vClass.getClusterIds();
+      for (int c = existingClusters.length; c <= parallel; c++) {
+        vClass.addCluster(vClass.getName() + "_" + c);
+      }
 
-    lastClusterPositions = new long[clusterIds.length];
-    nextVerticesToCreate = new long[clusterIds.length];
-    for (int i = 0; i < clusterIds.length; i++) {
-      int clusterId = clusterIds[i];
-      try {
-        nextVerticesToCreate[i] = i;
-        // THERE IS NO PUBLIC API FOR RETRIEVE THE LAST CLUSTER POSITION
-        lastClusterPositions[i] =
-            ((ODatabaseDocumentInternal) db).getStorage().getLastClusterPosition(clusterId);
-      } catch (Exception e) {
-        throw new RuntimeException(e);
+      clusterIds[range] = vClass.getClusterIds();
+
+      lastClusterPositions[range] = new long[clusterIds[range].length];
+      for (int i = 0; i < clusterIds[range].length; i++) {
+        int clusterId = clusterIds[range][i];
+        try {
+          // THERE IS NO PUBLIC API FOR RETRIEVE THE LAST CLUSTER POSITION
+          lastClusterPositions[range][i] =
+              ((ODatabaseDocumentInternal) db).getStorage().getLastClusterPosition(clusterId);
+        } catch (Exception e) {
+          throw new RuntimeException(e);
+        }
       }
     }
+
+    nextVerticesToCreate = new long[parallel];
+    for (int i = 0; i < parallel; i++) {
+      nextVerticesToCreate[i] = i;
+    }
   }
 
   /** Flushes data to db and closes the db. Call this once, after vertices and edges creation. */
   public void end() {
-    final OClass vClass = db.getMetadata().getSchema().getClass(vertexClass);
-
     try {
       runningThreads.set(parallel);
       for (int i = 0; i < parallel - 1; i++) {
-        Thread t = new BatchImporterJob(i, vClass, last);
+        Thread t = new BatchImporterJob(i, last);
         t.start();
       }
-      Thread t = new BatchImporterJob(parallel - 1, vClass, last);
+      Thread t = new BatchImporterJob(parallel - 1, last);
       t.run();
 
       if (runningThreads.get() > 0) {
@@ -326,6 +360,10 @@ public class OGraphBatchInsert {
       }
 
     } finally {
+      for (OAdjacencyBuffer buffer : buffers) {
+        buffer.close();
+      }
+
       db.activateOnCurrentThread();
       db.declareIntent(null);
       db.close();
@@ -344,11 +382,7 @@ public class OGraphBatchInsert {
     }
 
     last = last < v ? v : last;
-    final List<Object> outList = out.get(v);
-    if (outList == null) {
-      out.put(
-          v, new ArrayList<Object>(averageEdgeNumberPerNode <= 0 ? 4 : averageEdgeNumberPerNode));
-    }
+    buffers[getSlot(v)].add(v, 0, VERTEX);
   }
 
   /**
@@ -358,6 +392,19 @@ public class OGraphBatchInsert {
    * @param to id of the vertex that is end point of the edge
    */
   public void createEdge(final Long from, final Long to, Map<String, Object> properties) {
+    createEdge(from, to, edgeClass, properties);
+  }
+
+  /**
+   * Creates a new edge of the given class between two vertices. If vertices do not exist, they
+   * will be created
+   *
+   * @param from id of the vertex that is starting point of the edge
+   * @param to id of the vertex that is end point of the edge
+   * @param edgeClass the edge class name, class is created if it does not exist
+   */
+  public void createEdge(
+      final Long from, final Long to, final String edgeClass, Map<String, Object> properties) {
     if (settingProperties) {
       throw new IllegalStateException(
           "Cannot create new edges when already set properties on vertices");
@@ -368,11 +415,14 @@ public class OGraphBatchInsert {
     if (to < 0) {
       throw new IllegalArgumentException(" Invalid vertex id: " + to);
     }
+
+    final long edgeClassMeta = ((long) getEdgeClassIndex(edgeClass)) << 2;
+    last = last < from ? from : last;
+    last = last < to ? to : last;
+
     if (useLightWeigthEdges && (properties == null || properties.size() == 0)) {
-      last = last < from ? from : last;
-      last = last < to ? to : last;
-      putInList(from, out, to);
-      putInList(to, in, from);
+      buffers[getSlot(from)].add(from, to, edgeClassMeta | OUT);
+      buffers[getSlot(to)].add(to, from, edgeClassMeta | IN);
     } else {
       ODocument edgeDoc = new ODocument(edgeClass);
 
@@ -381,8 +431,10 @@ public class OGraphBatchInsert {
       edgeDoc.field("in", new ORecordId(getClusterId(to), getClusterPosition(to)));
       db.save(edgeDoc);
       ORecordId rid = (ORecordId) edgeDoc.getIdentity();
-      putInList(from, out, rid);
-      putInList(to, in, rid);
+
+      final long ridMeta = edgeClassMeta | ((long) (rid.getClusterId() + 1) << 32);
+      buffers[getSlot(from)].add(from, rid.getClusterPosition(), ridMeta | OUT);
+      buffers[getSlot(to)].add(to, rid.getClusterPosition(), ridMeta | IN);
     }
   }
 
@@ -391,15 +443,12 @@ public class OGraphBatchInsert {
       return;
     }
     settingProperties = true;
-    final int cluster = (int) (id % parallel);
+    final int cluster = getSlot(id);
     if (nextVerticesToCreate[cluster] <= id) {
-      if (oVertexClass == null) {
-        oVertexClass = db.getMetadata().getSchema().getClass(vertexClass);
-      }
       if (nextVerticesToCreate[cluster] < id) {
-        new BatchImporterJob(cluster, oVertexClass, id - 1).run(db);
+        new BatchImporterJob(cluster, id - 1).run(db);
       }
-      new BatchImporterJob(cluster, oVertexClass, id).createVertex(db, id, properties);
+      new BatchImporterJob(cluster, id).createVertex(db, id, properties);
     } else {
       final ODocument doc = db.load(new ORecordId(getClusterId(id), getClusterPosition(id)));
       if (doc == null) {
@@ -458,6 +507,27 @@ public class OGraphBatchInsert {
     this.vertexClass = vertexClass;
   }
 
+  /**
+   * Maps vertices with ids starting from the given one, up to the first id of the next added range,
+   * to the given vertex class. Vertices with ids lower than the first id of any added range belong
+   * to the default vertex class. Every vertex class can be mapped to only one range of ids. Use it
+   * before calling begin()
+   *
+   * @param firstId first id of the range
+   * @param vertexClass the vertex class name, class is created if it does not exist
+   */
+  public void addVertexClass(final long firstId, final String vertexClass) {
+    if (firstId < 0) {
+      throw new IllegalArgumentException(" Invalid vertex id: " + firstId);
+    }
+    if (vertexClassRanges.containsValue(vertexClass)
+        || (firstId > 0 && vertexClass.equals(this.vertexClass))) {
+      throw new IllegalArgumentException(
+          "Vertex class " + vertexClass + " is already mapped to another range of ids");
+    }
+    vertexClassRanges.put(firstId, vertexClass);
+  }
+
   /**
    * @return the threshold for passing from emdedded RidBag to SBTreeBonsai (low level
    *     optimization).
@@ -484,12 +554,43 @@ public class OGraphBatchInsert {
 
   /**
    * Sets the estimated number of entries, 0 for auto-resize (default). This pre-allocate in memory
-   * structure avoiding resizing of them at run-time.
+   * structure avoiding resizing of them at run-time, up to {@link #getMaxBufferedEntries()}.
    */
   public void setEstimatedEntries(final int estimatedEntries) {
     this.estimatedEntries = estimatedEntries;
   }
 
+  /** @return maximum number of adjacency entries kept in memory before they are spilled to disk */
+  public int getMaxBufferedEntries() {
+    return maxBufferedEntries;
+  }
+
+  /**
+   * Sets the maximum number of adjacency entries (two entries per lightweight or regular edge) kept
+   * in memory before they are sorted and spilled to disk. Every entry takes 24 bytes of heap. Use
+   * it before calling begin()
+   *
+   * @param maxBufferedEntries number of entries (default {@link #DEFAULT_MAX_BUFFERED_ENTRIES})
+   */
+  public void setMaxBufferedEntries(final int maxBufferedEntries) {
+    this.maxBufferedEntries = maxBufferedEntries;
+  }
+
+  /** @return directory where adjacency entries are spilled, null for temporary directory */
+  public String getSpillDirectory() {
+    return spillDirectory;
+  }
+
+  /**
+   * Sets directory where adjacency entries are spilled once there are more of them than {@link
+   * #getMaxBufferedEntries()}. Use it before calling begin()
+   *
+   * @param spillDirectory directory path, null for temporary directory (default)
+   */
+  public void setSpillDirectory(final String spillDirectory) {
+    this.spillDirectory = spillDirectory;
+  }
+
   /** @return number of parallel threads used for batch import */
   public int getParallel() {
     return parallel;
@@ -504,46 +605,81 @@ public class OGraphBatchInsert {
     this.parallel = parallel;
   }
 
-  private void putInList(final Long key, final Map<Long, List<Object>> out, final Object value) {
-    List<Object> list = out.get(key);
-    if (list == null) {
-      list = new ArrayList<Object>(averageEdgeNumberPerNode <= 0 ? 4 : averageEdgeNumberPerNode);
-      out.put(key, list);
-    }
-    list.add(value);
-  }
-
   private void createBaseSchema() {
     final OSchema schema = db.getMetadata().getSchema();
     OClass v;
-    OClass e;
     if (!schema.existsClass(OrientVertexType.CLASS_NAME)) {
       v = schema.createClass(OrientVertexType.CLASS_NAME);
     } else {
       v = schema.getClass(OrientVertexType.CLASS_NAME);
     }
     if (!schema.existsClass(OrientEdgeType.CLASS_NAME)) {
-      e = schema.createClass(OrientEdgeType.CLASS_NAME);
-    } else {
-      e = schema.getClass(OrientEdgeType.CLASS_NAME);
+      schema.createClass(OrientEdgeType.CLASS_NAME);
     }
-    if (!OrientVertexType.CLASS_NAME.equals(this.vertexClass)) {
-      if (!schema.existsClass(this.vertexClass)) {
-        schema.createClass(this.vertexClass, v);
+    for (String rangeClass : rangeClasses) {
+      if (!OrientVertexType.CLASS_NAME.equals(rangeClass)) {
+        if (!schema.existsClass(rangeClass)) {
+          schema.createClass(rangeClass, v);
+        }
       }
     }
-    if (!schema.existsClass(this.edgeClass)) {
-      if (!schema.existsClass(this.edgeClass)) {
-        schema.createClass(this.edgeClass, e);
+    getEdgeClassIndex(this.edgeClass);
+  }
+
+  /** Returns index of the edge class stored in adjacency entries, creates class if needed. */
+  private int getEdgeClassIndex(final String edgeClass) {
+    Integer index = edgeClassIndexes.get(edgeClass);
+    if (index == null) {
+      final OSchema schema = db.getMetadata().getSchema();
+      if (!schema.existsClass(edgeClass)) {
+        schema.createClass(edgeClass, schema.getClass(OrientEdgeType.CLASS_NAME));
       }
+
+      index = edgeClasses.size();
+      edgeClasses.add(edgeClass);
+      edgeClassIndexes.put(edgeClass, index);
     }
+    return index;
+  }
+
+  private static int getEdgeClassIndex(final long meta) {
+    return (int) ((meta & 0xFFFFFFFFL) >>> 2);
+  }
+
+  private String getFieldName(final int edgeClassIndex, final int kind) {
+    final String edgeClass = edgeClasses.get(edgeClassIndex);
+    final String prefix = kind == OUT ? "out_" : "in_";
+
+    return OrientEdgeType.CLASS_NAME.equals(edgeClass) ? prefix : (prefix + edgeClass);
+  }
+
+  /** Converts value of adjacency entry to RID, it is either id of vertex or position of edge. */
+  private ORecordId toRid(final long value, final long meta) {
+    final int clusterId = (int) (meta >>> 32) - 1;
+    if (clusterId < 0) {
+      return new ORecordId(getClusterId(value), getClusterPosition(value));
+    }
+
+    return new ORecordId(clusterId, value);
+  }
+
+  private int getRange(final long uid) {
+    final int range = Arrays.binarySearch(rangeFirstIds, uid);
+    return range >= 0 ? range : -range - 2;
+  }
+
+  private int getSlot(final long uid) {
+    return (int) (uid % parallel);
   }
 
   private long getClusterPosition(final long uid) {
-    return lastClusterPositions[(int) (uid % parallel)] + (uid / parallel) + 1;
+    final int range = getRange(uid);
+    return lastClusterPositions[range][getSlot(uid)]
+        + ((uid - rangeFirstIds[range]) / parallel)
+        + 1;
   }
 
   private int getClusterId(final long left) {
-    return clusterIds[(int) (left % parallel)];
+    return clusterIds[getRange(left)][getSlot(left)];
   }
 }
@@ -0,0 +1,71 @@
+package com.orientechnologies.orient.graph.batch;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class OAdjacencyBufferTest {
+
+  @Test
+  public void testMultiPassMerge() throws Exception {
+    final File spillDirectory = Files.createTempDirectory("adjacency").toFile();
+    final int entries = 5 * OAdjacencyBuffer.MERGE_FAN_IN * OAdjacencyBuffer.MERGE_FAN_IN;
+    final OAdjacencyBuffer buffer = new OAdjacencyBuffer(4, 4, spillDirectory);
+    try {
+      final Random random = new Random(42);
+      long checksum = 0;
+      for (int i = 0; i < entries; i++) {
+        final long vertex = random.nextInt(1000);
+        buffer.add(vertex, i, vertex);
+        checksum += i;
+      }
+      // more runs than can be read at once, they need two merge passes
+      Assert.assertTrue(
+          buffer.getRunsCount() > OAdjacencyBuffer.MERGE_FAN_IN * OAdjacencyBuffer.MERGE_FAN_IN);
+
+      final OAdjacencyBuffer.Cursor cursor = buffer.cursor();
+      Assert.assertTrue(buffer.getRunsCount() <= OAdjacencyBuffer.MERGE_FAN_IN);
+      Assert.assertTrue(spillDirectory.list().length <= OAdjacencyBuffer.MERGE_FAN_IN);
+
+      long previous = -1;
+      int count = 0;
+      while (cursor.vertex() != -1) {
+        Assert.assertTrue(cursor.vertex() >= previous);
+        Assert.assertEquals(cursor.vertex(), cursor.meta());
+        previous = cursor.vertex();
+        checksum -= cursor.value();
+        count++;
+        cursor.next();
+      }
+      Assert.assertEquals(entries, count);
+      Assert.assertEquals(0, checksum);
+    } finally {
+      buffer.close();
+      Assert.assertEquals(0, spillDirectory.list().length);
+      Assert.assertTrue(spillDirectory.delete());
+    }
+  }
+
+  @Test
+  public void testUnsortedEntriesInMemory() {
+    final OAdjacencyBuffer buffer = new OAdjacencyBuffer(1, 1000, null);
+    try {
+      for (long i = 99; i >= 0; i--) {
+        buffer.add(i, i * 2, 0);
+      }
+      Assert.assertEquals(0, buffer.getRunsCount());
+
+      final OAdjacencyBuffer.Cursor cursor = buffer.cursor();
+      for (long i = 0; i < 100; i++) {
+        Assert.assertEquals(i, cursor.vertex());
+        Assert.assertEquals(i * 2, cursor.value());
+        cursor.next();
+      }
+      Assert.assertEquals(-1, cursor.vertex());
+    } finally {
+      buffer.close();
+    }
+  }
+}
@@ -230,4 +230,71 @@ public class OGraphBatchInsertTest extends TestCase {
     assertTrue(found);
     g.shutdown();
   }
+
+  @Test
+  public void testSpillToDisk() {
+    String dbUrl = "memory:batchinsert_testSpillToDisk";
+    OGraphBatchInsert batch = new OGraphBatchInsert(dbUrl, "admin", "admin");
+    batch.setMaxBufferedEntries(64);
+    batch.begin();
+
+    for (long i = 0; i < 1000; i++) {
+      batch.createEdge(i, (i + 1) % 1000, null);
+      batch.createEdge(i, (i + 7) % 1000, null);
+    }
+    batch.end();
+
+    ODatabaseDocumentTx db = new ODatabaseDocumentTx(dbUrl);
+    db.open("admin", "admin");
+    List<ODocument> result =
+        db.query(new OSQLSynchQuery<ODocument>("select out().uid as out from V where uid = 999"));
+    assertEquals(1, result.size());
+    assertEquals(2, ((List<?>) result.get(0).field("out")).size());
+    assertTrue(((List<?>) result.get(0).field("out")).contains(0L));
+    assertTrue(((List<?>) result.get(0).field("out")).contains(6L));
+
+    result = db.query(new OSQLSynchQuery<ODocument>("select count(*) as count from V"));
+    assertEquals(1000L, (long) result.get(0).<Long>field("count"));
+    db.close();
+  }
+
+  @Test
+  public void testMultipleClasses() {
+    String dbUrl = "memory:batchinsert_testMultipleClasses";
+    OGraphBatchInsert batch = new OGraphBatchInsert(dbUrl, "admin", "admin");
+    batch.addVertexClass(0L, "Person");
+    batch.addVertexClass(100L, "City");
+    batch.begin();
+
+    for (long i = 0; i < 10; i++) {
+      batch.createEdge(i, 100L + i % 3, "LivesIn", null);
+      batch.createEdge(i, (i + 1) % 10, "Knows", null);
+    }
+    Map<String, Object> edgeProps = new HashMap<String, Object>();
+    edgeProps.put("since", 2000);
+    batch.createEdge(0L, 101L, "Visited", edgeProps);
+    batch.end();
+
+    ODatabaseDocumentTx db = new ODatabaseDocumentTx(dbUrl);
+    db.open("admin", "admin");
+    assertEquals(10, db.query(new OSQLSynchQuery<Object>("select from Person")).size());
+    assertEquals(3, db.query(new OSQLSynchQuery<Object>("select from City")).size());
+
+    List<ODocument> result =
+        db.query(
+            new OSQLSynchQuery<ODocument>(
+                "select in('LivesIn').size() as lives, in('Visited').size() as visited"
+                    + " from City where uid = 101"));
+    assertEquals(1, result.size());
+    assertEquals(3, (int) result.get(0).<Integer>field("lives"));
+    assertEquals(1, (int) result.get(0).<Integer>field("visited"));
+
+    result =
+        db.query(
+            new OSQLSynchQuery<ODocument>(
+                "select expand(out('Knows').out('LivesIn')) from Person where uid = 4"));
+    assertEquals(1, result.size());
+    assertEquals(102L, (long) result.get(0).<Long>field("uid"));
+    db.close();
+  }
 }
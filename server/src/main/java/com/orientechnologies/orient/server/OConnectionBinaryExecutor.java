@@ -23,8 +23,10 @@ import com.orientechnologies.orient.core.db.*;
 import com.orientechnologies.orient.core.db.record.OIdentifiable;
 import com.orientechnologies.orient.core.db.record.ORecordOperation;
 import com.orientechnologies.orient.core.db.tool.ODatabaseImport;
+import com.orientechnologies.orient.core.exception.OCommandExecutionException;
 import com.orientechnologies.orient.core.exception.OConfigurationException;
 import com.orientechnologies.orient.core.exception.ODatabaseException;
+import com.orientechnologies.orient.core.exception.OPreparedStatementNotFoundException;
 import com.orientechnologies.orient.core.exception.ORecordNotFoundException;
 import com.orientechnologies.orient.core.exception.OSecurityAccessException;
 import com.orientechnologies.orient.core.fetch.OFetchContext;
@@ -49,6 +51,8 @@ import com.orientechnologies.orient.core.sql.executor.OResult;
 import com.orientechnologies.orient.core.sql.executor.OResultInternal;
 import com.orientechnologies.orient.core.sql.executor.OResultSet;
 import com.orientechnologies.orient.core.sql.parser.OLocalResultSetLifecycleDecorator;
+import com.orientechnologies.orient.core.sql.parser.OStatement;
+import com.orientechnologies.orient.core.sql.parser.OStatementCache;
 import com.orientechnologies.orient.core.sql.query.OSQLAsynchQuery;
 import com.orientechnologies.orient.core.sql.query.OSQLSynchQuery;
 import com.orientechnologies.orient.core.storage.OPhysicalPosition;
@@ -1322,6 +1326,18 @@ public final class OConnectionBinaryExecutor implements OBinaryRequestExecutor {
     return stream;
   }
 
+  @Override
+  public OBinaryResponse executePrepareQuery(OPrepareQueryRequest request) {
+    ODatabaseDocumentInternal database = connection.getDatabase();
+    OStatementCache statementCache = database.getSharedContext().getStatementCache();
+    OStatement statement = statementCache.get(request.getStatement());
+    if (!statement.isIdempotent()) {
+      throw new OCommandExecutionException(
+          "Cannot prepare query on non idempotent statement: " + request.getStatement());
+    }
+    return new OPrepareQueryResponse(statementCache.prepare(request.getStatement()));
+  }
+
   @Override
   public OBinaryResponse executeServerQuery(OServerQueryRequest request) {
     OrientDB orientdb = server.getContext();
@@ -1363,10 +1379,32 @@ public final class OConnectionBinaryExecutor implements OBinaryRequestExecutor {
     OResultSet rs;
     if (OQueryRequest.QUERY == request.getOperationType()) {
       // TODO Assert is sql.
-      if (request.isNamedParams()) {
-        rs = database.query(request.getStatement(), request.getNamedParameters());
-      } else {
-        rs = database.query(request.getStatement(), request.getPositionalParameters());
+      final OStalenessBound previousBound = database.getReadStalenessBound();
+      database.setReadStalenessBound(request.getStalenessBound());
+      try {
+        if (request.getPreparedHandle() != 0) {
+          OStatement statement =
+              database
+                  .getSharedContext()
+                  .getStatementCache()
+                  .getPrepared(request.getPreparedHandle());
+          if (statement == null) {
+            database.getSharedContext().unregisterListener(metadataListener);
+            throw new OPreparedStatementNotFoundException(
+                "Prepared statement " + request.getPreparedHandle() + " not found");
+          }
+          if (request.isNamedParams()) {
+            rs = database.queryPrepared(statement, request.getNamedParameters());
+          } else {
+            rs = database.queryPrepared(statement, request.getPositionalParameters());
+          }
+        } else if (request.isNamedParams()) {
+          rs = database.query(request.getStatement(), request.getNamedParameters());
+        } else {
+          rs = database.query(request.getStatement(), request.getPositionalParameters());
+        }
+      } finally {
+        database.setReadStalenessBound(previousBound);
       }
     } else if (OQueryRequest.COMMAND == request.getOperationType()) {
       if (request.isNamedParams()) {
@@ -27,16 +27,29 @@ import com.orientechnologies.orient.core.config.OContextConfiguration;
 import com.orientechnologies.orient.core.config.OGlobalConfiguration;
 import com.orientechnologies.orient.enterprise.channel.binary.OChannelBinaryProtocol;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.RejectedExecutionHandler;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * Remote server channel.
  *
+ * <p>Requests are queued and written by a single thread which drains all the requests waiting in
+ * the queue, up to {@link OGlobalConfiguration#DISTRIBUTED_REQUEST_BATCH_MAX_SIZE}, and flushes
+ * them to the network at once. In this way the phases of concurrent transactions sent to the same
+ * server share the same network round trip. If the writer can not be scheduled the queued requests
+ * are discarded and the server is reported as disconnected. Requests queued before the channel is
+ * closed are written by {@link #close()}, the ones sent after are discarded.
+ *
  * @author Luca Garulli
  */
 public class ORemoteServerChannel {
@@ -65,6 +78,13 @@ public class ORemoteServerChannel {
   private static final int MAX_CONSECUTIVE_ERRORS = 10;
   private ExecutorService executor;
 
+  private final BlockingQueue<OStorageRemoteOperation<Void>> pendingRequests;
+  private final AtomicBoolean drainScheduled = new AtomicBoolean();
+  private final int batchMaxSize;
+  private final long batchWindowNanos;
+  private final long enqueueTimeout;
+  private volatile boolean closed = false;
+
   public ORemoteServerChannel(
       final ORemoteServerAvailabilityCheck check,
       String localNodeName,
@@ -89,18 +109,31 @@ public class ORemoteServerChannel {
     protocolVersion = currentProtocolVersion;
     RejectedExecutionHandler reject =
         (task, executor) -> {
+          if (executor.isShutdown()) {
+            throw new RejectedExecutionException("Channel to server '" + server + "' is closed");
+          }
           try {
-            if (!executor.getQueue().offer(task, timeout, TimeUnit.MILLISECONDS)) {
-              check.nodeDisconnected(server);
+            if (executor.getQueue().offer(task, timeout, TimeUnit.MILLISECONDS)) {
+              return;
             }
           } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
           }
+          throw new RejectedExecutionException(
+              "Cannot schedule the writer of the requests to server '" + server + "'");
         };
     executor =
         new ThreadPoolExecutor(
             1, 1, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(10), reject);
 
+    batchMaxSize =
+        Math.max(1, OGlobalConfiguration.DISTRIBUTED_REQUEST_BATCH_MAX_SIZE.getValueAsInteger());
+    batchWindowNanos =
+        TimeUnit.MICROSECONDS.toNanos(
+            OGlobalConfiguration.DISTRIBUTED_REQUEST_BATCH_WINDOW.getValueAsInteger());
+    enqueueTimeout = timeout;
+    pendingRequests = new LinkedBlockingQueue<>(10 * batchMaxSize);
+
     connect();
   }
 
@@ -109,18 +142,11 @@ public class ORemoteServerChannel {
   }
 
   public void sendBinaryRequest(OBinaryRequest request) {
-    executor.execute(
+    enqueueRequest(
         () -> {
-          networkOperation(
-              request.getCommand(),
-              () -> {
-                request.write(channel, null);
-                channel.flush();
-                return null;
-              },
-              "Cannot send distributed request " + request.getClass(),
-              MAX_RETRY,
-              true);
+          channel.beginRequest(request.getCommand(), sessionId, sessionToken);
+          request.write(channel, null);
+          return null;
         });
   }
 
@@ -128,35 +154,114 @@ public class ORemoteServerChannel {
     T execute() throws IOException;
   }
 
-  private <T> void executeNetworkOperation(
-      final byte operationId,
-      final OStorageRemoteOperation<T> operation,
-      final String errorMessage,
-      final int maxRetry,
-      final boolean autoReconnect) {
-    executor.execute(
-        () -> {
-          networkOperation(
-              OChannelBinaryProtocol.DISTRIBUTED_REQUEST,
-              operation,
-              errorMessage,
-              maxRetry,
-              autoReconnect);
-        });
+  public void sendRequest(final ODistributedRequest request) {
+    final boolean queued =
+        enqueueRequest(
+            () -> {
+              channel.beginRequest(
+                  OChannelBinaryProtocol.DISTRIBUTED_REQUEST, sessionId, sessionToken);
+              request.toStream(channel.getDataOutput());
+              return null;
+            });
+    if (queued) {
+      this.prevRequest = request;
+    }
   }
 
-  public void sendRequest(final ODistributedRequest request) {
-    executeNetworkOperation(
-        OChannelBinaryProtocol.DISTRIBUTED_REQUEST,
-        () -> {
-          request.toStream(channel.getDataOutput());
-          channel.flush();
-          return null;
-        },
-        "Cannot send distributed request " + request.getClass(),
-        MAX_RETRY,
-        true);
-    this.prevRequest = request;
+  /** @return <code>false</code> if the request was discarded. */
+  private boolean enqueueRequest(final OStorageRemoteOperation<Void> write) {
+    if (closed) {
+      failRequests(1, "the channel is closed");
+      return false;
+    }
+    try {
+      if (!pendingRequests.offer(write, enqueueTimeout, TimeUnit.MILLISECONDS)) {
+        check.nodeDisconnected(server);
+        return false;
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+
+    scheduleDrain();
+    return true;
+  }
+
+  private void scheduleDrain() {
+    if (!drainScheduled.compareAndSet(false, true)) {
+      return;
+    }
+    try {
+      executor.execute(this::drainRequests);
+    } catch (RejectedExecutionException e) {
+      // NOBODY WILL DRAIN THE QUEUE: LET THE NEXT REQUEST TRY AGAIN AND FAIL THE QUEUED ONES
+      drainScheduled.set(false);
+      final List<OStorageRemoteOperation<Void>> discarded = new ArrayList<>();
+      pendingRequests.drainTo(discarded);
+      if (!discarded.isEmpty()) {
+        failRequests(discarded.size(), e.getMessage());
+      }
+    }
+  }
+
+  /** Writes all the queued requests, up to the maximum batch size, with a single flush. */
+  private void drainRequests() {
+    if (batchWindowNanos > 0) {
+      // GIVE THE CONCURRENT REQUESTS THE CHANCE TO JOIN THE BATCH
+      LockSupport.parkNanos(batchWindowNanos);
+    }
+
+    // RESET THE FLAG BEFORE DRAINING: THE REQUESTS QUEUED FROM NOW ON SCHEDULE A NEW DRAIN
+    drainScheduled.set(false);
+
+    final List<OStorageRemoteOperation<Void>> batch = new ArrayList<>();
+    pendingRequests.drainTo(batch, batchMaxSize);
+    if (!pendingRequests.isEmpty()) {
+      scheduleDrain();
+    }
+    if (batch.isEmpty()) {
+      return;
+    }
+
+    writeBatch(batch);
+  }
+
+  private void failRequests(final int count, final String reason) {
+    ODistributedServerLog.warn(
+        this,
+        localNodeName,
+        server,
+        ODistributedServerLog.DIRECTION.OUT,
+        "Discarded %d request(s) to server '%s' because %s",
+        count,
+        server,
+        reason);
+    if (!closed) {
+      check.nodeDisconnected(server);
+    }
+  }
+
+  /**
+   * Writes the requests and flushes them to the network at once. If the connection fails only this
+   * batch is written again on the new connection, the batches flushed before are not repeated.
+   */
+  private void writeBatch(final List<OStorageRemoteOperation<Void>> batch) {
+    final Boolean written =
+        networkOperation(
+            () -> {
+              for (OStorageRemoteOperation<Void> write : batch) {
+                write.execute();
+              }
+              channel.flush();
+              return Boolean.TRUE;
+            },
+            "Cannot send " + batch.size() + " distributed request(s)",
+            MAX_RETRY,
+            true);
+    if (written == null) {
+      failRequests(batch.size(), "they can not be written to the network");
+    }
   }
 
   public void sendResponse(final ODistributedResponse response) {
@@ -212,12 +317,20 @@ public class ORemoteServerChannel {
   }
 
   public void close() {
+    closed = true;
     executor.shutdown();
     try {
       executor.awaitTermination(1, TimeUnit.MINUTES);
     } catch (InterruptedException e) {
       Thread.currentThread().interrupt();
     }
+
+    // WRITE THE REQUESTS QUEUED BEFORE THE CLOSE THAT THE WRITER DID NOT PICK UP
+    final List<OStorageRemoteOperation<Void>> batch = new ArrayList<>();
+    while (pendingRequests.drainTo(batch, batchMaxSize) > 0) {
+      writeBatch(batch);
+      batch.clear();
+    }
     networkClose();
   }
 
@@ -228,19 +341,37 @@ public class ORemoteServerChannel {
     sessionToken = null;
   }
 
-  protected synchronized <T> T networkOperation(
+  protected <T> T networkOperation(
       final byte operationId,
       final OStorageRemoteOperation<T> operation,
       final String errorMessage,
       final int maxRetry,
       final boolean autoReconnect) {
+    return networkOperation(
+        () -> {
+          channel.beginRequest(operationId, sessionId, sessionToken);
+          return operation.execute();
+        },
+        errorMessage,
+        maxRetry,
+        autoReconnect);
+  }
+
+  /**
+   * Executes the operation with retries and reconnection. The operation writes the request headers
+   * by itself, so more requests can be written at once.
+   */
+  protected synchronized <T> T networkOperation(
+      final OStorageRemoteOperation<T> operation,
+      final String errorMessage,
+      final int maxRetry,
+      final boolean autoReconnect) {
     Exception lastException = null;
     for (int retry = 1;
         retry <= maxRetry && totalConsecutiveErrors < MAX_CONSECUTIVE_ERRORS;
         ++retry) {
       try {
         channel.setWaitResponseTimeout();
-        channel.beginRequest(operationId, sessionId, sessionToken);
 
         T result = operation.execute();
 
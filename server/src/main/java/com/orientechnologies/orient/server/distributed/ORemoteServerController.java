@@ -36,8 +36,10 @@ public class ORemoteServerController {
   private volatile int responseChannelIndex = 0;
 
   private int protocolVersion = -1;
-  public static final int CURRENT_PROTOCOL_VERSION = 2;
+  public static final int CURRENT_PROTOCOL_VERSION = 3;
   public static final int MIN_SUPPORTED_PROTOCOL_VERSION = 2;
+  /** Chunks of database sync are read by offset, carry a checksum and can be compressed. */
+  public static final int PROTOCOL_VERSION_SYNC_CHUNKS = 3;
 
   public ORemoteServerController(
       final ORemoteServerAvailabilityCheck check,
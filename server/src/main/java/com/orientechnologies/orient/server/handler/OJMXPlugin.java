@@ -34,7 +34,9 @@ import javax.management.ObjectName;
 
 public class OJMXPlugin extends OServerPluginAbstract {
   private ObjectName onProfiler;
+  private ObjectName onMetrics;
   private boolean profilerManaged;
+  private boolean metricsManaged = true;
 
   public OJMXPlugin() {}
 
@@ -47,10 +49,16 @@ public class OJMXPlugin extends OServerPluginAbstract {
           return;
       } else if (param.name.equalsIgnoreCase("profilerManaged"))
         profilerManaged = Boolean.parseBoolean(param.value);
+      else if (param.name.equalsIgnoreCase("metricsManaged"))
+        metricsManaged = Boolean.parseBoolean(param.value);
     }
 
     OLogManager.instance()
-        .info(this, "JMX plugin installed and active: profilerManaged=%s", profilerManaged);
+        .info(
+            this,
+            "JMX plugin installed and active: profilerManaged=%s, metricsManaged=%s",
+            profilerManaged,
+            metricsManaged);
 
     final MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
 
@@ -62,6 +70,14 @@ public class OJMXPlugin extends OServerPluginAbstract {
         mBeanServer.registerMBean(Orient.instance().getProfiler(), onProfiler);
       }
 
+      if (metricsManaged) {
+        // REGISTER THE COUNTERS AND LATENCY HISTOGRAMS
+        onMetrics =
+            new ObjectName("com.orientechnologies.common.profiler:type=OMetricsRegistryMXBean");
+        if (mBeanServer.isRegistered(onMetrics)) mBeanServer.unregisterMBean(onMetrics);
+        mBeanServer.registerMBean(Orient.instance().getMetrics(), onMetrics);
+      }
+
     } catch (Exception e) {
       throw OException.wrapException(
           new OConfigurationException("Cannot initialize JMX server"), e);
@@ -79,6 +95,8 @@ public class OJMXPlugin extends OServerPluginAbstract {
       MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
       if (onProfiler != null)
         if (mBeanServer.isRegistered(onProfiler)) mBeanServer.unregisterMBean(onProfiler);
+      if (onMetrics != null)
+        if (mBeanServer.isRegistered(onMetrics)) mBeanServer.unregisterMBean(onMetrics);
 
     } catch (Exception e) {
       OLogManager.instance()
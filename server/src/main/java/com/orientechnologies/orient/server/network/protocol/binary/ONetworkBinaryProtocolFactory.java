@@ -38,14 +38,14 @@ public class ONetworkBinaryProtocolFactory {
 
   public static Function<Integer, OBinaryRequest<? extends OBinaryResponse>> matchProtocol(
       short protocolVersion) {
-    switch (protocolVersion) {
-      case 37:
-        return ONetworkBinaryProtocolFactory::createRequest37;
-      case 38:
-        return ONetworkBinaryProtocolFactory::createRequest38;
-      default:
-        return ONetworkBinaryProtocolFactory::createRequest;
+    // later versions of the protocol extend requests of the version 38
+    if (protocolVersion >= OChannelBinaryProtocol.PROTOCOL_VERSION_38) {
+      return ONetworkBinaryProtocolFactory::createRequest38;
+    }
+    if (protocolVersion == OChannelBinaryProtocol.PROTOCOL_VERSION_37) {
+      return ONetworkBinaryProtocolFactory::createRequest37;
     }
+    return ONetworkBinaryProtocolFactory::createRequest;
   }
 
   /**
@@ -403,6 +403,9 @@ public class ONetworkBinaryProtocolFactory {
       case OChannelBinaryProtocol.REQUEST_TX_COMMIT:
         return new OCommit38Request();
 
+      case OChannelBinaryProtocol.REQUEST_PREPARE_QUERY:
+        return new OPrepareQueryRequest();
+
       default:
         return createRequest37(requestType);
     }
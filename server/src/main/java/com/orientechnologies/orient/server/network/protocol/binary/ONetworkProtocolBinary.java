@@ -26,6 +26,7 @@ import com.orientechnologies.common.exception.OErrorCode;
 import com.orientechnologies.common.exception.OException;
 import com.orientechnologies.common.io.OIOException;
 import com.orientechnologies.common.log.OLogManager;
+import com.orientechnologies.common.profiler.metrics.OHistogram;
 import com.orientechnologies.orient.client.binary.OBinaryRequestExecutor;
 import com.orientechnologies.orient.client.remote.OBinaryRequest;
 import com.orientechnologies.orient.client.remote.OBinaryResponse;
@@ -84,10 +85,15 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.function.Function;
 import java.util.logging.Level;
 
 public class ONetworkProtocolBinary extends ONetworkProtocol {
+  /** Histograms of durations of requests, index is the type of the request. */
+  private static final AtomicReferenceArray<OHistogram> REQUEST_DURATIONS =
+      new AtomicReferenceArray<>(256);
+
   protected final Level logClientExceptions;
   protected final boolean logClientFullStackTrace;
   protected OChannelBinary channel;
@@ -284,11 +290,14 @@ public class ONetworkProtocolBinary extends ONetworkProtocol {
     long timer = 0;
 
     timer = Orient.instance().getProfiler().startChrono();
+    final long start = System.nanoTime();
     OLogManager.instance().debug(this, "Request id:" + clientTxId + " type:" + requestType);
 
+    OHistogram requestDuration = null;
     try {
       OBinaryRequest<? extends OBinaryResponse> request = factory.apply(requestType);
       if (request != null) {
+        requestDuration = requestDuration(requestType, request);
         Exception exception = null;
 
         try {
@@ -426,11 +435,35 @@ public class ONetworkProtocolBinary extends ONetworkProtocol {
               "Total received requests",
               timer,
               "server.network.requests");
+      if (requestDuration != null) {
+        requestDuration.recordSince(start);
+      }
 
       OSerializationThreadLocal.INSTANCE.get().clear();
     }
   }
 
+  private static OHistogram requestDuration(
+      final int requestType, final OBinaryRequest<? extends OBinaryResponse> request) {
+    final int index = requestType & 0xFF;
+    OHistogram histogram = REQUEST_DURATIONS.get(index);
+    if (histogram == null) {
+      histogram =
+          Orient.instance()
+              .getMetrics()
+              .histogram(
+                  "orientdb_network_request_duration_seconds",
+                  "Duration of requests received by the server",
+                  "protocol",
+                  "binary",
+                  "operation",
+                  request.getDescription());
+      REQUEST_DURATIONS.set(index, histogram);
+    }
+
+    return histogram;
+  }
+
   private OClientConnection onBeforeHandshakeRequest(
       OClientConnection connection, byte[] tokenBytes) {
     try {
@@ -64,11 +64,13 @@ import com.orientechnologies.orient.server.network.protocol.http.command.get.OSe
 import com.orientechnologies.orient.server.network.protocol.http.command.get.OServerCommandGetFileDownload;
 import com.orientechnologies.orient.server.network.protocol.http.command.get.OServerCommandGetIndex;
 import com.orientechnologies.orient.server.network.protocol.http.command.get.OServerCommandGetListDatabases;
+import com.orientechnologies.orient.server.network.protocol.http.command.get.OServerCommandGetMetrics;
 import com.orientechnologies.orient.server.network.protocol.http.command.get.OServerCommandGetPing;
 import com.orientechnologies.orient.server.network.protocol.http.command.get.OServerCommandGetQuery;
 import com.orientechnologies.orient.server.network.protocol.http.command.get.OServerCommandGetSSO;
 import com.orientechnologies.orient.server.network.protocol.http.command.get.OServerCommandGetServer;
 import com.orientechnologies.orient.server.network.protocol.http.command.get.OServerCommandGetServerVersion;
+import com.orientechnologies.orient.server.network.protocol.http.command.get.OServerCommandGetSlowQueries;
 import com.orientechnologies.orient.server.network.protocol.http.command.get.OServerCommandGetStorageAllocation;
 import com.orientechnologies.orient.server.network.protocol.http.command.get.OServerCommandGetSupportedLanguages;
 import com.orientechnologies.orient.server.network.protocol.http.command.get.OServerCommandIsEnterprise;
@@ -957,6 +959,7 @@ public abstract class ONetworkProtocolHttpAbstract extends ONetworkProtocol
     cmdManager.registerCommand(new OServerCommandGetDocument());
     cmdManager.registerCommand(new OServerCommandGetDocumentByClass());
     cmdManager.registerCommand(new OServerCommandGetQuery());
+    cmdManager.registerCommand(new OServerCommandGetSlowQueries());
     cmdManager.registerCommand(new OServerCommandGetServer());
     cmdManager.registerCommand(new OServerCommandGetServerVersion());
     cmdManager.registerCommand(new OServerCommandGetConnections());
@@ -992,6 +995,7 @@ public abstract class ONetworkProtocolHttpAbstract extends ONetworkProtocol
     cmdManager.registerCommand(new OServerCommandPostAuthToken());
     cmdManager.registerCommand(new OServerCommandGetSSO());
     cmdManager.registerCommand(new OServerCommandGetPing());
+    cmdManager.registerCommand(new OServerCommandGetMetrics());
 
     for (OServerCommandConfiguration c : iListener.getStatefulCommands())
       try {
@@ -0,0 +1,83 @@
+/*
+ *
+ *  *  Copyright 2010-2016 OrientDB LTD (http://orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://orientdb.com
+ *
+ */
+package com.orientechnologies.orient.server.network.protocol.http.command.get;
+
+import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
+import com.orientechnologies.orient.core.metadata.security.ORole;
+import com.orientechnologies.orient.core.metadata.security.ORule;
+import com.orientechnologies.orient.core.sql.executor.OResult;
+import com.orientechnologies.orient.core.sql.executor.OSlowQuery;
+import com.orientechnologies.orient.core.sql.executor.OSlowQueryLog;
+import com.orientechnologies.orient.server.network.protocol.http.OHttpRequest;
+import com.orientechnologies.orient.server.network.protocol.http.OHttpResponse;
+import com.orientechnologies.orient.server.network.protocol.http.command.OServerCommandAuthenticatedDbAbstract;
+import java.util.ArrayList;
+import java.util.InputMismatchException;
+import java.util.List;
+
+/** Returns the queries kept in the slow query log of the database, the most recent first. */
+public class OServerCommandGetSlowQueries extends OServerCommandAuthenticatedDbAbstract {
+  private static final String[] NAMES = {"GET|slowQueries/*"};
+  private static final String SYNTAX =
+      "Syntax error: slowQueries/<database>[/<limit>].<br>Limit is optional, all the logged queries are returned by default.";
+
+  @Override
+  public boolean execute(final OHttpRequest iRequest, OHttpResponse iResponse) throws Exception {
+    String[] urlParts = checkSyntax(iRequest.getUrl(), 2, SYNTAX);
+
+    final int limit;
+    try {
+      limit = urlParts.length > 2 ? Integer.parseInt(urlParts[2]) : -1;
+    } catch (NumberFormatException e) {
+      throw new InputMismatchException(SYNTAX);
+    }
+
+    iRequest.getData().commandInfo = "Slow queries";
+
+    ODatabaseDocumentInternal db = null;
+    try {
+      db = (ODatabaseDocumentInternal) getProfiledDatabaseInstance(iRequest);
+      // logged queries contain statements of all the users
+      db.checkSecurity(ORule.ResourceGeneric.SERVER, "status", ORole.PERMISSION_READ);
+
+      final List<OResult> response = new ArrayList<>();
+      final OSlowQueryLog log = OSlowQueryLog.get(db);
+      if (log != null) {
+        for (OSlowQuery query : log.getQueries()) {
+          if (limit >= 0 && response.size() >= limit) {
+            break;
+          }
+          response.add(query.toResult());
+        }
+      }
+
+      iResponse.writeRecords(response, null, null, iRequest.getHeader("accept"));
+    } finally {
+      if (db != null) db.close();
+    }
+
+    return false;
+  }
+
+  @Override
+  public String[] getNames() {
+    return NAMES;
+  }
+}
@@ -0,0 +1,249 @@
+package com.orientechnologies.orient.server.distributed;
+
+import com.orientechnologies.orient.client.binary.OBinaryRequestExecutor;
+import com.orientechnologies.orient.client.remote.OBinaryRequest;
+import com.orientechnologies.orient.client.remote.OBinaryResponse;
+import com.orientechnologies.orient.client.remote.OStorageRemoteSession;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.serialization.serializer.record.ORecordSerializer;
+import com.orientechnologies.orient.enterprise.channel.binary.OChannelBinaryProtocol;
+import com.orientechnologies.orient.enterprise.channel.binary.OChannelDataInput;
+import com.orientechnologies.orient.enterprise.channel.binary.OChannelDataOutput;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ORemoteServerChannelTest {
+  private static final int DISTRIBUTED_PROTOCOL_VERSION = 2;
+  private static final byte COMMAND = 100;
+
+  private FakeServer server;
+  private Object batchMaxSize;
+
+  private static class Check implements ORemoteServerAvailabilityCheck {
+    private final AtomicInteger disconnections = new AtomicInteger();
+
+    @Override
+    public boolean isNodeAvailable(String node) {
+      return true;
+    }
+
+    @Override
+    public void nodeDisconnected(String node) {
+      disconnections.incrementAndGet();
+    }
+  }
+
+  /**
+   * Accepts a single distributed connection, answers the handshake and records the numbers sent by
+   * the {@link NumberRequest}s written to it, till the channel is closed.
+   */
+  private static class FakeServer extends Thread {
+    private final ServerSocket serverSocket =
+        new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+    private final List<Integer> received = Collections.synchronizedList(new ArrayList<>());
+    private volatile Exception failure;
+
+    private FakeServer() throws IOException {
+      setDaemon(true);
+    }
+
+    private String getURL() {
+      return "127.0.0.1:" + serverSocket.getLocalPort();
+    }
+
+    @Override
+    public void run() {
+      try (Socket socket = serverSocket.accept();
+          DataInputStream in =
+              new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+          DataOutputStream out = new DataOutputStream(socket.getOutputStream())) {
+        out.writeShort(OChannelBinaryProtocol.CURRENT_PROTOCOL_VERSION);
+        out.flush();
+
+        // CONNECT REQUEST: HEADER, PROTOCOL VERSION, USER AND PASSWORD
+        readHeader(in);
+        in.readInt();
+        skipBytes(in);
+        skipBytes(in);
+
+        out.writeByte(OChannelBinaryProtocol.RESPONSE_STATUS_OK);
+        out.writeInt(1);
+        out.writeInt(0);
+        out.writeByte(OChannelBinaryProtocol.DISTRIBUTED_CONNECT);
+        out.writeInt(1);
+        out.writeInt(DISTRIBUTED_PROTOCOL_VERSION);
+        out.writeInt(0);
+        out.flush();
+
+        while (true) {
+          final byte command = readHeader(in);
+          if (command != COMMAND) {
+            throw new IOException("Unexpected command " + command);
+          }
+          received.add(in.readInt());
+        }
+      } catch (EOFException e) {
+        // CHANNEL IS CLOSED
+      } catch (Exception e) {
+        failure = e;
+      }
+    }
+
+    private static byte readHeader(DataInputStream in) throws IOException {
+      final byte command = in.readByte();
+      in.readInt();
+      skipBytes(in);
+      return command;
+    }
+
+    private static void skipBytes(DataInputStream in) throws IOException {
+      final int length = in.readInt();
+      if (length > 0) {
+        in.readFully(new byte[length]);
+      }
+    }
+
+    private List<Integer> awaitReceived() throws Exception {
+      join(10_000);
+      serverSocket.close();
+      Assert.assertFalse(isAlive());
+      if (failure != null) {
+        throw failure;
+      }
+      return received;
+    }
+  }
+
+  /** Request which writes a number, the first one written may block the writer of the channel. */
+  private static class NumberRequest implements OBinaryRequest<OBinaryResponse> {
+    private final int number;
+    private final CountDownLatch writing;
+    private final CountDownLatch release;
+
+    private NumberRequest(int number) {
+      this(number, null, null);
+    }
+
+    private NumberRequest(int number, CountDownLatch writing, CountDownLatch release) {
+      this.number = number;
+      this.writing = writing;
+      this.release = release;
+    }
+
+    @Override
+    public void write(OChannelDataOutput network, OStorageRemoteSession session)
+        throws IOException {
+      if (writing != null) {
+        writing.countDown();
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+      network.writeInt(number);
+    }
+
+    @Override
+    public void read(OChannelDataInput channel, int protocolVersion, ORecordSerializer serializer) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public byte getCommand() {
+      return COMMAND;
+    }
+
+    @Override
+    public OBinaryResponse createResponse() {
+      return null;
+    }
+
+    @Override
+    public OBinaryResponse execute(OBinaryRequestExecutor executor) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public String getDescription() {
+      return "Number " + number;
+    }
+  }
+
+  @Before
+  public void before() throws IOException {
+    batchMaxSize = OGlobalConfiguration.DISTRIBUTED_REQUEST_BATCH_MAX_SIZE.getValue();
+    OGlobalConfiguration.DISTRIBUTED_REQUEST_BATCH_MAX_SIZE.setValue(3);
+    server = new FakeServer();
+    server.start();
+  }
+
+  @After
+  public void after() throws IOException {
+    OGlobalConfiguration.DISTRIBUTED_REQUEST_BATCH_MAX_SIZE.setValue(batchMaxSize);
+    server.serverSocket.close();
+  }
+
+  private ORemoteServerChannel connect(Check check) throws IOException {
+    return new ORemoteServerChannel(
+        check,
+        "local",
+        "remote",
+        server.getURL(),
+        "user",
+        "password",
+        DISTRIBUTED_PROTOCOL_VERSION);
+  }
+
+  @Test
+  public void testQueuedRequestsAreWrittenInOrder() throws Exception {
+    Check check = new Check();
+    ORemoteServerChannel channel = connect(check);
+    Assert.assertEquals(DISTRIBUTED_PROTOCOL_VERSION, channel.getDistributedProtocolVersion());
+
+    // THE WRITER IS BLOCKED BY THE FIRST REQUEST, THE NEXT ONES ARE QUEUED AND WRITTEN IN BATCHES
+    CountDownLatch writing = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    channel.sendBinaryRequest(new NumberRequest(0, writing, release));
+    writing.await();
+    for (int i = 1; i < 8; i++) {
+      channel.sendBinaryRequest(new NumberRequest(i));
+    }
+    release.countDown();
+    channel.close();
+
+    List<Integer> expected = new ArrayList<>();
+    for (int i = 0; i < 8; i++) {
+      expected.add(i);
+    }
+    Assert.assertEquals(expected, server.awaitReceived());
+    Assert.assertEquals(0, check.disconnections.get());
+  }
+
+  @Test
+  public void testRequestsAfterCloseAreDiscarded() throws Exception {
+    Check check = new Check();
+    ORemoteServerChannel channel = connect(check);
+    channel.sendBinaryRequest(new NumberRequest(0));
+    channel.close();
+
+    channel.sendBinaryRequest(new NumberRequest(1));
+    Assert.assertEquals(Collections.singletonList(0), server.awaitReceived());
+    Assert.assertEquals(0, check.disconnections.get());
+  }
+}
@@ -24,6 +24,7 @@ import com.orientechnologies.orient.core.sql.executor.OResult;
 import com.orientechnologies.orient.core.sql.executor.OResultSet;
 import com.orientechnologies.orient.core.storage.ORecordDuplicatedException;
 import com.orientechnologies.orient.core.tx.OTransaction;
+import com.orientechnologies.orient.enterprise.channel.binary.OChannelBinaryProtocol;
 import com.orientechnologies.orient.server.OClientConnection;
 import com.orientechnologies.orient.server.OServer;
 import java.io.File;
@@ -65,6 +66,31 @@ public class RemoteTransactionSupportTest {
     uniqueClass.createProperty("name", OType.STRING).createIndex(OClass.INDEX_TYPE.UNIQUE);
   }
 
+  @Test
+  public void testTransactionWithCurrentProtocolVersion() {
+    for (OClientConnection conn : server.getClientConnectionManager().getConnections()) {
+      assertEquals(
+          OChannelBinaryProtocol.CURRENT_PROTOCOL_VERSION, conn.getData().protocolVersion);
+    }
+
+    database.begin();
+    ODocument doc = new ODocument("SomeTx");
+    doc.setProperty("name", "Joe");
+    database.save(doc);
+    database.commit();
+
+    database.begin();
+    ODocument doc1 = new ODocument("SomeTx");
+    doc1.setProperty("name", "Jane");
+    database.save(doc1);
+    database.rollback();
+
+    try (OResultSet result = database.query("select from SomeTx")) {
+      assertEquals("Joe", result.next().getProperty("name"));
+      assertFalse(result.hasNext());
+    }
+  }
+
   @Test
   public void testQueryUpdateUpdatedInTxTransaction() {
     ODocument doc = new ODocument("SomeTx");